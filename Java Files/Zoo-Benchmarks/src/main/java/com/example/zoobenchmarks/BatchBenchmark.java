@@ -0,0 +1,102 @@
+package com.example.zoobenchmarks;
+
+import com.example.zoostructure.Model.Animal;
+import com.example.zoostructure.Model.CompositeEnclosureCollection;
+import com.example.zoostructure.Model.Enclosure;
+import com.example.zoostructure.Model.ZooIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Many animal changes to one enclosure, made one call at a time and as a single
+ * batch. The enclosure hangs under a section with a {@link ZooIndex} attached, so
+ * the per-change cost of locking, summaries and listeners is part of the score.
+ * Every invocation starts from a fresh enclosure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchBenchmark {
+
+    /**
+     * About half the animals, since ages run from 0 to 19.
+     */
+    private static final Predicate<Animal> OLD = animal -> animal.getAge() >= 10;
+
+    @Param({"100", "10000"})
+    public int changes;
+
+    @Param({"OBJECTS", "COLUMNAR"})
+    public Enclosure.Storage storage;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+    private CompositeEnclosureCollection root;
+    private ZooIndex index;
+    private Enclosure empty;
+    private Enclosure full;
+    private List<Animal> newcomers;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        root = new CompositeEnclosureCollection("Zoo");
+        empty = new Enclosure("Empty", storage);
+        full = ZooTrees.enclosure("Full", changes, storage, random);
+        root.addCollection(empty);
+        root.addCollection(full);
+        index = ZooIndex.build(root);
+        newcomers = ZooTrees.animals(changes, random);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        index.close();
+    }
+
+    @Benchmark
+    public Enclosure addOneByOne() {
+        for (Animal animal : newcomers) {
+            empty.addAnimal(animal);
+        }
+        return empty;
+    }
+
+    @Benchmark
+    public int addAsBatch() {
+        return empty.addAnimals(newcomers);
+    }
+
+    @Benchmark
+    public int removeOneByOne() {
+        int removed = 0;
+        for (Animal animal : full.getAnimals()) {
+            if (OLD.test(animal) && full.removeAnimal(animal)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    @Benchmark
+    public int removeAsBatch() {
+        return full.removeAnimalsIf(OLD);
+    }
+}
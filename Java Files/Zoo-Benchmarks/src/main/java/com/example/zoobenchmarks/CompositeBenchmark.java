@@ -0,0 +1,102 @@
+package com.example.zoobenchmarks;
+
+import com.example.zoostructure.Model.CompositeEnclosureCollection;
+import com.example.zoostructure.Model.Enclosure;
+import com.example.zoostructure.Model.EnclosureCollection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tree operations on synthetic zoos of varying width, depth and enclosure size:
+ * moving subtrees in and out, and counting animals by walking the tree versus
+ * reading the maintained summary.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompositeBenchmark {
+
+    @Param({"4", "16"})
+    public int width;
+
+    @Param({"2", "4"})
+    public int depth;
+
+    @Param({"10", "1000"})
+    public int animals;
+
+    private CompositeEnclosureCollection root;
+
+    /**
+     * The deepest section on the first branch, where subtrees are attached.
+     */
+    private CompositeEnclosureCollection deepest;
+
+    private Enclosure spareEnclosure;
+    private CompositeEnclosureCollection spareSection;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        root = ZooTrees.tree(width, depth, animals, Enclosure.Storage.OBJECTS, 42);
+        deepest = root;
+        while (deepest.getCollections().getFirst() instanceof CompositeEnclosureCollection child) {
+            deepest = child;
+        }
+        SplittableRandom random = new SplittableRandom(7);
+        spareEnclosure = ZooTrees.enclosure("Spare", animals, Enclosure.Storage.OBJECTS, random);
+        spareSection = ZooTrees.tree(width, 1, animals, Enclosure.Storage.OBJECTS, 7);
+    }
+
+    /**
+     * Attaches an enclosure at the bottom of the tree and detaches it again, which
+     * pushes its summary through every ancestor twice.
+     */
+    @Benchmark
+    public EnclosureCollection addRemoveEnclosure() {
+        deepest.addCollection(spareEnclosure);
+        deepest.removeCollection(spareEnclosure);
+        return spareEnclosure;
+    }
+
+    /**
+     * Attaches a whole section under the root and detaches it again.
+     */
+    @Benchmark
+    public EnclosureCollection addRemoveSection() {
+        root.addCollection(spareSection);
+        root.removeCollection(spareSection);
+        return spareSection;
+    }
+
+    /**
+     * Counts every animal by recursing through the tree.
+     */
+    @Benchmark
+    public long countByTraversal() {
+        return ZooTrees.countRecursively(root);
+    }
+
+    /**
+     * Counts every animal from the root's summary.
+     */
+    @Benchmark
+    public long countBySummary() {
+        return root.getSummary().getAnimalCount();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.zoobenchmarks;
+
+import com.example.zoostructure.Model.Animal;
+import com.example.zoostructure.Model.CompositeEnclosureCollection;
+import com.example.zoostructure.Model.Enclosure;
+import com.example.zoostructure.Model.EnclosureCollection;
+import com.example.zoostructure.Model.Tiger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Animal writers running in parallel under one shared section. Each thread works
+ * on its own enclosure, so the only contention is on the shared tree lock and the
+ * ancestors' summaries. Compare the scores across {@code -t 1}, {@code -t 2},
+ * {@code -t 4} and so on to see how writes scale; the default is one thread per core.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+public class ConcurrentWriteBenchmark {
+
+    /**
+     * The section every thread's enclosure hangs under.
+     */
+    @State(Scope.Benchmark)
+    public static class SharedTree {
+        final CompositeEnclosureCollection root = new CompositeEnclosureCollection("Zoo");
+        final CompositeEnclosureCollection section = new CompositeEnclosureCollection("Section");
+        final AtomicInteger enclosures = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            root.addCollection(section);
+        }
+    }
+
+    /**
+     * One enclosure per thread, holding an animal the thread re-ages and moves.
+     */
+    @State(Scope.Thread)
+    public static class Writer {
+        Enclosure enclosure;
+        Animal animal;
+        int age;
+
+        @Setup(Level.Trial)
+        public void setUp(SharedTree pTree) {
+            enclosure = new Enclosure("Enclosure " + pTree.enclosures.incrementAndGet());
+            animal = new Tiger("Tiger", 1);
+            enclosure.addAnimal(animal);
+            pTree.section.addCollection(enclosure);
+        }
+    }
+
+    @Benchmark
+    public Animal addThenRemove(Writer pWriter) {
+        Animal animal = new Tiger("Cub", 0);
+        pWriter.enclosure.addAnimal(animal);
+        pWriter.enclosure.removeAnimal(animal);
+        return animal;
+    }
+
+    @Benchmark
+    public Animal changeAge(Writer pWriter) {
+        pWriter.animal.setAge(pWriter.age++ % 20);
+        return pWriter.animal;
+    }
+
+    /**
+     * Readers alongside the writers: every thread reads the shared section's children
+     * and summary, which must stay lock-free.
+     */
+    @Benchmark
+    public long readSummary(SharedTree pTree) {
+        List<EnclosureCollection> children = pTree.section.getCollections();
+        return children.size() + pTree.root.getSummary().getAnimalCount();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.zoobenchmarks;
+
+import com.example.zoostructure.Model.Animal;
+import com.example.zoostructure.Model.Enclosure;
+import com.example.zoostructure.Model.Lion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-enclosure operations: adding and removing animals, name lookups and
+ * reading the animal list, for both storage modes and several enclosure sizes.
+ * Each write benchmark undoes its own change so the enclosure size stays fixed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnclosureBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int animals;
+
+    @Param({"OBJECTS", "COLUMNAR"})
+    public Enclosure.Storage storage;
+
+    private Enclosure enclosure;
+    private List<Animal> existing;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        enclosure = ZooTrees.enclosure("Bench", animals, storage, new SplittableRandom(42));
+        existing = enclosure.getAnimals();
+    }
+
+    /**
+     * Adds a new animal and removes it again.
+     */
+    @Benchmark
+    public boolean addThenRemove() {
+        Animal animal = new Lion("Visitor", 3);
+        enclosure.addAnimal(animal);
+        return enclosure.removeAnimal(animal);
+    }
+
+    /**
+     * Removes an existing animal and puts it back, which moves it to the end.
+     */
+    @Benchmark
+    public Animal removeThenAdd() {
+        int index = next++ % existing.size();
+        Animal animal = existing.get(index);
+        enclosure.removeAnimal(animal);
+        enclosure.addAnimal(animal);
+        return animal;
+    }
+
+    /**
+     * Adds two animals sharing a name and removes both by name.
+     */
+    @Benchmark
+    public boolean removeByName() {
+        enclosure.addAnimal(new Lion("Twin", 1));
+        enclosure.addAnimal(new Lion("twin", 2));
+        return enclosure.removeAnimal("TWIN");
+    }
+
+    @Benchmark
+    public Animal findAnimal() {
+        return enclosure.findAnimal("Animal " + (next++ % animals));
+    }
+
+    /**
+     * Reads the animal list of an unchanged enclosure, which returns the cached snapshot.
+     */
+    @Benchmark
+    public List<Animal> getAnimalsCached() {
+        return enclosure.getAnimals();
+    }
+
+    /**
+     * Reads the animal list after a change, which rebuilds the snapshot.
+     */
+    @Benchmark
+    public void getAnimalsAfterChange(Blackhole pBlackhole) {
+        Animal animal = new Lion("Visitor", 3);
+        enclosure.addAnimal(animal);
+        pBlackhole.consume(enclosure.getAnimals());
+        enclosure.removeAnimal(animal);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.zoobenchmarks;
+
+import com.example.zoostructure.Model.Animal;
+import com.example.zoostructure.Model.AnimalRegistry;
+import com.example.zoostructure.Model.CompositeEnclosureCollection;
+import com.example.zoostructure.Model.Enclosure;
+import com.example.zoostructure.Model.EnclosureCollection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looking animals up by ID in an {@link AnimalRegistry}, against a
+ * {@code HashMap<Long, Animal>} holding the same animals. Each call looks up one
+ * of the zoo's IDs at random, so most lookups miss the cache at large sizes. Run
+ * with {@code -prof gc} to compare allocation per lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegistryBenchmark {
+
+    /**
+     * The number of animals per enclosure; 10 enclosures give 10,000 animals and
+     * 1,000 give a million.
+     */
+    private static final int ANIMALS = 1_000;
+
+    @Param({"10", "1000"})
+    public int enclosures;
+
+    private CompositeEnclosureCollection root;
+    private AnimalRegistry registry;
+    private final Map<Long, Animal> boxed = new HashMap<>();
+    private long[] ids;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup
+    public void setUp() {
+        root = ZooTrees.tree(enclosures, 1, ANIMALS, Enclosure.Storage.OBJECTS, 42);
+        registry = AnimalRegistry.build(root);
+        ids = new long[registry.size()];
+        int i = 0;
+        for (EnclosureCollection child : root.getCollections()) {
+            for (Animal animal : ((Enclosure) child).getAnimals()) {
+                ids[i++] = animal.getId();
+                boxed.put(animal.getId(), animal);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        registry.close();
+    }
+
+    @Benchmark
+    public Animal registryFind() {
+        return registry.find(ids[random.nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    public Enclosure registryEnclosureOf() {
+        return registry.enclosureOf(ids[random.nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    public Animal hashMapGet() {
+        return boxed.get(ids[random.nextInt(ids.length)]);
+    }
+}
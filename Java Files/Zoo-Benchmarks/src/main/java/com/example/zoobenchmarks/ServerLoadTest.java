@@ -0,0 +1,205 @@
+package com.example.zoobenchmarks;
+
+import com.example.zoostructure.Metrics.ZooMetrics;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A load-test driver for the headless server started with {@code -Dzoo.server.port}.
+ * Not a JMH benchmark: it runs many concurrent clients against a live server, each
+ * on its own virtual thread, sending requests back to back over kept-alive
+ * connections for a fixed time, and reports throughput and latency percentiles.
+ * <p>
+ * The mix is mostly reads (summaries, section listings, name searches and small
+ * animal listings), plus about one request in ten that adds an animal and then
+ * removes it again, so the zoo ends where it started.
+ * </p>
+ * <pre>
+ * # the server, from Zoo-Structure, with the JavaFX jars on the module path as usual
+ * java -Dzoo.server.port=8080 -p target/classes:$JAVAFX -m com.example.zoostructure/com.example.zoostructure.Launcher
+ * # the driver, from Zoo-Benchmarks
+ * java -cp target/benchmarks.jar com.example.zoobenchmarks.ServerLoadTest 2000 30 http://localhost:8080/
+ * </pre>
+ * Arguments are the number of clients (default 1000), the duration in seconds
+ * (default 30) and the server URL (default {@code http://localhost:8080/}). A few
+ * thousand clients need as many file descriptors on both sides; raise
+ * {@code ulimit -n} if connections fail.
+ */
+public final class ServerLoadTest {
+
+    /**
+     * The path and type members of each object in a {@code /collections} response.
+     */
+    private static final Pattern CHILD = Pattern.compile(
+            "\"path\":\"((?:[^\"\\\\]|\\\\.)*)\",\"type\":\"(section|enclosure)\"");
+
+    /**
+     * How many collections to discover before the run. Enough to spread the load
+     * over many enclosure locks without a long warm-up.
+     */
+    private static final int MAX_COLLECTIONS = 500;
+
+    private final HttpClient aClient;
+    private final URI aBase;
+    private final List<String> aSections = new ArrayList<>();
+    private final List<String> aEnclosures = new ArrayList<>();
+    private final ZooMetrics.Timer aLatency = ZooMetrics.timer("loadtest.request");
+    private final LongAdder aErrors = new LongAdder();
+
+    private ServerLoadTest(HttpClient pClient, URI pBase) {
+        this.aClient = pClient;
+        this.aBase = pBase;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        URI base = URI.create(args.length > 2 ? args[2] : "http://localhost:8080/");
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .executor(executor)
+                    .build();
+            ServerLoadTest test = new ServerLoadTest(client, base);
+            test.discover();
+            System.out.printf(Locale.ROOT, "%d sections and %d enclosures; %d clients for %d s%n",
+                    test.aSections.size(), test.aEnclosures.size(), clients, seconds);
+
+            long end = System.nanoTime() + seconds * 1_000_000_000L;
+            List<Runnable> workers = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                int id = i;
+                workers.add(() -> test.run(id, end));
+            }
+            long start = System.nanoTime();
+            try (ExecutorService runners = Executors.newVirtualThreadPerTaskExecutor()) {
+                workers.forEach(runners::execute);
+            }
+            test.report((System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    /**
+     * Walks the sections breadth first to find collections to query.
+     */
+    private void discover() throws IOException, InterruptedException {
+        Deque<String> pending = new ArrayDeque<>();
+        pending.add("");
+        aSections.add("");
+        while (!pending.isEmpty() && aSections.size() + aEnclosures.size() < MAX_COLLECTIONS) {
+            String body = send(get("collections", "path", pending.poll()));
+            Matcher matcher = CHILD.matcher(body);
+            while (matcher.find()) {
+                String path = matcher.group(1).replace("\\\"", "\"").replace("\\\\", "\\");
+                if (matcher.group(2).equals("section")) {
+                    aSections.add(path);
+                    pending.add(path);
+                } else {
+                    aEnclosures.add(path);
+                }
+            }
+        }
+        if (aEnclosures.isEmpty()) {
+            throw new IllegalStateException("The server has no enclosures to test against.");
+        }
+    }
+
+    /**
+     * One client: sends requests back to back until the end time.
+     */
+    private void run(int pClient, long pEnd) {
+        SplittableRandom random = new SplittableRandom(pClient);
+        long sequence = 0;
+        while (System.nanoTime() < pEnd) {
+            int pick = random.nextInt(100);
+            try {
+                if (pick < 40) {
+                    timed(get("summary", "path", pick(aEnclosures, random)));
+                } else if (pick < 60) {
+                    timed(get("collections", "path", pick(aSections, random)));
+                } else if (pick < 80) {
+                    String prefix = "" + (char) ('a' + random.nextInt(26)) + (char) ('a' + random.nextInt(26));
+                    timed(get("search", "q", prefix));
+                } else if (pick < 90) {
+                    timed(get("animals", "path", pick(aEnclosures, random)));
+                } else {
+                    String path = pick(aEnclosures, random);
+                    String name = "Load " + pClient + "-" + sequence++;
+                    String row = "{\"path\":\"" + path.replace("\\", "\\\\").replace("\"", "\\\"")
+                            + "\",\"species\":\"Lion\",\"name\":\"" + name + "\",\"age\":1}\n";
+                    timed(HttpRequest.newBuilder(aBase.resolve("animals"))
+                            .POST(HttpRequest.BodyPublishers.ofString(row)).build());
+                    timed(HttpRequest.newBuilder(URI.create(uri("animals", "path", path) + "&name=" + encode(name)))
+                            .DELETE().build());
+                }
+            } catch (IOException e) {
+                aErrors.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void timed(HttpRequest pRequest) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<Void> response = aClient.send(pRequest, HttpResponse.BodyHandlers.discarding());
+        aLatency.recordSince(start);
+        if (response.statusCode() != 200) {
+            aErrors.increment();
+        }
+    }
+
+    private String send(HttpRequest pRequest) throws IOException, InterruptedException {
+        HttpResponse<String> response = aClient.send(pRequest, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException(pRequest.uri() + " answered " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private HttpRequest get(String pEndpoint, String pParameter, String pValue) {
+        return HttpRequest.newBuilder(uri(pEndpoint, pParameter, pValue)).GET().build();
+    }
+
+    private URI uri(String pEndpoint, String pParameter, String pValue) {
+        return aBase.resolve(pEndpoint + "?" + pParameter + "=" + encode(pValue));
+    }
+
+    private static String encode(String pValue) {
+        return URLEncoder.encode(pValue, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private static String pick(List<String> pPaths, SplittableRandom pRandom) {
+        return pPaths.get(pRandom.nextInt(pPaths.size()));
+    }
+
+    private void report(double pSeconds) {
+        long requests = aLatency.count();
+        System.out.printf(Locale.ROOT, "%d requests in %.1f s: %.0f req/s, %d errors%n",
+                requests, pSeconds, requests / pSeconds, aErrors.sum());
+        System.out.printf(Locale.ROOT, "latency mean %.2f ms, p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n",
+                aLatency.mean() / 1e6, aLatency.percentile(0.5) / 1e6, aLatency.percentile(0.9) / 1e6,
+                aLatency.percentile(0.99) / 1e6, aLatency.percentile(0.999) / 1e6, aLatency.max() / 1e6);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.zoobenchmarks;
+
+import com.example.zoostructure.Model.Animal;
+import com.example.zoostructure.Model.CompositeEnclosureCollection;
+import com.example.zoostructure.Model.Enclosure;
+import com.example.zoostructure.Model.EnclosureCollection;
+import com.example.zoostructure.Model.Species;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Builds synthetic zoo trees for the benchmarks. The same seed always gives the
+ * same tree, so runs can be compared.
+ */
+final class ZooTrees {
+
+    private static final Species[] SPECIES = {Species.LION, Species.TIGER, Species.COUGAR};
+
+    private ZooTrees() {
+    }
+
+    /**
+     * Builds a tree of sections {@code pDepth} levels deep, where every section has
+     * {@code pWidth} children and the bottom level is enclosures.
+     *
+     * @param pWidth      the number of children per section
+     * @param pDepth      the number of section levels above the enclosures
+     * @param pAnimals    the number of animals per enclosure
+     * @param pStorage    how the enclosures hold their animals
+     * @param pSeed       the random seed for names, ages and species
+     * @return the root section
+     */
+    static CompositeEnclosureCollection tree(int pWidth, int pDepth, int pAnimals, Enclosure.Storage pStorage, long pSeed) {
+        SplittableRandom random = new SplittableRandom(pSeed);
+        CompositeEnclosureCollection root = new CompositeEnclosureCollection("Zoo");
+        fill(root, "Zoo", pWidth, pDepth, pAnimals, pStorage, random);
+        return root;
+    }
+
+    private static void fill(CompositeEnclosureCollection pSection, String pPath, int pWidth, int pDepth,
+                             int pAnimals, Enclosure.Storage pStorage, SplittableRandom pRandom) {
+        for (int i = 0; i < pWidth; i++) {
+            String name = pPath + "/" + i;
+            if (pDepth <= 1) {
+                pSection.addCollection(enclosure(name, pAnimals, pStorage, pRandom));
+            } else {
+                CompositeEnclosureCollection child = new CompositeEnclosureCollection(name);
+                fill(child, name, pWidth, pDepth - 1, pAnimals, pStorage, pRandom);
+                pSection.addCollection(child);
+            }
+        }
+    }
+
+    /**
+     * Builds one enclosure of random animals.
+     *
+     * @param pName    the enclosure name
+     * @param pAnimals the number of animals
+     * @param pStorage how the enclosure holds its animals
+     * @param pRandom  the source of names, ages and species
+     * @return the filled enclosure
+     */
+    static Enclosure enclosure(String pName, int pAnimals, Enclosure.Storage pStorage, SplittableRandom pRandom) {
+        Enclosure enclosure = new Enclosure(pName, pStorage);
+        for (Animal animal : animals(pAnimals, pRandom)) {
+            enclosure.addAnimal(animal);
+        }
+        return enclosure;
+    }
+
+    /**
+     * Creates animals that do not belong to any enclosure. About one name in four
+     * is shared with another animal, so name lookups meet duplicates.
+     *
+     * @param pCount  the number of animals
+     * @param pRandom the source of names, ages and species
+     * @return the new animals
+     */
+    static List<Animal> animals(int pCount, SplittableRandom pRandom) {
+        List<Animal> animals = new ArrayList<>(pCount);
+        int names = Math.max(1, pCount - pCount / 4);
+        for (int i = 0; i < pCount; i++) {
+            Species species = SPECIES[pRandom.nextInt(SPECIES.length)];
+            animals.add(species.newAnimal("Animal " + pRandom.nextInt(names), pRandom.nextInt(0, 25)));
+        }
+        return animals;
+    }
+
+    /**
+     * Counts animals the way a caller without summaries would: by walking every
+     * section and reading every enclosure's animal list.
+     *
+     * @param pCollection the subtree to walk
+     * @return the number of animals in it
+     */
+    static long countRecursively(EnclosureCollection pCollection) {
+        if (pCollection instanceof Enclosure enclosure) {
+            return enclosure.getAnimals().size();
+        }
+        long count = 0;
+        for (EnclosureCollection child : ((CompositeEnclosureCollection) pCollection).getCollections()) {
+            count += countRecursively(child);
+        }
+        return count;
+    }
+}
@@ -52,16 +52,16 @@ public class AnimalViewController {
                 this.aAnimal.setName(animalName);
                 this.aAnimal.setAge(animalAge);
             }
-        } catch (IllegalArgumentException exception) {
+            if (this.isNew) {
+                this.aEnclosure.addAnimal(this.aAnimal);
+            }
+        } catch (IllegalArgumentException | IllegalStateException exception) {
+            // IllegalStateException: the zoo is still loading or is read-only.
             Alert alert = new Alert(Alert.AlertType.WARNING, exception.getMessage());
             alert.showAndWait();
             return;
         }
 
-        if (this.isNew) {
-            this.aEnclosure.addAnimal(this.aAnimal);
-        }
-
         this.onBackButtonClick();
     }
 
@@ -82,6 +82,19 @@ public class AnimalViewController {
         currentStage.setTitle("Edit Animal: " + pAnimal.getName());
     }
 
+    /**
+     * Clears the form so a pooled view can be used for another animal.
+     */
+    public void reset() {
+        this.aAnimal = null;
+        this.isNew = true;
+        this.aEnclosure = null;
+        this.aTypeChoiceBox.getSelectionModel().clearSelection();
+        this.aTypeChoiceBox.setDisable(false);
+        this.aNameTextField.clear();
+        this.aAgeSpinner.getValueFactory().setValue(1.0);
+    }
+
     public void setEnclosure(Enclosure pEnclosure) {
         this.aEnclosure = pEnclosure;
     }
@@ -0,0 +1,280 @@
+package com.example.zoostructure.Controllers;
+
+import com.example.zoostructure.Model.EnclosureCollection;
+import javafx.beans.value.ObservableBooleanValue;
+import javafx.geometry.Orientation;
+import javafx.geometry.VPos;
+import javafx.scene.Cursor;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontPosture;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Draws the cards of a section on a single {@link Canvas} instead of building a
+ * node per card. Each frame paints only the rows in view, with colours and fonts
+ * shared by every card and no effects or CSS, so frame time depends on the window
+ * size and not on the number of enclosures. Clicks are hit-tested against the card
+ * geometry.
+ * <p>
+ * The layout matches the node-based grid: rows of {@value #CARDS_PER_ROW} cards,
+ * {@value #ROW_HEIGHT} pixels high, each card with its name and a View button.
+ * </p>
+ */
+final class CardCanvas extends Region {
+
+    private static final int CARDS_PER_ROW = 3;
+    private static final double ROW_HEIGHT = 150;
+    private static final double ROW_PADDING = 10;
+    private static final double CARD_SPACING = 15;
+    private static final double CARD_WIDTH = 240;
+    private static final double CARD_HEIGHT = 120;
+    private static final double CARD_RADIUS = 20;
+    private static final double BUTTON_WIDTH = 64;
+    private static final double BUTTON_HEIGHT = 28;
+    private static final double BUTTON_TOP = 50;
+    private static final double ROW_WIDTH = CARDS_PER_ROW * CARD_WIDTH + (CARDS_PER_ROW - 1) * CARD_SPACING;
+
+    private static final Color CARD_FILL = Color.web("#F5F5F5");
+    private static final Color CARD_BORDER = Color.GRAY;
+    private static final Color CARD_SHADOW = Color.gray(0.3, 0.35);
+    private static final Color BUTTON_FILL = Color.web("#dddddd");
+    private static final Color BUTTON_HOVER_FILL = Color.web("#c8c8c8");
+    private static final Color BUTTON_BORDER = Color.web("#444");
+    private static final Color TEXT = Color.web("#222");
+    private static final Color DISABLED_TEXT = Color.web("#999");
+    private static final Font NAME_FONT = Font.font("System", FontWeight.BOLD, 14);
+    private static final Font BUTTON_FONT = Font.font("System", FontWeight.BOLD, 12);
+    private static final Font MESSAGE_FONT = Font.font("System", FontPosture.ITALIC, 13);
+
+    private final Canvas canvas = new Canvas();
+    private final ScrollBar scrollBar = new ScrollBar();
+    private final Consumer<EnclosureCollection> onOpen;
+    private final ObservableBooleanValue disabled;
+
+    private List<EnclosureCollection> items = List.of();
+    private String message;
+    private int hoveredIndex = -1;
+    private boolean dirty = true;
+
+    /**
+     * Creates an empty canvas.
+     *
+     * @param pOnOpen   called with the collection whose View button was clicked
+     * @param pDisabled while true, the View buttons are greyed out and ignore clicks
+     */
+    CardCanvas(Consumer<EnclosureCollection> pOnOpen, ObservableBooleanValue pDisabled) {
+        this.onOpen = pOnOpen;
+        this.disabled = pDisabled;
+        scrollBar.setOrientation(Orientation.VERTICAL);
+        scrollBar.setMin(0);
+        scrollBar.valueProperty().addListener((observable, oldValue, newValue) -> redraw());
+        pDisabled.addListener((observable, oldValue, newValue) -> redraw());
+        getChildren().addAll(canvas, scrollBar);
+
+        canvas.setOnScroll(this::onScroll);
+        canvas.setOnMouseMoved(this::onMouseMoved);
+        canvas.setOnMouseExited(e -> setHovered(-1));
+        canvas.setOnMouseClicked(this::onMouseClicked);
+    }
+
+    /**
+     * Shows a new list of collections.
+     *
+     * @param pItems   the collections, in display order
+     * @param pToStart whether to scroll back to the first row
+     */
+    void setItems(List<EnclosureCollection> pItems, boolean pToStart) {
+        items = pItems;
+        hoveredIndex = -1;
+        if (pToStart) {
+            scrollBar.setValue(0);
+        }
+        updateScrollRange();
+        redraw();
+    }
+
+    /**
+     * Sets the text drawn when there are no cards.
+     *
+     * @param pMessage the text, or {@code null} for none
+     */
+    void setMessage(String pMessage) {
+        message = pMessage;
+        redraw();
+    }
+
+    /**
+     * Schedules a repaint for the next layout pass, so several changes in one pulse paint once.
+     */
+    private void redraw() {
+        dirty = true;
+        requestLayout();
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double barWidth = scrollBar.prefWidth(-1);
+        double width = Math.max(0, getWidth() - barWidth);
+        double height = getHeight();
+        scrollBar.resizeRelocate(width, 0, barWidth, height);
+        if (canvas.getWidth() != width || canvas.getHeight() != height) {
+            canvas.setWidth(width);
+            canvas.setHeight(height);
+            updateScrollRange();
+            dirty = true;
+        }
+        if (dirty) {
+            dirty = false;
+            paint();
+        }
+    }
+
+    private void updateScrollRange() {
+        double contentHeight = rows() * ROW_HEIGHT;
+        double max = Math.max(0, contentHeight - canvas.getHeight());
+        scrollBar.setMax(max);
+        scrollBar.setVisibleAmount(contentHeight == 0 ? 1 : canvas.getHeight() * max / contentHeight);
+        scrollBar.setUnitIncrement(ROW_HEIGHT / 3);
+        scrollBar.setBlockIncrement(Math.max(ROW_HEIGHT, canvas.getHeight() - ROW_HEIGHT));
+        if (scrollBar.getValue() > max) {
+            scrollBar.setValue(max);
+        }
+    }
+
+    private int rows() {
+        return (items.size() + CARDS_PER_ROW - 1) / CARDS_PER_ROW;
+    }
+
+    private double rowLeft() {
+        return Math.max(ROW_PADDING, (canvas.getWidth() - ROW_WIDTH) / 2);
+    }
+
+    private void paint() {
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        g.clearRect(0, 0, width, height);
+        if (items.isEmpty()) {
+            if (message != null) {
+                g.setFill(TEXT);
+                g.setFont(MESSAGE_FONT);
+                g.setTextAlign(TextAlignment.CENTER);
+                g.setTextBaseline(VPos.CENTER);
+                g.fillText(message, width / 2, height / 2);
+            }
+            return;
+        }
+
+        double offset = scrollBar.getValue();
+        int firstRow = (int) (offset / ROW_HEIGHT);
+        int lastRow = Math.min(rows() - 1, (int) ((offset + height) / ROW_HEIGHT));
+        double left = rowLeft();
+        boolean buttonsDisabled = disabled.get();
+        g.setTextAlign(TextAlignment.CENTER);
+        g.setTextBaseline(VPos.CENTER);
+        g.setLineWidth(2);
+        for (int row = firstRow; row <= lastRow; row++) {
+            double top = row * ROW_HEIGHT - offset + ROW_PADDING;
+            for (int column = 0; column < CARDS_PER_ROW; column++) {
+                int index = row * CARDS_PER_ROW + column;
+                if (index >= items.size()) {
+                    break;
+                }
+                double x = left + column * (CARD_WIDTH + CARD_SPACING);
+                paintCard(g, x, top, items.get(index).getName(), index == hoveredIndex, buttonsDisabled);
+            }
+        }
+    }
+
+    private static void paintCard(GraphicsContext g, double pX, double pY, String pName,
+                                  boolean pHovered, boolean pDisabled) {
+        g.setFill(CARD_SHADOW);
+        g.fillRoundRect(pX + 2, pY + 3, CARD_WIDTH, CARD_HEIGHT, CARD_RADIUS, CARD_RADIUS);
+        g.setFill(CARD_FILL);
+        g.fillRoundRect(pX, pY, CARD_WIDTH, CARD_HEIGHT, CARD_RADIUS, CARD_RADIUS);
+        g.setStroke(CARD_BORDER);
+        g.strokeRoundRect(pX + 1, pY + 1, CARD_WIDTH - 2, CARD_HEIGHT - 2, CARD_RADIUS, CARD_RADIUS);
+
+        g.setFill(TEXT);
+        g.setFont(NAME_FONT);
+        g.fillText(pName, pX + CARD_WIDTH / 2, pY + 24, CARD_WIDTH - 24);
+
+        double buttonX = pX + (CARD_WIDTH - BUTTON_WIDTH) / 2;
+        double buttonY = pY + BUTTON_TOP;
+        g.setFill(pHovered && !pDisabled ? BUTTON_HOVER_FILL : BUTTON_FILL);
+        g.fillRoundRect(buttonX, buttonY, BUTTON_WIDTH, BUTTON_HEIGHT, 12, 12);
+        g.setStroke(BUTTON_BORDER);
+        g.setLineWidth(1);
+        g.strokeRoundRect(buttonX + 0.5, buttonY + 0.5, BUTTON_WIDTH - 1, BUTTON_HEIGHT - 1, 12, 12);
+        g.setLineWidth(2);
+        g.setFill(pDisabled ? DISABLED_TEXT : TEXT);
+        g.setFont(BUTTON_FONT);
+        g.fillText("View", pX + CARD_WIDTH / 2, buttonY + BUTTON_HEIGHT / 2);
+    }
+
+    /**
+     * Finds the card whose View button is under a point of the canvas.
+     *
+     * @return the index of the card, or -1 if the point is not on a button
+     */
+    private int buttonAt(double pX, double pY) {
+        double contentY = pY + scrollBar.getValue();
+        int row = (int) (contentY / ROW_HEIGHT);
+        double inRowY = contentY - row * ROW_HEIGHT - ROW_PADDING - BUTTON_TOP;
+        if (row < 0 || inRowY < 0 || inRowY >= BUTTON_HEIGHT) {
+            return -1;
+        }
+        double inRowX = pX - rowLeft();
+        int column = (int) Math.floor(inRowX / (CARD_WIDTH + CARD_SPACING));
+        if (column < 0 || column >= CARDS_PER_ROW) {
+            return -1;
+        }
+        double inCardX = inRowX - column * (CARD_WIDTH + CARD_SPACING) - (CARD_WIDTH - BUTTON_WIDTH) / 2;
+        if (inCardX < 0 || inCardX >= BUTTON_WIDTH) {
+            return -1;
+        }
+        int index = row * CARDS_PER_ROW + column;
+        return index < items.size() ? index : -1;
+    }
+
+    private void setHovered(int pIndex) {
+        if (pIndex != hoveredIndex) {
+            hoveredIndex = pIndex;
+            canvas.setCursor(pIndex >= 0 && !disabled.get() ? Cursor.HAND : Cursor.DEFAULT);
+            redraw();
+        }
+    }
+
+    private void onMouseMoved(MouseEvent pEvent) {
+        setHovered(buttonAt(pEvent.getX(), pEvent.getY()));
+    }
+
+    private void onMouseClicked(MouseEvent pEvent) {
+        if (pEvent.getButton() != MouseButton.PRIMARY || disabled.get()) {
+            return;
+        }
+        int index = buttonAt(pEvent.getX(), pEvent.getY());
+        if (index >= 0) {
+            onOpen.accept(items.get(index));
+        }
+    }
+
+    private void onScroll(ScrollEvent pEvent) {
+        double value = scrollBar.getValue() - pEvent.getDeltaY();
+        scrollBar.setValue(Math.max(0, Math.min(scrollBar.getMax(), value)));
+        setHovered(buttonAt(pEvent.getX(), pEvent.getY()));
+        pEvent.consume();
+    }
+}
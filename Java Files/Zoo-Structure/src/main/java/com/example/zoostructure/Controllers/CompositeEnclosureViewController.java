@@ -1,19 +1,31 @@
 package com.example.zoostructure.Controllers;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
 
-import com.example.zoostructure.Helpers.ImportHelper;
+import com.example.zoostructure.Metrics.ZooMetrics;
+import com.example.zoostructure.Model.Animal;
 import com.example.zoostructure.Model.CompositeEnclosureCollection;
 import com.example.zoostructure.Model.Enclosure;
 import com.example.zoostructure.Model.EnclosureCollection;
+import com.example.zoostructure.Model.ZooNameSearch;
+import javafx.application.Platform;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.collections.ObservableListBase;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.geometry.HPos;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.geometry.VPos;
-import javafx.scene.Parent;
+import javafx.geometry.Side;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.effect.DropShadow;
@@ -27,29 +39,153 @@ import javafx.stage.Stage;
  * This controller is responsible for displaying a grid layout of composite enclosure
  * cards and individual enclosure cards, providing functionalities to interact with the
  * enclosures and manage the UI layout dynamically based on input data.
+ * <p>
+ * The grid is virtualized: it is a {@link ListView} whose items are row numbers,
+ * and each visible cell owns one row of cards that is rebound as the user scrolls.
+ * Only the rows on screen have cards, however many children the section has.
+ * </p>
+ * <p>
+ * The top-level view can load its zoo in the background with
+ * {@link #loadCompositeCollection(Loader)}: the window shows at once, and cards
+ * appear as the sections arrive, with a progress bar and a cancel button in the header.
+ * That view also gets a search box: typing lists the animals, enclosures and sections
+ * whose names start with the text, and choosing one opens it directly.
+ * </p>
+ * <p>
+ * With the {@value #RENDER_MODE_PROPERTY} system property set to {@code canvas}, the
+ * list is replaced by a {@link CardCanvas} that draws every card on one canvas. It
+ * avoids a scene-graph node, effect and inline style per card, which keeps scrolling
+ * smooth through tens of thousands of enclosures.
+ * </p>
  */
-public class CompositeEnclosureViewController {
+public class CompositeEnclosureViewController implements ViewCache.Disposable {
 
     /**
-     * Represents the main GridPane layout where the composite enclosure cards
+     * Represents the main list where the rows of composite enclosure cards
      * and individual animal enclosure cards are displayed.
-     * It serves as a visual container to organize the displayed content in
-     * a grid-based layout for the CompositeEnclosureViewController.
+     * Each item is a row number; the cells turn it into a row of cards.
      * <p>
      * This variable is injected via FXML and is expected to be linked with the
      * corresponding UI component in the FXML file.
      */
     @FXML
-    private GridPane compositeEnclosureGridPane;
+    private ListView<Integer> compositeEnclosureListView;
     /**
-     * Keeps track of the number of cards added to the grid pane.
+     * Shows how much of the zoo has been loaded. Hidden when nothing is loading.
      */
-    private int cardCount = 0;
+    @FXML
+    private ProgressBar loadingProgress;
+    /**
+     * Stops a load in progress. Hidden when nothing is loading.
+     */
+    @FXML
+    private Button cancelLoadingButton;
+    /**
+     * Searches the zoo by name as the user types. Only shown in the top-level view.
+     */
+    @FXML
+    private TextField searchField;
+    /**
+     * The most search results listed under {@link #searchField}.
+     */
+    private static final int SEARCH_LIMIT = 10;
+    private static final ZooMetrics.Timer SEARCH_TIMER = ZooMetrics.timer("view.search");
+    /**
+     * The name search over the loaded zoo, or {@code null} in nested views.
+     */
+    private ZooNameSearch search;
+    /**
+     * Lists the matches for the text in {@link #searchField}.
+     */
+    private final ContextMenu searchResults = new ContextMenu();
+    /**
+     * The matches currently listed, in order.
+     */
+    private List<ZooNameSearch.Match> matches = List.of();
+
+    /**
+     * Loads a zoo, handing out its root before the sections are added to it.
+     * {@link com.example.zoostructure.Helpers.ImportHelper#loadAnimals(Consumer, DoubleConsumer)}
+     * has this shape.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * Loads the zoo on the calling thread.
+         *
+         * @param pOnRoot     to be called with the root as soon as it exists
+         * @param pOnProgress to be called with the share loaded so far, from 0 to 1
+         * @return the loaded root
+         * @throws IOException if the zoo cannot be loaded, or loading was interrupted
+         */
+        CompositeEnclosureCollection load(Consumer<CompositeEnclosureCollection> pOnRoot,
+                                          DoubleConsumer pOnProgress) throws IOException;
+    }
+
+    /**
+     * Shown once a load is cancelled. The loader leaves the part already loaded read-only,
+     * since no journal records changes to it.
+     */
+    private static final String LOADING_CANCELLED = "Loading cancelled. The zoo is read-only.";
+    /**
+     * The virtual thread running the latest load, or {@code null} once it has finished.
+     * A virtual thread blocked on the disk does not hold a platform thread. Only the
+     * loader itself reports that it finished, cancelled or not, and a report from a
+     * load that a newer one replaced is ignored.
+     */
+    private Thread loading;
+    /**
+     * Whether a load is in progress. Cards cannot be opened until it ends, since the
+     * zoo is not yet journaled.
+     */
+    private final BooleanProperty loadingActive = new SimpleBooleanProperty(false);
+    /**
+     * The latest progress reported by the loader, picked up by the FX thread.
+     */
+    private volatile double loadedShare;
+    /**
+     * Set while a progress update is waiting to run on the FX thread, so a zoo with many
+     * sections does not flood it with one update per section.
+     */
+    private final AtomicBoolean progressPending = new AtomicBoolean();
+    /**
+     * System property choosing how cards are drawn: {@code cards} (the default) builds
+     * a node per visible card, {@code canvas} paints them all on one canvas.
+     */
+    public static final String RENDER_MODE_PROPERTY = "zoo.render";
+    /**
+     * The canvas the cards are drawn on in canvas mode, or {@code null} in card mode.
+     */
+    private CardCanvas cardCanvas;
     /**
      * Represents the number of cards displayed in each row of the composite enclosure grid.
      * This constant is used to properly arrange the layout of cards in the user interface.
      */
-    private final int cardPerRow = 3;
+    private static final int CARDS_PER_ROW = 3;
+    /**
+     * The height of one row of cards. Every row is the same height, so the list can
+     * place rows without measuring them.
+     */
+    private static final double ROW_HEIGHT = 150;
+    /**
+     * The children of the section being shown, copied when the section is set.
+     */
+    private List<EnclosureCollection> children = List.of();
+    /**
+     * The section being shown, or {@code null} before one is set.
+     */
+    private volatile CompositeEnclosureCollection composite;
+    /**
+     * Passes collections added to or removed from the shown section to the grid.
+     * Animal changes deeper in the tree do not affect the cards and are filtered out.
+     */
+    private final FxChangeBatcher changes = new FxChangeBatcher(
+            change -> change.source() == composite && change.collection() != null,
+            batch -> {
+                if (composite != null) {
+                    showChildren();
+                }
+            });
 
     private VBox createStyledCard() {
         VBox card = new VBox(10);
@@ -82,138 +218,368 @@ public class CompositeEnclosureViewController {
             """;
 
     /**
-     * Adds a new enclosure card to the composite enclosure grid pane. The card includes
-     * the enclosure's name and a button to view the enclosure details.
-     *
-     * @param enclosure the enclosure object to use for creating the card. It provides
-     *                  the name of the enclosure and is used to open the corresponding
-     *                  enclosure window when the "View" button is clicked.
+     * A reusable card showing one enclosure or composite enclosure collection:
+     * its name and a button that opens it. The card is rebound to another
+     * collection when its row scrolls out of view.
+     */
+    private final class Card {
+        private final VBox box = createStyledCard();
+        private final Label nameLabel = new Label();
+        private EnclosureCollection collection;
+
+        private Card() {
+            nameLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
+            nameLabel.setAlignment(Pos.CENTER);
+
+            Button viewButton = new Button("View");
+            viewButton.setStyle(BUTTON_STYLE);
+            viewButton.disableProperty().bind(loadingActive);
+            viewButton.setOnAction(e -> {
+                if (collection != null) {
+                    openEnclosureWindow(collection);
+                }
+            });
+
+            box.getChildren().addAll(nameLabel, viewButton);
+        }
+
+        /**
+         * Shows the given collection on this card, or hides the card if there is none.
+         *
+         * @param pCollection the collection to show, or {@code null} for an empty slot
+         */
+        private void bind(EnclosureCollection pCollection) {
+            collection = pCollection;
+            box.setVisible(pCollection != null);
+            nameLabel.setText(pCollection == null ? null : pCollection.getName());
+        }
+    }
+
+    /**
+     * A list cell holding one row of cards. The cards are created once per cell
+     * and rebound whenever the cell is reused for another row.
      */
-    public void addEnclosureCard(Enclosure enclosure) {
-        VBox card = createStyledCard();
+    private final class CardRowCell extends ListCell<Integer> {
+        private final HBox row = new HBox(15);
+        private final Card[] cards = new Card[CARDS_PER_ROW];
+
+        private CardRowCell() {
+            row.setAlignment(Pos.TOP_CENTER);
+            row.setPadding(new Insets(10));
+            for (int i = 0; i < cards.length; i++) {
+                cards[i] = new Card();
+                row.getChildren().add(cards[i].box);
+            }
+            setStyle("-fx-background-color: transparent;");
+        }
+
+        @Override
+        protected void updateItem(Integer rowIndex, boolean empty) {
+            super.updateItem(rowIndex, empty);
+            if (empty || rowIndex == null) {
+                for (Card card : cards) {
+                    card.bind(null);
+                }
+                setGraphic(null);
+                return;
+            }
+            int first = rowIndex * CARDS_PER_ROW;
+            for (int i = 0; i < cards.length; i++) {
+                int index = first + i;
+                cards[i].bind(index < children.size() ? children.get(index) : null);
+            }
+            setGraphic(row);
+        }
+    }
 
-        Label nameLabel = new Label(enclosure.getName());
-        nameLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
-        nameLabel.setAlignment(Pos.CENTER);
+    /**
+     * The items of the list: the numbers {@code 0} to {@code rows - 1}, computed
+     * on demand instead of being stored.
+     */
+    private static final class RowIndices extends ObservableListBase<Integer> {
+        private int rows;
 
-        Button viewButton = new Button("View");
-        viewButton.setStyle(BUTTON_STYLE);
-        viewButton.setOnAction(e -> openEnclosureWindow(enclosure));
+        @Override
+        public Integer get(int index) {
+            if (index < 0 || index >= rows) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return index;
+        }
 
-        card.getChildren().addAll(nameLabel, viewButton);
+        @Override
+        public int size() {
+            return rows;
+        }
 
-        int col = cardCount % cardPerRow;
-        int rowIndex = cardCount / cardPerRow;
-        compositeEnclosureGridPane.add(card, col, rowIndex);
-        GridPane.setMargin(card, new Insets(10));
-        GridPane.setHalignment(card, HPos.CENTER);
-        GridPane.setValignment(card, VPos.TOP);
+        /**
+         * Adds or removes rows at the end so there are {@code pRows} of them.
+         * The rows that stay are not reported as changed.
+         *
+         * @param pRows the new number of rows
+         */
+        private void resize(int pRows) {
+            int oldRows = rows;
+            if (pRows == oldRows) {
+                return;
+            }
+            rows = pRows;
+            beginChange();
+            if (pRows > oldRows) {
+                nextAdd(oldRows, pRows);
+            } else {
+                nextRemove(pRows, Collections.nCopies(oldRows - pRows, 0));
+            }
+            endChange();
+        }
 
-        cardCount++;
+        /**
+         * Changes the number of rows and tells the list view to redraw every row.
+         *
+         * @param pRows the new number of rows
+         */
+        private void reset(int pRows) {
+            int oldRows = rows;
+            rows = pRows;
+            beginChange();
+            if (oldRows > 0) {
+                nextRemove(0, Collections.nCopies(oldRows, 0));
+            }
+            if (pRows > 0) {
+                nextAdd(0, pRows);
+            }
+            endChange();
+        }
     }
 
     /**
-     * Adds a card representing a composite enclosure collection to the grid pane.
-     * The card displays the name of the composite enclosure and includes a button
-     * that opens a detailed view of the enclosure when clicked.
-     *
-     * @param composite the composite enclosure collection to be represented by the card.
-     *                  It provides the name for display and is used to open the corresponding
-     *                  enclosure view when the "View" button is clicked.
+     * The row numbers shown by {@link #compositeEnclosureListView}.
      */
-    private void addCompositeCard(CompositeEnclosureCollection composite) {
-        VBox card = createStyledCard();
-
-        Label title = new Label(composite.getName());
-        title.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
-        title.setAlignment(Pos.CENTER);
+    private final RowIndices rowIndices = new RowIndices();
 
-        Button viewButton = new Button("View");
-        viewButton.setStyle(BUTTON_STYLE);
-        viewButton.setOnAction(e -> openEnclosureWindow(composite));
+    /**
+     * Initializes the composite enclosure view by setting up the virtualized list of card rows.
+     *
+     * The cards are filled in by {@link #setCompositeCollection(CompositeEnclosureCollection)}:
+     * the application passes in the loaded zoo for the top-level window, and
+     * {@link #openEnclosureWindow(EnclosureCollection)} passes the section being opened
+     * for nested windows, so the zoo is only loaded once.
+     */
+    @FXML
+    private void initialize() {
+        compositeEnclosureListView.setFixedCellSize(ROW_HEIGHT);
+        compositeEnclosureListView.setFocusTraversable(false);
+        compositeEnclosureListView.setCellFactory(list -> new CardRowCell());
+        compositeEnclosureListView.setItems(rowIndices);
+        loadingProgress.visibleProperty().bind(loadingActive);
+        loadingProgress.managedProperty().bind(loadingActive);
+        cancelLoadingButton.visibleProperty().bind(loadingActive);
+        cancelLoadingButton.managedProperty().bind(loadingActive);
+        searchField.textProperty().addListener((observable, oldText, newText) -> showMatches(newText));
+
+        if ("canvas".equalsIgnoreCase(System.getProperty(RENDER_MODE_PROPERTY))) {
+            cardCanvas = new CardCanvas(this::openEnclosureWindow, loadingActive);
+            VBox.setVgrow(cardCanvas, Priority.ALWAYS);
+            VBox.setMargin(cardCanvas, VBox.getMargin(compositeEnclosureListView));
+            cardCanvas.setPrefHeight(compositeEnclosureListView.getPrefHeight());
+            VBox parent = (VBox) compositeEnclosureListView.getParent();
+            parent.getChildren().set(parent.getChildren().indexOf(compositeEnclosureListView), cardCanvas);
+        }
+    }
 
-        card.getChildren().addAll(title, viewButton);
+    /**
+     * Loads the zoo on a virtual thread and shows it as it arrives. Until the loader
+     * hands out the root, the list shows a loading placeholder; after that, each
+     * section added to the root shows up as a card. Must be called on the JavaFX
+     * application thread.
+     *
+     * @param pLoader loads the zoo
+     */
+    public void loadCompositeCollection(Loader pLoader) {
+        cancelLoading();
+        loadingActive.set(true);
+        loadingProgress.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+        compositeEnclosureListView.setPlaceholder(new ProgressIndicator());
+        if (cardCanvas != null) {
+            cardCanvas.setMessage("Loading zoo…");
+        }
+        loading = Thread.ofVirtual().name("zoo-loader").start(() -> {
+            Thread self = Thread.currentThread();
+            try {
+                pLoader.load(root -> {
+                    // Built while the root is still empty, so sections are indexed as they arrive.
+                    ZooNameSearch rootSearch = ZooNameSearch.build(root);
+                    Platform.runLater(() -> {
+                        if (loading == self) {
+                            setSearch(rootSearch);
+                            setCompositeCollection(root);
+                        } else {
+                            rootSearch.close();
+                        }
+                    });
+                }, this::reportProgress);
+                Platform.runLater(() -> finishLoading(self, null));
+            } catch (IOException | RuntimeException e) {
+                if (e instanceof InterruptedIOException || e instanceof ClosedByInterruptException
+                        || self.isInterrupted()) {
+                    Platform.runLater(() -> finishLoading(self, LOADING_CANCELLED));
+                } else {
+                    ZooMetrics.recordError("view.load", e);
+                    Platform.runLater(() -> finishLoading(self, "The zoo could not be loaded."));
+                }
+            }
+        });
+    }
 
-        int col = cardCount % cardPerRow;
-        int row = cardCount / cardPerRow;
-        compositeEnclosureGridPane.add(card, col, row);
-        GridPane.setMargin(card, new Insets(10));
-        GridPane.setHalignment(card, HPos.CENTER);
-        GridPane.setValignment(card, VPos.TOP);
+    /**
+     * Stops the load in progress, if any. The sections loaded so far stay on screen,
+     * and the loading controls stay until the loader has stopped.
+     */
+    public void cancelLoading() {
+        if (loading != null) {
+            loading.interrupt();
+        }
+    }
 
-        cardCount++;
+    @FXML
+    private void onCancelLoadingClick() {
+        cancelLoading();
     }
 
     /**
-     * Initializes the composite enclosure view by setting up the grid pane layout
-     * and populating it with the necessary enclosure cards. The method ensures that
-     * the grid pane is aligned properly and dynamically adjusts its row constraints
-     * based on the number of items to display.
+     * Shows the search box, backed by the given search.
      *
-     * It processes the enclosures in the composite collection, creating individual
-     * cards for both direct {@link Enclosure} objects and nested
-     * {@link CompositeEnclosureCollection} objects, and adds them to the grid pane.
+     * @param pSearch the name search over the zoo
+     */
+    private void setSearch(ZooNameSearch pSearch) {
+        if (search != null) {
+            search.close();
+        }
+        search = pSearch;
+        searchField.setVisible(true);
+        searchField.setManaged(true);
+    }
+
+    /**
+     * Lists the matches for the text typed so far under the search box.
      *
-     * The layout is configured such that each row is constrained with a minimum height
-     * and aligns its contents at the top to maintain uniformity.
+     * @param pText the text in the search box
      */
-    @FXML
-    private void initialize() {
-        compositeEnclosureGridPane.setAlignment(Pos.TOP_CENTER);
+    private void showMatches(String pText) {
+        if (search == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        matches = search.find(pText, SEARCH_LIMIT);
+        SEARCH_TIMER.recordSince(start);
+        if (matches.isEmpty()) {
+            searchResults.hide();
+            return;
+        }
+        List<MenuItem> items = new ArrayList<>(matches.size());
+        for (ZooNameSearch.Match match : matches) {
+            String where = match.animal() == null ? match.path() : "in " + match.path();
+            MenuItem item = new MenuItem(match.name() + "  —  " + where);
+            item.disableProperty().bind(loadingActive);
+            item.setOnAction(e -> openMatch(match));
+            items.add(item);
+        }
+        searchResults.getItems().setAll(items);
+        if (!searchResults.isShowing()) {
+            searchResults.show(searchField, Side.BOTTOM, 0, 0);
+        }
+    }
 
-        CompositeEnclosureCollection bigCats = ImportHelper.createAnimals();
+    /**
+     * Opens the first match when Enter is pressed in the search box.
+     */
+    @FXML
+    private void onSearchAction() {
+        if (!matches.isEmpty() && !loadingActive.get()) {
+            openMatch(matches.get(0));
+        }
+    }
 
-        int totalItems = bigCats.getCollections().size();
-        int totalRows = (int) Math.ceil((double) totalItems / cardPerRow);
+    private void openMatch(ZooNameSearch.Match pMatch) {
+        searchResults.hide();
+        openEnclosureWindow(pMatch.collection(), pMatch.animal());
+    }
 
-        for (int i = 0; i < totalRows; i++) {
-            RowConstraints rowConstraints = new RowConstraints();
-            rowConstraints.setMinHeight(150);
-            rowConstraints.setValignment(VPos.TOP);
-            compositeEnclosureGridPane.getRowConstraints().add(rowConstraints);
+    private void reportProgress(double pShare) {
+        loadedShare = pShare;
+        if (progressPending.compareAndSet(false, true)) {
+            Platform.runLater(() -> {
+                progressPending.set(false);
+                if (loadingActive.get()) {
+                    loadingProgress.setProgress(loadedShare);
+                }
+            });
         }
+    }
 
-        for (EnclosureCollection child : bigCats.getCollections()) {
-            // ✅ Only add direct children
-            if (child instanceof Enclosure enclosure) {
-                addEnclosureCard(enclosure);
-            } else if (child instanceof CompositeEnclosureCollection composite) {
-                addCompositeCard(composite);
-            }
+    /**
+     * Hides the loading controls, unless a newer load has started since.
+     *
+     * @param pLoader  the thread that ran the load
+     * @param pMessage shown in place of the cards if none were loaded, or {@code null}
+     */
+    private void finishLoading(Thread pLoader, String pMessage) {
+        if (loading != pLoader) {
+            return;
+        }
+        loading = null;
+        loadingActive.set(false);
+        compositeEnclosureListView.setPlaceholder(pMessage == null ? null : new Label(pMessage));
+        if (cardCanvas != null) {
+            cardCanvas.setMessage(pMessage);
         }
     }
 
     /**
-     * Updates the composite enclosure grid pane by clearing its current content and rebuilding it
-     * based on the provided composite collection. This method dynamically calculates and adjusts
-     * the grid layout, including rows, and populates it with enclosure cards or nested composite
-     * cards as necessary.
+     * Updates the composite enclosure grid to show the provided composite collection.
+     * Only the number of rows is recorded here; cards are bound to children as their
+     * rows come into view, so the cost does not grow with the size of the section.
      *
      * @param composite the composite enclosure collection containing a list of {@link EnclosureCollection}
      *                  objects to be displayed. It includes both individual enclosures and nested
      *                  composite collections.
      */
     public void setCompositeCollection(CompositeEnclosureCollection composite) {
-        compositeEnclosureGridPane.getChildren().clear();
-        compositeEnclosureGridPane.getRowConstraints().clear();
-        cardCount = 0;
-
-        int totalItems = composite.getCollections().size();
-        int totalRows = (int) Math.ceil((double) totalItems / cardPerRow);
-
-        for (int i = 0; i < totalRows; i++) {
-            RowConstraints rowConstraints = new RowConstraints();
-            rowConstraints.setMinHeight(150);
-            rowConstraints.setValignment(VPos.TOP);
-            compositeEnclosureGridPane.getRowConstraints().add(rowConstraints);
+        dispose();
+        this.composite = composite;
+        composite.addChangeListener(changes);
+
+        children = List.copyOf(composite.getCollections());
+        int totalRows = (children.size() + CARDS_PER_ROW - 1) / CARDS_PER_ROW;
+        rowIndices.reset(totalRows);
+        compositeEnclosureListView.scrollTo(0);
+        if (cardCanvas != null) {
+            cardCanvas.setItems(children, true);
         }
+    }
 
-        for (EnclosureCollection child : composite.getCollections()) {
-            if (child instanceof Enclosure enclosure) {
-                addEnclosureCard(enclosure);
-            } else if (child instanceof CompositeEnclosureCollection nestedComposite) {
-                addCompositeCard(nestedComposite);
-            }
+    /**
+     * Stops following the section. The cards stay as they are until the controller is
+     * bound again.
+     */
+    @Override
+    public void dispose() {
+        if (composite != null) {
+            composite.removeChangeListener(changes);
+            composite = null;
+        }
+    }
+
+    /**
+     * Catches up with collections added to or removed from the section. Rows are added
+     * or removed at the end, and only the rows on screen are rebound.
+     */
+    private void showChildren() {
+        children = List.copyOf(composite.getCollections());
+        rowIndices.resize((children.size() + CARDS_PER_ROW - 1) / CARDS_PER_ROW);
+        compositeEnclosureListView.refresh();
+        if (cardCanvas != null) {
+            cardCanvas.setItems(children, false);
         }
     }
 
@@ -238,41 +604,61 @@ public class CompositeEnclosureViewController {
     /**
      * Opens a new window to display the details of the specified enclosure. The method
      * dynamically determines whether the provided enclosure is a simple enclosure or
-     * a composite enclosure collection, and loads the appropriate view accordingly.
+     * a composite enclosure collection, and shows the appropriate view accordingly.
+     * Views come from the {@link ViewCache}, so reopening a recently viewed enclosure
+     * reuses its scene.
      *
      * @param enclosure the enclosure to be displayed. It can be either a simple
      *                  {@code Enclosure} or a {@code CompositeEnclosureCollection}.
      *                  The window title will be derived from the enclosure's name.
      */
     private void openEnclosureWindow(EnclosureCollection enclosure) {
+        openEnclosureWindow(enclosure, null);
+    }
+
+    /**
+     * Opens the window of an enclosure or section, as {@link #openEnclosureWindow(EnclosureCollection)}
+     * does, and selects an animal in it.
+     *
+     * @param enclosure the enclosure or section to open
+     * @param animal    the animal to select in the enclosure's list, or {@code null}
+     */
+    private void openEnclosureWindow(EnclosureCollection enclosure, Animal animal) {
+        long requested = System.nanoTime();
         try {
-            FXMLLoader loader;
-            Parent root = null;
+            Scene scene;
             Stage stage = new Stage();
+            ViewCache.track(stage, requested);
             stage.setWidth(600);
             stage.setMinHeight(250);
             stage.initModality(Modality.APPLICATION_MODAL);
             stage.setTitle(enclosure.getName());
 
             if (enclosure instanceof CompositeEnclosureCollection composite) {
-                loader = new FXMLLoader(getClass().getResource("/com/example/zoostructure/CompositeEnclosureView.fxml"));
-                root = loader.load();
-
-                CompositeEnclosureViewController controller = loader.getController();
-                controller.setCompositeCollection(composite);
-                controller.setNestedView(true); // ✅ mark as nested
+                scene = ViewCache.sceneFor(composite, ViewCache.Template.COMPOSITE,
+                        (CompositeEnclosureViewController controller) -> {
+                            controller.setCompositeCollection(composite);
+                            controller.setNestedView(true); // ✅ mark as nested
+                        });
             } else if (enclosure instanceof Enclosure simpleEnclosure) {
-                loader = new FXMLLoader(getClass().getResource("/com/example/zoostructure/Enclosure-view.fxml"));
-                root = loader.load();
-
-                EnclosureViewController controller = loader.getController();
-                controller.setEnclosure(simpleEnclosure);
+                scene = ViewCache.sceneFor(simpleEnclosure, ViewCache.Template.ENCLOSURE,
+                        (EnclosureViewController controller) -> {
+                            controller.setEnclosure(simpleEnclosure);
+                            if (animal != null) {
+                                controller.selectAnimal(animal);
+                            }
+                        });
+            } else {
+                return;
             }
 
-            stage.setScene(new Scene(root));
+            stage.setScene(scene);
             stage.showAndWait();
-        } catch (IOException e) {
-            e.printStackTrace();
+            // Detach the scene so the cache can hand it to the next window.
+            stage.setScene(null);
+            ViewCache.closed(scene);
+        } catch (UncheckedIOException e) {
+            ZooMetrics.recordError("view.openWindow", e);
         }
     }
 
@@ -289,7 +675,7 @@ public class CompositeEnclosureViewController {
     @FXML
     private void onBackButtonClick() {
         if (isNestedView) {
-            Stage stage = (Stage) compositeEnclosureGridPane.getScene().getWindow();
+            Stage stage = (Stage) cancelLoadingButton.getScene().getWindow();
             stage.close();
         } else {
             Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
@@ -303,7 +689,7 @@ public class CompositeEnclosureViewController {
 
             Optional<ButtonType> result = alert.showAndWait();
             if (result.isPresent() && result.get() == yesButton) {
-                Stage stage = (Stage) compositeEnclosureGridPane.getScene().getWindow();
+                Stage stage = (Stage) cancelLoadingButton.getScene().getWindow();
                 stage.close();
             }
             // If "No", do nothing
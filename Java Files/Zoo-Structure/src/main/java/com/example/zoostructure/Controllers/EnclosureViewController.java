@@ -1,11 +1,11 @@
 package com.example.zoostructure.Controllers;
 
-import com.example.zoostructure.HelloApplication;
+import com.example.zoostructure.Metrics.ZooMetrics;
 import com.example.zoostructure.Model.Animal;
+import com.example.zoostructure.Model.CompositeEnclosureCollection;
 import com.example.zoostructure.Model.Enclosure;
+import com.example.zoostructure.Model.ZooChange;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -14,7 +14,11 @@ import javafx.scene.control.ListView;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
-public class EnclosureViewController {
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class EnclosureViewController implements ViewCache.Disposable {
 
     @FXML
     private ListView<Animal> animalList;
@@ -33,11 +37,32 @@ public class EnclosureViewController {
 
     private Enclosure enclosure;
 
+    /**
+     * The enclosure version the list view was last filled from. Changes up to this
+     * version are already in the list and are skipped when they arrive.
+     */
+    private long shownVersion;
+
+    /**
+     * Applies the enclosure's changes to the list as they happen.
+     */
+    private final FxChangeBatcher changes = new FxChangeBatcher(this::applyChanges);
+
     public void setEnclosure(Enclosure enclosure) {
+        if (enclosure == this.enclosure) {
+            return;
+        }
+        dispose();
         this.enclosure = enclosure;
+        enclosure.addChangeListener(changes);
 
         animalLabel.setText("Animals in " + enclosure.getName());
-        animalList.getItems().setAll(enclosure.getAnimals());
+        refreshAnimalList();
+
+        // A zoo that is still loading, or whose loading was cancelled, cannot be changed.
+        boolean writable = CompositeEnclosureCollection.isWritable(enclosure);
+        addButton.setDisable(!writable);
+        deleteButton.setDisable(!writable);
 
         animalList.setCellFactory(param -> new ListCell<>() {
             @Override
@@ -48,6 +73,31 @@ public class EnclosureViewController {
         });
     }
 
+    /**
+     * Stops following the enclosure. Its animals stay in the list until the controller
+     * is bound again, which reloads them.
+     */
+    @Override
+    public void dispose() {
+        if (enclosure != null) {
+            enclosure.removeChangeListener(changes);
+            enclosure = null;
+        }
+    }
+
+    /**
+     * Selects an animal in the list and scrolls it into view, for windows opened from a search.
+     *
+     * @param animal the animal to select; ignored if it is not in the list
+     */
+    public void selectAnimal(Animal animal) {
+        int index = animalList.getItems().indexOf(animal);
+        if (index >= 0) {
+            animalList.getSelectionModel().clearAndSelect(index);
+            animalList.scrollTo(index);
+        }
+    }
+
     @FXML
     protected void onBackButtonClick() {
         Stage stage = (Stage) deleteButton.getScene().getWindow();
@@ -58,30 +108,31 @@ public class EnclosureViewController {
     protected void onDeleteButtonClick() {
         Animal selected = animalList.getSelectionModel().getSelectedItem();
         if (selected != null) {
-            enclosure.removeAnimal(selected.getName());
-            animalList.getItems().remove(selected);
+            enclosure.removeAnimal(selected);
         }
     }
 
     @FXML
     protected void onAddButtonClick() {
+        long requested = System.nanoTime();
         try {
-            FXMLLoader loader = new FXMLLoader(HelloApplication.class.getResource("animal-view.fxml"));
-            Parent root = loader.load();
+            ViewCache.View<AnimalViewController> view = ViewCache.acquire(ViewCache.Template.ANIMAL);
 
-            AnimalViewController controller = loader.getController();
+            AnimalViewController controller = view.controller();
+            controller.reset();
             controller.setEnclosure(enclosure);
 
             Stage stage = new Stage();
             stage.setTitle("Add Animal");
             stage.initModality(Modality.APPLICATION_MODAL);
-            stage.setScene(new Scene(root));
+            ViewCache.track(stage, requested);
+            stage.setScene(new Scene(view.root()));
             stage.showAndWait();
-            refreshAnimalList();
+            ViewCache.release(view);
 
         } catch (Exception e) {
             System.err.println("Error loading Add Animal View:");
-            e.printStackTrace();
+            ZooMetrics.recordError("view.addAnimal", e);
         }
     }
 
@@ -89,28 +140,78 @@ public class EnclosureViewController {
     protected void onEditButtonClick() {
         Animal selected = animalList.getSelectionModel().getSelectedItem();
         if (selected != null) {
+            long requested = System.nanoTime();
             try {
-                FXMLLoader loader = new FXMLLoader(HelloApplication.class.getResource("animal-view.fxml"));
-                Parent root = loader.load();
+                ViewCache.View<AnimalViewController> view = ViewCache.acquire(ViewCache.Template.ANIMAL);
 
-                AnimalViewController controller = loader.getController();
+                AnimalViewController controller = view.controller();
+                controller.reset();
 
                 Stage stage = new Stage();
                 stage.setTitle("Edit/View Animal");
                 stage.initModality(Modality.APPLICATION_MODAL);
-                stage.setScene(new Scene(root));
+                ViewCache.track(stage, requested);
+                stage.setScene(new Scene(view.root()));
                 controller.setAnimal(selected);
                 controller.setEnclosure(enclosure);
                 stage.show();
 
-                stage.setOnHidden(event -> refreshAnimalList());
+                stage.setOnHidden(event -> ViewCache.release(view));
             } catch (Exception e){
                 System.err.println("Error loading Edit/View Animal:");
-                e.printStackTrace();
+                ZooMetrics.recordError("view.editAnimal", e);
             }
         }
     }
+    /**
+     * Refills the list from the enclosure. Only needed when the list is first shown;
+     * after that, {@link #applyChanges(List)} keeps it current.
+     */
     public void refreshAnimalList() {
-        animalList.getItems().setAll(enclosure.getAnimals());
+        long version;
+        List<Animal> animals;
+        do {
+            // Re-read if the enclosure changed in between, so the list and the version match.
+            version = enclosure.getModificationCount();
+            animals = enclosure.getAnimals();
+        } while (version != enclosure.getModificationCount());
+        animalList.getItems().setAll(animals);
+        shownVersion = version;
+    }
+
+    /**
+     * Applies a batch of changes to the list, in order. Runs of removals are applied
+     * together so a burst of them does not rescan the list once per animal.
+     *
+     * @param batch the changes since the last batch
+     */
+    private void applyChanges(List<ZooChange> batch) {
+        Set<Animal> removed = new HashSet<>();
+        boolean updated = false;
+        for (ZooChange change : batch) {
+            if (change.source() != enclosure
+                    || (change.version() <= shownVersion && change.type() != ZooChange.Type.ANIMAL_UPDATED)) {
+                continue;
+            }
+            switch (change.type()) {
+                case ANIMAL_ADDED -> {
+                    if (!removed.isEmpty()) {
+                        animalList.getItems().removeAll(removed);
+                        removed.clear();
+                    }
+                    animalList.getItems().add(change.animal());
+                }
+                case ANIMAL_REMOVED -> removed.add(change.animal());
+                case ANIMAL_UPDATED -> updated = true;
+                default -> {
+                }
+            }
+        }
+        if (!removed.isEmpty()) {
+            animalList.getItems().removeAll(removed);
+        }
+        if (updated) {
+            animalList.refresh();
+        }
     }
 }
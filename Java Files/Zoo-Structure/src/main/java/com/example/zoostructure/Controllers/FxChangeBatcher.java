@@ -0,0 +1,73 @@
+package com.example.zoostructure.Controllers;
+
+import com.example.zoostructure.Model.ZooChange;
+import com.example.zoostructure.Model.ZooChangeListener;
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A {@link ZooChangeListener} that moves model changes onto the JavaFX application
+ * thread in batches. Changes can arrive from any thread; they are queued, and a
+ * single {@link Platform#runLater(Runnable)} is scheduled to hand everything queued
+ * so far to the view at once. While that call is pending, further changes join the
+ * same batch instead of scheduling more work, so a burst of background changes
+ * costs the FX thread one update.
+ */
+public final class FxChangeBatcher implements ZooChangeListener {
+
+    private final Predicate<ZooChange> aFilter;
+    private final Consumer<List<ZooChange>> aApply;
+    private final ConcurrentLinkedQueue<ZooChange> aPending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean aScheduled = new AtomicBoolean();
+
+    /**
+     * Creates a batcher that passes on every change.
+     * @param pApply applies a batch of changes, in the order they happened, on the FX thread
+     */
+    public FxChangeBatcher(Consumer<List<ZooChange>> pApply) {
+        this(change -> true, pApply);
+    }
+
+    /**
+     * Creates a batcher that only passes on the changes a view cares about.
+     * @param pFilter tested on the changing thread; changes it rejects are dropped
+     * @param pApply  applies a batch of changes, in the order they happened, on the FX thread
+     */
+    public FxChangeBatcher(Predicate<ZooChange> pFilter, Consumer<List<ZooChange>> pApply) {
+        this.aFilter = pFilter;
+        this.aApply = pApply;
+    }
+
+    @Override
+    public void changed(ZooChange pChange) {
+        boolean queued = false;
+        for (ZooChange change : pChange.changes()) {
+            if (aFilter.test(change)) {
+                aPending.add(change);
+                queued = true;
+            }
+        }
+        if (queued && aScheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::drain);
+        }
+    }
+
+    private void drain() {
+        // Clear the flag before polling, so a change queued after the last poll
+        // always schedules another drain.
+        aScheduled.set(false);
+        List<ZooChange> batch = new ArrayList<>();
+        for (ZooChange change = aPending.poll(); change != null; change = aPending.poll()) {
+            batch.add(change);
+        }
+        if (!batch.isEmpty()) {
+            aApply.accept(batch);
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.example.zoostructure.Controllers;
+
+import com.example.zoostructure.Metrics.ZooMetrics;
+import com.example.zoostructure.Model.EnclosureCollection;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Group;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Caches the application's FXML views so opening a window does not re-read and
+ * rebuild them every time.
+ * <ul>
+ *     <li>Each FXML file is read from the classpath once and kept in memory.</li>
+ *     <li>Loaded views (a root node and its controller) that are no longer shown
+ *     are pooled per template and handed out again instead of loading a new one.
+ *     The pool can be filled ahead of time with {@link #preload(Template)}.</li>
+ *     <li>The scenes of recently opened enclosures and sections are kept in a
+ *     bounded least-recently-used cache, so reopening one reuses its scene.</li>
+ * </ul>
+ * Controllers that listen to the model implement {@link Disposable}. A view's
+ * controller is disposed when its window closes, when the view goes back to the
+ * pool and when its scene is evicted, so views that are not on screen never keep
+ * listeners on the model.
+ * Like the rest of the user interface, this class must only be used from the
+ * JavaFX application thread.
+ */
+public final class ViewCache {
+
+    /**
+     * The FXML views of the application.
+     */
+    public enum Template {
+        COMPOSITE("/com/example/zoostructure/CompositeEnclosureView.fxml"),
+        ENCLOSURE("/com/example/zoostructure/Enclosure-view.fxml"),
+        ANIMAL("/com/example/zoostructure/animal-view.fxml");
+
+        private final String aResource;
+
+        Template(String pResource) {
+            this.aResource = pResource;
+        }
+    }
+
+    /**
+     * A controller that holds on to the model while its view is shown.
+     */
+    public interface Disposable {
+
+        /**
+         * Removes every listener the controller added to the model. The controller is
+         * bound again before its view is next shown.
+         */
+        void dispose();
+    }
+
+    /**
+     * A loaded view: the root of its scene graph and its controller.
+     *
+     * @param template   the template the view was loaded from
+     * @param root       the root node
+     * @param controller the controller created by the FXML loader
+     * @param <C>        the controller type
+     */
+    public record View<C>(Template template, Parent root, C controller) {
+    }
+
+    /**
+     * Hit and miss counts since the application started.
+     *
+     * @param viewHits    views handed out from the pool
+     * @param viewMisses  views that had to be loaded
+     * @param sceneHits   windows that reused a cached scene
+     * @param sceneMisses windows that needed a new scene
+     * @param evictions   scenes dropped from the cache to make room
+     */
+    public record Stats(long viewHits, long viewMisses, long sceneHits, long sceneMisses, long evictions) {
+
+        /**
+         * Returns the share of scene requests served from the cache.
+         *
+         * @return a ratio between 0 and 1, or 0 if no scene has been requested
+         */
+        public double sceneHitRatio() {
+            long total = sceneHits + sceneMisses;
+            return total == 0 ? 0 : (double) sceneHits / total;
+        }
+    }
+
+    /**
+     * The most enclosure and section scenes kept at once.
+     */
+    private static final int SCENE_CAPACITY = 16;
+
+    /**
+     * The most idle views pooled per template.
+     */
+    private static final int POOL_CAPACITY = 4;
+
+    private static final Map<Template, byte[]> TEMPLATE_BYTES = new EnumMap<>(Template.class);
+    private static final Map<Template, Deque<View<?>>> POOLS = new EnumMap<>(Template.class);
+
+    private static final Map<EnclosureCollection, View<?>> SCENES = new LinkedHashMap<>(SCENE_CAPACITY, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<EnclosureCollection, View<?>> pEldest) {
+            if (size() <= SCENE_CAPACITY) {
+                return false;
+            }
+            View<?> view = pEldest.getValue();
+            Scene scene = view.root().getScene();
+            if (scene != null && scene.getWindow() != null && scene.getWindow().isShowing()) {
+                // Still on screen; keep it until its window closes.
+                return false;
+            }
+            EVICTIONS.incrementAndGet();
+            release(view);
+            return true;
+        }
+    };
+
+    /**
+     * The views of the scenes handed out by {@link #sceneFor} whose windows have not
+     * been closed yet.
+     */
+    private static final Map<Scene, View<?>> SHOWN = new IdentityHashMap<>();
+
+    private static final ZooMetrics.Timer FXML_LOAD_TIMER = ZooMetrics.timer("view.fxmlLoad");
+    private static final ZooMetrics.Timer WINDOW_OPEN_TIMER = ZooMetrics.timer("view.windowOpen");
+
+    /**
+     * Windows opened through {@link #track(Stage, long)} that are still showing. Read
+     * by the metrics thread, hence atomic.
+     */
+    private static final AtomicInteger OPEN_WINDOWS = new AtomicInteger();
+
+    /**
+     * Cache hits, misses and evictions, counted on the FX thread and read by the metrics thread.
+     */
+    private static final AtomicLong VIEW_HITS = new AtomicLong();
+    private static final AtomicLong VIEW_MISSES = new AtomicLong();
+    private static final AtomicLong SCENE_HITS = new AtomicLong();
+    private static final AtomicLong SCENE_MISSES = new AtomicLong();
+    private static final AtomicLong EVICTIONS = new AtomicLong();
+
+    static {
+        ZooMetrics.gauge("view.openWindows", OPEN_WINDOWS::get);
+        ZooMetrics.gauge("view.viewHits", VIEW_HITS::get);
+        ZooMetrics.gauge("view.viewMisses", VIEW_MISSES::get);
+        ZooMetrics.gauge("view.sceneHits", SCENE_HITS::get);
+        ZooMetrics.gauge("view.sceneMisses", SCENE_MISSES::get);
+        ZooMetrics.gauge("view.sceneEvictions", EVICTIONS::get);
+    }
+
+    private ViewCache() {
+    }
+
+    /**
+     * Takes a view of the given template from the pool, or loads one if the pool is empty.
+     * The caller owns the view until it passes it to {@link #release(View)}.
+     *
+     * @param pTemplate the view to get
+     * @param <C>       the controller type of that view
+     * @return a view that is not part of any scene
+     * @throws UncheckedIOException if the FXML cannot be read or loaded
+     */
+    @SuppressWarnings("unchecked")
+    public static <C> View<C> acquire(Template pTemplate) {
+        Deque<View<?>> pool = POOLS.get(pTemplate);
+        if (pool != null && !pool.isEmpty()) {
+            VIEW_HITS.incrementAndGet();
+            return (View<C>) pool.pop();
+        }
+        VIEW_MISSES.incrementAndGet();
+        return load(pTemplate);
+    }
+
+    /**
+     * Loads a view of the given template into the pool ahead of time, so the first
+     * window that needs it does not wait for its FXML to be read and parsed. Meant for
+     * moments when the application is idle. Does nothing if a view is already pooled
+     * or the template's FXML is not packaged with the application.
+     *
+     * @param pTemplate the view to prepare
+     * @return {@code true} if a view was loaded
+     * @throws UncheckedIOException if the FXML cannot be read or loaded
+     */
+    public static boolean preload(Template pTemplate) {
+        Deque<View<?>> pool = POOLS.computeIfAbsent(pTemplate, template -> new ArrayDeque<>());
+        if (!pool.isEmpty() || ViewCache.class.getResource(pTemplate.aResource) == null) {
+            return false;
+        }
+        pool.push(load(pTemplate));
+        return true;
+    }
+
+    /**
+     * Returns a view to the pool once its window has closed. The view is detached
+     * from its scene so it can be placed in a new one.
+     *
+     * @param pView the view to give back
+     */
+    public static void release(View<?> pView) {
+        dispose(pView);
+        Scene scene = pView.root().getScene();
+        if (scene != null) {
+            scene.setRoot(new Group());
+        }
+        Deque<View<?>> pool = POOLS.computeIfAbsent(pView.template(), template -> new ArrayDeque<>());
+        if (pool.size() < POOL_CAPACITY) {
+            pool.push(pView);
+        }
+    }
+
+    /**
+     * Returns the scene showing the given enclosure or section, reusing the cached one
+     * if it is not on screen. Either way, {@code pBind} is called with the controller so
+     * it can show the collection's current contents. Pass the scene to
+     * {@link #closed(Scene)} once its window has closed.
+     *
+     * @param pCollection the enclosure or section to show
+     * @param pTemplate   the view to show it with
+     * @param pBind       fills the controller in from the collection
+     * @param <C>         the controller type of that view
+     * @return a scene that is not attached to a window
+     */
+    @SuppressWarnings("unchecked")
+    public static <C> Scene sceneFor(EnclosureCollection pCollection, Template pTemplate, Consumer<C> pBind) {
+        View<?> cached = SCENES.get(pCollection);
+        if (cached != null && cached.template() == pTemplate) {
+            Scene scene = cached.root().getScene();
+            if (scene != null && scene.getWindow() == null) {
+                SCENE_HITS.incrementAndGet();
+                pBind.accept((C) cached.controller());
+                SHOWN.put(scene, cached);
+                return scene;
+            }
+        }
+        SCENE_MISSES.incrementAndGet();
+        View<C> view = acquire(pTemplate);
+        Scene scene = new Scene(view.root());
+        pBind.accept(view.controller());
+        SHOWN.put(scene, view);
+        if (cached == null) {
+            SCENES.put(pCollection, view);
+        }
+        return scene;
+    }
+
+    /**
+     * Unbinds the view of a scene from {@link #sceneFor} once its window has closed.
+     * A cached scene stays cached for the next window; any other goes back to the pool.
+     *
+     * @param pScene the scene the window showed
+     */
+    public static void closed(Scene pScene) {
+        View<?> view = SHOWN.remove(pScene);
+        if (view == null) {
+            return;
+        }
+        if (SCENES.containsValue(view)) {
+            dispose(view);
+        } else {
+            release(view);
+        }
+    }
+
+    /**
+     * Counts a window as open from when it is shown until it is hidden, and records
+     * how long it took to appear. Call before showing the window.
+     *
+     * @param pStage          the window
+     * @param pRequestedNanos a value of {@link System#nanoTime()} taken when the user asked for the window
+     */
+    public static void track(Stage pStage, long pRequestedNanos) {
+        pStage.addEventHandler(WindowEvent.WINDOW_SHOWN, event -> {
+            WINDOW_OPEN_TIMER.recordSince(pRequestedNanos);
+            OPEN_WINDOWS.incrementAndGet();
+        });
+        pStage.addEventHandler(WindowEvent.WINDOW_HIDDEN, event -> OPEN_WINDOWS.decrementAndGet());
+    }
+
+    /**
+     * Returns the hit and miss counts so far.
+     *
+     * @return a snapshot of the counters
+     */
+    public static Stats getStats() {
+        return new Stats(VIEW_HITS.get(), VIEW_MISSES.get(), SCENE_HITS.get(), SCENE_MISSES.get(),
+                EVICTIONS.get());
+    }
+
+    private static void dispose(View<?> pView) {
+        if (pView.controller() instanceof Disposable controller) {
+            controller.dispose();
+        }
+    }
+
+    private static <C> View<C> load(Template pTemplate) {
+        long start = System.nanoTime();
+        try {
+            URL location = ViewCache.class.getResource(pTemplate.aResource);
+            FXMLLoader loader = new FXMLLoader(location);
+            Parent root;
+            try (InputStream in = new ByteArrayInputStream(templateBytes(pTemplate, location))) {
+                root = loader.load(in);
+            }
+            FXML_LOAD_TIMER.recordSince(start);
+            return new View<>(pTemplate, root, loader.getController());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load " + pTemplate.aResource, e);
+        }
+    }
+
+    private static byte[] templateBytes(Template pTemplate, URL pLocation) throws IOException {
+        byte[] bytes = TEMPLATE_BYTES.get(pTemplate);
+        if (bytes == null) {
+            if (pLocation == null) {
+                throw new IOException("Missing resource " + pTemplate.aResource);
+            }
+            try (InputStream in = pLocation.openStream()) {
+                bytes = in.readAllBytes();
+            }
+            TEMPLATE_BYTES.put(pTemplate, bytes);
+        }
+        return bytes;
+    }
+}
@@ -1,18 +1,163 @@
 package com.example.zoostructure;
 
+import com.example.zoostructure.Controllers.CompositeEnclosureViewController;
+import com.example.zoostructure.Controllers.ViewCache;
+import com.example.zoostructure.Helpers.ImportHelper;
+import com.example.zoostructure.Helpers.StartupTimer;
+import com.example.zoostructure.Metrics.ZooMetrics;
+import com.example.zoostructure.Model.CompositeEnclosureCollection;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
 
+/**
+ * Starts the zoo window.
+ * <p>
+ * By default the window is shown as soon as the top-level view has been loaded. The
+ * zoo starts loading once the first frame is on screen, and the views that are only
+ * needed when an enclosure or animal is opened are prepared after the zoo has loaded,
+ * one at a time, together with the JMX metrics. With the {@value #STARTUP_PROPERTY}
+ * system property set to {@code eager}, all of that is done before the window is
+ * shown instead, for comparison.
+ * </p>
+ * <p>
+ * Either way the phases are timed with {@link StartupTimer} and printed once the
+ * application is ready.
+ * </p>
+ */
 public class HelloApplication extends Application {
+
+    /**
+     * System property choosing how the application starts: {@code fast} (the default)
+     * or {@code eager}.
+     */
+    public static final String STARTUP_PROPERTY = "zoo.startup";
+
+    /**
+     * The views prepared ahead of time, in the order they are likely to be opened.
+     */
+    private static final List<ViewCache.Template> SECONDARY_VIEWS =
+            List.of(ViewCache.Template.ENCLOSURE, ViewCache.Template.ANIMAL);
+
+    private CompositeEnclosureViewController controller;
+    private boolean eager;
+
     @Override
     public void start(Stage stage) throws IOException {
+        StartupTimer.mark("fxStart");
+        eager = "eager".equalsIgnoreCase(System.getProperty(STARTUP_PROPERTY));
         FXMLLoader fxmlLoader = new FXMLLoader(HelloApplication.class.getResource("CompositeEnclosureView.fxml"));
         Scene scene = new Scene(fxmlLoader.load(), 600, 200);
+        controller = fxmlLoader.getController();
+        StartupTimer.mark("shell");
         stage.setScene(scene);
+        if (eager) {
+            CompositeEnclosureCollection zoo = ImportHelper.loadAnimals();
+            StartupTimer.mark("zooLoaded");
+            for (ViewCache.Template template : SECONDARY_VIEWS) {
+                preload(template);
+            }
+            ZooMetrics.exposeOverJmx();
+            controller.loadCompositeCollection((onRoot, onProgress) -> {
+                onRoot.accept(zoo);
+                return zoo;
+            });
+            afterFirstFrame(scene, this::ready);
+        } else {
+            afterFirstFrame(scene, () -> controller.loadCompositeCollection(this::loadZoo));
+        }
         stage.show();
     }
+
+    @Override
+    public void stop() {
+        controller.cancelLoading();
+        try {
+            ImportHelper.closeJournal();
+        } catch (IOException e) {
+            ZooMetrics.recordError("app.closeJournal", e);
+        }
+    }
+
+    /**
+     * Loads the zoo for the fast start, on the controller's loading thread, and then
+     * registers the metrics there and prepares the secondary views on the FX thread.
+     */
+    private CompositeEnclosureCollection loadZoo(Consumer<CompositeEnclosureCollection> pOnRoot,
+                                                 DoubleConsumer pOnProgress) throws IOException {
+        try {
+            CompositeEnclosureCollection zoo = ImportHelper.loadAnimals(pOnRoot, pOnProgress);
+            StartupTimer.mark("zooLoaded");
+            return zoo;
+        } finally {
+            ZooMetrics.exposeOverJmx();
+            Deque<ViewCache.Template> pending = new ArrayDeque<>(SECONDARY_VIEWS);
+            Platform.runLater(() -> warmUp(pending));
+        }
+    }
+
+    /**
+     * Prepares one pending view, then queues the next, so events that arrive in the
+     * meantime are handled between two loads.
+     */
+    private void warmUp(Deque<ViewCache.Template> pPending) {
+        ViewCache.Template template = pPending.poll();
+        if (template == null) {
+            ready();
+            return;
+        }
+        preload(template);
+        Platform.runLater(() -> warmUp(pPending));
+    }
+
+    private static void preload(ViewCache.Template pTemplate) {
+        try {
+            ViewCache.preload(pTemplate);
+        } catch (UncheckedIOException e) {
+            ZooMetrics.recordError("app.preload", e);
+        }
+    }
+
+    private void ready() {
+        StartupTimer.mark("ready");
+        if (StartupTimer.reportRequested()) {
+            System.out.println("Startup (" + (eager ? "eager" : "fast") + "): " + StartupTimer.report());
+        }
+        if (StartupTimer.exitRequested()) {
+            Platform.exit();
+        }
+    }
+
+    /**
+     * Runs an action right after the first pulse that lays out the scene, which is the
+     * one that draws its first frame.
+     */
+    private static void afterFirstFrame(Scene pScene, Runnable pAction) {
+        pScene.addPostLayoutPulseListener(new Runnable() {
+            private boolean aDone;
+
+            @Override
+            public void run() {
+                if (aDone) {
+                    return;
+                }
+                aDone = true;
+                StartupTimer.mark("firstFrame");
+                Platform.runLater(() -> {
+                    pScene.removePostLayoutPulseListener(this);
+                    pAction.run();
+                });
+            }
+        });
+    }
 }
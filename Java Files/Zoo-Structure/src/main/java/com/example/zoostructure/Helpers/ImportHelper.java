@@ -1,7 +1,16 @@
 package com.example.zoostructure.Helpers;
 
+import com.example.zoostructure.Metrics.ZooMetrics;
 import com.example.zoostructure.Model.*;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+
 /**
  * The {@code ImportHelper} class is a utility class responsible for
  * constructing and returning a preconfigured hierarchical structure
@@ -23,6 +32,206 @@ import com.example.zoostructure.Model.*;
  */
 public class ImportHelper {
 
+    /**
+     * System property naming an inventory file (CSV or JSON Lines) to load
+     * instead of the built-in demo data.
+     */
+    public static final String IMPORT_FILE_PROPERTY = "zoo.import";
+
+    /**
+     * System property naming a binary snapshot file. If the file exists the zoo is
+     * opened from it; otherwise the zoo is loaded as usual and saved there for the
+     * next start.
+     */
+    public static final String SNAPSHOT_FILE_PROPERTY = "zoo.snapshot";
+
+    /**
+     * System property naming a journal file. Changes made while the application runs
+     * are appended to it with {@link ZooJournal} and replayed at the next start.
+     */
+    public static final String JOURNAL_FILE_PROPERTY = "zoo.journal";
+
+    /**
+     * System property giving how often, in milliseconds, journaled changes are forced
+     * to disk: {@code 0} after every write, a negative value never. Defaults to 100.
+     */
+    public static final String JOURNAL_SYNC_PROPERTY = "zoo.journal.syncMillis";
+
+    /**
+     * System property giving the journal size, in bytes, at which it is folded into
+     * the snapshot while the application runs. Only used when a snapshot file is
+     * configured; {@code 0} turns it off. Defaults to 64 MiB.
+     */
+    public static final String JOURNAL_CHECKPOINT_PROPERTY = "zoo.journal.checkpointBytes";
+
+    private static final long DEFAULT_CHECKPOINT_BYTES = 64L << 20;
+
+    /**
+     * The name of the root of an imported zoo.
+     */
+    private static final String IMPORT_ROOT_NAME = "Zoo";
+
+    private static volatile ZooJournal sJournal;
+
+    /**
+     * Loads the zoo shown by the application.
+     * <ol>
+     *     <li>If the {@value #SNAPSHOT_FILE_PROPERTY} system property names an existing
+     *     snapshot, it is opened with {@link ZooSnapshot}.</li>
+     *     <li>Otherwise, if the {@value #IMPORT_FILE_PROPERTY} system property names an
+     *     inventory file, it is imported with {@link ZooImporter} and the import rate is
+     *     reported.</li>
+     *     <li>Otherwise the demo data from {@link #createAnimals()} is used.</li>
+     * </ol>
+     * When a snapshot file is configured but missing, the loaded zoo is written to it.
+     * When the {@value #JOURNAL_FILE_PROPERTY} system property names a journal, the
+     * changes in it are replayed on top, folded into the snapshot if there is one, and
+     * the journal keeps recording until {@link #closeJournal()} is called.
+     *
+     * @return the root of the zoo to display
+     * @throws IOException if a configured file cannot be read or written
+     */
+    public static CompositeEnclosureCollection loadAnimals() throws IOException {
+        return loadAnimals(root -> {
+        }, progress -> {
+        });
+    }
+
+    /**
+     * Loads the zoo like {@link #loadAnimals()}, but hands out its root before any
+     * section is in it, so a caller on another thread can show the sections as they
+     * arrive. A snapshot is decoded one top-level section at a time and each one is
+     * added as soon as it is ready; an imported or demo zoo is built first and then
+     * added a section at a time. The journal, if any, is replayed and started after
+     * the last section.
+     * <p>
+     * Until then only the loading thread may change the zoo: changes from other
+     * threads throw {@link IllegalStateException}, since the journal would not record
+     * them. Meant to run off the JavaFX application thread. Interrupting the thread
+     * stops the loading between two sections; the partly filled zoo is then made
+     * read-only for good, as it is when loading fails, and neither the snapshot nor
+     * the journal is touched.
+     * </p>
+     *
+     * @param pOnRoot     called with the empty root before anything is read
+     * @param pOnProgress called after each top-level section with the share added so far,
+     *                    from 0 to 1
+     * @return the root of the zoo to display
+     * @throws IOException if a configured file cannot be read or written, or the
+     *                     loading was interrupted
+     */
+    public static CompositeEnclosureCollection loadAnimals(Consumer<CompositeEnclosureCollection> pOnRoot,
+                                                           DoubleConsumer pOnProgress) throws IOException {
+        Path journalFile = pathProperty(JOURNAL_FILE_PROPERTY);
+        Path snapshotFile = pathProperty(SNAPSHOT_FILE_PROPERTY);
+        Path importFile = pathProperty(IMPORT_FILE_PROPERTY);
+        ZooSnapshot.Sections saved = null;
+        CompositeEnclosureCollection demo = null;
+        String rootName = IMPORT_ROOT_NAME;
+        if (snapshotFile != null && Files.exists(snapshotFile)) {
+            saved = ZooSnapshot.sections(snapshotFile);
+            rootName = saved.getRootName();
+        } else if (importFile == null) {
+            demo = createAnimals();
+            rootName = demo.getName();
+        }
+
+        CompositeEnclosureCollection zoo = new CompositeEnclosureCollection(rootName);
+        CompositeEnclosureCollection.restrictWrites(zoo, Thread.currentThread());
+        ZooMetrics.gauge("zoo.animals", () -> zoo.getSummary().getAnimalCount());
+        ZooMetrics.gauge("zoo.enclosures", () -> zoo.getSummary().getEnclosureCount());
+        pOnRoot.accept(zoo);
+        try {
+            if (saved != null) {
+                for (int i = 0; i < saved.size(); i++) {
+                    checkInterrupted(i, saved.size());
+                    zoo.addCollection(saved.get(i));
+                    pOnProgress.accept((i + 1) / (double) saved.size());
+                }
+            } else {
+                CompositeEnclosureCollection built = demo;
+                if (built == null) {
+                    // Rows and throughput are recorded as import.* metrics.
+                    built = ZooImporter.importFile(importFile, IMPORT_ROOT_NAME).root();
+                }
+                List<EnclosureCollection> sections = built.getCollections();
+                for (int i = 0; i < sections.size(); i++) {
+                    checkInterrupted(i, sections.size());
+                    EnclosureCollection section = sections.get(i);
+                    built.removeCollection(section);
+                    zoo.addCollection(section);
+                    pOnProgress.accept((i + 1) / (double) sections.size());
+                }
+                if (snapshotFile != null) {
+                    ZooSnapshot.write(zoo, snapshotFile);
+                }
+            }
+            startJournal(zoo, journalFile, snapshotFile);
+        } catch (IOException | RuntimeException e) {
+            CompositeEnclosureCollection.makeReadOnly(zoo);
+            throw e;
+        }
+        CompositeEnclosureCollection.restrictWrites(zoo, null);
+        return zoo;
+    }
+
+    /**
+     * Replays the journal, if any, on the loaded zoo and starts recording to it.
+     */
+    private static void startJournal(CompositeEnclosureCollection pZoo, Path pJournalFile, Path pSnapshotFile)
+            throws IOException {
+        if (pJournalFile == null) {
+            return;
+        }
+        int generation = pSnapshotFile == null ? 0 : ZooSnapshot.journalGeneration(pSnapshotFile);
+        long position = pSnapshotFile == null ? 0 : ZooSnapshot.journalPosition(pSnapshotFile);
+        long replayed = ZooJournal.replay(pJournalFile, pZoo, generation, position);
+        long syncMillis = Long.getLong(JOURNAL_SYNC_PROPERTY, 100);
+        ZooJournal journal = ZooJournal.start(pJournalFile, pZoo, syncMillis, generation, position);
+        sJournal = journal;
+        if (pSnapshotFile != null) {
+            if (replayed > 0) {
+                journal.checkpoint(pSnapshotFile);
+            }
+            journal.checkpointWhenLarger(pSnapshotFile,
+                    Long.getLong(JOURNAL_CHECKPOINT_PROPERTY, DEFAULT_CHECKPOINT_BYTES));
+        }
+    }
+
+    private static void checkInterrupted(int pDone, int pTotal) throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Loading stopped after " + pDone + " of " + pTotal + " sections");
+        }
+    }
+
+    /**
+     * Stops the journal started by {@link #loadAnimals()}, if any. When a snapshot
+     * file is configured the zoo is written to it and the journal emptied, so the next
+     * start has nothing to replay. Must be called once the zoo is no longer changing.
+     *
+     * @throws IOException if the journal or the snapshot cannot be written
+     */
+    public static void closeJournal() throws IOException {
+        ZooJournal journal = sJournal;
+        if (journal == null) {
+            return;
+        }
+        sJournal = null;
+        Path snapshotFile = pathProperty(SNAPSHOT_FILE_PROPERTY);
+        try {
+            if (snapshotFile != null) {
+                journal.checkpoint(snapshotFile);
+            }
+        } finally {
+            journal.close();
+        }
+    }
+
+    private static Path pathProperty(String pName) {
+        String value = System.getProperty(pName);
+        return value == null || value.isBlank() ? null : Path.of(value);
+    }
+
     /**
      * Creates and returns a preconfigured {@link CompositeEnclosureCollection}
      * representing a zoo section called "Big Cats". This structure contains
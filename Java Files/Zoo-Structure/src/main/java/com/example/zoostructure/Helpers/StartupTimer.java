@@ -0,0 +1,135 @@
+package com.example.zoostructure.Helpers;
+
+import com.example.zoostructure.Metrics.ZooMetrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Records when each phase of starting the application was reached, measured from the
+ * moment the JVM started, so the cost of the JVM, the toolkit, the first frame and the
+ * zoo itself can be told apart.
+ * <p>
+ * Phases are marked by name in the order they are reached, for example {@code main},
+ * {@code shell}, {@code firstFrame} and {@code zooLoaded}. Each one is also published
+ * as a {@code startup.<phase>Millis} gauge in {@link ZooMetrics}, and
+ * {@link #report()} lists them all on one line.
+ * </p>
+ * <p>
+ * Marking a phase only reads the clock, so it can be called on the startup path
+ * itself. Safe to use from any thread.
+ * </p>
+ */
+public final class StartupTimer {
+
+    /**
+     * System property that makes the application exit once it has finished starting,
+     * after printing the report. Used for training runs that record a class-data
+     * sharing archive, and for timing startup from a script.
+     */
+    public static final String EXIT_PROPERTY = "zoo.startup.exit";
+
+    /**
+     * System property that makes the application print the report once it has finished
+     * starting. Otherwise the phases are only published as gauges.
+     */
+    public static final String REPORT_PROPERTY = "zoo.startup.report";
+
+    /**
+     * The wall-clock time each phase was reached, in milliseconds, in the order marked.
+     */
+    private static final Map<String, Long> PHASES = new LinkedHashMap<>();
+
+    private static long sJvmStartMillis = -1;
+
+    private StartupTimer() {
+    }
+
+    /**
+     * Records that a phase has been reached. Marking the same phase again has no effect,
+     * so the first time counts.
+     *
+     * @param pPhase a short name such as {@code firstFrame}
+     */
+    public static void mark(String pPhase) {
+        long now = System.currentTimeMillis();
+        synchronized (PHASES) {
+            if (PHASES.putIfAbsent(pPhase, now) != null) {
+                return;
+            }
+        }
+        ZooMetrics.gauge("startup." + pPhase + "Millis", () -> elapsedMillis(pPhase));
+    }
+
+    /**
+     * Returns how long after the JVM started a phase was reached.
+     *
+     * @param pPhase the name the phase was marked with
+     * @return the time in milliseconds, or -1 if the phase has not been reached
+     */
+    public static long elapsedMillis(String pPhase) {
+        Long reached;
+        synchronized (PHASES) {
+            reached = PHASES.get(pPhase);
+        }
+        return reached == null ? -1 : reached - jvmStartMillis();
+    }
+
+    /**
+     * Lists every phase reached so far with its time since the JVM started and, in
+     * brackets, the time since the phase before it.
+     *
+     * @return a line such as {@code main 180 ms, shell 410 ms (+230), firstFrame 470 ms (+60)}
+     */
+    public static String report() {
+        Map<String, Long> phases;
+        synchronized (PHASES) {
+            phases = new LinkedHashMap<>(PHASES);
+        }
+        long start = jvmStartMillis();
+        long previous = -1;
+        StringJoiner text = new StringJoiner(", ");
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            long elapsed = phase.getValue() - start;
+            text.add(previous < 0
+                    ? phase.getKey() + " " + elapsed + " ms"
+                    : phase.getKey() + " " + elapsed + " ms (+" + (elapsed - previous) + ")");
+            previous = elapsed;
+        }
+        return text.toString();
+    }
+
+    /**
+     * Tells whether the {@value #EXIT_PROPERTY} system property asks the application to
+     * exit once it has started.
+     *
+     * @return {@code true} if the application should exit when ready
+     */
+    public static boolean exitRequested() {
+        return Boolean.getBoolean(EXIT_PROPERTY);
+    }
+
+    /**
+     * Tells whether the report should be printed once the application has started,
+     * which is the case when the {@value #REPORT_PROPERTY} system property is set or
+     * the application is going to {@link #exitRequested() exit} straight away.
+     *
+     * @return {@code true} if the report should be printed
+     */
+    public static boolean reportRequested() {
+        return Boolean.getBoolean(REPORT_PROPERTY) || exitRequested();
+    }
+
+    /**
+     * Looked up on first use rather than when the class loads, so marking the first
+     * phases costs nothing.
+     */
+    private static synchronized long jvmStartMillis() {
+        if (sJvmStartMillis < 0) {
+            sJvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+        }
+        return sJvmStartMillis;
+    }
+}
@@ -0,0 +1,553 @@
+package com.example.zoostructure.Helpers;
+
+import com.example.zoostructure.Model.*;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * The {@code ZooExporter} class writes a zoo tree out through a
+ * {@link WritableByteChannel}, one animal at a time.
+ *
+ * <p>The tree is walked once and every node is handed to a {@link Sink}. Three
+ * formats are built in; TEXT is written by the model's {@link TreePrinter}:</p>
+ * <pre>
+ * TEXT:  the indented tree printed by display()
+ * CSV:   Big Cats/Tigers/Tiger Cubs,Tiger,Ravi,0
+ * JSONL: {"path":"Big Cats/Tigers/Tiger Cubs","species":"Tiger","name":"Ravi","age":0}
+ * </pre>
+ * <p>CSV and JSON Lines are the formats read by {@link ZooImporter}, with paths
+ * relative to the exported collection, so an export can be imported again.
+ * Enclosures without animals have no rows and are not part of those formats.</p>
+ *
+ * <p>Output goes through a {@link ChannelWriter}: one direct buffer and one reused
+ * UTF-8 encoder per export, with ASCII text and whole-number ages copied straight
+ * into the buffer, so nothing is allocated per line in the common case.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * long rows = ZooExporter.export(zoo, Path.of("zoo.csv"));
+ * }</pre>
+ */
+public final class ZooExporter {
+
+    /**
+     * The supported output formats.
+     */
+    public enum Format {
+        TEXT,
+        CSV,
+        JSONL;
+
+        /**
+         * Picks the format from a file's extension: {@code .txt} is the text tree,
+         * {@code .jsonl}, {@code .ndjson} and {@code .json} are JSON Lines, anything
+         * else is CSV.
+         *
+         * @param pFile the output file
+         * @return the format to write it in
+         */
+        public static Format forPath(Path pFile) {
+            String fileName = pFile.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (fileName.endsWith(".txt")) {
+                return TEXT;
+            }
+            return ZooImporter.Format.forPath(pFile) == ZooImporter.Format.JSONL ? JSONL : CSV;
+        }
+    }
+
+    /**
+     * Receives the nodes of a tree in depth-first order. Paths are relative to the
+     * exported collection and empty for the collection itself when it is a section.
+     */
+    public interface Sink {
+
+        /**
+         * Called for each section before its children.
+         *
+         * @param pSection the section
+         * @param pPath    the section's path
+         * @param pDepth   0 for the exported collection, 1 for its children, and so on
+         * @throws IOException if the output cannot be written
+         */
+        default void section(CompositeEnclosureCollection pSection, String pPath, int pDepth) throws IOException {
+        }
+
+        /**
+         * Called for each enclosure before its animals.
+         *
+         * @param pEnclosure the enclosure
+         * @param pPath      the enclosure's path
+         * @param pDepth     the enclosure's depth
+         * @throws IOException if the output cannot be written
+         */
+        default void enclosure(Enclosure pEnclosure, String pPath, int pDepth) throws IOException {
+        }
+
+        /**
+         * Called for each animal.
+         *
+         * @param pAnimal the animal
+         * @param pPath   the path of its enclosure
+         * @param pDepth  the depth of its enclosure
+         * @throws IOException if the output cannot be written
+         */
+        void animal(Animal pAnimal, String pPath, int pDepth) throws IOException;
+    }
+
+    /**
+     * The size of the output buffer.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ZooExporter() {
+    }
+
+    /**
+     * Exports a tree to a file, choosing the format from its extension. The file is
+     * created or replaced.
+     *
+     * @param pRoot the collection to export
+     * @param pFile the file to write
+     * @return the number of animals written
+     * @throws IOException if the file cannot be written
+     */
+    public static long export(EnclosureCollection pRoot, Path pFile) throws IOException {
+        return export(pRoot, pFile, Format.forPath(pFile));
+    }
+
+    /**
+     * Exports a tree to a file in the given format. The file is created or replaced.
+     *
+     * @param pRoot   the collection to export
+     * @param pFile   the file to write
+     * @param pFormat the output format
+     * @return the number of animals written
+     * @throws IOException if the file cannot be written
+     */
+    public static long export(EnclosureCollection pRoot, Path pFile, Format pFormat) throws IOException {
+        try (FileChannel channel = FileChannel.open(pFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return export(pRoot, channel, pFormat);
+        }
+    }
+
+    /**
+     * Exports a tree to a channel in the given format. The channel is left open.
+     *
+     * @param pRoot    the collection to export
+     * @param pChannel where to write
+     * @param pFormat  the output format
+     * @return the number of animals written
+     * @throws IOException if the channel cannot be written
+     */
+    public static long export(EnclosureCollection pRoot, WritableByteChannel pChannel, Format pFormat) throws IOException {
+        ChannelWriter writer = new ChannelWriter(pChannel);
+        long rows = export(pRoot, writer, pFormat);
+        writer.flush();
+        return rows;
+    }
+
+    /**
+     * Exports a tree through a writer the caller owns, in the given format. The
+     * writer is not flushed, so more output can follow.
+     *
+     * @param pRoot   the collection to export
+     * @param pWriter where to write
+     * @param pFormat the output format
+     * @return the number of animals written
+     * @throws IOException if the writer's channel cannot be written
+     */
+    public static long export(EnclosureCollection pRoot, ChannelWriter pWriter, Format pFormat) throws IOException {
+        return switch (pFormat) {
+            case TEXT -> TreePrinter.print(pRoot, "", pWriter);
+            case CSV -> {
+                pWriter.writeAscii("path,species,name,age\n");
+                yield export(pRoot, new CsvSink(pWriter));
+            }
+            case JSONL -> export(pRoot, new JsonSink(pWriter));
+        };
+    }
+
+    /**
+     * Walks a tree and passes every node to a sink.
+     *
+     * @param pRoot the collection to export
+     * @param pSink what to do with each node
+     * @return the number of animals passed to the sink
+     * @throws IOException if the sink fails
+     */
+    public static long export(EnclosureCollection pRoot, Sink pSink) throws IOException {
+        try {
+            return pRoot.accept(new Walker(pSink));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Walks the tree depth first, keeping track of the current path and depth.
+     */
+    private static final class Walker implements EnclosureVisitor<Long> {
+        private final Sink aSink;
+        private String aPath = "";
+        private int aDepth;
+
+        private Walker(Sink pSink) {
+            this.aSink = pSink;
+        }
+
+        @Override
+        public Long visitEnclosure(Enclosure pEnclosure) {
+            String path = aDepth == 0 ? pEnclosure.getName() : aPath;
+            try {
+                aSink.enclosure(pEnclosure, path, aDepth);
+                long rows = 0;
+                for (Animal animal : pEnclosure.getAnimals()) {
+                    aSink.animal(animal, path, aDepth);
+                    rows++;
+                }
+                return rows;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Long visitComposite(CompositeEnclosureCollection pComposite) {
+            try {
+                aSink.section(pComposite, aPath, aDepth);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            String parentPath = aPath;
+            long rows = 0;
+            aDepth++;
+            for (EnclosureCollection child : pComposite.getCollections()) {
+                aPath = parentPath.isEmpty() ? child.getName() : parentPath + "/" + child.getName();
+                rows += child.accept(this);
+            }
+            aDepth--;
+            aPath = parentPath;
+            return rows;
+        }
+    }
+
+    /**
+     * One {@code path,species,name,age} row per animal.
+     */
+    private static final class CsvSink implements Sink {
+        private final ChannelWriter aWriter;
+
+        private CsvSink(ChannelWriter pWriter) {
+            this.aWriter = pWriter;
+        }
+
+        @Override
+        public void animal(Animal pAnimal, String pPath, int pDepth) throws IOException {
+            field(pPath);
+            aWriter.writeAscii(',').writeAscii(Species.of(pAnimal).getDisplayName()).writeAscii(',');
+            field(pAnimal.getName());
+            aWriter.writeAscii(',');
+            aWriter.writeAge(pAnimal.getAge());
+            aWriter.writeAscii('\n');
+        }
+
+        /**
+         * Writes a field, quoted only if it contains a comma, quote or line break.
+         */
+        private void field(String pValue) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < pValue.length() && !quote; i++) {
+                char c = pValue.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                aWriter.write(pValue);
+                return;
+            }
+            aWriter.writeAscii('"');
+            for (int i = 0; i < pValue.length(); i++) {
+                char c = pValue.charAt(i);
+                if (c == '"') {
+                    aWriter.writeAscii('"');
+                }
+                aWriter.write(c);
+            }
+            aWriter.writeAscii('"');
+        }
+    }
+
+    /**
+     * One JSON object per animal and line.
+     */
+    private static final class JsonSink implements Sink {
+        private final ChannelWriter aWriter;
+
+        private JsonSink(ChannelWriter pWriter) {
+            this.aWriter = pWriter;
+        }
+
+        @Override
+        public void animal(Animal pAnimal, String pPath, int pDepth) throws IOException {
+            aWriter.writeAscii("{\"path\":").writeJsonString(pPath);
+            aWriter.writeAscii(",\"species\":\"").writeAscii(Species.of(pAnimal).getDisplayName())
+                    .writeAscii("\",\"name\":").writeJsonString(pAnimal.getName());
+            aWriter.writeAscii(",\"age\":");
+            aWriter.writeAge(pAnimal.getAge());
+            aWriter.writeAscii("}\n");
+        }
+    }
+
+    /**
+     * Buffers text on its way to a channel. ASCII is copied straight into a direct
+     * buffer; anything else goes through one UTF-8 encoder that is reused for the
+     * whole export. The buffer is written out whenever it fills and on {@link #flush()}.
+     */
+    public static final class ChannelWriter implements Flushable, Appendable {
+        private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+        private final WritableByteChannel aChannel;
+        private final ByteBuffer aBuffer;
+        private final CharsetEncoder aEncoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        /**
+         * Holds one or two chars being encoded, so single non-ASCII chars need no wrapper.
+         */
+        private final CharBuffer aPending = CharBuffer.allocate(2);
+
+        /**
+         * A high surrogate waiting for its low half, or 0.
+         */
+        private char aHighSurrogate;
+
+        /**
+         * Creates a writer for a channel.
+         *
+         * @param pChannel where to write
+         */
+        public ChannelWriter(WritableByteChannel pChannel) {
+            this(pChannel, ByteBuffer.allocateDirect(BUFFER_SIZE));
+        }
+
+        /**
+         * Creates a writer that buffers in the given buffer, such as a small heap buffer
+         * when many writers are open at once or the channel copies into a stream anyway.
+         *
+         * @param pChannel where to write
+         * @param pBuffer  the buffer to fill, cleared before use
+         */
+        public ChannelWriter(WritableByteChannel pChannel, ByteBuffer pBuffer) {
+            this.aChannel = pChannel;
+            this.aBuffer = pBuffer.clear();
+        }
+
+        /**
+         * Writes text, encoding it as UTF-8.
+         *
+         * @param pText the text
+         * @return this writer
+         * @throws IOException if the channel cannot be written
+         */
+        public ChannelWriter write(CharSequence pText) throws IOException {
+            for (int i = 0; i < pText.length(); i++) {
+                write(pText.charAt(i));
+            }
+            return this;
+        }
+
+        /**
+         * Writes one char, encoding it as UTF-8. Surrogate pairs may be written one half at a time.
+         *
+         * @param pChar the char
+         * @return this writer
+         * @throws IOException if the channel cannot be written
+         */
+        public ChannelWriter write(char pChar) throws IOException {
+            if (pChar < 0x80 && aHighSurrogate == 0) {
+                return writeAscii(pChar);
+            }
+            if (Character.isHighSurrogate(pChar) && aHighSurrogate == 0) {
+                aHighSurrogate = pChar;
+                return this;
+            }
+            aPending.clear();
+            if (aHighSurrogate != 0) {
+                aPending.put(aHighSurrogate);
+                aHighSurrogate = 0;
+            }
+            aPending.put(pChar);
+            aPending.flip();
+            aEncoder.reset();
+            while (true) {
+                CoderResult result = aEncoder.encode(aPending, aBuffer, true);
+                if (result.isOverflow()) {
+                    drain();
+                } else {
+                    break;
+                }
+            }
+            aEncoder.flush(aBuffer);
+            return this;
+        }
+
+        /**
+         * Writes text as a quoted JSON string, escaping quotes, backslashes and control
+         * characters.
+         *
+         * @param pText the text
+         * @return this writer
+         * @throws IOException if the channel cannot be written
+         */
+        public ChannelWriter writeJsonString(CharSequence pText) throws IOException {
+            writeAscii('"');
+            for (int i = 0; i < pText.length(); i++) {
+                char c = pText.charAt(i);
+                switch (c) {
+                    case '"' -> writeAscii("\\\"");
+                    case '\\' -> writeAscii("\\\\");
+                    case '\n' -> writeAscii("\\n");
+                    case '\r' -> writeAscii("\\r");
+                    case '\t' -> writeAscii("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            writeAscii("\\u00").writeAscii(HEX[c >> 4]).writeAscii(HEX[c & 0xF]);
+                        } else {
+                            write(c);
+                        }
+                    }
+                }
+            }
+            return writeAscii('"');
+        }
+
+        /**
+         * Writes text known to be ASCII, one byte per char.
+         *
+         * @param pText the text
+         * @return this writer
+         * @throws IOException if the channel cannot be written
+         */
+        public ChannelWriter writeAscii(String pText) throws IOException {
+            for (int i = 0; i < pText.length(); i++) {
+                writeAscii(pText.charAt(i));
+            }
+            return this;
+        }
+
+        /**
+         * Writes one ASCII char as one byte.
+         *
+         * @param pChar the char
+         * @return this writer
+         * @throws IOException if the channel cannot be written
+         */
+        public ChannelWriter writeAscii(char pChar) throws IOException {
+            if (!aBuffer.hasRemaining()) {
+                drain();
+            }
+            aBuffer.put((byte) pChar);
+            return this;
+        }
+
+        /**
+         * Writes a number in decimal without creating a string.
+         *
+         * @param pValue the number
+         * @return this writer
+         * @throws IOException if the channel cannot be written
+         */
+        public ChannelWriter writeLong(long pValue) throws IOException {
+            if (pValue < 0) {
+                if (pValue == Long.MIN_VALUE) {
+                    return writeAscii(Long.toString(pValue));
+                }
+                writeAscii('-');
+                pValue = -pValue;
+            }
+            long divisor = 1;
+            while (pValue / divisor >= 10) {
+                divisor *= 10;
+            }
+            for (; divisor > 0; divisor /= 10) {
+                writeAscii((char) ('0' + pValue / divisor % 10));
+            }
+            return this;
+        }
+
+        @Override
+        public ChannelWriter append(CharSequence pText) throws IOException {
+            return write(pText == null ? "null" : pText);
+        }
+
+        @Override
+        public ChannelWriter append(CharSequence pText, int pStart, int pEnd) throws IOException {
+            return write((pText == null ? "null" : pText).subSequence(pStart, pEnd));
+        }
+
+        @Override
+        public ChannelWriter append(char pChar) throws IOException {
+            return write(pChar);
+        }
+
+        /**
+         * Writes an age the way {@link ZooImporter} reads it: whole numbers without a
+         * fraction, anything else as {@link Double#toString(double)} does.
+         *
+         * @param pAge the age
+         * @return this writer
+         * @throws IOException if the channel cannot be written
+         */
+        public ChannelWriter writeAge(double pAge) throws IOException {
+            if (!writeWholeNumber(pAge)) {
+                writeAscii(Double.toString(pAge));
+            }
+            return this;
+        }
+
+        /**
+         * Writes a double without a fraction if it is a whole number that fits a {@code long}.
+         *
+         * @return whether the number was written
+         */
+        private boolean writeWholeNumber(double pValue) throws IOException {
+            if (pValue != Math.rint(pValue) || Math.abs(pValue) >= 1e15) {
+                return false;
+            }
+            writeLong((long) pValue);
+            return true;
+        }
+
+        /**
+         * Writes out everything buffered so far.
+         *
+         * @throws IOException if the channel cannot be written
+         */
+        @Override
+        public void flush() throws IOException {
+            drain();
+        }
+
+        private void drain() throws IOException {
+            aBuffer.flip();
+            while (aBuffer.hasRemaining()) {
+                aChannel.write(aBuffer);
+            }
+            aBuffer.clear();
+        }
+    }
+}
@@ -0,0 +1,569 @@
+package com.example.zoostructure.Helpers;
+
+import com.example.zoostructure.Metrics.ZooMetrics;
+import com.example.zoostructure.Model.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code ZooImporter} class loads a zoo inventory from a flat file and
+ * turns it into a tree of {@link CompositeEnclosureCollection} and
+ * {@link Enclosure} objects.
+ *
+ * <p>Every row names the enclosure an animal lives in by its path. The last
+ * path segment is the enclosure, the segments before it are the sections
+ * containing it. Two formats are understood:</p>
+ * <pre>
+ * CSV:   Big Cats/Tigers/Tiger Cubs,Tiger,Ravi,0
+ * JSONL: {"path":"Big Cats/Tigers/Tiger Cubs","species":"Tiger","name":"Ravi","age":0}
+ * </pre>
+ * <p>CSV fields may be double-quoted, an optional {@code path,species,name,age}
+ * header is skipped, and blank lines and lines starting with {@code #} are ignored.</p>
+ *
+ * <p>The file is read through a {@link FileChannel} in fixed-size buffers, so the
+ * parser itself uses bounded memory however large the input is. Large files are
+ * split into byte ranges that are parsed in parallel on the common
+ * {@link ForkJoinPool}; the partial results are merged back in file order.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * ZooImporter.Result result = ZooImporter.importFile(Path.of("zoo.csv"), "Zoo");
+ * System.out.println(result.rowsPerSecond() + " rows/s");
+ * CompositeEnclosureCollection zoo = result.root();
+ * }</pre>
+ */
+public final class ZooImporter {
+
+    /**
+     * The supported input formats.
+     */
+    public enum Format {
+        CSV,
+        JSONL;
+
+        /**
+         * Picks the format from a file's extension: {@code .jsonl}, {@code .ndjson} and
+         * {@code .json} are JSON Lines, anything else is CSV.
+         *
+         * @param pFile the input file
+         * @return the format to parse it with
+         */
+        public static Format forPath(Path pFile) {
+            String fileName = pFile.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (fileName.endsWith(".jsonl") || fileName.endsWith(".ndjson") || fileName.endsWith(".json")) {
+                return JSONL;
+            }
+            return CSV;
+        }
+    }
+
+    /**
+     * The outcome of an import.
+     *
+     * @param root         the imported zoo
+     * @param rows         the number of animal rows read
+     * @param elapsedNanos how long parsing and building the tree took
+     */
+    public record Result(CompositeEnclosureCollection root, long rows, long elapsedNanos) {
+
+        /**
+         * Returns the import throughput.
+         *
+         * @return rows imported per second
+         */
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? rows : rows * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "Imported %d rows in %.1f ms (%.0f rows/s)",
+                    rows, elapsedNanos / 1_000_000.0, rowsPerSecond());
+        }
+    }
+
+    /**
+     * Byte ranges larger than this are split in two and parsed in parallel.
+     */
+    private static final long SPLIT_THRESHOLD = 4L * 1024 * 1024;
+
+    /**
+     * The size of the read buffer each parsing task uses.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ZooMetrics.Timer IMPORT_TIMER = ZooMetrics.timer("import.file");
+    private static final ZooMetrics.Counter IMPORTED_ROWS = ZooMetrics.counter("import.rows");
+
+    /**
+     * The throughput of the most recent import, published as the {@code import.rowsPerSecond} gauge.
+     */
+    private static final AtomicLong LAST_ROWS_PER_SECOND = new AtomicLong();
+
+    static {
+        ZooMetrics.gauge("import.rowsPerSecond", LAST_ROWS_PER_SECOND::get);
+    }
+
+    private ZooImporter() {
+    }
+
+    /**
+     * Imports a file, choosing the format from its extension.
+     *
+     * @param pFile     the file to read
+     * @param pRootName the name of the composite that will hold the imported sections
+     * @return the imported zoo together with import statistics
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a row is malformed or a path is used both as
+     *                                  an enclosure and as a section
+     */
+    public static Result importFile(Path pFile, String pRootName) throws IOException {
+        return importFile(pFile, Format.forPath(pFile), pRootName);
+    }
+
+    /**
+     * Imports a file in the given format.
+     *
+     * @param pFile     the file to read
+     * @param pFormat   the format of the file
+     * @param pRootName the name of the composite that will hold the imported sections
+     * @return the imported zoo together with import statistics
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a row is malformed or a path is used both as
+     *                                  an enclosure and as a section
+     */
+    public static Result importFile(Path pFile, Format pFormat, String pRootName) throws IOException {
+        long start = System.nanoTime();
+        long size;
+        try (FileChannel channel = FileChannel.open(pFile, StandardOpenOption.READ)) {
+            size = channel.size();
+        }
+
+        Chunk parsed;
+        try {
+            parsed = ForkJoinPool.commonPool().invoke(new ParseTask(pFile, pFormat, 0, size));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        CompositeEnclosureCollection root = new CompositeEnclosureCollection(pRootName);
+        buildTree(root, parsed.aAnimalsByPath);
+        IMPORT_TIMER.recordSince(start);
+        IMPORTED_ROWS.add(parsed.aRows);
+        Result result = new Result(root, parsed.aRows, System.nanoTime() - start);
+        LAST_ROWS_PER_SECOND.set(Math.round(result.rowsPerSecond()));
+        return result;
+    }
+
+    /**
+     * Parses rows arriving as text, such as a request body, without building a tree.
+     * The same rules apply as for files: a CSV header is skipped, and so are blank
+     * lines and comments.
+     *
+     * @param pReader the rows, one per line
+     * @param pFormat the format of the rows
+     * @return the parsed animals grouped by normalised enclosure path, in order of
+     *         first appearance
+     * @throws IOException              if the text cannot be read
+     * @throws IllegalArgumentException if a row is malformed
+     */
+    public static Map<String, List<Animal>> parseRows(BufferedReader pReader, Format pFormat) throws IOException {
+        Chunk chunk = new Chunk();
+        long lineNumber = 0;
+        String line;
+        while ((line = pReader.readLine()) != null) {
+            lineNumber++;
+            addRow(chunk, line, pFormat, lineNumber == 1, "line " + lineNumber);
+        }
+        return chunk.aAnimalsByPath;
+    }
+
+    /**
+     * The animals parsed from one byte range, grouped by enclosure path in order of
+     * first appearance.
+     */
+    private static final class Chunk {
+        private final Map<String, List<Animal>> aAnimalsByPath = new LinkedHashMap<>();
+        private long aRows;
+
+        private void add(String pPath, Animal pAnimal) {
+            aAnimalsByPath.computeIfAbsent(pPath, key -> new ArrayList<>()).add(pAnimal);
+            aRows++;
+        }
+
+        /**
+         * Appends a chunk that came later in the file.
+         */
+        private Chunk append(Chunk pLater) {
+            for (Map.Entry<String, List<Animal>> entry : pLater.aAnimalsByPath.entrySet()) {
+                List<Animal> existing = aAnimalsByPath.putIfAbsent(entry.getKey(), entry.getValue());
+                if (existing != null) {
+                    existing.addAll(entry.getValue());
+                }
+            }
+            aRows += pLater.aRows;
+            return this;
+        }
+    }
+
+    /**
+     * Parses the lines that start inside one byte range of the file, splitting the
+     * range when it is large.
+     */
+    private static final class ParseTask extends RecursiveTask<Chunk> {
+        private final Path aFile;
+        private final Format aFormat;
+        private final long aStart;
+        private final long aEnd;
+
+        private ParseTask(Path pFile, Format pFormat, long pStart, long pEnd) {
+            this.aFile = pFile;
+            this.aFormat = pFormat;
+            this.aStart = pStart;
+            this.aEnd = pEnd;
+        }
+
+        @Override
+        protected Chunk compute() {
+            if (aEnd - aStart > SPLIT_THRESHOLD) {
+                long middle = aStart + (aEnd - aStart) / 2;
+                ParseTask later = new ParseTask(aFile, aFormat, middle, aEnd);
+                later.fork();
+                Chunk earlier = new ParseTask(aFile, aFormat, aStart, middle).compute();
+                return earlier.append(later.join());
+            }
+            try {
+                return parseRange();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Reads every line whose first byte lies in {@code [aStart, aEnd)}. A range that
+         * starts in the middle of a line leaves that line to the range before it.
+         */
+        private Chunk parseRange() throws IOException {
+            Chunk chunk = new Chunk();
+            try (FileChannel channel = FileChannel.open(aFile, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                byte[] line = new byte[256];
+                int lineLength = 0;
+                long position = aStart;
+                long lineStart = aStart;
+                boolean skipping = false;
+
+                if (aStart > 0) {
+                    ByteBuffer previous = ByteBuffer.allocate(1);
+                    channel.read(previous, aStart - 1);
+                    skipping = previous.get(0) != '\n';
+                }
+
+                while (lineStart < aEnd) {
+                    buffer.clear();
+                    int read = channel.read(buffer, position);
+                    if (read <= 0) {
+                        break;
+                    }
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        byte b = buffer.get();
+                        position++;
+                        if (b == '\n') {
+                            if (!skipping) {
+                                parseLine(chunk, line, lineLength, lineStart);
+                            }
+                            skipping = false;
+                            lineLength = 0;
+                            lineStart = position;
+                            if (lineStart >= aEnd) {
+                                break;
+                            }
+                        } else if (!skipping) {
+                            if (lineLength == line.length) {
+                                line = Arrays.copyOf(line, line.length * 2);
+                            }
+                            line[lineLength++] = b;
+                        }
+                    }
+                }
+                if (!skipping && lineLength > 0 && lineStart < aEnd) {
+                    parseLine(chunk, line, lineLength, lineStart);
+                }
+            }
+            return chunk;
+        }
+
+        private void parseLine(Chunk pChunk, byte[] pLine, int pLength, long pOffset) {
+            if (pLength > 0 && pLine[pLength - 1] == '\r') {
+                pLength--;
+            }
+            addRow(pChunk, new String(pLine, 0, pLength, StandardCharsets.UTF_8), aFormat, pOffset == 0,
+                    "byte " + pOffset);
+        }
+    }
+
+    /**
+     * Parses one line into an animal and adds it to a chunk.
+     *
+     * @param pFirst whether this is the first line, which may be a CSV header
+     * @param pWhere where the line came from, for error messages
+     */
+    private static void addRow(Chunk pChunk, String pLine, Format pFormat, boolean pFirst, String pWhere) {
+        String text = pLine.trim();
+        if (text.isEmpty() || text.startsWith("#")) {
+            return;
+        }
+        try {
+            String[] fields = pFormat == Format.CSV ? splitCsv(text) : parseJsonObject(text);
+            if (pFormat == Format.CSV && pFirst && fields[0].equalsIgnoreCase("path")) {
+                return; // header row
+            }
+            Species species = Species.fromName(fields[1]);
+            pChunk.add(normalisePath(fields[0]), species.newAnimal(fields[2], Double.parseDouble(fields[3])));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Bad row at " + pWhere + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Splits a CSV row into its path, species, name and age fields.
+     */
+    private static String[] splitCsv(String pLine) {
+        String[] fields = new String[4];
+        int count = 0;
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < pLine.length(); i++) {
+            char c = pLine.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < pLine.length() && pLine.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                if (count == fields.length - 1) {
+                    throw new IllegalArgumentException("expected 4 fields");
+                }
+                fields[count++] = field.toString().trim();
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (count != fields.length - 1) {
+            throw new IllegalArgumentException("expected 4 fields");
+        }
+        fields[count] = field.toString().trim();
+        return fields;
+    }
+
+    /**
+     * Reads the path, species, name and age members of a flat JSON object.
+     * Unknown members are ignored.
+     */
+    private static String[] parseJsonObject(String pLine) {
+        String[] fields = new String[4];
+        JsonCursor cursor = new JsonCursor(pLine);
+        cursor.expect('{');
+        if (!cursor.consume('}')) {
+            do {
+                String key = cursor.readString();
+                cursor.expect(':');
+                String value = cursor.peek() == '"' ? cursor.readString() : cursor.readLiteral();
+                switch (key) {
+                    case "path" -> fields[0] = value;
+                    case "species" -> fields[1] = value;
+                    case "name" -> fields[2] = value;
+                    case "age" -> fields[3] = value;
+                    default -> { }
+                }
+            } while (cursor.consume(','));
+            cursor.expect('}');
+        }
+        for (String field : fields) {
+            if (field == null) {
+                throw new IllegalArgumentException("expected path, species, name and age");
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * A minimal reader for the flat objects used by JSON Lines inventories.
+     */
+    private static final class JsonCursor {
+        private final String aText;
+        private int aIndex;
+
+        private JsonCursor(String pText) {
+            this.aText = pText;
+        }
+
+        private char peek() {
+            skipWhitespace();
+            if (aIndex >= aText.length()) {
+                throw new IllegalArgumentException("unexpected end of JSON");
+            }
+            return aText.charAt(aIndex);
+        }
+
+        private boolean consume(char pExpected) {
+            if (peek() == pExpected) {
+                aIndex++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char pExpected) {
+            if (!consume(pExpected)) {
+                throw new IllegalArgumentException("expected '" + pExpected + "' at column " + aIndex);
+            }
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (aIndex < aText.length()) {
+                char c = aText.charAt(aIndex++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c == '\\') {
+                    char escaped = aText.charAt(aIndex++);
+                    switch (escaped) {
+                        case 'n' -> value.append('\n');
+                        case 't' -> value.append('\t');
+                        case 'r' -> value.append('\r');
+                        case 'b' -> value.append('\b');
+                        case 'f' -> value.append('\f');
+                        case 'u' -> {
+                            value.append((char) Integer.parseInt(aText.substring(aIndex, aIndex + 4), 16));
+                            aIndex += 4;
+                        }
+                        default -> value.append(escaped);
+                    }
+                } else {
+                    value.append(c);
+                }
+            }
+            throw new IllegalArgumentException("unterminated JSON string");
+        }
+
+        private String readLiteral() {
+            skipWhitespace();
+            int start = aIndex;
+            while (aIndex < aText.length() && ",}] \t".indexOf(aText.charAt(aIndex)) < 0) {
+                aIndex++;
+            }
+            return aText.substring(start, aIndex);
+        }
+
+        private void skipWhitespace() {
+            while (aIndex < aText.length() && Character.isWhitespace(aText.charAt(aIndex))) {
+                aIndex++;
+            }
+        }
+    }
+
+    /**
+     * Trims each segment of a path and drops empty ones, so {@code " Big Cats / Lions "}
+     * and {@code "Big Cats/Lions"} name the same enclosure.
+     */
+    private static String normalisePath(String pPath) {
+        StringBuilder path = new StringBuilder();
+        for (String segment : pPath.split("/")) {
+            String trimmed = segment.trim();
+            if (!trimmed.isEmpty()) {
+                if (path.length() > 0) {
+                    path.append('/');
+                }
+                path.append(trimmed);
+            }
+        }
+        if (path.length() == 0) {
+            throw new IllegalArgumentException("empty enclosure path");
+        }
+        return path.toString();
+    }
+
+    /**
+     * A node of the tree being assembled, before it is turned into model objects.
+     */
+    private static final class PendingNode {
+        private final String aName;
+        private final Map<String, PendingNode> aChildren = new LinkedHashMap<>();
+        private List<Animal> aAnimals;
+
+        private PendingNode(String pName) {
+            this.aName = pName;
+        }
+
+        /**
+         * Creates the model object for this node once all of its children are complete,
+         * so each subtree's summary is merged into its parent only once.
+         */
+        private EnclosureCollection build() {
+            if (aAnimals != null) {
+                Enclosure enclosure = new Enclosure(aName);
+                for (Animal animal : aAnimals) {
+                    enclosure.addAnimal(animal);
+                }
+                return enclosure;
+            }
+            CompositeEnclosureCollection composite = new CompositeEnclosureCollection(aName);
+            for (PendingNode child : aChildren.values()) {
+                composite.addCollection(child.build());
+            }
+            return composite;
+        }
+    }
+
+    private static void buildTree(CompositeEnclosureCollection pRoot, Map<String, List<Animal>> pAnimalsByPath) {
+        PendingNode root = new PendingNode(pRoot.getName());
+        for (Map.Entry<String, List<Animal>> entry : pAnimalsByPath.entrySet()) {
+            String[] segments = entry.getKey().split("/");
+            PendingNode node = root;
+            for (int i = 0; i < segments.length; i++) {
+                if (node.aAnimals != null) {
+                    throw new IllegalArgumentException("'" + node.aName + "' is an enclosure and cannot contain " + entry.getKey());
+                }
+                node = node.aChildren.computeIfAbsent(segments[i], PendingNode::new);
+            }
+            if (!node.aChildren.isEmpty()) {
+                throw new IllegalArgumentException("'" + entry.getKey() + "' is a section and cannot hold animals directly");
+            }
+            if (node.aAnimals == null) {
+                node.aAnimals = entry.getValue();
+            } else {
+                node.aAnimals.addAll(entry.getValue());
+            }
+        }
+        for (PendingNode child : root.aChildren.values()) {
+            pRoot.addCollection(child.build());
+        }
+    }
+}
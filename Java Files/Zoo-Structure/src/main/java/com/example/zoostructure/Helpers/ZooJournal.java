@@ -0,0 +1,952 @@
+package com.example.zoostructure.Helpers;
+
+import com.example.zoostructure.Metrics.ZooMetrics;
+import com.example.zoostructure.Model.*;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.zip.CRC32C;
+
+/**
+ * The {@code ZooJournal} class is an append-only write-ahead log of every change
+ * made to a zoo: animals added, removed, renamed or re-aged, and collections added
+ * or removed. Together with a {@link ZooSnapshot} it lets the application come back
+ * exactly as it was closed, or as it was when it crashed.
+ *
+ * <p>The journal listens to the zoo's change events. Each change is encoded into an
+ * in-memory buffer by the thread that made it; a background thread writes whatever
+ * has accumulated to the file in one go (group commit) and forces it to disk at most
+ * once per sync interval, so many concurrent writers share one write and one fsync.
+ * {@link #sync()} waits until everything appended so far is on disk.</p>
+ *
+ * <p>File layout, all numbers big-endian:</p>
+ * <pre>
+ * header  int magic "ZOOJ", int version, int generation
+ * record  int payload length, int CRC32C of the payload, payload
+ * payload byte operation, then the operation's fields; strings are
+ *         an int length and UTF-8 bytes, paths are relative to the root
+ * </pre>
+ * <p>A torn record at the end of the file (from a crash mid-write) fails its length
+ * or checksum test; replay stops there and the tail is cut off.</p>
+ *
+ * <p>Each time the journal is folded into a snapshot it moves on to the next
+ * generation. The snapshot records the generation it contains and how far into it
+ * (see {@link ZooSnapshot#journalGeneration(Path)} and
+ * {@link ZooSnapshot#journalPosition(Path)}): an older journal is not replayed on
+ * top of it, and a journal of that generation only from that position on. So a
+ * crash after the snapshot is written but before the journal moves on does not
+ * apply the same changes twice, and changes made while the snapshot was being
+ * written are not lost. Version 1 journals have no generation; they are always
+ * replayed, and are rewritten with one when started.</p>
+ *
+ * <p>A long-running process can let the journal checkpoint itself whenever the file
+ * grows past a size, with {@link #checkpointWhenLarger(Path, long)}, so the journal
+ * and the time to replay it stay bounded.</p>
+ *
+ * <p>Animal records carry the animal's {@link Animal#getId() ID}: additions recreate
+ * the animal with it, and removals, renames and age changes find the animal by it.
+ * Journals written before animals had IDs use older operation codes, which are still
+ * replayed: they find the animal by species, name and age, and among identical
+ * animals take the first one, which may differ from the one originally chosen but
+ * leaves the same contents.</p>
+ *
+ * <p>Typical use, with compaction when the journal is not empty:</p>
+ * <pre>{@code
+ * CompositeEnclosureCollection zoo = ...load the last snapshot...;
+ * int generation = ZooSnapshot.journalGeneration(snapshotFile);
+ * long position = ZooSnapshot.journalPosition(snapshotFile);
+ * long replayed = ZooJournal.replay(journalFile, zoo, generation, position);
+ * ZooJournal journal = ZooJournal.start(journalFile, zoo, 100, generation, position);
+ * if (replayed > 0) {
+ *     journal.checkpoint(snapshotFile);
+ * }
+ * }</pre>
+ */
+public final class ZooJournal implements ZooChangeListener, AutoCloseable {
+
+    private static final int MAGIC = 0x5A4F4F4A;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 12;
+    private static final int V1_HEADER_SIZE = 8;
+    private static final int GENERATION_OFFSET = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    /**
+     * Records longer than this are treated as corruption when reading.
+     */
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+
+    /**
+     * Appending threads wait once this much is waiting to be written.
+     */
+    private static final int MAX_PENDING_BYTES = 16 << 20;
+
+    private static final byte OP_SECTION_ADDED = 1;
+    private static final byte OP_ENCLOSURE_ADDED = 2;
+    private static final byte OP_COLLECTION_REMOVED = 3;
+    private static final byte OP_ANIMAL_ADDED = 4;
+    private static final byte OP_ANIMAL_REMOVED = 5;
+    private static final byte OP_ANIMAL_RENAMED = 6;
+    private static final byte OP_ANIMAL_AGED = 7;
+    private static final byte OP_ANIMAL_ADDED_WITH_ID = 8;
+    private static final byte OP_ANIMAL_REMOVED_BY_ID = 9;
+    private static final byte OP_ANIMAL_RENAMED_BY_ID = 10;
+    private static final byte OP_ANIMAL_AGED_BY_ID = 11;
+
+    private static final ZooMetrics.Counter RECORDS = ZooMetrics.counter("journal.records");
+    private static final ZooMetrics.Counter GROUPS = ZooMetrics.counter("journal.groups");
+    private static final ZooMetrics.Timer FORCE_TIMER = ZooMetrics.timer("journal.force");
+    private static final ZooMetrics.Timer CHECKPOINT_TIMER = ZooMetrics.timer("journal.checkpoint");
+
+    private static final Species[] SPECIES = Species.values();
+    private static final Enclosure.Storage[] STORAGES = Enclosure.Storage.values();
+
+    private final CompositeEnclosureCollection aRoot;
+    private final Path aFile;
+
+    /**
+     * The open journal file. Only replaced by a checkpoint, while the flusher is idle.
+     */
+    private volatile FileChannel aChannel;
+
+    /**
+     * Held by a checkpoint from start to end, so two never overlap.
+     */
+    private final Object aCheckpointLock = new Object();
+
+    /**
+     * How long written data may stay unforced, in nanoseconds; 0 forces after every
+     * write and a negative value never forces.
+     */
+    private final long aSyncIntervalNanos;
+
+    /**
+     * Guards the buffers, counters and {@link #aClosed}; appenders, the flusher and
+     * {@link #sync()} wait and notify on it.
+     */
+    private final Object aLock = new Object();
+
+    /**
+     * Records waiting to be written. Swapped with {@link #aWriting} by the flusher.
+     */
+    private ByteBuffer aFilling = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer aWriting = ByteBuffer.allocate(64 * 1024);
+
+    /**
+     * Scratch space for encoding one record, reused by whichever appender holds {@link #aLock}.
+     */
+    private ByteBuffer aRecord = ByteBuffer.allocate(1024);
+
+    private final CRC32C aChecksum = new CRC32C();
+
+    /**
+     * The generation of the journal file: 1 for the first journal of a zoo, then one
+     * more after each checkpoint.
+     */
+    private int aGeneration;
+
+    /**
+     * The snapshot automatic checkpoints write, and the journal size that starts one;
+     * no automatic checkpoints while the size is 0.
+     */
+    private Path aCheckpointFile;
+    private long aCheckpointBytes;
+
+    /**
+     * The thread running an automatic checkpoint, or {@code null}.
+     */
+    private Thread aCheckpointer;
+
+    private long aAppended;
+    private long aWritten;
+    private long aSynced;
+    private boolean aClosed;
+    private IOException aFailure;
+
+    private final Thread aFlusher;
+
+    private ZooJournal(CompositeEnclosureCollection pRoot, Path pFile, FileChannel pChannel, int pGeneration,
+                       long pSyncIntervalMillis) {
+        this.aRoot = pRoot;
+        this.aFile = pFile;
+        this.aChannel = pChannel;
+        this.aGeneration = pGeneration;
+        this.aSyncIntervalNanos = pSyncIntervalMillis < 0 ? -1 : pSyncIntervalMillis * 1_000_000L;
+        this.aFlusher = Thread.ofPlatform().daemon().name("zoo-journal").unstarted(this::flushLoop);
+    }
+
+    /**
+     * Applies the changes recorded in a journal to a zoo. A missing file is treated
+     * as an empty journal, and a torn record at the end is cut off. Changes the
+     * snapshot the zoo was opened from already contains are skipped.
+     *
+     * @param pFile               the journal file
+     * @param pRoot               the zoo as it was when the journal was started
+     * @param pSnapshotGeneration the {@link ZooSnapshot#journalGeneration(Path) journal
+     *                            generation} of the snapshot the zoo was opened from,
+     *                            or 0 if it was not opened from one
+     * @param pSnapshotPosition   the {@link ZooSnapshot#journalPosition(Path) journal
+     *                            position} of that snapshot, or 0
+     * @return the number of changes applied
+     * @throws IOException              if the file cannot be read or is not a journal
+     * @throws IllegalArgumentException if a change does not fit the zoo, for example
+     *                                  because the journal belongs to another snapshot
+     */
+    public static long replay(Path pFile, CompositeEnclosureCollection pRoot, int pSnapshotGeneration,
+                              long pSnapshotPosition) throws IOException {
+        if (!Files.exists(pFile)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(pFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size == 0) {
+                return 0;
+            }
+            int generation = readGeneration(channel, pFile);
+            long position = generation < 0 ? V1_HEADER_SIZE : HEADER_SIZE;
+            if (generation > 0 && generation <= pSnapshotGeneration) {
+                // A checkpoint wrote the snapshot but stopped before the journal moved on.
+                // Only what was appended while the snapshot was being written is new.
+                if (generation < pSnapshotGeneration || pSnapshotPosition <= 0) {
+                    return 0;
+                }
+                position = Math.max(position, pSnapshotPosition);
+            }
+
+            long applied = 0;
+            ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+            ByteBuffer payload = ByteBuffer.allocate(1024);
+            CRC32C checksum = new CRC32C();
+            Map<Enclosure, Map<Long, Animal>> animalsById = new IdentityHashMap<>();
+            while (position + RECORD_HEADER_SIZE <= size) {
+                recordHeader.clear();
+                readFully(channel, recordHeader, position);
+                recordHeader.flip();
+                int length = recordHeader.getInt();
+                int crc = recordHeader.getInt();
+                if (length <= 0 || length > MAX_RECORD_SIZE || position + RECORD_HEADER_SIZE + length > size) {
+                    break;
+                }
+                if (payload.capacity() < length) {
+                    payload = ByteBuffer.allocate(Math.max(length, payload.capacity() * 2));
+                }
+                payload.clear().limit(length);
+                readFully(channel, payload, position + RECORD_HEADER_SIZE);
+                payload.flip();
+                checksum.reset();
+                checksum.update(payload.duplicate());
+                if ((int) checksum.getValue() != crc) {
+                    break;
+                }
+                apply(pRoot, payload, animalsById);
+                applied++;
+                position += RECORD_HEADER_SIZE + length;
+            }
+            if (position < size) {
+                channel.truncate(position);
+                channel.force(true);
+            }
+            return applied;
+        }
+    }
+
+    /**
+     * Starts journaling every change made to a zoo from now on. Changes the file
+     * already holds are kept, and must have been replayed into the zoo first, unless
+     * the snapshot already contains all of them; then the file is emptied and starts
+     * the next generation.
+     *
+     * @param pFile               the journal file; created if missing
+     * @param pRoot               the zoo to journal
+     * @param pSyncIntervalMillis how long written changes may wait before being forced
+     *                            to disk: 0 forces after every group write, a negative
+     *                            value leaves it to the operating system
+     * @param pSnapshotGeneration the journal generation of the snapshot the zoo was
+     *                            opened from, or 0 if it was not opened from one
+     * @param pSnapshotPosition   the journal position of that snapshot, or 0
+     * @return the running journal
+     * @throws IOException if the file cannot be opened or is not a journal
+     */
+    public static ZooJournal start(Path pFile, CompositeEnclosureCollection pRoot, long pSyncIntervalMillis,
+                                   int pSnapshotGeneration, long pSnapshotPosition) throws IOException {
+        int generation = Files.exists(pFile) && Files.size(pFile) >= V1_HEADER_SIZE ? -1 : 0;
+        if (generation < 0) {
+            try (FileChannel channel = FileChannel.open(pFile, StandardOpenOption.READ)) {
+                generation = readGeneration(channel, pFile);
+            }
+            if (generation < 0) {
+                generation = pSnapshotGeneration + 1;
+                upgrade(pFile, generation);
+            }
+        }
+        FileChannel channel = FileChannel.open(pFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            // A journal of the snapshot's generation with changes past its position is
+            // kept as it is; the next checkpoint moves it on.
+            boolean contained = generation < pSnapshotGeneration || (generation == pSnapshotGeneration
+                    && (pSnapshotPosition <= 0 || pSnapshotPosition >= channel.size()));
+            if (contained) {
+                generation = pSnapshotGeneration + 1;
+                channel.truncate(0);
+                writeHeader(channel, generation);
+                channel.force(true);
+            }
+            channel.position(channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        ZooJournal journal = new ZooJournal(pRoot, pFile, channel, generation, pSyncIntervalMillis);
+        journal.aFlusher.start();
+        pRoot.addChangeListener(journal);
+        return journal;
+    }
+
+    /**
+     * Returns the zoo this journal records.
+     *
+     * @return the journaled root
+     */
+    public CompositeEnclosureCollection getRoot() {
+        return aRoot;
+    }
+
+    /**
+     * Waits until every change appended so far has been written and forced to disk.
+     *
+     * @throws IOException if writing the journal has failed
+     */
+    public void sync() throws IOException {
+        synchronized (aLock) {
+            long target = aAppended;
+            while (aSynced < target && aFailure == null && !aClosed) {
+                aLock.notifyAll();
+                awaitLock();
+            }
+            if (aFailure != null) {
+                throw aFailure;
+            }
+        }
+        if (aSyncIntervalNanos < 0) {
+            aChannel.force(false);
+        }
+    }
+
+    /**
+     * Returns the generation of the journal file.
+     *
+     * @return the generation, 1 or more
+     */
+    public int getGeneration() {
+        synchronized (aLock) {
+            return aGeneration;
+        }
+    }
+
+    /**
+     * Checkpoints into a snapshot on a thread of its own whenever the journal file
+     * grows past a size. Each checkpoint locks the zoo against changes twice, while
+     * it copies the zoo and while it moves the journal on, but not while it writes.
+     *
+     * @param pSnapshotFile the snapshot to write
+     * @param pMaxBytes     the journal size that starts a checkpoint; 0 or less stops
+     *                      automatic checkpoints
+     */
+    public void checkpointWhenLarger(Path pSnapshotFile, long pMaxBytes) {
+        synchronized (aLock) {
+            aCheckpointFile = pSnapshotFile;
+            aCheckpointBytes = Math.max(pMaxBytes, 0);
+        }
+    }
+
+    /**
+     * Compacts the journal: writes the zoo to a snapshot and empties the journal, so
+     * the next start only has to open the snapshot.
+     * <p>
+     * The zoo is locked against changes only while it is copied with
+     * {@link ZooSnapshot#capture(EnclosureCollection)} and, once the snapshot is on
+     * disk, while the journal moves on to the next generation. Changes made while the
+     * snapshot is being written stay in the journal and are carried over to the next
+     * generation. The snapshot records the generation and position it was copied at,
+     * so a crash at any point leaves a snapshot and journal that the next start
+     * combines without losing or repeating a change.
+     * </p>
+     *
+     * @param pSnapshotFile the snapshot to write
+     * @throws IOException if the snapshot or the journal cannot be written
+     */
+    public void checkpoint(Path pSnapshotFile) throws IOException {
+        long start = System.nanoTime();
+        synchronized (aCheckpointLock) {
+            ZooSnapshot.Image image;
+            int generation;
+            long position;
+            Lock lock = CompositeEnclosureCollection.lockTree(aRoot);
+            try {
+                sync();
+                generation = getGeneration();
+                position = aChannel.size();
+                image = ZooSnapshot.capture(aRoot);
+            } finally {
+                lock.unlock();
+            }
+
+            ZooSnapshot.write(image, pSnapshotFile, generation, position);
+
+            lock = CompositeEnclosureCollection.lockTree(aRoot);
+            try {
+                sync();
+                synchronized (aLock) {
+                    moveOn(generation + 1, position);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        CHECKPOINT_TIMER.recordSince(start);
+    }
+
+    /**
+     * Starts the next generation, keeping the records from a position on. Caller holds
+     * the tree lock, so nothing is appended meanwhile, and {@link #aLock}.
+     */
+    private void moveOn(int pGeneration, long pFrom) throws IOException {
+        if (aChannel.size() <= pFrom) {
+            // Nothing to keep: empty the file in place. Stopping before the new generation
+            // is written leaves an empty journal of the old one, which the snapshot contains.
+            aChannel.truncate(HEADER_SIZE);
+            aChannel.position(HEADER_SIZE);
+            ByteBuffer next = ByteBuffer.allocate(Integer.BYTES).putInt(pGeneration).flip();
+            while (next.hasRemaining()) {
+                aChannel.write(next, GENERATION_OFFSET + next.position());
+            }
+            aChannel.force(true);
+        } else {
+            // Records to keep: the new generation is written beside the old one and
+            // replaces it in a single move, so the file is always one or the other.
+            aChannel.close();
+            try {
+                rewrite(aFile, pGeneration, pFrom);
+            } finally {
+                FileChannel channel = FileChannel.open(aFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                channel.position(channel.size());
+                aChannel = channel;
+            }
+        }
+        aGeneration = pGeneration;
+    }
+
+    /**
+     * Stops journaling, writes and forces everything appended so far, and closes the file.
+     *
+     * @throws IOException if the last changes cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        aRoot.removeChangeListener(this);
+        try {
+            sync();
+        } finally {
+            synchronized (aLock) {
+                aClosed = true;
+                aLock.notifyAll();
+            }
+            try {
+                aFlusher.join();
+                // The flusher starts automatic checkpoints; with it gone, none can start.
+                Thread checkpointer;
+                synchronized (aLock) {
+                    checkpointer = aCheckpointer;
+                }
+                if (checkpointer != null) {
+                    checkpointer.join();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            aChannel.force(true);
+            aChannel.close();
+        }
+    }
+
+    /**
+     * Records one change. Called by the zoo on the changing thread.
+     *
+     * @param pChange the change
+     */
+    @Override
+    public void changed(ZooChange pChange) {
+        synchronized (aLock) {
+            if (aClosed) {
+                return;
+            }
+            switch (pChange.type()) {
+                case ANIMAL_ADDED -> appendAdded(path(pChange.source()), pChange.animal());
+                case ANIMAL_REMOVED -> {
+                    beginRecord(OP_ANIMAL_REMOVED_BY_ID);
+                    putString(path(pChange.source()));
+                    putLong(pChange.animal().getId());
+                    endRecord();
+                }
+                case ANIMAL_UPDATED -> {
+                    Animal animal = pChange.animal();
+                    String path = path(pChange.source());
+                    if (!pChange.oldName().equals(animal.getName())) {
+                        beginRecord(OP_ANIMAL_RENAMED_BY_ID);
+                        putString(path);
+                        putLong(animal.getId());
+                        putString(animal.getName());
+                        endRecord();
+                    }
+                    if (Double.compare(pChange.oldAge(), animal.getAge()) != 0) {
+                        beginRecord(OP_ANIMAL_AGED_BY_ID);
+                        putString(path);
+                        putLong(animal.getId());
+                        putDouble(animal.getAge());
+                        endRecord();
+                    }
+                }
+                case COLLECTION_ADDED -> appendSubtree(path(pChange.source()), pChange.collection());
+                case COLLECTION_REMOVED -> {
+                    beginRecord(OP_COLLECTION_REMOVED);
+                    putString(path(pChange.source()));
+                    putString(pChange.collection().getName());
+                    endRecord();
+                }
+                case BATCH -> pChange.changes().forEach(this::changed);
+            }
+        }
+    }
+
+    /**
+     * Records a collection being added, followed by everything already inside it.
+     */
+    private void appendSubtree(String pParentPath, EnclosureCollection pCollection) {
+        String path = pParentPath.isEmpty() ? pCollection.getName() : pParentPath + "/" + pCollection.getName();
+        if (pCollection instanceof Enclosure enclosure) {
+            beginRecord(OP_ENCLOSURE_ADDED);
+            putString(pParentPath);
+            putString(enclosure.getName());
+            aRecord = ensure(aRecord, 1).put((byte) enclosure.getStorage().ordinal());
+            endRecord();
+            for (Animal animal : enclosure.getAnimals()) {
+                appendAdded(path, animal);
+            }
+        } else if (pCollection instanceof CompositeEnclosureCollection section) {
+            beginRecord(OP_SECTION_ADDED);
+            putString(pParentPath);
+            putString(section.getName());
+            endRecord();
+            for (EnclosureCollection child : section.getCollections()) {
+                appendSubtree(path, child);
+            }
+        }
+    }
+
+    private void appendAdded(String pPath, Animal pAnimal) {
+        beginRecord(OP_ANIMAL_ADDED_WITH_ID);
+        putString(pPath);
+        aRecord = ensure(aRecord, 1).put((byte) Species.of(pAnimal).ordinal());
+        putLong(pAnimal.getId());
+        putString(pAnimal.getName());
+        putDouble(pAnimal.getAge());
+        endRecord();
+    }
+
+    private void beginRecord(byte pOperation) {
+        aRecord.clear();
+        aRecord.put(pOperation);
+    }
+
+    private void putString(String pValue) {
+        byte[] bytes = pValue.getBytes(StandardCharsets.UTF_8);
+        aRecord = ensure(aRecord, Integer.BYTES + bytes.length);
+        aRecord.putInt(bytes.length).put(bytes);
+    }
+
+    private void putDouble(double pValue) {
+        aRecord = ensure(aRecord, Double.BYTES).putDouble(pValue);
+    }
+
+    private void putLong(long pValue) {
+        aRecord = ensure(aRecord, Long.BYTES).putLong(pValue);
+    }
+
+    /**
+     * Moves the encoded record into the pending buffer and wakes the flusher.
+     * Caller holds {@link #aLock}.
+     */
+    private void endRecord() {
+        aRecord.flip();
+        int length = aRecord.remaining();
+        if (length > MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("Journal record too large: " + length + " bytes");
+        }
+        while (aFilling.position() >= MAX_PENDING_BYTES && aFailure == null) {
+            aLock.notifyAll();
+            awaitLock();
+        }
+        if (aFailure != null) {
+            throw new UncheckedIOException(aFailure);
+        }
+        aChecksum.reset();
+        aChecksum.update(aRecord.duplicate());
+        aFilling = ensure(aFilling, RECORD_HEADER_SIZE + length);
+        aFilling.putInt(length).putInt((int) aChecksum.getValue()).put(aRecord);
+        aAppended++;
+        RECORDS.increment();
+        aLock.notifyAll();
+    }
+
+    /**
+     * The background writer: takes everything appended so far, writes it with one
+     * call, and forces the file when the sync interval has passed.
+     */
+    private void flushLoop() {
+        long lastSync = System.nanoTime();
+        while (true) {
+            long target;
+            boolean forceNow;
+            synchronized (aLock) {
+                while (aFilling.position() == 0 && !aClosed && !(aWritten > aSynced && syncDue(lastSync))) {
+                    if (aWritten > aSynced && aSyncIntervalNanos > 0) {
+                        long waitNanos = aSyncIntervalNanos - (System.nanoTime() - lastSync);
+                        if (waitNanos > 0) {
+                            try {
+                                aLock.wait(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+                            } catch (InterruptedException e) {
+                                return;
+                            }
+                        }
+                    } else {
+                        awaitLock();
+                    }
+                }
+                if (aClosed && aFilling.position() == 0 && aWritten == aSynced) {
+                    return;
+                }
+                ByteBuffer swap = aWriting;
+                aWriting = aFilling;
+                aFilling = swap;
+                aFilling.clear();
+                target = aAppended;
+                aLock.notifyAll();
+            }
+            try {
+                aWriting.flip();
+                while (aWriting.hasRemaining()) {
+                    aChannel.write(aWriting);
+                }
+                aWriting.clear();
+                GROUPS.increment();
+                forceNow = aSyncIntervalNanos == 0 || (aSyncIntervalNanos > 0 && syncDue(lastSync));
+                if (forceNow || aClosed) {
+                    long start = System.nanoTime();
+                    aChannel.force(false);
+                    lastSync = System.nanoTime();
+                    FORCE_TIMER.record(lastSync - start);
+                }
+                long size = aChannel.position();
+                synchronized (aLock) {
+                    aWritten = target;
+                    if (forceNow || aClosed || aSyncIntervalNanos < 0) {
+                        aSynced = target;
+                    }
+                    aLock.notifyAll();
+                    if (aCheckpointBytes > 0 && size >= aCheckpointBytes && aCheckpointer == null && !aClosed) {
+                        startCheckpoint(aCheckpointFile);
+                    }
+                }
+            } catch (IOException e) {
+                synchronized (aLock) {
+                    aFailure = e;
+                    aLock.notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Starts an automatic checkpoint. It cannot run on the flusher, which it waits for.
+     * Caller holds {@link #aLock}.
+     */
+    private void startCheckpoint(Path pSnapshotFile) {
+        aCheckpointer = Thread.ofPlatform().daemon().name("zoo-journal-checkpoint").start(() -> {
+            try {
+                checkpoint(pSnapshotFile);
+            } catch (IOException | RuntimeException e) {
+                ZooMetrics.recordError("journal.checkpoint", e);
+            } finally {
+                synchronized (aLock) {
+                    aCheckpointer = null;
+                }
+            }
+        });
+    }
+
+    private boolean syncDue(long pLastSync) {
+        return aSyncIntervalNanos >= 0 && System.nanoTime() - pLastSync >= aSyncIntervalNanos;
+    }
+
+    /**
+     * Waits on {@link #aLock}, keeping the thread's interrupt status.
+     */
+    private void awaitLock() {
+        try {
+            aLock.wait(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while waiting for the journal"));
+        }
+    }
+
+    /**
+     * Returns the path of a collection below the root, without the root's own name.
+     */
+    private String path(EnclosureCollection pCollection) {
+        if (pCollection == aRoot) {
+            return "";
+        }
+        String parentPath = path(pCollection.getParent());
+        return parentPath.isEmpty() ? pCollection.getName() : parentPath + "/" + pCollection.getName();
+    }
+
+    private static ByteBuffer ensure(ByteBuffer pBuffer, int pExtra) {
+        if (pBuffer.remaining() >= pExtra) {
+            return pBuffer;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(pBuffer.capacity() * 2, pBuffer.position() + pExtra));
+        pBuffer.flip();
+        return larger.put(pBuffer);
+    }
+
+    /**
+     * Reads a journal's header.
+     *
+     * @return the journal's generation, or -1 for a version 1 journal, which has none
+     */
+    private static int readGeneration(FileChannel pChannel, Path pFile) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(pChannel, header, 0);
+        header.flip();
+        if (header.remaining() < V1_HEADER_SIZE || header.getInt() != MAGIC) {
+            throw new IOException("Not a zoo journal: " + pFile);
+        }
+        int version = header.getInt();
+        if (version == 1) {
+            return -1;
+        }
+        if (version != VERSION || header.remaining() < Integer.BYTES) {
+            throw new IOException("Unsupported journal version " + version + ": " + pFile);
+        }
+        return header.getInt();
+    }
+
+    private static void writeHeader(FileChannel pChannel, int pGeneration) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putInt(pGeneration).flip();
+        while (header.hasRemaining()) {
+            pChannel.write(header, header.position());
+        }
+    }
+
+    /**
+     * Rewrites a version 1 journal with a header giving it a generation, keeping its
+     * records.
+     */
+    private static void upgrade(Path pFile, int pGeneration) throws IOException {
+        rewrite(pFile, pGeneration, V1_HEADER_SIZE);
+    }
+
+    /**
+     * Rewrites a journal with a new generation, keeping the records from a position
+     * on. The new file replaces the old one in a single move.
+     */
+    private static void rewrite(Path pFile, int pGeneration, long pFrom) throws IOException {
+        Path temporary = pFile.resolveSibling(pFile.getFileName() + ".tmp");
+        try (FileChannel source = FileChannel.open(pFile, StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeHeader(target, pGeneration);
+            target.position(HEADER_SIZE);
+            long position = pFrom;
+            long size = source.size();
+            while (position < size) {
+                position += source.transferTo(position, size - position, target);
+            }
+            target.force(true);
+        }
+        Files.move(temporary, pFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void readFully(FileChannel pChannel, ByteBuffer pBuffer, long pPosition) throws IOException {
+        long position = pPosition;
+        while (pBuffer.hasRemaining()) {
+            int read = pChannel.read(pBuffer, position);
+            if (read < 0) {
+                return;
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Applies one record.
+     *
+     * @param pAnimalsById the animals of each enclosure a record has found an animal
+     *                     in by ID, kept current as records add and remove animals
+     */
+    private static void apply(CompositeEnclosureCollection pRoot, ByteBuffer pPayload,
+                              Map<Enclosure, Map<Long, Animal>> pAnimalsById) {
+        byte operation = pPayload.get();
+        switch (operation) {
+            case OP_SECTION_ADDED -> section(pRoot, getString(pPayload))
+                    .addCollection(new CompositeEnclosureCollection(getString(pPayload)));
+            case OP_ENCLOSURE_ADDED -> {
+                CompositeEnclosureCollection parent = section(pRoot, getString(pPayload));
+                String name = getString(pPayload);
+                parent.addCollection(new Enclosure(name, STORAGES[pPayload.get()]));
+            }
+            case OP_COLLECTION_REMOVED -> {
+                CompositeEnclosureCollection parent = section(pRoot, getString(pPayload));
+                EnclosureCollection child = parent.getCollection(getString(pPayload));
+                if (child == null) {
+                    throw new IllegalArgumentException("Journal removes a collection that does not exist");
+                }
+                parent.removeCollection(child);
+            }
+            case OP_ANIMAL_ADDED -> {
+                Enclosure enclosure = enclosure(pRoot, getString(pPayload));
+                Species species = SPECIES[pPayload.get()];
+                Animal animal = species.newAnimal(getString(pPayload), pPayload.getDouble());
+                enclosure.addAnimal(animal);
+                Map<Long, Animal> byId = pAnimalsById.get(enclosure);
+                if (byId != null) {
+                    byId.put(animal.getId(), animal);
+                }
+            }
+            case OP_ANIMAL_REMOVED -> {
+                Enclosure enclosure = enclosure(pRoot, getString(pPayload));
+                Animal animal = find(enclosure, SPECIES[pPayload.get()], getString(pPayload), pPayload.getDouble());
+                enclosure.removeAnimal(animal);
+                Map<Long, Animal> byId = pAnimalsById.get(enclosure);
+                if (byId != null) {
+                    byId.remove(animal.getId());
+                }
+            }
+            case OP_ANIMAL_RENAMED -> {
+                Enclosure enclosure = enclosure(pRoot, getString(pPayload));
+                Animal animal = find(enclosure, SPECIES[pPayload.get()], getString(pPayload), pPayload.getDouble());
+                animal.setName(getString(pPayload));
+            }
+            case OP_ANIMAL_AGED -> {
+                Enclosure enclosure = enclosure(pRoot, getString(pPayload));
+                Animal animal = find(enclosure, SPECIES[pPayload.get()], getString(pPayload), pPayload.getDouble());
+                animal.setAge(pPayload.getDouble());
+            }
+            case OP_ANIMAL_ADDED_WITH_ID -> {
+                Enclosure enclosure = enclosure(pRoot, getString(pPayload));
+                Species species = SPECIES[pPayload.get()];
+                long id = pPayload.getLong();
+                Animal animal = species.newAnimal(id, getString(pPayload), pPayload.getDouble());
+                enclosure.addAnimal(animal);
+                Map<Long, Animal> byId = pAnimalsById.get(enclosure);
+                if (byId != null) {
+                    byId.put(id, animal);
+                }
+            }
+            case OP_ANIMAL_REMOVED_BY_ID -> {
+                Enclosure enclosure = enclosure(pRoot, getString(pPayload));
+                long id = pPayload.getLong();
+                enclosure.removeAnimal(find(pAnimalsById, enclosure, id));
+                pAnimalsById.get(enclosure).remove(id);
+            }
+            case OP_ANIMAL_RENAMED_BY_ID -> {
+                Enclosure enclosure = enclosure(pRoot, getString(pPayload));
+                find(pAnimalsById, enclosure, pPayload.getLong()).setName(getString(pPayload));
+            }
+            case OP_ANIMAL_AGED_BY_ID -> {
+                Enclosure enclosure = enclosure(pRoot, getString(pPayload));
+                find(pAnimalsById, enclosure, pPayload.getLong()).setAge(pPayload.getDouble());
+            }
+            default -> throw new IllegalArgumentException("Unknown journal operation " + operation);
+        }
+    }
+
+    private static EnclosureCollection resolve(CompositeEnclosureCollection pRoot, String pPath) {
+        EnclosureCollection node = pPath.isEmpty() ? pRoot : pRoot.resolve(pRoot.getName() + "/" + pPath);
+        if (node == null) {
+            throw new IllegalArgumentException("Journal refers to a missing collection: " + pPath);
+        }
+        return node;
+    }
+
+    private static CompositeEnclosureCollection section(CompositeEnclosureCollection pRoot, String pPath) {
+        if (resolve(pRoot, pPath) instanceof CompositeEnclosureCollection section) {
+            return section;
+        }
+        throw new IllegalArgumentException("Journal expects a section at " + pPath);
+    }
+
+    private static Enclosure enclosure(CompositeEnclosureCollection pRoot, String pPath) {
+        if (resolve(pRoot, pPath) instanceof Enclosure enclosure) {
+            return enclosure;
+        }
+        throw new IllegalArgumentException("Journal expects an enclosure at " + pPath);
+    }
+
+    /**
+     * Finds the first animal in an enclosure with the given species, name and age.
+     */
+    private static Animal find(Enclosure pEnclosure, Species pSpecies, String pName, double pAge) {
+        for (Animal animal : pEnclosure.getAnimals()) {
+            if (Species.of(animal) == pSpecies && animal.getName().equals(pName)
+                    && Double.compare(animal.getAge(), pAge) == 0) {
+                return animal;
+            }
+        }
+        throw new IllegalArgumentException("Journal refers to a missing animal " + pName + " in " + pEnclosure.getName());
+    }
+
+    /**
+     * Finds the animal with the given ID in an enclosure. The enclosure's animals are
+     * mapped by ID the first time, so replaying many records for one enclosure does
+     * not scan it once per record.
+     */
+    private static Animal find(Map<Enclosure, Map<Long, Animal>> pAnimalsById, Enclosure pEnclosure, long pId) {
+        Map<Long, Animal> byId = pAnimalsById.computeIfAbsent(pEnclosure, enclosure -> {
+            List<Animal> animals = enclosure.getAnimals();
+            Map<Long, Animal> ids = new HashMap<>(animals.size() * 4 / 3 + 1);
+            for (Animal animal : animals) {
+                ids.put(animal.getId(), animal);
+            }
+            return ids;
+        });
+        Animal animal = byId.get(pId);
+        if (animal == null) {
+            throw new IllegalArgumentException("Journal refers to a missing animal #" + pId + " in " + pEnclosure.getName());
+        }
+        return animal;
+    }
+
+    private static String getString(ByteBuffer pBuffer) {
+        int length = pBuffer.getInt();
+        String value = new String(pBuffer.array(), pBuffer.arrayOffset() + pBuffer.position(), length, StandardCharsets.UTF_8);
+        pBuffer.position(pBuffer.position() + length);
+        return value;
+    }
+}
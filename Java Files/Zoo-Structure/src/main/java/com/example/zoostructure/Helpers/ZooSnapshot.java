@@ -0,0 +1,797 @@
+package com.example.zoostructure.Helpers;
+
+import com.example.zoostructure.Metrics.ZooMetrics;
+import com.example.zoostructure.Model.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code ZooSnapshot} class saves a whole {@link EnclosureCollection} tree to
+ * a compact binary file and opens it again through a {@link MappedByteBuffer}.
+ *
+ * <p>Opening a snapshot only decodes the section skeleton. Each {@link Enclosure}
+ * is created with {@link Enclosure#deferred(String, Enclosure.Storage, DeferredAnimals)}, so its
+ * summary is available straight away but its animals are only decoded from the
+ * mapped file when a window (or anything else) first reads them.</p>
+ *
+ * <p>File layout, all numbers big-endian:</p>
+ * <pre>
+ * header     int magic "ZOOS", int version, long root offset,
+ *            long string table offset, int string count, int journal generation,
+ *            long highest animal ID, long journal position
+ * enclosure  byte 0 (objects) or 2 (columnar), int name id, int animal count,
+ *            then per animal: int name id, byte species, double age, long ID
+ * section    byte 1, int name id, int child count, then per child: long offset
+ * strings    long offset per string id, then per string: int length, UTF-8 bytes
+ * </pre>
+ * <p>Nodes are written children first, so a section always points backwards to
+ * nodes that are already on disk. Every distinct name is stored once in the
+ * string table. Animal records have a fixed size, so any animal can be found
+ * directly from its index.</p>
+ *
+ * <p>Enclosures of an opened snapshot that have never been loaded are written
+ * to a new snapshot by copying their records from the mapped file, with only
+ * the name ids translated, so compacting a large zoo does not create the
+ * animals nobody has looked at.</p>
+ *
+ * <p>The journal generation and position say how much of a {@link ZooJournal} the
+ * snapshot already contains: an older journal not at all, and a journal of that
+ * generation only from that byte on. The generation is 0 for snapshots written
+ * without a journal, and in files written before it was recorded; the position is 0
+ * when the whole generation is contained, and in files written before version 4.</p>
+ *
+ * <p>A snapshot can be written while its tree keeps changing: {@link #capture}
+ * copies what the file needs while the caller holds the tree's lock, and
+ * {@link #write(Image, Path, int, long)} writes that copy without any lock.</p>
+ *
+ * <p>The snapshot path names a small pointer file: int magic "ZOOP", int length,
+ * then the UTF-8 name of the data file next to it that holds the layout above.
+ * Every write goes to a new data file ({@code zoo.snap.1}, {@code zoo.snap.2}, ...)
+ * and then swaps the pointer, because a data file that is still mapped by
+ * deferred enclosures cannot be replaced or deleted on every platform. Older data
+ * files are deleted after the swap; one that is still mapped is left for a later
+ * write to remove. A data file
+ * written directly at the snapshot path by an older version is still read, and
+ * moved behind a pointer before it is mapped.</p>
+ *
+ * <p>Animals keep their {@link Animal#getId() IDs}. Opening a snapshot reserves
+ * every ID up to the highest one saved, so animals created before an enclosure is
+ * loaded never take the ID of one of its animals. Version 1 files, which have no
+ * IDs and a 32-byte header, can still be opened; their animals get new IDs.
+ * Version 2 files have the same layout as version 3 but did not record columnar
+ * storage, so all of their enclosures open as {@link Enclosure.Storage#OBJECTS}.
+ * Versions 2 and 3 have a 40-byte header without the journal position.</p>
+ */
+public final class ZooSnapshot {
+
+    private static final int MAGIC = 0x5A4F4F53;
+    private static final int POINTER_MAGIC = 0x5A4F4F50;
+    private static final int VERSION = 4;
+    private static final int HEADER_SIZE = 48;
+    private static final int V3_HEADER_SIZE = 40;
+    private static final int V1_HEADER_SIZE = 32;
+    private static final byte KIND_ENCLOSURE = 0;
+    private static final byte KIND_SECTION = 1;
+    private static final byte KIND_COLUMNAR_ENCLOSURE = 2;
+    private static final int V1_ANIMAL_RECORD_SIZE = Integer.BYTES + 1 + Double.BYTES;
+    private static final int ANIMAL_RECORD_SIZE = V1_ANIMAL_RECORD_SIZE + Long.BYTES;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private static final ZooMetrics.Timer WRITE_TIMER = ZooMetrics.timer("snapshot.write");
+    private static final ZooMetrics.Timer READ_TIMER = ZooMetrics.timer("snapshot.read");
+
+    private ZooSnapshot() {
+    }
+
+    /**
+     * Writes a tree to a snapshot file. The file is written next to the target and
+     * moved into place when complete, so a crash never leaves a half-written snapshot.
+     *
+     * @param pRoot the root of the tree to save
+     * @param pFile the snapshot file to create or replace
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(EnclosureCollection pRoot, Path pFile) throws IOException {
+        write(pRoot, pFile, 0);
+    }
+
+    /**
+     * Writes a tree to a snapshot file, as {@link #write(EnclosureCollection, Path)}
+     * does, recording that it contains every change of a journal generation.
+     *
+     * @param pRoot              the root of the tree to save
+     * @param pFile              the snapshot file to create or replace
+     * @param pJournalGeneration the generation of the journal folded into the tree
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(EnclosureCollection pRoot, Path pFile, int pJournalGeneration) throws IOException {
+        write(capture(pRoot), pFile, pJournalGeneration, 0);
+    }
+
+    /**
+     * Copies what a snapshot of a tree needs, so it can be written later while the
+     * tree changes. Enclosures that were never loaded are not copied: their records
+     * are read from the snapshot they came from when the copy is written. The caller
+     * should hold the {@link CompositeEnclosureCollection#lockTree tree lock}, so the
+     * copy is of one state of the tree.
+     *
+     * @param pRoot the root of the tree to save
+     * @return the copy
+     */
+    public static Image capture(EnclosureCollection pRoot) {
+        return new Image(captureNode(pRoot));
+    }
+
+    /**
+     * Writes a captured tree to a snapshot file. The tree goes to a new data file, and
+     * the pointer at the snapshot path is only moved to it once it is complete, so a
+     * crash never leaves a half-written snapshot and a snapshot that is still mapped
+     * is never overwritten.
+     *
+     * @param pImage             the tree, from {@link #capture(EnclosureCollection)}
+     * @param pFile              the snapshot file to create or replace
+     * @param pJournalGeneration the generation of the journal folded into the tree
+     * @param pJournalPosition   how far into that journal the tree goes, in bytes, or 0
+     *                           if it contains the whole generation
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Image pImage, Path pFile, int pJournalGeneration, long pJournalPosition)
+            throws IOException {
+        long start = System.nanoTime();
+        Path data = pFile.resolveSibling(pFile.getFileName() + "." + (highestDataFile(pFile) + 1));
+        Path temporary = data.resolveSibling(data.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Writer writer = new Writer(channel);
+            writer.aPosition = HEADER_SIZE;
+            long rootOffset = writer.writeNode(pImage.aRoot);
+            long stringTableOffset = writer.writeStrings();
+            writer.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(rootOffset).putLong(stringTableOffset)
+                    .putInt(writer.aStrings.size()).putInt(pJournalGeneration).putLong(writer.aHighestId)
+                    .putLong(pJournalPosition).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, data, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        writePointer(pFile, data);
+        deleteDataFilesBefore(pFile, data);
+        WRITE_TIMER.recordSince(start);
+    }
+
+    /**
+     * Points a snapshot path at a data file. The pointer is written next to the path and
+     * moved into place, which is safe because pointers are never mapped.
+     */
+    private static void writePointer(Path pFile, Path pData) throws IOException {
+        byte[] name = pData.getFileName().toString().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer pointer = ByteBuffer.allocate(2 * Integer.BYTES + name.length);
+        pointer.putInt(POINTER_MAGIC).putInt(name.length).put(name).flip();
+        Path temporary = pFile.resolveSibling(pFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (pointer.hasRemaining()) {
+                channel.write(pointer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, pFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the data file a snapshot path points at, or the path itself if it holds
+     * a data file written by an older version.
+     */
+    private static Path dataFile(Path pFile) throws IOException {
+        ByteBuffer start = ByteBuffer.allocate(2 * Integer.BYTES);
+        try (FileChannel channel = FileChannel.open(pFile, StandardOpenOption.READ)) {
+            readFully(channel, start);
+            start.flip();
+            if (start.limit() < 2 * Integer.BYTES || start.getInt(0) != POINTER_MAGIC) {
+                return pFile;
+            }
+            int length = start.getInt(4);
+            if (length <= 0 || length != channel.size() - 2 * Integer.BYTES) {
+                throw new IOException("Not a zoo snapshot: " + pFile);
+            }
+            ByteBuffer name = ByteBuffer.allocate(length);
+            readFully(channel, name);
+            return pFile.resolveSibling(new String(name.array(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Returns the highest number of the data files next to a snapshot path, or 0 if
+     * there are none.
+     */
+    private static long highestDataFile(Path pFile) throws IOException {
+        long highest = 0;
+        for (Path data : dataFiles(pFile)) {
+            highest = Math.max(highest, dataFileNumber(pFile, data));
+        }
+        return highest;
+    }
+
+    /**
+     * Deletes the data files of a snapshot path that are older than the current one.
+     * A file that cannot be deleted, typically because it is still mapped on Windows,
+     * is left for a later write.
+     */
+    private static void deleteDataFilesBefore(Path pFile, Path pCurrent) throws IOException {
+        long current = dataFileNumber(pFile, pCurrent);
+        for (Path data : dataFiles(pFile)) {
+            if (dataFileNumber(pFile, data) < current) {
+                try {
+                    Files.deleteIfExists(data);
+                } catch (IOException e) {
+                    // Still in use; the next write tries again.
+                }
+            }
+        }
+    }
+
+    private static List<Path> dataFiles(Path pFile) throws IOException {
+        Path directory = pFile.toAbsolutePath().getParent();
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                pEntry -> dataFileNumber(pFile, pEntry) > 0)) {
+            for (Path entry : stream) {
+                files.add(entry);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Returns the number of a data file of a snapshot path, or 0 if the file is not one.
+     */
+    private static long dataFileNumber(Path pFile, Path pData) {
+        String prefix = pFile.getFileName() + ".";
+        String name = pData.getFileName().toString();
+        if (!name.startsWith(prefix) || name.length() == prefix.length()
+                || name.length() - prefix.length() > 18) {
+            return 0;
+        }
+        long number = 0;
+        for (int i = prefix.length(); i < name.length(); i++) {
+            char digit = name.charAt(i);
+            if (digit < '0' || digit > '9') {
+                return 0;
+            }
+            number = number * 10 + (digit - '0');
+        }
+        return number;
+    }
+
+    /**
+     * A tree copied by {@link #capture(EnclosureCollection)}, ready to be written.
+     */
+    public static final class Image {
+        private final NodeImage aRoot;
+
+        private Image(NodeImage pRoot) {
+            this.aRoot = pRoot;
+        }
+    }
+
+    private sealed interface NodeImage permits SectionImage, EnclosureImage, MappedImage {
+    }
+
+    private record SectionImage(String name, List<NodeImage> children) implements NodeImage {
+    }
+
+    /**
+     * The animals of a loaded enclosure, one array entry per animal.
+     */
+    private record EnclosureImage(String name, byte kind, String[] names, byte[] species, double[] ages, long[] ids)
+            implements NodeImage {
+    }
+
+    /**
+     * An enclosure that was never loaded, whose records are still in a mapped snapshot.
+     */
+    private record MappedImage(String name, byte kind, MappedAnimals animals) implements NodeImage {
+    }
+
+    private static NodeImage captureNode(EnclosureCollection pNode) {
+        if (pNode instanceof Enclosure enclosure) {
+            byte kind = enclosure.getStorage() == Enclosure.Storage.COLUMNAR ? KIND_COLUMNAR_ENCLOSURE : KIND_ENCLOSURE;
+            if (enclosure.getDeferredAnimals() instanceof MappedAnimals mapped
+                    && mapped.aRecordSize == ANIMAL_RECORD_SIZE) {
+                return new MappedImage(enclosure.getName(), kind, mapped);
+            }
+            List<Animal> animals = enclosure.getAnimals();
+            int count = animals.size();
+            String[] names = new String[count];
+            byte[] species = new byte[count];
+            double[] ages = new double[count];
+            long[] ids = new long[count];
+            for (int i = 0; i < count; i++) {
+                Animal animal = animals.get(i);
+                names[i] = animal.getName();
+                species[i] = (byte) Species.of(animal).ordinal();
+                ages[i] = animal.getAge();
+                ids[i] = animal.getId();
+            }
+            return new EnclosureImage(enclosure.getName(), kind, names, species, ages, ids);
+        } else if (pNode instanceof CompositeEnclosureCollection section) {
+            List<EnclosureCollection> children = section.getCollections();
+            List<NodeImage> images = new ArrayList<>(children.size());
+            for (EnclosureCollection child : children) {
+                images.add(captureNode(child));
+            }
+            return new SectionImage(section.getName(), images);
+        }
+        throw new IllegalArgumentException("Unsupported collection type: " + pNode.getClass().getName());
+    }
+
+    /**
+     * Opens a snapshot file. Only the section skeleton is decoded; animals are read
+     * from the mapped file when their enclosure is first used.
+     *
+     * @param pFile the snapshot file
+     * @return the root of the saved tree
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static EnclosureCollection read(Path pFile) throws IOException {
+        long start = System.nanoTime();
+        Mapped mapped = map(pFile);
+        EnclosureCollection root = readNode(mapped.aBuffer, mapped.aStrings, mapped.aRootOffset, mapped.aRecordSize);
+        READ_TIMER.recordSince(start);
+        return root;
+    }
+
+    /**
+     * Opens a snapshot file whose root is a section without decoding any of it, so
+     * its top-level sections can be read one at a time, for instance to show each
+     * one as soon as it is ready.
+     *
+     * @param pFile the snapshot file
+     * @return the top-level sections of the saved tree
+     * @throws IOException if the file cannot be read, is not a snapshot, or its root
+     *                     is not a section
+     */
+    public static Sections sections(Path pFile) throws IOException {
+        Mapped mapped = map(pFile);
+        if (mapped.aBuffer.get(mapped.aRootOffset) != KIND_SECTION) {
+            throw new IOException("Snapshot root is not a section: " + pFile);
+        }
+        return new Sections(mapped);
+    }
+
+    /**
+     * The top-level sections of an opened snapshot, read on demand with
+     * {@link #get(int)}. Each call decodes the skeleton of one section anew.
+     */
+    public static final class Sections {
+        private final Mapped aMapped;
+        private final String aRootName;
+        private final int aCount;
+
+        private Sections(Mapped pMapped) {
+            this.aMapped = pMapped;
+            this.aRootName = pMapped.aStrings.get(pMapped.aBuffer.getInt(pMapped.aRootOffset + 1));
+            this.aCount = pMapped.aBuffer.getInt(pMapped.aRootOffset + 5);
+        }
+
+        /**
+         * Returns the name of the saved root.
+         * @return the root name
+         */
+        public String getRootName() {
+            return aRootName;
+        }
+
+        /**
+         * Returns the number of top-level sections.
+         * @return the section count
+         */
+        public int size() {
+            return aCount;
+        }
+
+        /**
+         * Decodes one top-level section. Its enclosures are deferred, as with
+         * {@link ZooSnapshot#read(Path)}.
+         * @param pIndex the position of the section under the root
+         * @return the section, without a parent
+         * @throws IndexOutOfBoundsException if there is no such section
+         */
+        public EnclosureCollection get(int pIndex) {
+            if (pIndex < 0 || pIndex >= aCount) {
+                throw new IndexOutOfBoundsException(pIndex);
+            }
+            long start = System.nanoTime();
+            ByteBuffer buffer = aMapped.aBuffer;
+            int offset = (int) buffer.getLong(aMapped.aRootOffset + 9 + pIndex * Long.BYTES);
+            EnclosureCollection section = readNode(buffer, aMapped.aStrings, offset, aMapped.aRecordSize);
+            READ_TIMER.recordSince(start);
+            return section;
+        }
+    }
+
+    /**
+     * A mapped snapshot file with its header checked.
+     */
+    private static final class Mapped {
+        private final MappedByteBuffer aBuffer;
+        private final StringTable aStrings;
+        private final int aRootOffset;
+        private final int aRecordSize;
+
+        private Mapped(MappedByteBuffer pBuffer, StringTable pStrings, int pRootOffset, int pRecordSize) {
+            this.aBuffer = pBuffer;
+            this.aStrings = pStrings;
+            this.aRootOffset = pRootOffset;
+            this.aRecordSize = pRecordSize;
+        }
+    }
+
+    private static Mapped map(Path pFile) throws IOException {
+        Path data = dataFile(pFile);
+        if (data.equals(pFile)) {
+            // Written by an older version: move it behind a pointer first, so a later
+            // write never has to replace the file that is about to be mapped.
+            data = pFile.resolveSibling(pFile.getFileName() + "." + (highestDataFile(pFile) + 1));
+            Files.copy(pFile, data, StandardCopyOption.REPLACE_EXISTING);
+            writePointer(pFile, data);
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(data, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshots larger than 2 GB are not supported: " + pFile);
+            }
+            // The mapping stays valid after the channel is closed.
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < V1_HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a zoo snapshot: " + pFile);
+        }
+        int version = buffer.getInt(4);
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ": " + pFile);
+        }
+        boolean withIds = version >= 2;
+        if (withIds) {
+            if (buffer.capacity() < (version >= 4 ? HEADER_SIZE : V3_HEADER_SIZE)) {
+                throw new IOException("Not a zoo snapshot: " + pFile);
+            }
+            Animal.reserveIds(buffer.getLong(32));
+        }
+        int recordSize = withIds ? ANIMAL_RECORD_SIZE : V1_ANIMAL_RECORD_SIZE;
+        StringTable strings = new StringTable(buffer, (int) buffer.getLong(16), buffer.getInt(24));
+        return new Mapped(buffer, strings, (int) buffer.getLong(8), recordSize);
+    }
+
+    /**
+     * Returns the generation of the journal a snapshot file contains, without opening
+     * the rest of the file.
+     *
+     * @param pFile the snapshot file
+     * @return the journal generation, or 0 if the snapshot contains no journal
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static int journalGeneration(Path pFile) throws IOException {
+        return readHeader(pFile).getInt(28);
+    }
+
+    /**
+     * Returns how far into its {@link #journalGeneration(Path) journal generation} a
+     * snapshot file goes, without opening the rest of the file. Changes from that byte
+     * of the journal on are not in the snapshot.
+     *
+     * @param pFile the snapshot file
+     * @return the position in bytes, or 0 if the snapshot contains the whole generation
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static long journalPosition(Path pFile) throws IOException {
+        ByteBuffer header = readHeader(pFile);
+        return header.getInt(4) >= 4 && header.limit() >= HEADER_SIZE ? header.getLong(40) : 0;
+    }
+
+    /**
+     * Reads as much of the header as the file has, up to the current header size.
+     */
+    private static ByteBuffer readHeader(Path pFile) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        try (FileChannel channel = FileChannel.open(dataFile(pFile), StandardOpenOption.READ)) {
+            readFully(channel, header);
+        }
+        header.flip();
+        if (header.limit() < V1_HEADER_SIZE || header.getInt(0) != MAGIC) {
+            throw new IOException("Not a zoo snapshot: " + pFile);
+        }
+        return header;
+    }
+
+    /**
+     * Fills a buffer from the current position of a channel, or as much of it as the
+     * file has.
+     */
+    private static void readFully(FileChannel pChannel, ByteBuffer pBuffer) throws IOException {
+        while (pBuffer.hasRemaining()) {
+            if (pChannel.read(pBuffer) < 0) {
+                break;
+            }
+        }
+    }
+
+    private static EnclosureCollection readNode(ByteBuffer pBuffer, StringTable pStrings, int pOffset,
+                                                int pRecordSize) {
+        byte kind = pBuffer.get(pOffset);
+        String name = pStrings.get(pBuffer.getInt(pOffset + 1));
+        int count = pBuffer.getInt(pOffset + 5);
+        int body = pOffset + 9;
+        if (kind == KIND_ENCLOSURE || kind == KIND_COLUMNAR_ENCLOSURE) {
+            Enclosure.Storage storage = kind == KIND_COLUMNAR_ENCLOSURE
+                    ? Enclosure.Storage.COLUMNAR : Enclosure.Storage.OBJECTS;
+            return Enclosure.deferred(name, storage, new MappedAnimals(pBuffer, pStrings, body, count, pRecordSize));
+        }
+        if (kind != KIND_SECTION) {
+            throw new IllegalStateException("Corrupt snapshot: unknown node kind " + kind);
+        }
+        CompositeEnclosureCollection section = new CompositeEnclosureCollection(name);
+        for (int i = 0; i < count; i++) {
+            section.addCollection(readNode(pBuffer, pStrings, (int) pBuffer.getLong(body + i * Long.BYTES),
+                    pRecordSize));
+        }
+        return section;
+    }
+
+    /**
+     * The animal records of one enclosure inside the mapped file.
+     */
+    private static final class MappedAnimals implements DeferredAnimals {
+        private static final Species[] SPECIES = Species.values();
+
+        private final ByteBuffer aBuffer;
+        private final StringTable aStrings;
+        private final int aOffset;
+        private final int aCount;
+
+        /**
+         * {@link #ANIMAL_RECORD_SIZE}, or {@link #V1_ANIMAL_RECORD_SIZE} for records without IDs.
+         */
+        private final int aRecordSize;
+
+        private MappedAnimals(ByteBuffer pBuffer, StringTable pStrings, int pOffset, int pCount, int pRecordSize) {
+            this.aBuffer = pBuffer;
+            this.aStrings = pStrings;
+            this.aOffset = pOffset;
+            this.aCount = pCount;
+            this.aRecordSize = pRecordSize;
+        }
+
+        @Override
+        public int size() {
+            return aCount;
+        }
+
+        @Override
+        public Species speciesAt(int pIndex) {
+            return SPECIES[aBuffer.get(record(pIndex) + Integer.BYTES)];
+        }
+
+        @Override
+        public double ageAt(int pIndex) {
+            return aBuffer.getDouble(record(pIndex) + Integer.BYTES + 1);
+        }
+
+        @Override
+        public Animal load(int pIndex) {
+            String name = aStrings.get(aBuffer.getInt(record(pIndex)));
+            if (aRecordSize == V1_ANIMAL_RECORD_SIZE) {
+                return speciesAt(pIndex).newAnimal(name, ageAt(pIndex));
+            }
+            long id = aBuffer.getLong(record(pIndex) + V1_ANIMAL_RECORD_SIZE);
+            return speciesAt(pIndex).newAnimal(id, name, ageAt(pIndex));
+        }
+
+        private int record(int pIndex) {
+            return aOffset + pIndex * aRecordSize;
+        }
+    }
+
+    /**
+     * Decodes names from the string table on demand. Only absolute reads are used,
+     * so one table can be shared by enclosures loading on different threads.
+     */
+    private static final class StringTable {
+        private final ByteBuffer aBuffer;
+        private final int aOffset;
+        private final int aCount;
+
+        private StringTable(ByteBuffer pBuffer, int pOffset, int pCount) {
+            this.aBuffer = pBuffer;
+            this.aOffset = pOffset;
+            this.aCount = pCount;
+        }
+
+        private String get(int pId) {
+            if (pId < 0 || pId >= aCount) {
+                throw new IllegalStateException("Corrupt snapshot: string id " + pId + " out of range");
+            }
+            int position = (int) aBuffer.getLong(aOffset + pId * Long.BYTES);
+            byte[] bytes = new byte[aBuffer.getInt(position)];
+            aBuffer.get(position + Integer.BYTES, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Streams nodes to the channel through one reusable direct buffer while
+     * collecting the names for the string table.
+     */
+    private static final class Writer {
+        private final FileChannel aChannel;
+        private final ByteBuffer aBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        private final Map<String, Integer> aStringIds = new HashMap<>();
+        private final List<String> aStrings = new ArrayList<>();
+
+        /**
+         * For each source string table copied from, the id each of its strings has
+         * in this snapshot, or -1 if not needed yet.
+         */
+        private final Map<StringTable, int[]> aNameIds = new IdentityHashMap<>();
+        private long aPosition;
+        private long aHighestId;
+
+        private Writer(FileChannel pChannel) {
+            this.aChannel = pChannel;
+        }
+
+        private long writeNode(NodeImage pNode) throws IOException {
+            switch (pNode) {
+                case MappedImage mapped -> {
+                    return copyNode(mapped);
+                }
+                case EnclosureImage enclosure -> {
+                    long offset = aPosition;
+                    ensure(9);
+                    putHeader(enclosure.kind(), enclosure.name(), enclosure.ids().length);
+                    for (int i = 0; i < enclosure.ids().length; i++) {
+                        ensure(ANIMAL_RECORD_SIZE);
+                        aBuffer.putInt(stringId(enclosure.names()[i]));
+                        aBuffer.put(enclosure.species()[i]);
+                        aBuffer.putDouble(enclosure.ages()[i]);
+                        aBuffer.putLong(enclosure.ids()[i]);
+                        aHighestId = Math.max(aHighestId, enclosure.ids()[i]);
+                        aPosition += ANIMAL_RECORD_SIZE;
+                    }
+                    return offset;
+                }
+                case SectionImage section -> {
+                    long[] childOffsets = new long[section.children().size()];
+                    for (int i = 0; i < childOffsets.length; i++) {
+                        childOffsets[i] = writeNode(section.children().get(i));
+                    }
+                    long offset = aPosition;
+                    ensure(9);
+                    putHeader(KIND_SECTION, section.name(), childOffsets.length);
+                    for (long childOffset : childOffsets) {
+                        ensure(Long.BYTES);
+                        aBuffer.putLong(childOffset);
+                        aPosition += Long.BYTES;
+                    }
+                    return offset;
+                }
+            }
+        }
+
+        /**
+         * Copies the records of an enclosure that is still unloaded. The species, age
+         * and ID bytes are copied as they are; names are looked up once per distinct
+         * id of the source string table.
+         */
+        private long copyNode(MappedImage pEnclosure) throws IOException {
+            MappedAnimals animals = pEnclosure.animals();
+            int[] nameIds = aNameIds.computeIfAbsent(animals.aStrings, table -> {
+                int[] ids = new int[table.aCount];
+                Arrays.fill(ids, -1);
+                return ids;
+            });
+            ByteBuffer source = animals.aBuffer;
+            long offset = aPosition;
+            ensure(9);
+            putHeader(pEnclosure.kind(), pEnclosure.name(), animals.aCount);
+            for (int i = 0; i < animals.aCount; i++) {
+                int record = animals.record(i);
+                int sourceName = source.getInt(record);
+                if (sourceName < 0 || sourceName >= nameIds.length) {
+                    throw new IllegalStateException("Corrupt snapshot: string id " + sourceName + " out of range");
+                }
+                if (nameIds[sourceName] < 0) {
+                    nameIds[sourceName] = stringId(animals.aStrings.get(sourceName));
+                }
+                long id = source.getLong(record + V1_ANIMAL_RECORD_SIZE);
+                ensure(ANIMAL_RECORD_SIZE);
+                aBuffer.putInt(nameIds[sourceName]);
+                aBuffer.put(source.get(record + Integer.BYTES));
+                aBuffer.putLong(source.getLong(record + Integer.BYTES + 1));
+                aBuffer.putLong(id);
+                aHighestId = Math.max(aHighestId, id);
+                aPosition += ANIMAL_RECORD_SIZE;
+            }
+            return offset;
+        }
+
+        private void putHeader(byte pKind, String pName, int pCount) {
+            aBuffer.put(pKind).putInt(stringId(pName)).putInt(pCount);
+            aPosition += 9;
+        }
+
+        private long writeStrings() throws IOException {
+            long tableOffset = aPosition;
+            long stringOffset = tableOffset + (long) aStrings.size() * Long.BYTES;
+            List<byte[]> encoded = new ArrayList<>(aStrings.size());
+            for (String string : aStrings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                ensure(Long.BYTES);
+                aBuffer.putLong(stringOffset);
+                aPosition += Long.BYTES;
+                stringOffset += Integer.BYTES + bytes.length;
+            }
+            for (byte[] bytes : encoded) {
+                ensure(Integer.BYTES);
+                aBuffer.putInt(bytes.length);
+                aPosition += Integer.BYTES;
+                int written = 0;
+                while (written < bytes.length) {
+                    ensure(1);
+                    int length = Math.min(aBuffer.remaining(), bytes.length - written);
+                    aBuffer.put(bytes, written, length);
+                    written += length;
+                    aPosition += length;
+                }
+            }
+            return tableOffset;
+        }
+
+        private int stringId(String pString) {
+            Integer id = aStringIds.get(pString);
+            if (id == null) {
+                id = aStrings.size();
+                aStringIds.put(pString, id);
+                aStrings.add(pString);
+            }
+            return id;
+        }
+
+        /**
+         * Makes room for {@code pBytes} more bytes, flushing the buffer if needed.
+         */
+        private void ensure(int pBytes) throws IOException {
+            if (aBuffer.remaining() < pBytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            aBuffer.flip();
+            while (aBuffer.hasRemaining()) {
+                aChannel.write(aBuffer, aPosition - aBuffer.remaining());
+            }
+            aBuffer.clear();
+        }
+    }
+}
@@ -1,9 +1,18 @@
 package com.example.zoostructure;
 
+import com.example.zoostructure.Helpers.StartupTimer;
+import com.example.zoostructure.Server.ZooServer;
 import javafx.application.Application;
 
+import java.io.IOException;
+
 public class Launcher {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        StartupTimer.mark("main");
+        if (ZooServer.isRequested()) {
+            ZooServer.main(args);
+            return;
+        }
         Application.launch(HelloApplication.class, args);
     }
 }
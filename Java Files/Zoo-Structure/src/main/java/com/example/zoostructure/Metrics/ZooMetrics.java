@@ -0,0 +1,429 @@
+package com.example.zoostructure.Metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * The {@code ZooMetrics} class is the application's registry of counters, latency
+ * timers and gauges. The model, the controllers and the helpers record into it, and
+ * it can be read three ways:
+ * <ul>
+ *     <li>as attributes of the {@code com.example.zoostructure:type=Metrics} MBean,
+ *     for example from JConsole, once {@link #exposeOverJmx()} has been called;</li>
+ *     <li>as text from {@link #dump()};</li>
+ *     <li>printed every few seconds when the {@value #DUMP_INTERVAL_PROPERTY} system
+ *     property is set.</li>
+ * </ul>
+ * Recording never locks: counters are striped adders and timers keep a histogram of
+ * atomic buckets, so the hot paths that record pay a few nanoseconds.
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * private static final ZooMetrics.Timer LOAD = ZooMetrics.timer("view.fxmlLoad");
+ *
+ * long start = System.nanoTime();
+ * ...
+ * LOAD.recordSince(start);
+ * }</pre>
+ */
+public final class ZooMetrics {
+
+    /**
+     * System property giving, in seconds, how often the metrics are printed to
+     * standard output. Unset or 0 prints nothing.
+     */
+    public static final String DUMP_INTERVAL_PROPERTY = "zoo.metrics.dumpSeconds";
+
+    /**
+     * The name the metrics MBean is registered under.
+     */
+    public static final String OBJECT_NAME = "com.example.zoostructure:type=Metrics";
+
+    /**
+     * A count of events.
+     */
+    public static final class Counter {
+        private final LongAdder aCount = new LongAdder();
+
+        private Counter() {
+        }
+
+        /**
+         * Counts one event.
+         */
+        public void increment() {
+            aCount.increment();
+        }
+
+        /**
+         * Counts several events.
+         *
+         * @param pEvents the number of events
+         */
+        public void add(long pEvents) {
+            aCount.add(pEvents);
+        }
+
+        /**
+         * Returns the number of events so far.
+         *
+         * @return the count
+         */
+        public long get() {
+            return aCount.sum();
+        }
+    }
+
+    /**
+     * A histogram of durations in nanoseconds. Each power of two is split into
+     * {@value #SUB_BUCKETS} buckets, so percentiles are accurate to within 25%.
+     */
+    public static final class Timer {
+        private static final int SUB_BUCKETS = 4;
+        private static final int SUB_BITS = 2;
+
+        private final AtomicLongArray aBuckets = new AtomicLongArray(64 * SUB_BUCKETS);
+        private final LongAdder aCount = new LongAdder();
+        private final LongAdder aTotal = new LongAdder();
+        private final AtomicLong aMax = new AtomicLong();
+
+        private Timer() {
+        }
+
+        /**
+         * Records one duration.
+         *
+         * @param pNanos the duration in nanoseconds; negative values count as 0
+         */
+        public void record(long pNanos) {
+            long nanos = Math.max(0, pNanos);
+            aBuckets.incrementAndGet(bucket(nanos));
+            aCount.increment();
+            aTotal.add(nanos);
+            if (nanos > aMax.get()) {
+                aMax.accumulateAndGet(nanos, Math::max);
+            }
+        }
+
+        /**
+         * Records the time elapsed since a start time.
+         *
+         * @param pStartNanos a value of {@link System#nanoTime()} taken at the start
+         */
+        public void recordSince(long pStartNanos) {
+            record(System.nanoTime() - pStartNanos);
+        }
+
+        /**
+         * Returns the number of durations recorded.
+         *
+         * @return the count
+         */
+        public long count() {
+            return aCount.sum();
+        }
+
+        /**
+         * Returns the mean duration.
+         *
+         * @return the mean in nanoseconds, or 0 if nothing was recorded
+         */
+        public double mean() {
+            long count = aCount.sum();
+            return count == 0 ? 0 : (double) aTotal.sum() / count;
+        }
+
+        /**
+         * Returns the longest duration recorded.
+         *
+         * @return the maximum in nanoseconds
+         */
+        public long max() {
+            return aMax.get();
+        }
+
+        /**
+         * Estimates a percentile from the histogram.
+         *
+         * @param pQuantile the quantile, between 0 and 1, such as 0.99
+         * @return the upper bound of the bucket holding that quantile, in nanoseconds
+         */
+        public long percentile(double pQuantile) {
+            long total = 0;
+            long[] counts = new long[aBuckets.length()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = aBuckets.get(i);
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(pQuantile * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= Math.max(1, rank)) {
+                    return Math.min(upperBound(i), aMax.get());
+                }
+            }
+            return aMax.get();
+        }
+
+        private static int bucket(long pNanos) {
+            if (pNanos < SUB_BUCKETS) {
+                return (int) pNanos;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(pNanos);
+            int sub = (int) (pNanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        private static long upperBound(int pBucket) {
+            if (pBucket < SUB_BUCKETS) {
+                return pBucket;
+            }
+            int exponent = pBucket / SUB_BUCKETS + SUB_BITS - 1;
+            int sub = pBucket % SUB_BUCKETS;
+            long base = 1L << exponent;
+            long step = base >>> SUB_BITS;
+            return base + (sub + 1) * step - 1;
+        }
+    }
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentSkipListMap<>();
+    private static final Map<String, Timer> TIMERS = new ConcurrentSkipListMap<>();
+    private static final Map<String, LongSupplier> GAUGES = new ConcurrentSkipListMap<>();
+
+    private static final Counter ERRORS = counter("errors");
+    private static final System.Logger LOGGER = System.getLogger(ZooMetrics.class.getName());
+
+    private static ScheduledExecutorService sDumper;
+    private static boolean sExposed;
+
+    static {
+        long seconds = Long.getLong(DUMP_INTERVAL_PROPERTY, 0);
+        if (seconds > 0) {
+            startDumping(seconds);
+        }
+    }
+
+    private ZooMetrics() {
+    }
+
+    /**
+     * Returns the counter with the given name, creating it on first use.
+     *
+     * @param pName a dotted name such as {@code model.animalsAdded}
+     * @return the counter
+     */
+    public static Counter counter(String pName) {
+        return COUNTERS.computeIfAbsent(pName, name -> new Counter());
+    }
+
+    /**
+     * Returns the timer with the given name, creating it on first use.
+     *
+     * @param pName a dotted name such as {@code view.fxmlLoad}
+     * @return the timer
+     */
+    public static Timer timer(String pName) {
+        return TIMERS.computeIfAbsent(pName, name -> new Timer());
+    }
+
+    /**
+     * Registers a gauge, replacing any gauge with the same name. The supplier is
+     * called whenever the metrics are read, from any thread.
+     *
+     * @param pName  a dotted name such as {@code zoo.animals}
+     * @param pValue supplies the current value
+     */
+    public static void gauge(String pName, LongSupplier pValue) {
+        GAUGES.put(pName, pValue);
+    }
+
+    /**
+     * Counts an error and logs it through the {@link System.Logger} of this class, in
+     * place of a bare {@link Throwable#printStackTrace()}. Errors are counted in total
+     * and per place.
+     *
+     * @param pWhere a short name for where the error was caught, such as {@code view.openWindow}
+     * @param pError the error
+     */
+    public static void recordError(String pWhere, Throwable pError) {
+        ERRORS.increment();
+        counter("errors." + pWhere).increment();
+        LOGGER.log(System.Logger.Level.ERROR, "Error in " + pWhere, pError);
+    }
+
+    /**
+     * Registers the metrics MBean under {@value #OBJECT_NAME}, unless it already is.
+     * Starting the platform MBean server takes a few hundred milliseconds, so this is
+     * left to the application to call once it has started, instead of happening the
+     * first time a metric is recorded.
+     */
+    public static synchronized void exposeOverJmx() {
+        if (sExposed) {
+            return;
+        }
+        sExposed = true;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMBean(), new ObjectName(OBJECT_NAME));
+        } catch (JMException | SecurityException e) {
+            System.err.println("Metrics are not available over JMX: " + e);
+        }
+    }
+
+    /**
+     * Prints {@link #dump()} to standard output at a fixed rate, on a daemon thread.
+     * Calling it again changes the rate.
+     *
+     * @param pSeconds the interval in seconds
+     */
+    public static synchronized void startDumping(long pSeconds) {
+        if (sDumper != null) {
+            sDumper.shutdownNow();
+        }
+        sDumper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "zoo-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sDumper.scheduleAtFixedRate(() -> System.out.print(dump()), pSeconds, pSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Formats every metric as text, one per line and sorted by name. Timers show
+     * their count, mean, median, 99th percentile and maximum in microseconds.
+     *
+     * @return the metrics
+     */
+    public static String dump() {
+        StringBuilder text = new StringBuilder("--- zoo metrics ---\n");
+        GAUGES.forEach((name, value) -> text.append(name).append(" = ").append(read(value)).append('\n'));
+        COUNTERS.forEach((name, counter) -> text.append(name).append(" = ").append(counter.get()).append('\n'));
+        TIMERS.forEach((name, timer) -> text.append(String.format(Locale.ROOT,
+                "%s: count=%d mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus%n", name, timer.count(),
+                timer.mean() / 1000, timer.percentile(0.5) / 1000.0, timer.percentile(0.99) / 1000.0,
+                timer.max() / 1000.0)));
+        return text.toString();
+    }
+
+    private static long read(LongSupplier pGauge) {
+        try {
+            return pGauge.getAsLong();
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Exposes the registry over JMX. The attributes are built from the metrics
+     * registered when the MBean info is requested: one per gauge and counter, and
+     * {@code .count}, {@code .meanMicros}, {@code .p50Micros}, {@code .p99Micros} and
+     * {@code .maxMicros} per timer.
+     */
+    private static final class MetricsMBean implements DynamicMBean {
+        private static final String[] TIMER_FIELDS = {"count", "meanMicros", "p50Micros", "p99Micros", "maxMicros"};
+
+        @Override
+        public Object getAttribute(String pAttribute) throws AttributeNotFoundException {
+            LongSupplier gauge = GAUGES.get(pAttribute);
+            if (gauge != null) {
+                return read(gauge);
+            }
+            Counter counter = COUNTERS.get(pAttribute);
+            if (counter != null) {
+                return counter.get();
+            }
+            int dot = pAttribute.lastIndexOf('.');
+            Timer timer = dot < 0 ? null : TIMERS.get(pAttribute.substring(0, dot));
+            if (timer != null) {
+                Double value = switch (pAttribute.substring(dot + 1)) {
+                    case "count" -> (double) timer.count();
+                    case "meanMicros" -> timer.mean() / 1000;
+                    case "p50Micros" -> timer.percentile(0.5) / 1000.0;
+                    case "p99Micros" -> timer.percentile(0.99) / 1000.0;
+                    case "maxMicros" -> timer.max() / 1000.0;
+                    default -> null;
+                };
+                if (value != null) {
+                    return value;
+                }
+            }
+            throw new AttributeNotFoundException(pAttribute);
+        }
+
+        @Override
+        public void setAttribute(Attribute pAttribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Metrics are read-only: " + pAttribute.getName());
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] pAttributes) {
+            AttributeList attributes = new AttributeList();
+            for (String name : pAttributes) {
+                try {
+                    attributes.add(new Attribute(name, getAttribute(name)));
+                } catch (AttributeNotFoundException e) {
+                    // Leave unknown attributes out, as the DynamicMBean contract allows.
+                }
+            }
+            return attributes;
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList pAttributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String pAction, Object[] pParams, String[] pSignature) {
+            if ("dump".equals(pAction)) {
+                return dump();
+            }
+            throw new UnsupportedOperationException(pAction);
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>();
+            for (String name : GAUGES.keySet()) {
+                attributes.add(new MBeanAttributeInfo(name, "long", "Gauge " + name, true, false, false));
+            }
+            for (String name : COUNTERS.keySet()) {
+                attributes.add(new MBeanAttributeInfo(name, "long", "Counter " + name, true, false, false));
+            }
+            for (String name : TIMERS.keySet()) {
+                for (String field : TIMER_FIELDS) {
+                    attributes.add(new MBeanAttributeInfo(name + "." + field, "double", "Timer " + name,
+                            true, false, false));
+                }
+            }
+            MBeanOperationInfo dump = new MBeanOperationInfo("dump", "Formats every metric as text",
+                    new MBeanParameterInfo[0], "java.lang.String", MBeanOperationInfo.INFO);
+            return new MBeanInfo(ZooMetrics.class.getName(), "Zoo application metrics",
+                    attributes.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[]{dump}, null);
+        }
+    }
+}
@@ -1,45 +1,147 @@
 package com.example.zoostructure.Model;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * The {@code Animal} class represents an animal with a name and age.
  * It provides methods to access and modify these properties.
  * <p>
  * This class ensures that the age of the animal cannot be negative.
  * </p>
+ * <p>
+ * Animals may be renamed or re-aged from any thread. While an animal lives in an
+ * {@link Enclosure}, the change is made under that enclosure's lock so its name
+ * index and summaries stay in step.
+ * </p>
+ * <p>
+ * In an enclosure using {@link Enclosure.Storage#COLUMNAR} storage, an animal is a
+ * view of a row in the enclosure's arrays: it reads its name and age from there,
+ * and two views of the same row are equal.
+ * </p>
+ * <p>
+ * Every animal has a numeric ID, given when it is created and kept through renames,
+ * moves between enclosures and columnar storage. Snapshots and the journal save it,
+ * so an animal keeps its ID across restarts. {@link AnimalRegistry} finds animals by ID.
+ * </p>
  *
  * @author Matt
  * @version 1.0
  */
 public class Animal {
 
+    /**
+     * The next ID to hand out. IDs start at 1.
+     */
+    private static final AtomicLong NEXT_ID = new AtomicLong(1);
+
+    /**
+     * The ID of the animal, unique among the animals of this process.
+     */
+    private final long aId;
+
     /**
      * The name of the animal.
      */
-    private String aName;
+    private volatile String aName;
 
     /**
      * The age of the animal in years.
      */
-    private double aAge;
+    private volatile double aAge;
+
+    /**
+     * The enclosure the animal currently lives in, or {@code null} if it has not
+     * been added to one. Kept so that renames can update the enclosure's name index.
+     */
+    private volatile Enclosure aEnclosure;
+
+    /**
+     * The columnar row this animal is a view of, or {@code null} for an ordinary animal.
+     */
+    private volatile ColumnarAnimalStore.RowHandle aView;
 
     /**
      * Constructs a new {@code Animal} with the specified name and age.
      *
      * @param pName the name of the animal
-     * @param pAge  the age of the animal in years; must be non-negative
-     * @throws IllegalArgumentException if {@code pAge} is negative
+     * @param pAge  the age of the animal in years; must be non-negative and finite
+     * @throws IllegalArgumentException if {@code pAge} is negative, NaN or infinite
      */
     public Animal(String pName, double pAge) {
+        this.aId = NEXT_ID.getAndIncrement();
         this.setName(pName);
         this.setAge(pAge);
     }
 
+    /**
+     * Recreates a saved animal with its ID. IDs up to {@code pId} are no longer handed
+     * out to new animals, so they cannot collide with it.
+     *
+     * @param pId   the ID the animal was saved with
+     * @param pName the name of the animal
+     * @param pAge  the age of the animal in years; must be non-negative and finite
+     * @throws IllegalArgumentException if {@code pId} is not positive, or the name or age is invalid
+     */
+    Animal(long pId, String pName, double pAge) {
+        if (pId <= 0) {
+            throw new IllegalArgumentException("Animal ID must be positive.");
+        }
+        reserveIds(pId);
+        this.aId = pId;
+        this.setName(pName);
+        this.setAge(pAge);
+    }
+
+    /**
+     * Constructs a view of a row in a columnar enclosure.
+     *
+     * @param pView      the row to read from
+     * @param pEnclosure the enclosure owning the row
+     * @param pId        the ID of the animal stored in the row
+     */
+    Animal(ColumnarAnimalStore.RowHandle pView, Enclosure pEnclosure, long pId) {
+        this.aId = pId;
+        this.aView = pView;
+        this.aEnclosure = pEnclosure;
+    }
+
+    /**
+     * Makes sure IDs up to and including {@code pId} are never handed out to new
+     * animals, for loaders that will recreate saved animals later on, such as
+     * {@link Enclosure#deferred(String, DeferredAnimals) deferred enclosures}.
+     *
+     * @param pId the highest ID in use by saved animals
+     */
+    public static void reserveIds(long pId) {
+        NEXT_ID.accumulateAndGet(pId + 1, Math::max);
+    }
+
+    /**
+     * Returns the ID of the animal. It never changes.
+     *
+     * @return a positive number no other animal of this process has
+     */
+    public long getId() {
+        return aId;
+    }
+
     /**
      * Returns the name of the animal.
      *
      * @return the name of the animal
+     * @throws IllegalStateException if this is a view of a row that has since been removed
      */
     public String getName() {
+        ColumnarAnimalStore.RowHandle view = aView;
+        if (view != null && !view.isDetached()) {
+            String name = view.store().nameOf(view);
+            if (name != null) {
+                return name;
+            }
+            if (!view.isDetached()) {
+                throw new IllegalStateException("Animal has been removed from its enclosure.");
+            }
+        }
         return aName;
     }
 
@@ -57,6 +159,28 @@ public class Animal {
         if (pName == null || pName.trim().isEmpty()) {
             throw new IllegalArgumentException("Name cannot be null or empty.");
         }
+        while (true) {
+            Enclosure enclosure;
+            synchronized (this) {
+                enclosure = this.aEnclosure;
+                if (enclosure == null) {
+                    this.aName = pName;
+                    return;
+                }
+            }
+            // Retry if the animal moved to another enclosure before the rename was applied.
+            if (enclosure.renameAnimal(this, pName)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stores a validated name. Only called by {@link Enclosure} while it holds its lock.
+     *
+     * @param pName the new name
+     */
+    void assignName(String pName) {
         this.aName = pName;
     }
 
@@ -66,25 +190,129 @@ public class Animal {
      * @return the age of the animal in years
      */
     public double getAge() {
+        ColumnarAnimalStore.RowHandle view = aView;
+        if (view != null && !view.isDetached()) {
+            try {
+                return view.store().ageOf(view);
+            } catch (IllegalStateException e) {
+                // Detached in the meantime: the age has been copied back into the animal.
+                if (!view.isDetached()) {
+                    throw e;
+                }
+            }
+        }
         return aAge;
     }
 
     /**
      * Sets the age of the animal.
      * <p>
-     * The age must be non-negative. If a negative value is provided,
-     * an {@code IllegalArgumentException} is thrown.
+     * The age must be a non-negative, finite number. Otherwise an
+     * {@code IllegalArgumentException} is thrown.
      * </p>
      *
      * @param pAge the new age of the animal in years
-     * @throws IllegalArgumentException if {@code pAge} is negative
+     * @throws IllegalArgumentException if {@code pAge} is negative, NaN or infinite
      */
     public void setAge(double pAge) {
-        if (pAge < 0)
-            throw new IllegalArgumentException("Age cannot be smaller than 0!");
+        if (!(pAge >= 0) || Double.isInfinite(pAge))
+            throw new IllegalArgumentException("Age must be a finite number of at least 0!");
+        while (true) {
+            Enclosure enclosure;
+            synchronized (this) {
+                enclosure = this.aEnclosure;
+                if (enclosure == null) {
+                    this.aAge = pAge;
+                    return;
+                }
+            }
+            if (enclosure.changeAnimalAge(this, pAge)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stores a validated age. Only called by {@link Enclosure} while it holds its lock.
+     *
+     * @param pAge the new age in years
+     */
+    void assignAge(double pAge) {
         this.aAge = pAge;
     }
 
+    /**
+     * Returns the enclosure the animal currently lives in.
+     *
+     * @return the owning enclosure, or {@code null} if the animal is not in one
+     */
+    public Enclosure getEnclosure() {
+        return aEnclosure;
+    }
+
+    /**
+     * Records the enclosure the animal now lives in. Only {@link Enclosure}
+     * calls this, when the animal is added or removed, while holding the animal's monitor.
+     *
+     * @param pEnclosure the new owning enclosure, or {@code null}
+     */
+    void setEnclosure(Enclosure pEnclosure) {
+        this.aEnclosure = pEnclosure;
+    }
+
+    ColumnarAnimalStore.RowHandle getView() {
+        return aView;
+    }
+
+    /**
+     * Turns this animal into a view of a columnar row, when it is added to a
+     * columnar enclosure. Its own name and age are no longer used.
+     *
+     * @param pView the row now holding the animal's data
+     */
+    void becomeView(ColumnarAnimalStore.RowHandle pView) {
+        this.aView = pView;
+    }
+
+    /**
+     * Gives a view its own copy of its row's data, when the row is removed.
+     * The view keeps its identity, so it still equals other views of the same row.
+     *
+     * @param pName the name the row held
+     * @param pAge  the age the row held
+     */
+    void detachView(String pName, double pAge) {
+        this.aName = pName;
+        this.aAge = pAge;
+    }
+
+    /**
+     * Views of the same columnar row are equal; any other animal is only equal to itself.
+     *
+     * @param pOther the object to compare with
+     * @return whether both refer to the same animal
+     */
+    @Override
+    public boolean equals(Object pOther) {
+        if (this == pOther) {
+            return true;
+        }
+        ColumnarAnimalStore.RowHandle view = aView;
+        return view != null && pOther instanceof Animal other && view.equals(other.aView);
+    }
+
+    /**
+     * Based on the animal's ID, which every view of a row shares and which never
+     * changes, so an animal keeps its hash code when it is added to a columnar
+     * enclosure and becomes a view.
+     *
+     * @return the hash code of the ID
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(aId);
+    }
+
     /**
      * Returns a string representation of the animal.
      * <p>
@@ -0,0 +1,265 @@
+package com.example.zoostructure.Model;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Finds any animal below a section by its {@link Animal#getId() ID}, together with
+ * the enclosure it lives in, and removes or moves it by ID.
+ * <p>
+ * The animals are kept in a {@link LongObjectHashMap} keyed by ID: a flat array of
+ * primitive keys beside a flat array of animals, with no boxed key or entry object
+ * per animal. Finding an animal is one hash and a short probe, and neither lookups
+ * nor the registry's own updates allocate, so the registry stays cheap with tens of
+ * millions of animals. Columnar enclosures hand out animals as views; the registry
+ * keeps one view per animal of such an enclosure.
+ * </p>
+ * <p>
+ * Like {@link ZooIndex}, the registry is kept current through a
+ * {@link ZooChangeListener} on its section: animals added or removed and collections
+ * added or removed anywhere below it are reflected as soon as the change is made.
+ * Call {@link #close()} to stop maintaining it. Building it loads any deferred
+ * enclosures in the tree.
+ * </p>
+ */
+public final class AnimalRegistry implements AutoCloseable {
+
+    private final CompositeEnclosureCollection aRoot;
+    private final LongObjectHashMap<Animal> aAnimals;
+    private final ReadWriteLock aLock = new ReentrantReadWriteLock();
+
+    private final ZooChangeListener aListener = this::changed;
+
+    private AnimalRegistry(CompositeEnclosureCollection pRoot, int pExpected) {
+        this.aRoot = pRoot;
+        this.aAnimals = new LongObjectHashMap<>(pExpected);
+    }
+
+    /**
+     * Registers every animal below a section and keeps the registry current from then
+     * on. The tree is locked against changes while the animals are collected, and the
+     * table is sized once for the animals already in the zoo.
+     *
+     * @param pRoot the section to register
+     * @return the new registry
+     * @throws IllegalArgumentException if pRoot is null
+     */
+    public static AnimalRegistry build(CompositeEnclosureCollection pRoot) {
+        if (pRoot == null) {
+            throw new IllegalArgumentException("Root cannot be null.");
+        }
+        Lock lock = CompositeEnclosureCollection.lockTree(pRoot);
+        try {
+            long animals = pRoot.getSummary().getAnimalCount();
+            AnimalRegistry registry = new AnimalRegistry(pRoot, (int) Math.min(animals, LongObjectHashMap.MAX_SIZE));
+            for (EnclosureCollection child : pRoot.getCollections()) {
+                registry.addSubtree(child);
+            }
+            pRoot.addChangeListener(registry.aListener);
+            return registry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Finds an animal by its ID.
+     *
+     * @param pId the ID
+     * @return the animal, or {@code null} if no animal below the root has that ID
+     */
+    public Animal find(long pId) {
+        Lock lock = aLock.readLock();
+        lock.lock();
+        try {
+            return aAnimals.get(pId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Finds the enclosure an animal lives in.
+     *
+     * @param pId the ID of the animal
+     * @return the enclosure, or {@code null} if no animal below the root has that ID
+     */
+    public Enclosure enclosureOf(long pId) {
+        // Read the enclosure under the lock too, or a move could take the animal out
+        // of its enclosure between the two reads.
+        Lock lock = aLock.readLock();
+        lock.lock();
+        try {
+            Animal animal = aAnimals.get(pId);
+            return animal == null ? null : animal.getEnclosure();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes an animal from its enclosure by its ID, leaving any other animals with
+     * the same name in place.
+     *
+     * @param pId the ID of the animal
+     * @return {@code true} if the animal was found and removed
+     */
+    public boolean remove(long pId) {
+        Animal animal = find(pId);
+        while (animal != null) {
+            Enclosure enclosure = animal.getEnclosure();
+            if (enclosure != null && enclosure.removeAnimal(animal)) {
+                return true;
+            }
+            // Try again only if another thread moved the animal in the meantime.
+            Animal current = find(pId);
+            if (current == animal && animal.getEnclosure() == enclosure) {
+                return false;
+            }
+            animal = current;
+        }
+        return false;
+    }
+
+    /**
+     * Moves an animal to another enclosure below the root by its ID, keeping its ID.
+     * The move is one step: the tree is write-locked, and so is the registry, while the
+     * animal is removed from its enclosure and added to the target, so no lookup or
+     * change in the tree sees it in neither enclosure. If the target refuses it, the
+     * animal is put back where it was.
+     *
+     * @param pId     the ID of the animal
+     * @param pTarget the enclosure to move it to
+     * @return {@code true} if the animal now lives in the target, {@code false} if no
+     *         animal below the root has that ID
+     * @throws IllegalArgumentException if pTarget is null or not below the root
+     */
+    public boolean move(long pId, Enclosure pTarget) {
+        if (pTarget == null) {
+            throw new IllegalArgumentException("Target cannot be null.");
+        }
+        // Tree first, then registry: animal writers take the tree's read lock before
+        // they reach this registry's listener.
+        Lock treeLock = CompositeEnclosureCollection.lockTree(aRoot);
+        Lock lock = aLock.writeLock();
+        lock.lock();
+        try {
+            if (!isBelowRoot(pTarget)) {
+                throw new IllegalArgumentException("Target " + pTarget.getName() + " is not below " + aRoot.getName() + ".");
+            }
+            Animal animal = aAnimals.get(pId);
+            if (animal == null) {
+                return false;
+            }
+            Enclosure source = animal.getEnclosure();
+            if (source == pTarget) {
+                return true;
+            }
+            if (source == null || !source.removeAnimal(animal)) {
+                return false;
+            }
+            try {
+                pTarget.addAnimal(animal);
+            } catch (RuntimeException e) {
+                source.addAnimal(animal);
+                throw e;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+            treeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether an enclosure is below the root. Called with the tree locked, so
+     * the parent chain cannot change.
+     */
+    private boolean isBelowRoot(Enclosure pEnclosure) {
+        for (CompositeEnclosureCollection parent = pEnclosure.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent == aRoot) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of registered animals.
+     *
+     * @return the number of animals below the root
+     */
+    public int size() {
+        Lock lock = aLock.readLock();
+        lock.lock();
+        try {
+            return aAnimals.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops keeping the registry current. Lookups still answer from its last state.
+     */
+    @Override
+    public void close() {
+        aRoot.removeChangeListener(aListener);
+    }
+
+    /**
+     * Applies one change from the tree. Runs with the changed collection locked, so
+     * the changes for one animal arrive in order.
+     */
+    private void changed(ZooChange pChange) {
+        Lock lock = aLock.writeLock();
+        lock.lock();
+        try {
+            apply(pChange);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void apply(ZooChange pChange) {
+        switch (pChange.type()) {
+            case ANIMAL_ADDED -> aAnimals.put(pChange.animal().getId(), pChange.animal());
+            case ANIMAL_REMOVED -> aAnimals.remove(pChange.animal().getId());
+            case ANIMAL_UPDATED -> {
+                // Renames and age changes keep the ID.
+            }
+            case COLLECTION_ADDED -> addSubtree(pChange.collection());
+            case COLLECTION_REMOVED -> removeSubtree(pChange.collection());
+            case BATCH -> pChange.changes().forEach(this::apply);
+        }
+    }
+
+    /**
+     * Registers the animals of a collection. Called with the write lock held, or
+     * before the registry is published.
+     */
+    private void addSubtree(EnclosureCollection pCollection) {
+        if (pCollection instanceof Enclosure enclosure) {
+            for (Animal animal : enclosure.getAnimals()) {
+                aAnimals.put(animal.getId(), animal);
+            }
+        } else if (pCollection instanceof CompositeEnclosureCollection section) {
+            for (EnclosureCollection child : section.getCollections()) {
+                addSubtree(child);
+            }
+        }
+    }
+
+    private void removeSubtree(EnclosureCollection pCollection) {
+        if (pCollection instanceof Enclosure enclosure) {
+            for (Animal animal : enclosure.getAnimals()) {
+                aAnimals.remove(animal.getId());
+            }
+        } else if (pCollection instanceof CompositeEnclosureCollection section) {
+            for (EnclosureCollection child : section.getCollections()) {
+                removeSubtree(child);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.zoostructure.Model;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * How an {@link Enclosure} keeps its animals. The enclosure takes care of
+ * locking, ownership, summaries and versioning; a store only holds the animals
+ * and their case-folded name index. Names passed in as {@code pFoldedName}
+ * have already been folded with {@link ObjectAnimalStore#fold(String)}.
+ */
+interface AnimalStore {
+
+    int size();
+
+    /**
+     * Stores an animal that does not belong to any enclosure yet.
+     */
+    void add(Animal pAnimal);
+
+    /**
+     * Makes room for a number of animals about to be added, so a batch grows the
+     * store at most once. Only a hint: adding more still works.
+     */
+    void reserve(int pExtra);
+
+    /**
+     * Removes one specific animal.
+     * @return {@code false} if the animal is not in this store
+     */
+    boolean remove(Animal pAnimal);
+
+    /**
+     * Removes every animal with the given name.
+     * @return the removed animals, empty if there were none
+     */
+    List<Animal> removeAll(String pFoldedName);
+
+    /**
+     * Removes every animal the filter accepts. Every animal is tested before any
+     * is removed, so the filter sees the store as it was before the call.
+     * @return the removed animals in iteration order, empty if there were none
+     */
+    List<Animal> removeIf(Predicate<? super Animal> pFilter);
+
+    /**
+     * Returns the first-added animal with the given name, or {@code null}.
+     */
+    Animal find(String pFoldedName);
+
+    boolean contains(String pFoldedName);
+
+    /**
+     * Renames a stored animal and updates the name index.
+     * @return the previous name
+     */
+    String rename(Animal pAnimal, String pNewName);
+
+    /**
+     * Changes the age of a stored animal.
+     * @return the previous age
+     */
+    double changeAge(Animal pAnimal, double pNewAge);
+
+    /**
+     * Returns every stored animal in iteration order, in a new list.
+     */
+    List<Animal> toList();
+}
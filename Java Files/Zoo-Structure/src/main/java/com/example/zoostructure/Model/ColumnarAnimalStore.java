@@ -0,0 +1,368 @@
+package com.example.zoostructure.Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Predicate;
+
+/**
+ * An {@link AnimalStore} that keeps animals in parallel primitive arrays instead
+ * of as objects: an interned name id, an age, a one-byte species code and the
+ * animal's {@link Animal#getId() ID} per row.
+ * <p>
+ * {@link Animal} objects handed out by this store are lightweight views of a row,
+ * created on demand. Two views of the same row are {@code equals}. When a row is
+ * removed, the view that was removed is detached and keeps its last name and age;
+ * any other view of that row becomes stale and throws if read.
+ * </p>
+ * <p>
+ * Rows are recycled through a free list, so after removals new animals may fill
+ * earlier positions and iteration order is no longer strictly insertion order.
+ * The name index is a primitive map from folded-name id to the first row with that
+ * name, with the rows for one name chained in a circular list through
+ * {@link #aNext} and {@link #aPrev}. Every row holds its name id and, while
+ * linked, its folded-name id in the store's own {@link NamePool}, so names no
+ * animal carries any more are dropped from the pool.
+ * </p>
+ */
+final class ColumnarAnimalStore implements AnimalStore {
+
+    private static final byte FREE = -1;
+    private static final Species[] SPECIES = Species.values();
+
+    /**
+     * Identifies one row of one store at one point in time. The generation changes
+     * whenever the row is freed, so a handle never silently follows a recycled row.
+     */
+    static final class RowHandle {
+        private final ColumnarAnimalStore aStore;
+        private final int aRow;
+        private final int aGeneration;
+
+        /**
+         * Set once the animal has been removed and holds its own name and age again.
+         */
+        private volatile boolean aDetached;
+
+        private RowHandle(ColumnarAnimalStore pStore, int pRow, int pGeneration) {
+            this.aStore = pStore;
+            this.aRow = pRow;
+            this.aGeneration = pGeneration;
+        }
+
+        ColumnarAnimalStore store() {
+            return aStore;
+        }
+
+        boolean isDetached() {
+            return aDetached;
+        }
+
+        @Override
+        public boolean equals(Object pOther) {
+            return pOther instanceof RowHandle other
+                    && other.aStore == aStore && other.aRow == aRow && other.aGeneration == aGeneration;
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(aStore) * 31 + aRow) * 31 + aGeneration;
+        }
+    }
+
+    private final Enclosure aOwner;
+
+    /**
+     * The owning enclosure's read lock, taken when a view reads its row.
+     */
+    private final Lock aReadLock;
+
+    private final NamePool aNames = new NamePool();
+
+    private int[] aNameIds = new int[0];
+    private double[] aAges = new double[0];
+    private byte[] aSpecies = new byte[0];
+    private long[] aIds = new long[0];
+    private int[] aGenerations = new int[0];
+
+    /**
+     * Next row with the same name, or the next free row for rows on the free list.
+     */
+    private int[] aNext = new int[0];
+
+    /**
+     * Previous row with the same name.
+     */
+    private int[] aPrev = new int[0];
+
+    /**
+     * Rows below this index have been used at least once.
+     */
+    private int aRowCount;
+
+    private int aSize;
+    private int aFreeHead = -1;
+
+    /**
+     * Maps a folded-name id to the first row carrying that name.
+     */
+    private final IntIntHashMap aHeads = new IntIntHashMap();
+
+    ColumnarAnimalStore(Enclosure pOwner, Lock pReadLock) {
+        this.aOwner = pOwner;
+        this.aReadLock = pReadLock;
+    }
+
+    @Override
+    public int size() {
+        return aSize;
+    }
+
+    @Override
+    public void add(Animal pAnimal) {
+        int row = allocate();
+        aNameIds[row] = aNames.acquire(pAnimal.getName());
+        aAges[row] = pAnimal.getAge();
+        aSpecies[row] = (byte) Species.of(pAnimal).ordinal();
+        aIds[row] = pAnimal.getId();
+        link(row);
+        aSize++;
+        pAnimal.becomeView(new RowHandle(this, row, aGenerations[row]));
+    }
+
+    @Override
+    public void reserve(int pExtra) {
+        // Free rows are reused first; only what they cannot hold needs new rows.
+        int rows = Math.max(aRowCount, aSize + pExtra);
+        if (rows > aSpecies.length) {
+            grow(rows);
+        }
+    }
+
+    @Override
+    public boolean remove(Animal pAnimal) {
+        RowHandle handle = pAnimal.getView();
+        if (handle == null || handle.aStore != this || !isLive(handle)) {
+            return false;
+        }
+        detach(pAnimal, handle);
+        free(handle.aRow);
+        return true;
+    }
+
+    @Override
+    public List<Animal> removeAll(String pFoldedName) {
+        int foldedId = aNames.find(pFoldedName);
+        int head = foldedId < 0 ? -1 : aHeads.get(foldedId, -1);
+        if (head < 0) {
+            return Collections.emptyList();
+        }
+        List<Animal> removed = new ArrayList<>();
+        int row = head;
+        do {
+            removed.add(view(row));
+            row = aNext[row];
+        } while (row != head);
+        for (Animal animal : removed) {
+            RowHandle handle = animal.getView();
+            detach(animal, handle);
+            free(handle.aRow);
+        }
+        return removed;
+    }
+
+    @Override
+    public List<Animal> removeIf(Predicate<? super Animal> pFilter) {
+        List<Animal> removed = new ArrayList<>();
+        for (int row = 0; row < aRowCount; row++) {
+            if (aSpecies[row] != FREE) {
+                Animal animal = view(row);
+                if (pFilter.test(animal)) {
+                    removed.add(animal);
+                }
+            }
+        }
+        for (Animal animal : removed) {
+            RowHandle handle = animal.getView();
+            detach(animal, handle);
+            free(handle.aRow);
+        }
+        return removed;
+    }
+
+    @Override
+    public Animal find(String pFoldedName) {
+        int foldedId = aNames.find(pFoldedName);
+        int head = foldedId < 0 ? -1 : aHeads.get(foldedId, -1);
+        return head < 0 ? null : view(head);
+    }
+
+    @Override
+    public boolean contains(String pFoldedName) {
+        int foldedId = aNames.find(pFoldedName);
+        return foldedId >= 0 && aHeads.containsKey(foldedId);
+    }
+
+    @Override
+    public String rename(Animal pAnimal, String pNewName) {
+        int row = liveRow(pAnimal);
+        String oldName = aNames.name(aNameIds[row]);
+        unlink(row);
+        aNames.release(aNameIds[row]);
+        aNameIds[row] = aNames.acquire(pNewName);
+        link(row);
+        return oldName;
+    }
+
+    @Override
+    public double changeAge(Animal pAnimal, double pNewAge) {
+        int row = liveRow(pAnimal);
+        double oldAge = aAges[row];
+        aAges[row] = pNewAge;
+        return oldAge;
+    }
+
+    @Override
+    public List<Animal> toList() {
+        List<Animal> animals = new ArrayList<>(aSize);
+        for (int row = 0; row < aRowCount; row++) {
+            if (aSpecies[row] != FREE) {
+                animals.add(view(row));
+            }
+        }
+        return animals;
+    }
+
+    /**
+     * Reads the name of a view's row.
+     * @return the name, or {@code null} if the row no longer belongs to the view
+     */
+    String nameOf(RowHandle pHandle) {
+        aReadLock.lock();
+        try {
+            return isLive(pHandle) ? aNames.name(aNameIds[pHandle.aRow]) : null;
+        } finally {
+            aReadLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the age of a view's row.
+     * @return the age
+     * @throws IllegalStateException if the row no longer belongs to the view
+     */
+    double ageOf(RowHandle pHandle) {
+        aReadLock.lock();
+        try {
+            if (!isLive(pHandle)) {
+                throw new IllegalStateException("Animal has been removed from its enclosure.");
+            }
+            return aAges[pHandle.aRow];
+        } finally {
+            aReadLock.unlock();
+        }
+    }
+
+    private Animal view(int pRow) {
+        return SPECIES[aSpecies[pRow]].newView(new RowHandle(this, pRow, aGenerations[pRow]), aOwner, aIds[pRow]);
+    }
+
+    private boolean isLive(RowHandle pHandle) {
+        return !pHandle.aDetached && pHandle.aRow < aRowCount
+                && aSpecies[pHandle.aRow] != FREE && aGenerations[pHandle.aRow] == pHandle.aGeneration;
+    }
+
+    private int liveRow(Animal pAnimal) {
+        RowHandle handle = pAnimal.getView();
+        if (handle == null || handle.aStore != this || !isLive(handle)) {
+            throw new IllegalStateException("Animal is no longer stored in this enclosure.");
+        }
+        return handle.aRow;
+    }
+
+    private void detach(Animal pAnimal, RowHandle pHandle) {
+        pAnimal.detachView(aNames.name(aNameIds[pHandle.aRow]), aAges[pHandle.aRow]);
+        pHandle.aDetached = true;
+    }
+
+    private int allocate() {
+        if (aFreeHead >= 0) {
+            int row = aFreeHead;
+            aFreeHead = aNext[row];
+            return row;
+        }
+        if (aRowCount == aSpecies.length) {
+            grow(Math.max(8, aSpecies.length * 2));
+        }
+        return aRowCount++;
+    }
+
+    private void grow(int pCapacity) {
+        aNameIds = Arrays.copyOf(aNameIds, pCapacity);
+        aAges = Arrays.copyOf(aAges, pCapacity);
+        aSpecies = Arrays.copyOf(aSpecies, pCapacity);
+        aIds = Arrays.copyOf(aIds, pCapacity);
+        aGenerations = Arrays.copyOf(aGenerations, pCapacity);
+        aNext = Arrays.copyOf(aNext, pCapacity);
+        aPrev = Arrays.copyOf(aPrev, pCapacity);
+    }
+
+    private void free(int pRow) {
+        unlink(pRow);
+        aNames.release(aNameIds[pRow]);
+        aSpecies[pRow] = FREE;
+        aGenerations[pRow]++;
+        aNext[pRow] = aFreeHead;
+        aFreeHead = pRow;
+        aSize--;
+    }
+
+    private String foldedName(int pRow) {
+        return ObjectAnimalStore.fold(aNames.name(aNameIds[pRow]));
+    }
+
+    /**
+     * Appends a row to the end of its name's circular list.
+     */
+    private void link(int pRow) {
+        int foldedId = aNames.acquire(foldedName(pRow));
+        int head = aHeads.get(foldedId, -1);
+        if (head < 0) {
+            aNext[pRow] = pRow;
+            aPrev[pRow] = pRow;
+            aHeads.put(foldedId, pRow);
+        } else {
+            int tail = aPrev[head];
+            aNext[tail] = pRow;
+            aPrev[pRow] = tail;
+            aNext[pRow] = head;
+            aPrev[head] = pRow;
+        }
+    }
+
+    /**
+     * Takes a row out of its name's circular list.
+     */
+    private void unlink(int pRow) {
+        int foldedId = aNames.find(foldedName(pRow));
+        if (aNext[pRow] == pRow) {
+            aHeads.remove(foldedId);
+        } else {
+            aNext[aPrev[pRow]] = aNext[pRow];
+            aPrev[aNext[pRow]] = aPrev[pRow];
+            if (aHeads.get(foldedId, -1) == pRow) {
+                aHeads.put(foldedId, aNext[pRow]);
+            }
+        }
+        aNames.release(foldedId);
+    }
+
+    /**
+     * Returns how many distinct names and folded names the store holds.
+     */
+    int pooledNames() {
+        return aNames.size();
+    }
+}
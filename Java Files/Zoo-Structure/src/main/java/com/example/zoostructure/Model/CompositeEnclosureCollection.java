@@ -1,7 +1,13 @@
 package com.example.zoostructure.Model;
 
-import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
 
 /**
  * CompositeEnclosureCollection represents a group of enclosures, which
@@ -10,22 +16,158 @@ import java.util.List;
  */
 public class CompositeEnclosureCollection implements EnclosureCollection {
 
+    /**
+     * Guards the shape of one enclosure tree. Adding or removing a collection takes the
+     * write lock; adding, removing or re-aging an animal takes the read lock while it
+     * pushes its change up the parent chain, so summaries never see a half-moved
+     * subtree. Animal writers only share this lock with each other and otherwise
+     * synchronize on their own {@link Enclosure}.
+     * <p>
+     * Every collection owns one, but only the lock of the root of a tree is used, so
+     * separate trees never block each other. A collection that is added to a tree
+     * switches to that tree's lock, and one that is removed switches back to its own;
+     * {@link #lockTree(EnclosureCollection, boolean)} finds the right one.
+     * </p>
+     */
+    static final class TreeLock extends ReentrantReadWriteLock {
+
+        private static final AtomicLong ORDER = new AtomicLong();
+
+        /**
+         * The order in which two tree locks are taken when both are needed.
+         */
+        private final long aOrder = ORDER.getAndIncrement();
+
+        /**
+         * The only thread allowed to change the tree, or {@code null} for any thread.
+         */
+        private volatile Thread aWriter;
+
+        /**
+         * Whether the tree refuses every change.
+         */
+        private volatile boolean aReadOnly;
+
+        /**
+         * Throws if the current thread may not change the tree. Called with the lock held.
+         */
+        private void checkWritable() {
+            if (aReadOnly) {
+                throw new IllegalStateException("The zoo is read-only.");
+            }
+            Thread writer = aWriter;
+            if (writer != null && writer != Thread.currentThread()) {
+                throw new IllegalStateException("The zoo is still loading.");
+            }
+        }
+    }
+
+    /**
+     * The lock of the tree this composite is the root of. Unused while it has a parent.
+     */
+    private final TreeLock aTreeLock = new TreeLock();
+
     /**
      * The name of the enclosure.
      */
     private final String aName;
 
     /**
-     * The list of enclosures.
+     * The enclosures, indexed by name in insertion order. Only changed while the
+     * write lock of this composite's tree is held, and only read while its read lock is held.
      */
-    private final List<EnclosureCollection> aEnclosures;
+    private final Map<String, EnclosureCollection> aEnclosures = new LinkedHashMap<>();
 
     /**
-     * Returns a safe, unmodifiable copy of the list of enclosures.
+     * An immutable copy of the enclosures in order, or {@code null} if they have
+     * changed since it was built.
+     */
+    private volatile List<EnclosureCollection> aSnapshot;
+
+    /**
+     * The composite this one has been added to, or {@code null} for the root.
+     */
+    private volatile CompositeEnclosureCollection aParent;
+
+    /**
+     * Aggregate figures for the whole subtree below this composite.
+     */
+    private final EnclosureSummary aSummary = new EnclosureSummary();
+
+    /**
+     * Listeners for changes anywhere in this subtree.
+     */
+    private final List<ZooChangeListener> aListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Returns a safe, unmodifiable copy of the list of enclosures, in the order they
+     * were added. The copy is cached until the next add or removal.
      * @return a {@code List} of {@link EnclosureCollection} objects.
      */
     public List<EnclosureCollection> getCollections() {
-        return aEnclosures;
+        List<EnclosureCollection> snapshot = aSnapshot;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        Lock lock = lockTree(this, false);
+        try {
+            snapshot = aSnapshot;
+            if (snapshot == null) {
+                snapshot = List.copyOf(aEnclosures.values());
+                aSnapshot = snapshot;
+            }
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the direct child with the given name.
+     * @param pName the exact name of the child
+     * @return the child, or {@code null} if there is none
+     */
+    public EnclosureCollection getCollection(String pName) {
+        Lock lock = lockTree(this, false);
+        try {
+            return aEnclosures.get(pName);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Finds a collection from its path, as returned by {@link #getPath()} with this
+     * collection as the root: this collection's name followed by one child name per
+     * level, separated by {@code /}. Each level is one hash lookup, so the cost
+     * depends on the depth of the path and not on how wide the sections are.
+     * @param pPath the path, such as {@code Big Cats/Tigers/Tiger Cubs}
+     * @return the collection at that path, or {@code null} if there is none
+     */
+    public EnclosureCollection resolve(String pPath) {
+        if (pPath == null) {
+            return null;
+        }
+        String[] names = pPath.split("/", -1);
+        if (!names[0].equals(aName)) {
+            return null;
+        }
+        Lock lock = lockTree(this, false);
+        try {
+            EnclosureCollection node = this;
+            for (int i = 1; i < names.length; i++) {
+                if (!(node instanceof CompositeEnclosureCollection composite)) {
+                    return null;
+                }
+                node = composite.aEnclosures.get(names[i]);
+                if (node == null) {
+                    return null;
+                }
+            }
+            return node;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -36,18 +178,94 @@ public class CompositeEnclosureCollection implements EnclosureCollection {
         return aName;
     }
 
+    /**
+     * Returns the composite this one has been added to.
+     * @return the parent collection, or {@code null} for the root
+     */
+    @Override
+    public CompositeEnclosureCollection getParent() {
+        return aParent;
+    }
+
+    /**
+     * Returns the aggregate figures for this composite's subtree.
+     * @return the live summary of this subtree
+     */
+    @Override
+    public EnclosureSummary getSummary() {
+        return aSummary;
+    }
+
+    /**
+     * Removes every animal in this subtree that matches a condition. Each enclosure
+     * applies its removals as one {@link MutationBatch}, so listeners receive one
+     * change per enclosure rather than one per animal. Enclosures are handled one
+     * after another, not all under one lock, and deferred enclosures are loaded.
+     * @param pFilter the condition; called with each enclosure locked, so it must not change the zoo
+     * @return the number of animals removed
+     * @throws IllegalArgumentException if pFilter is null
+     */
+    public long removeAnimalsIf(Predicate<? super Animal> pFilter) {
+        if (pFilter == null) {
+            throw new IllegalArgumentException("Filter cannot be null.");
+        }
+        return EnclosureTraversal.reduce(this, 0L, enclosure -> (long) enclosure.removeAnimalsIf(pFilter),
+                Long::sum, false);
+    }
+
+    @Override
+    public void addChangeListener(ZooChangeListener pListener) {
+        if (pListener == null) {
+            throw new IllegalArgumentException("Listener cannot be null.");
+        }
+        aListeners.add(pListener);
+    }
+
+    @Override
+    public void removeChangeListener(ZooChangeListener pListener) {
+        aListeners.remove(pListener);
+    }
+
     public CompositeEnclosureCollection(String pName) {
         this.aName = pName;
-        aEnclosures = new ArrayList<>();
     }
 
     /**
      * Adds an enclosure to this collection.
      * @param pEnclosure the enclosure to add
+     * @throws IllegalArgumentException if the enclosure is null, already has a parent,
+     *                                  is this collection or one of its ancestors, or has
+     *                                  the same name as another child
      */
     @Override
     public void addCollection(EnclosureCollection pEnclosure) {
-        aEnclosures.add(pEnclosure);
+        if (pEnclosure == null) {
+            throw new IllegalArgumentException("Collection cannot be null.");
+        }
+        // The new child is the root of its own tree until it is added, so both trees
+        // are locked: nothing may change in it while its figures are added to this one.
+        List<Lock> locks = lockTrees(this, pEnclosure);
+        try {
+            treeLockOf(rootOf(this)).checkWritable();
+            if (pEnclosure.getParent() != null) {
+                throw new IllegalArgumentException("Collection already belongs to " + pEnclosure.getParent().getName() + ".");
+            }
+            for (CompositeEnclosureCollection ancestor = this; ancestor != null; ancestor = ancestor.aParent) {
+                if (ancestor == pEnclosure) {
+                    throw new IllegalArgumentException("Cannot add a collection to itself or to one of its descendants.");
+                }
+            }
+            if (aEnclosures.containsKey(pEnclosure.getName())) {
+                throw new IllegalArgumentException("A collection named " + pEnclosure.getName() + " already exists in " + aName + ".");
+            }
+            aEnclosures.put(pEnclosure.getName(), pEnclosure);
+            aSnapshot = null;
+            setParentOf(pEnclosure, this);
+            subtreeAdded(pEnclosure.getSummary());
+            changed(ZooChange.collectionAdded(this, pEnclosure));
+        } finally {
+            unlock(locks);
+        }
     }
 
     /**
@@ -56,7 +274,221 @@ public class CompositeEnclosureCollection implements EnclosureCollection {
      */
     @Override
     public void removeCollection(EnclosureCollection pEnclosure) {
-        aEnclosures.remove(pEnclosure);
+        if (pEnclosure == null) {
+            return;
+        }
+        Lock lock = lockTree(this, true);
+        try {
+            treeLockOf(rootOf(this)).checkWritable();
+            if (aEnclosures.get(pEnclosure.getName()) == pEnclosure) {
+                aEnclosures.remove(pEnclosure.getName());
+                aSnapshot = null;
+                subtreeRemoved(pEnclosure.getSummary());
+                changed(ZooChange.collectionRemoved(this, pEnclosure));
+                // Last: from here on the child is the root of its own tree, and writers
+                // waiting on its own lock may go ahead.
+                setParentOf(pEnclosure, null);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Locks the tree a collection belongs to against structural changes, for an animal
+     * writer about to push its change up the parent chain. Writers in other trees are
+     * not affected.
+     * @param pNode a collection in the tree
+     * @return the read side of the tree's lock, already held
+     * @throws IllegalStateException if the tree may not be changed from this thread
+     */
+    static Lock lockForAnimalWrite(EnclosureCollection pNode) {
+        Lock lock = lockTree(pNode, false);
+        try {
+            treeLockOf(rootOf(pNode)).checkWritable();
+        } catch (IllegalStateException e) {
+            lock.unlock();
+            throw e;
+        }
+        return lock;
+    }
+
+    /**
+     * Lets only the given thread change a tree from now on, so a loader can fill a
+     * tree that is already on screen without anyone else changing it underneath.
+     * Other threads get an {@link IllegalStateException} when they try.
+     * @param pRoot   the root of the tree
+     * @param pWriter the only thread allowed to change it, or {@code null} to allow any thread again
+     */
+    public static void restrictWrites(CompositeEnclosureCollection pRoot, Thread pWriter) {
+        pRoot.aTreeLock.aWriter = pWriter;
+    }
+
+    /**
+     * Makes a tree refuse every change from now on, for a tree whose changes would be
+     * lost, such as one whose loading was stopped before its journal started.
+     * @param pRoot the root of the tree
+     */
+    public static void makeReadOnly(CompositeEnclosureCollection pRoot) {
+        pRoot.aTreeLock.aReadOnly = true;
+    }
+
+    /**
+     * Returns whether the current thread may change the tree a collection belongs to.
+     * @param pNode a collection in the tree
+     * @return {@code false} if the tree is read-only or only another thread may change it
+     */
+    public static boolean isWritable(EnclosureCollection pNode) {
+        TreeLock tree = treeLockOf(rootOf(pNode));
+        Thread writer = tree.aWriter;
+        return !tree.aReadOnly && (writer == null || writer == Thread.currentThread());
+    }
+
+    /**
+     * Locks the tree a collection belongs to against every animal and structural change,
+     * for work that must see the whole tree in one state. The caller must unlock the
+     * returned lock.
+     * @param pNode a collection in the tree
+     * @return the write side of the tree's lock, already held
+     */
+    public static Lock lockTree(EnclosureCollection pNode) {
+        return lockTree(pNode, true);
+    }
+
+    /**
+     * Takes the lock of the root above a collection. The root may change while the
+     * lock is awaited, so the path is checked again once it is held and the lock is
+     * retried if it now leads elsewhere; once held, the root cannot change until the
+     * lock is released.
+     */
+    private static Lock lockTree(EnclosureCollection pNode, boolean pWrite) {
+        while (true) {
+            EnclosureCollection root = rootOf(pNode);
+            TreeLock tree = treeLockOf(root);
+            Lock lock = pWrite ? tree.writeLock() : tree.readLock();
+            lock.lock();
+            if (rootOf(pNode) == root) {
+                return lock;
+            }
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write-locks the trees of two collections, in {@link TreeLock#aOrder} so two
+     * threads locking the same pair cannot deadlock.
+     */
+    private static List<Lock> lockTrees(EnclosureCollection pFirst, EnclosureCollection pSecond) {
+        while (true) {
+            EnclosureCollection firstRoot = rootOf(pFirst);
+            EnclosureCollection secondRoot = rootOf(pSecond);
+            TreeLock first = treeLockOf(firstRoot);
+            TreeLock second = treeLockOf(secondRoot);
+            List<Lock> locks;
+            if (first == second) {
+                locks = List.of(first.writeLock());
+            } else if (first.aOrder < second.aOrder) {
+                locks = List.of(first.writeLock(), second.writeLock());
+            } else {
+                locks = List.of(second.writeLock(), first.writeLock());
+            }
+            locks.forEach(Lock::lock);
+            if (rootOf(pFirst) == firstRoot && rootOf(pSecond) == secondRoot) {
+                return locks;
+            }
+            unlock(locks);
+        }
+    }
+
+    private static void unlock(List<Lock> pLocks) {
+        for (int i = pLocks.size() - 1; i >= 0; i--) {
+            pLocks.get(i).unlock();
+        }
+    }
+
+    private static EnclosureCollection rootOf(EnclosureCollection pNode) {
+        EnclosureCollection node = pNode;
+        for (EnclosureCollection parent = node.getParent(); parent != null; parent = node.getParent()) {
+            node = parent;
+        }
+        return node;
+    }
+
+    private static TreeLock treeLockOf(EnclosureCollection pRoot) {
+        return pRoot instanceof Enclosure enclosure ? enclosure.ownTreeLock() : ((CompositeEnclosureCollection) pRoot).aTreeLock;
+    }
+
+    private static void setParentOf(EnclosureCollection pChild, CompositeEnclosureCollection pParent) {
+        if (pChild instanceof CompositeEnclosureCollection composite) {
+            composite.aParent = pParent;
+        } else if (pChild instanceof Enclosure enclosure) {
+            enclosure.setParent(pParent);
+        }
+    }
+
+    /*
+     * The methods below push a change in one subtree up to every ancestor's summary.
+     * Each one updates this composite and then its parent, so they cost O(depth).
+     * Callers hold lockForAnimalWrite() so the parent chain cannot change underneath them.
+     */
+
+    void animalAdded(Species pSpecies, double pAge) {
+        for (CompositeEnclosureCollection node = this; node != null; node = node.aParent) {
+            node.aSummary.addAnimal(pSpecies, pAge);
+        }
+    }
+
+    void animalRemoved(Species pSpecies, double pAge) {
+        for (CompositeEnclosureCollection node = this; node != null; node = node.aParent) {
+            node.aSummary.removeAnimal(pSpecies, pAge);
+        }
+    }
+
+    /**
+     * Pushes the summary changes of a whole {@link MutationBatch} up the tree at once.
+     * @param pSpeciesDeltas the change in animals of each species, by ordinal
+     * @param pAgeDeltas     the change in animals of each age
+     */
+    void animalsChanged(long[] pSpeciesDeltas, Map<Double, Long> pAgeDeltas) {
+        for (CompositeEnclosureCollection node = this; node != null; node = node.aParent) {
+            node.aSummary.addAnimals(pSpeciesDeltas, pAgeDeltas);
+        }
+    }
+
+    void animalAgeChanged(double pOldAge, double pNewAge) {
+        for (CompositeEnclosureCollection node = this; node != null; node = node.aParent) {
+            node.aSummary.changeAge(pOldAge, pNewAge);
+        }
+    }
+
+    /**
+     * Passes a change made in this subtree to the listeners of this composite and
+     * of every ancestor.
+     * @param pChange the change
+     */
+    void changed(ZooChange pChange) {
+        for (CompositeEnclosureCollection node = this; node != null; node = node.aParent) {
+            for (ZooChangeListener listener : node.aListeners) {
+                listener.changed(pChange);
+            }
+        }
+    }
+
+    private void subtreeAdded(EnclosureSummary pSummary) {
+        for (CompositeEnclosureCollection node = this; node != null; node = node.aParent) {
+            node.aSummary.add(pSummary);
+        }
+    }
+
+    private void subtreeRemoved(EnclosureSummary pSummary) {
+        for (CompositeEnclosureCollection node = this; node != null; node = node.aParent) {
+            node.aSummary.subtract(pSummary);
+        }
+    }
+
+    @Override
+    public <R> R accept(EnclosureVisitor<R> pVisitor) {
+        return pVisitor.visitComposite(this);
     }
 
     /**
@@ -68,18 +500,12 @@ public class CompositeEnclosureCollection implements EnclosureCollection {
     }
 
     /**
-     * Recursively displays the enclosure hierarchy with indentation.
+     * Recursively displays the enclosure hierarchy with indentation, written to
+     * standard output in one buffered pass by {@link TreePrinter}.
      * @param pIndent the indentation prefix for nested levels
      */
     public void display(String pIndent) {
-        System.out.println(pIndent + aName);
-        for (EnclosureCollection enclosure : aEnclosures) {
-            if (enclosure instanceof CompositeEnclosureCollection) {
-                ((CompositeEnclosureCollection) enclosure).display(pIndent + "  ");
-            } else {
-                enclosure.display(); // assumes leaf nodes handle their own display
-            }
-        }
+        TreePrinter.print(this, pIndent);
     }
 
 }
\ No newline at end of file
@@ -4,4 +4,12 @@ public class Cougar extends Animal {
     public Cougar(String pName, double pAge) {
         super(pName, pAge);
     }
+
+    Cougar(long pId, String pName, double pAge) {
+        super(pId, pName, pAge);
+    }
+
+    Cougar(ColumnarAnimalStore.RowHandle pView, Enclosure pEnclosure, long pId) {
+        super(pView, pEnclosure, pId);
+    }
 }
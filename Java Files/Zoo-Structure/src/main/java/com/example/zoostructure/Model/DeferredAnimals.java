@@ -0,0 +1,40 @@
+package com.example.zoostructure.Model;
+
+/**
+ * The contents of an {@link Enclosure} that have not been turned into
+ * {@link Animal} objects yet, for example records in a memory-mapped snapshot.
+ * <p>
+ * An enclosure created with {@link Enclosure#deferred(String, DeferredAnimals)}
+ * builds its summary from {@link #speciesAt(int)} and {@link #ageAt(int)} alone,
+ * and only calls {@link #load(int)} the first time its animals are needed.
+ * </p>
+ */
+public interface DeferredAnimals {
+
+    /**
+     * Returns the number of animals.
+     * @return the animal count
+     */
+    int size();
+
+    /**
+     * Returns the species of one animal without creating it.
+     * @param pIndex the position of the animal, from 0 to {@code size() - 1}
+     * @return the species of that animal
+     */
+    Species speciesAt(int pIndex);
+
+    /**
+     * Returns the age of one animal without creating it.
+     * @param pIndex the position of the animal, from 0 to {@code size() - 1}
+     * @return the age of that animal in years
+     */
+    double ageAt(int pIndex);
+
+    /**
+     * Creates one animal. Each index is loaded at most once.
+     * @param pIndex the position of the animal, from 0 to {@code size() - 1}
+     * @return a new animal that does not belong to any enclosure yet
+     */
+    Animal load(int pIndex);
+}
@@ -1,12 +1,106 @@
 package com.example.zoostructure.Model;
 
+import com.example.zoostructure.Metrics.ZooMetrics;
+
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
 
+/**
+ * A leaf enclosure holding animals.
+ * <p>
+ * Enclosures are safe to use from several threads. Each one has its own
+ * read/write lock, so writers on different enclosures do not block each other,
+ * and {@link #getAnimals()} hands out immutable snapshots that can be iterated
+ * while other threads keep changing the enclosure.
+ * </p>
+ * <p>
+ * How the animals are held is chosen per enclosure with {@link Storage}.
+ * </p>
+ */
 public class Enclosure implements EnclosureCollection {
 
-        private String name;
-        private List<Animal> animals;
+    /**
+     * The ways an enclosure can hold its animals.
+     */
+    public enum Storage {
+        /**
+         * One {@link Animal} object per animal, kept in insertion order.
+         */
+        OBJECTS,
+
+        /**
+         * Names, ages and species in parallel primitive arrays, with animals handed
+         * out as views of a row. Uses a fraction of the memory for large enclosures;
+         * see {@link Animal} for how views behave.
+         */
+        COLUMNAR
+    }
+
+        private static final ZooMetrics.Timer SNAPSHOT_COPY_TIMER = ZooMetrics.timer("model.getAnimals.copy");
+        private static final ZooMetrics.Counter ANIMALS_ADDED = ZooMetrics.counter("model.animalsAdded");
+        private static final ZooMetrics.Counter ANIMALS_REMOVED = ZooMetrics.counter("model.animalsRemoved");
+
+        private final String name;
+
+        private final Storage storage;
+
+        /**
+         * The animals and their index by case-folded name.
+         */
+        private final AnimalStore store;
+
+        /**
+         * Guards {@link #store} and this enclosure's summary.
+         */
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        /**
+         * Counts structural changes (adds and removals). Snapshots are tagged with the
+         * version they were built from so unchanged enclosures can hand out the same one.
+         */
+        private volatile long modificationCount;
+
+        /**
+         * The most recent read-only snapshot of {@link #store}, or {@code null} if the
+         * enclosure has changed since it was built.
+         */
+        private volatile List<Animal> snapshot;
+
+        /**
+         * The lock of the tree this enclosure is the root of while it stands alone.
+         * Unused once it has a parent.
+         */
+        private final CompositeEnclosureCollection.TreeLock ownTreeLock = new CompositeEnclosureCollection.TreeLock();
+
+        /**
+         * The composite this enclosure has been added to, or {@code null}.
+         */
+        private volatile CompositeEnclosureCollection parent;
+
+        /**
+         * Aggregate figures for the animals in this enclosure.
+         */
+        private final EnclosureSummary summary = new EnclosureSummary();
+
+        /**
+         * Animals that are counted in {@link #summary} but have not been created yet,
+         * or {@code null} once they have been loaded.
+         */
+        private volatile DeferredAnimals pending;
+
+        /**
+         * Listeners for changes to this enclosure.
+         */
+        private final List<ZooChangeListener> listeners = new CopyOnWriteArrayList<>();
 
         /**
          * Constructs an {@code com.example.zoostructure.Model.Enclosure} with the specified name.
@@ -15,11 +109,115 @@ public class Enclosure implements EnclosureCollection {
          * @throws IllegalArgumentException if name is null or empty
          */
         public Enclosure(String name) {
+            this(name, Storage.OBJECTS);
+        }
+
+        /**
+         * Constructs an {@code com.example.zoostructure.Model.Enclosure} with the specified name
+         * that holds its animals the given way.
+         *
+         * @param name    the name of the enclosure
+         * @param storage how to hold the animals
+         * @throws IllegalArgumentException if name is null or empty, or storage is null
+         */
+        public Enclosure(String name, Storage storage) {
             if (name == null || name.trim().isEmpty()) {
                 throw new IllegalArgumentException("Zoo Enclosure name cannot be null or empty.");
             }
+            if (storage == null) {
+                throw new IllegalArgumentException("Storage cannot be null.");
+            }
             this.name = name;
-            this.animals = new ArrayList<>();
+            this.storage = storage;
+            this.store = storage == Storage.COLUMNAR
+                    ? new ColumnarAnimalStore(this, lock.readLock())
+                    : new ObjectAnimalStore();
+            this.summary.addEnclosure();
+        }
+
+        /**
+         * Creates an enclosure whose animals are only created the first time they are
+         * needed. Its summary is filled in straight away from the species and ages, so
+         * the enclosure can be placed in a tree and counted without loading anything.
+         *
+         * @param name     the name of the enclosure
+         * @param contents the animals to load on first use
+         * @return the new enclosure
+         * @throws IllegalArgumentException if name is null or empty
+         */
+        public static Enclosure deferred(String name, DeferredAnimals contents) {
+            return deferred(name, Storage.OBJECTS, contents);
+        }
+
+        /**
+         * Creates an enclosure whose animals are only created the first time they are
+         * needed, and are then held the given way.
+         *
+         * @param name     the name of the enclosure
+         * @param storage  how to hold the animals once loaded
+         * @param contents the animals to load on first use
+         * @return the new enclosure
+         * @throws IllegalArgumentException if name is null or empty, or storage is null
+         */
+        public static Enclosure deferred(String name, Storage storage, DeferredAnimals contents) {
+            Enclosure enclosure = new Enclosure(name, storage);
+            // Count locally first so the shared summary is touched once per distinct age.
+            long[] speciesCounts = new long[Species.values().length];
+            Map<Double, Long> ageCounts = new HashMap<>();
+            for (int i = 0; i < contents.size(); i++) {
+                speciesCounts[contents.speciesAt(i).ordinal()]++;
+                ageCounts.merge(contents.ageAt(i), 1L, Long::sum);
+            }
+            enclosure.summary.addAnimals(speciesCounts, ageCounts);
+            enclosure.pending = contents;
+            return enclosure;
+        }
+
+        /**
+         * Tells whether this enclosure's animals have been created.
+         *
+         * @return {@code false} if the enclosure was created with
+         *         {@link #deferred(String, DeferredAnimals)} and nothing has read its animals yet
+         */
+        public boolean isLoaded() {
+            return pending == null;
+        }
+
+        /**
+         * Returns the animals this enclosure has not created yet, so they can be copied
+         * somewhere else, such as into a new snapshot, without creating them.
+         *
+         * @return the contents given to {@link #deferred(String, DeferredAnimals)}, or
+         *         {@code null} once the animals have been loaded
+         */
+        public DeferredAnimals getDeferredAnimals() {
+            return pending;
+        }
+
+        /**
+         * Creates the deferred animals, if any. Called before anything touches {@link #store}.
+         */
+        private void ensureLoaded() {
+            if (pending == null) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                DeferredAnimals contents = pending;
+                if (contents == null) {
+                    return;
+                }
+                for (int i = 0; i < contents.size(); i++) {
+                    Animal animal = contents.load(i);
+                    synchronized (animal) {
+                        store.add(animal);
+                        animal.setEnclosure(this);
+                    }
+                }
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
         }
     /**
      * Returns the name of the enclosure.
@@ -29,33 +227,537 @@ public class Enclosure implements EnclosureCollection {
             return name;
         }
 
+    /**
+     * Returns how this enclosure holds its animals.
+     * * @return the storage chosen when the enclosure was created.
+     */
+        public Storage getStorage() {
+            return storage;
+        }
+
+    /**
+     * Returns the composite this enclosure has been added to.
+     * * @return the parent collection, or {@code null} if the enclosure stands alone.
+     */
+        @Override
+        public CompositeEnclosureCollection getParent() {
+            return parent;
+        }
+
+        void setParent(CompositeEnclosureCollection parent) {
+            this.parent = parent;
+        }
+
+        CompositeEnclosureCollection.TreeLock ownTreeLock() {
+            return ownTreeLock;
+        }
+
+    /**
+     * Returns the aggregate figures for the animals in this enclosure.
+     * * @return the live summary of this enclosure.
+     */
+        @Override
+        public EnclosureSummary getSummary() {
+            return summary;
+        }
+
+    /**
+     * Registers a listener for animals added to, removed from or updated in this enclosure.
+     * Listeners are called while the enclosure is locked; see {@link ZooChangeListener}.
+     * * @param listener the listener to add.
+     */
+        @Override
+        public void addChangeListener(ZooChangeListener listener) {
+            if (listener == null) {
+                throw new IllegalArgumentException("Listener cannot be null.");
+            }
+            listeners.add(listener);
+        }
+
+    /**
+     * Unregisters a listener added with {@link #addChangeListener(ZooChangeListener)}.
+     * * @param listener the listener to remove.
+     */
+        @Override
+        public void removeChangeListener(ZooChangeListener listener) {
+            listeners.remove(listener);
+        }
+
     /**
      * Returns a safe, unmodifiable copy of the list of animals currently in the enclosure.
+     * The copy is cached and shared between callers until the next add or removal,
+     * so reading an unchanged enclosure does not allocate.
      * * @return a {@code List} of {@link Animal} objects.
      */
         public List<Animal> getAnimals() {
-            return new ArrayList<>(animals);
+            List<Animal> current = snapshot;
+            if (current != null) {
+                return current;
+            }
+            ensureLoaded();
+            lock.readLock().lock();
+            try {
+                current = snapshot;
+                if (current == null) {
+                    long start = System.nanoTime();
+                    current = Collections.unmodifiableList(store.toList());
+                    snapshot = current;
+                    SNAPSHOT_COPY_TIMER.recordSince(start);
+                }
+                return current;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+    /**
+     * Returns the modification version of this enclosure. It changes whenever an animal
+     * is added or removed, so callers can tell whether a list from {@link #getAnimals()}
+     * is still current. Renames and age changes do not alter membership and leave it as is.
+     * * @return the current modification version.
+     */
+        public long getModificationCount() {
+            return modificationCount;
         }
 
     /**
      * Adds an {@link Animal} to this enclosure.
      * * @param animal the animal to be added.
-     * @throws IllegalArgumentException if {@code animal} is null.
+     * @throws IllegalArgumentException if {@code animal} is null or already lives in another enclosure.
      */
         public void addAnimal(Animal animal) {
             if (animal == null) {
                 throw new IllegalArgumentException("Animal cannot be null.");
             }
-            animals.add(animal);
+            ensureLoaded();
+            Lock treeLock = CompositeEnclosureCollection.lockForAnimalWrite(this);
+            lock.writeLock().lock();
+            try {
+                synchronized (animal) {
+                    Enclosure owner = animal.getEnclosure();
+                    if (owner == this) {
+                        return;
+                    }
+                    if (owner != null) {
+                        throw new IllegalArgumentException("Animal already belongs to enclosure " + owner.getName() + ".");
+                    }
+                    store.add(animal);
+                    animal.setEnclosure(this);
+                }
+                markModified();
+                animalAdded(animal);
+            } finally {
+                lock.writeLock().unlock();
+                treeLock.unlock();
+            }
         }
 
     /**
      * Removes an animal from the enclosure by its name (case-insensitive).
+     * Every animal carrying that name is removed.
      * * @param name the name of the animal to remove.
      * @return {@code true} if an animal was found and removed; {@code false} otherwise.
      */
         public boolean removeAnimal(String name) {
-            return animals.removeIf(a -> a.getName().equalsIgnoreCase(name));
+            if (name == null) {
+                return false;
+            }
+            ensureLoaded();
+            Lock treeLock = CompositeEnclosureCollection.lockForAnimalWrite(this);
+            lock.writeLock().lock();
+            try {
+                List<Animal> matches = store.removeAll(ObjectAnimalStore.fold(name));
+                if (matches.isEmpty()) {
+                    return false;
+                }
+                markModified();
+                for (Animal animal : matches) {
+                    synchronized (animal) {
+                        animal.setEnclosure(null);
+                    }
+                    animalRemoved(animal);
+                }
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+                treeLock.unlock();
+            }
+        }
+
+    /**
+     * Removes one specific animal from the enclosure, leaving any other animals
+     * with the same name in place.
+     * * @param animal the animal to remove.
+     * @return {@code true} if the animal was in this enclosure and was removed; {@code false} otherwise.
+     */
+        public boolean removeAnimal(Animal animal) {
+            if (animal == null) {
+                return false;
+            }
+            ensureLoaded();
+            Lock treeLock = CompositeEnclosureCollection.lockForAnimalWrite(this);
+            lock.writeLock().lock();
+            try {
+                if (!store.remove(animal)) {
+                    return false;
+                }
+                synchronized (animal) {
+                    animal.setEnclosure(null);
+                }
+                markModified();
+                animalRemoved(animal);
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+                treeLock.unlock();
+            }
+        }
+
+    /**
+     * Adds several animals at once. The enclosure is locked and grown once, and listeners
+     * receive one change for the whole group; see {@link MutationBatch}.
+     * Animals already in this enclosure are skipped.
+     * * @param animals the animals to add.
+     * @return the number of animals added.
+     * @throws IllegalArgumentException if {@code animals} is or contains null, or one of them
+     *                                  already lives in another enclosure; nothing is added then.
+     */
+        public int addAnimals(Collection<? extends Animal> animals) {
+            return batch().addAll(animals).apply();
+        }
+
+    /**
+     * Removes every animal that matches a condition, as one {@link MutationBatch}.
+     * * @param filter the condition; called with the enclosure locked, so it must not change the zoo.
+     * @return the number of animals removed.
+     * @throws IllegalArgumentException if {@code filter} is null.
+     */
+        public int removeAnimalsIf(Predicate<? super Animal> filter) {
+            return batch().removeIf(filter).apply();
+        }
+
+    /**
+     * Starts a batch of additions and removals to be applied to this enclosure together.
+     * * @return an empty batch for this enclosure.
+     */
+        public MutationBatch batch() {
+            return new MutationBatch(this);
+        }
+
+    /**
+     * Looks up an animal by its name (case-insensitive).
+     * If several animals share the name, the one added first is returned.
+     * * @param name the name of the animal to find.
+     * @return the matching animal, or {@code null} if there is none.
+     */
+        public Animal findAnimal(String name) {
+            if (name == null) {
+                return null;
+            }
+            ensureLoaded();
+            lock.readLock().lock();
+            try {
+                return store.find(ObjectAnimalStore.fold(name));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+    /**
+     * Checks whether an animal with the given name (case-insensitive) lives in this enclosure.
+     * * @param name the name to look for.
+     * @return {@code true} if at least one animal has that name.
+     */
+        public boolean containsAnimal(String name) {
+            if (name == null) {
+                return false;
+            }
+            ensureLoaded();
+            lock.readLock().lock();
+            try {
+                return store.contains(ObjectAnimalStore.fold(name));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+    /**
+     * Renames an animal living in this enclosure and moves it to its new key in the
+     * name index. Called by {@link Animal#setName(String)} once the new name has been validated.
+     *
+     * @param animal  the animal to rename
+     * @param newName the new name
+     * @return {@code false} if the animal left this enclosure before the lock was taken
+     */
+        boolean renameAnimal(Animal animal, String newName) {
+            // Same lock order as every other animal write: tree first, then this enclosure.
+            Lock treeLock = CompositeEnclosureCollection.lockForAnimalWrite(this);
+            lock.writeLock().lock();
+            try {
+                String oldName;
+                synchronized (animal) {
+                    if (animal.getEnclosure() != this) {
+                        return false;
+                    }
+                    oldName = store.rename(animal, newName);
+                }
+                changed(ZooChange.animalUpdated(this, animal, oldName, animal.getAge(), modificationCount));
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+                treeLock.unlock();
+            }
+        }
+
+    /**
+     * Changes the age of an animal living in this enclosure and updates the age figures
+     * of this enclosure and its ancestors. Called by {@link Animal#setAge(double)} once
+     * the new age has been validated.
+     *
+     * @param animal the animal whose age changes
+     * @param newAge the new age
+     * @return {@code false} if the animal left this enclosure before the lock was taken
+     */
+        boolean changeAnimalAge(Animal animal, double newAge) {
+            Lock treeLock = CompositeEnclosureCollection.lockForAnimalWrite(this);
+            lock.writeLock().lock();
+            try {
+                double oldAge;
+                synchronized (animal) {
+                    if (animal.getEnclosure() != this) {
+                        return false;
+                    }
+                    oldAge = store.changeAge(animal, newAge);
+                }
+                if (oldAge != newAge) {
+                    summary.changeAge(oldAge, newAge);
+                    CompositeEnclosureCollection currentParent = parent;
+                    if (currentParent != null) {
+                        currentParent.animalAgeChanged(oldAge, newAge);
+                    }
+                    changed(ZooChange.animalUpdated(this, animal, animal.getName(), oldAge, modificationCount));
+                }
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+                treeLock.unlock();
+            }
+        }
+
+        private void animalAdded(Animal animal) {
+            Species species = Species.of(animal);
+            summary.addAnimal(species, animal.getAge());
+            CompositeEnclosureCollection currentParent = parent;
+            if (currentParent != null) {
+                currentParent.animalAdded(species, animal.getAge());
+            }
+            ANIMALS_ADDED.increment();
+            changed(ZooChange.animalAdded(this, animal, modificationCount));
+        }
+
+        private void animalRemoved(Animal animal) {
+            Species species = Species.of(animal);
+            summary.removeAnimal(species, animal.getAge());
+            CompositeEnclosureCollection currentParent = parent;
+            if (currentParent != null) {
+                currentParent.animalRemoved(species, animal.getAge());
+            }
+            ANIMALS_REMOVED.increment();
+            changed(ZooChange.animalRemoved(this, animal, modificationCount));
+        }
+
+    /**
+     * Applies the operations of a {@link MutationBatch} under one lock. Summary changes
+     * are counted locally and pushed up the tree once, and every change is tagged with
+     * the single version the batch produces.
+     *
+     * @param operations the operations, in order
+     * @param additions  how many of them add an animal
+     * @return the number of animals added or removed
+     */
+        int applyBatch(List<MutationBatch.Operation> operations, int additions) {
+            if (operations.isEmpty()) {
+                return 0;
+            }
+            ensureLoaded();
+            Lock treeLock = CompositeEnclosureCollection.lockForAnimalWrite(this);
+            lock.writeLock().lock();
+            try {
+                Map<Animal, Boolean> claimed = claim(operations);
+                store.reserve(additions);
+                Batch batch = new Batch(modificationCount + 1);
+                try {
+                    for (MutationBatch.Operation operation : operations) {
+                        switch (operation) {
+                            case MutationBatch.Add add -> addToBatch(batch, add.animal(), claimed);
+                            case MutationBatch.Remove remove -> {
+                                if (store.remove(remove.animal())) {
+                                    removedInBatch(batch, remove.animal());
+                                }
+                            }
+                            case MutationBatch.RemoveIf removeIf -> {
+                                for (Animal animal : store.removeIf(removeIf.filter())) {
+                                    removedInBatch(batch, animal);
+                                }
+                            }
+                        }
+                    }
+                } finally {
+                    // Only a failing removeIf filter can leave claims unused.
+                    for (Animal animal : claimed.keySet()) {
+                        synchronized (animal) {
+                            animal.setEnclosure(null);
+                        }
+                    }
+                    if (batch.size() > 0) {
+                        batchApplied(batch);
+                    }
+                }
+                return batch.size();
+            } finally {
+                lock.writeLock().unlock();
+                treeLock.unlock();
+            }
+        }
+
+        /**
+         * What a batch has changed so far: the changes in order, and the summary
+         * deltas they add up to. An animal added and removed again by the same batch
+         * cancels out, so listeners never see an addition whose animal is already gone
+         * (a columnar view of a freed row cannot even be read any more).
+         */
+        private static final class Batch {
+            private final long version;
+            private final List<ZooChange> changes = new ArrayList<>();
+            private final Map<Animal, Integer> addedAt = new HashMap<>();
+            private final long[] speciesDeltas = new long[Species.values().length];
+            private final Map<Double, Long> ageDeltas = new HashMap<>();
+            private int added;
+            private int cancelled;
+
+            private Batch(long version) {
+                this.version = version;
+            }
+
+            private void count(Animal animal, long delta) {
+                speciesDeltas[Species.of(animal).ordinal()] += delta;
+                // Ages that cancel out are dropped, so the summaries never see them.
+                ageDeltas.merge(animal.getAge(), delta, (a, b) -> a + b == 0 ? null : a + b);
+            }
+
+            private int size() {
+                return changes.size() - cancelled;
+            }
+
+            private List<ZooChange> members() {
+                if (cancelled == 0) {
+                    return changes;
+                }
+                List<ZooChange> members = new ArrayList<>(size());
+                for (ZooChange change : changes) {
+                    if (change != null) {
+                        members.add(change);
+                    }
+                }
+                return members;
+            }
+        }
+
+        /**
+         * Claims every animal a batch adds for this enclosure before anything changes, so
+         * another thread cannot take one in the middle of the batch. If one already lives
+         * in another enclosure, the claims made so far are released and nothing is applied.
+         *
+         * @return the animals claimed, which are not yet in the store
+         */
+        private Map<Animal, Boolean> claim(List<MutationBatch.Operation> operations) {
+            Map<Animal, Boolean> claimed = new IdentityHashMap<>();
+            for (MutationBatch.Operation operation : operations) {
+                if (operation instanceof MutationBatch.Add add) {
+                    Animal animal = add.animal();
+                    synchronized (animal) {
+                        Enclosure owner = animal.getEnclosure();
+                        if (owner == null) {
+                            animal.setEnclosure(this);
+                            claimed.put(animal, Boolean.TRUE);
+                        } else if (owner != this) {
+                            for (Animal claim : claimed.keySet()) {
+                                synchronized (claim) {
+                                    claim.setEnclosure(null);
+                                }
+                            }
+                            throw new IllegalArgumentException("Animal already belongs to enclosure " + owner.getName() + ".");
+                        }
+                    }
+                }
+            }
+            return claimed;
+        }
+
+        private void addToBatch(Batch batch, Animal animal, Map<Animal, Boolean> claimed) {
+            if (claimed.remove(animal) == null) {
+                synchronized (animal) {
+                    // Still here, or added earlier in the batch; or removed earlier in the
+                    // batch and, once free, taken by another enclosure, which then keeps it.
+                    if (animal.getEnclosure() != null) {
+                        return;
+                    }
+                    animal.setEnclosure(this);
+                }
+            }
+            store.add(animal);
+            batch.count(animal, 1);
+            batch.added++;
+            batch.addedAt.put(animal, batch.changes.size());
+            batch.changes.add(ZooChange.animalAdded(this, animal, batch.version));
+        }
+
+        private void removedInBatch(Batch batch, Animal animal) {
+            synchronized (animal) {
+                animal.setEnclosure(null);
+            }
+            batch.count(animal, -1);
+            Integer addedAt = batch.addedAt.remove(animal);
+            if (addedAt != null) {
+                batch.changes.set(addedAt, null);
+                batch.added--;
+                batch.cancelled++;
+            } else {
+                batch.changes.add(ZooChange.animalRemoved(this, animal, batch.version));
+            }
+        }
+
+        private void batchApplied(Batch batch) {
+            markModified();
+            summary.addAnimals(batch.speciesDeltas, batch.ageDeltas);
+            CompositeEnclosureCollection currentParent = parent;
+            if (currentParent != null) {
+                currentParent.animalsChanged(batch.speciesDeltas, batch.ageDeltas);
+            }
+            List<ZooChange> members = batch.members();
+            ANIMALS_ADDED.add(batch.added);
+            ANIMALS_REMOVED.add(members.size() - batch.added);
+            changed(members.size() == 1 ? members.get(0) : ZooChange.batch(this, members, modificationCount));
+        }
+
+        private void markModified() {
+            // Drop the snapshot first: a reader that sees the new count can then never
+            // be handed the snapshot from before it.
+            snapshot = null;
+            modificationCount++;
+        }
+
+        /**
+         * Passes a change to this enclosure's listeners and then up to its ancestors'.
+         */
+        private void changed(ZooChange change) {
+            for (ZooChangeListener listener : listeners) {
+                listener.changed(change);
+            }
+            CompositeEnclosureCollection currentParent = parent;
+            if (currentParent != null) {
+                currentParent.changed(change);
+            }
         }
 
     /**
@@ -84,16 +786,26 @@ public class Enclosure implements EnclosureCollection {
         throw new UnsupportedOperationException("Cannot remove a collection from an individual Enclosure.");
     }
 
+    /**
+     * Passes this enclosure to the visitor's leaf method.
+     *
+     * @param visitor the visitor
+     * @param <R>     the visitor's result type
+     * @return the visitor's result
+     */
+    @Override
+    public <R> R accept(EnclosureVisitor<R> visitor) {
+        return visitor.visitEnclosure(this);
+    }
+
     /**
      * Displays the name of the enclosure and lists all the animals it contains.
      * This fulfills the contract of the {@link EnclosureCollection} interface.
+     * The text is written to standard output in one buffered pass by {@link TreePrinter}.
      */
         @Override
         public void display() {
-            System.out.println("Zoo Enclosure: " + name);
-            for (Animal animal : animals) {
-                System.out.println("  - " + animal.getName() + " (" + animal.getAge() + " years)");
-            }
+            TreePrinter.print(this, "");
         }
     }
 
@@ -26,6 +26,49 @@ public interface EnclosureCollection {
 
     void removeCollection(EnclosureCollection pEnclosure);
 
+    /**
+     * Returns the composite collection this one has been added to.
+     * @return the parent collection, or {@code null} for the root of a tree
+     */
+    CompositeEnclosureCollection getParent();
+
+    /**
+     * Returns the aggregate figures for this collection and everything below it.
+     * The summary is maintained incrementally, so reading it is O(1).
+     * @return the live summary of this subtree
+     */
+    EnclosureSummary getSummary();
+
+    /**
+     * Registers a listener for changes to this collection and everything below it.
+     * @param pListener the listener to add
+     */
+    void addChangeListener(ZooChangeListener pListener);
+
+    /**
+     * Unregisters a listener added with {@link #addChangeListener(ZooChangeListener)}.
+     * @param pListener the listener to remove
+     */
+    void removeChangeListener(ZooChangeListener pListener);
+
+    /**
+     * Returns the names from the root of the tree down to this collection,
+     * separated by {@code /}, such as {@code Big Cats/Tigers/Tiger Cubs}.
+     * @return the path of this collection
+     */
+    default String getPath() {
+        CompositeEnclosureCollection parent = getParent();
+        return parent == null ? getName() : parent.getPath() + "/" + getName();
+    }
+
+    /**
+     * Calls the visitor method for this kind of collection.
+     * @param pVisitor the visitor
+     * @param <R>      the visitor's result type
+     * @return the visitor's result
+     */
+    <R> R accept(EnclosureVisitor<R> pVisitor);
+
     /**
      * Displays the enclosure.
      */
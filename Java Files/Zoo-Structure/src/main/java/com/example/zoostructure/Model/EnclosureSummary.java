@@ -0,0 +1,212 @@
+package com.example.zoostructure.Model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregate figures for everything below one node of the enclosure tree:
+ * how many animals and leaf enclosures it holds, their ages and how many of
+ * each species there are.
+ * <p>
+ * Every {@link EnclosureCollection} owns one summary and keeps it up to date
+ * as animals and collections come and go, so reading it is O(1) however large
+ * the subtree is. Updates are pushed up the parent chain and cost O(depth).
+ * </p>
+ * <p>
+ * The counters are striped adders and the age multiset is a concurrent skip list,
+ * so writers in different enclosures can update a shared ancestor without
+ * queueing on a lock. Each figure is exact on its own; figures read while
+ * writers are busy may come from slightly different moments.
+ * </p>
+ */
+public class EnclosureSummary {
+
+    /**
+     * The number of animals in the subtree.
+     */
+    private final LongAdder aAnimalCount = new LongAdder();
+
+    /**
+     * The number of leaf {@link Enclosure}s in the subtree.
+     */
+    private final LongAdder aEnclosureCount = new LongAdder();
+
+    /**
+     * The sum of the ages of all animals in the subtree.
+     */
+    private final DoubleAdder aAgeSum = new DoubleAdder();
+
+    /**
+     * How many animals have each age. Kept as a multiset so the minimum and
+     * maximum stay correct when animals leave or grow older.
+     */
+    private final ConcurrentSkipListMap<Double, Long> aAgeCounts = new ConcurrentSkipListMap<>();
+
+    /**
+     * The number of animals of each species, indexed by {@link Species#ordinal()}.
+     */
+    private final LongAdder[] aSpeciesCounts = new LongAdder[Species.values().length];
+
+    public EnclosureSummary() {
+        for (int i = 0; i < aSpeciesCounts.length; i++) {
+            aSpeciesCounts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns the number of animals in the subtree.
+     * @return the animal count
+     */
+    public long getAnimalCount() {
+        return aAnimalCount.sum();
+    }
+
+    /**
+     * Returns the number of leaf enclosures in the subtree.
+     * @return the enclosure count
+     */
+    public long getEnclosureCount() {
+        return aEnclosureCount.sum();
+    }
+
+    /**
+     * Returns the sum of the ages of all animals in the subtree.
+     * @return the total age in years
+     */
+    public double getAgeSum() {
+        return aAgeSum.sum();
+    }
+
+    /**
+     * Returns the age of the youngest animal in the subtree.
+     * @return the minimum age, or empty if there are no animals
+     */
+    public OptionalDouble getMinAge() {
+        Map.Entry<Double, Long> first = aAgeCounts.firstEntry();
+        return first == null ? OptionalDouble.empty() : OptionalDouble.of(first.getKey());
+    }
+
+    /**
+     * Returns the age of the oldest animal in the subtree.
+     * @return the maximum age, or empty if there are no animals
+     */
+    public OptionalDouble getMaxAge() {
+        Map.Entry<Double, Long> last = aAgeCounts.lastEntry();
+        return last == null ? OptionalDouble.empty() : OptionalDouble.of(last.getKey());
+    }
+
+    /**
+     * Returns the average age of the animals in the subtree.
+     * @return the average age, or empty if there are no animals
+     */
+    public OptionalDouble getAverageAge() {
+        long count = getAnimalCount();
+        return count <= 0 ? OptionalDouble.empty() : OptionalDouble.of(getAgeSum() / count);
+    }
+
+    /**
+     * Returns the number of animals of one species in the subtree.
+     * @param pSpecies the species to count
+     * @return the number of animals of that species
+     */
+    public long getSpeciesCount(Species pSpecies) {
+        return aSpeciesCounts[pSpecies.ordinal()].sum();
+    }
+
+    /**
+     * Returns the number of animals of every species present in the subtree.
+     * @return an unmodifiable map from species to count, without zero entries
+     */
+    public Map<Species, Long> getSpeciesCounts() {
+        Map<Species, Long> counts = new EnumMap<>(Species.class);
+        for (Species species : Species.values()) {
+            long count = getSpeciesCount(species);
+            if (count > 0) {
+                counts.put(species, count);
+            }
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    void addEnclosure() {
+        aEnclosureCount.increment();
+    }
+
+    void addAnimal(Species pSpecies, double pAge) {
+        aAnimalCount.increment();
+        aSpeciesCounts[pSpecies.ordinal()].increment();
+        addAge(pAge, 1);
+    }
+
+    /**
+     * Adds many animals at once, given as a count per species and a count per age.
+     * @param pSpeciesCounts the number of animals of each species, by ordinal
+     * @param pAgeCounts     the number of animals of each age
+     */
+    void addAnimals(long[] pSpeciesCounts, Map<Double, Long> pAgeCounts) {
+        for (int i = 0; i < pSpeciesCounts.length; i++) {
+            aAnimalCount.add(pSpeciesCounts[i]);
+            aSpeciesCounts[i].add(pSpeciesCounts[i]);
+        }
+        for (Map.Entry<Double, Long> entry : pAgeCounts.entrySet()) {
+            addAge(entry.getKey(), entry.getValue());
+        }
+    }
+
+    void removeAnimal(Species pSpecies, double pAge) {
+        aAnimalCount.decrement();
+        aSpeciesCounts[pSpecies.ordinal()].decrement();
+        addAge(pAge, -1);
+    }
+
+    void changeAge(double pOldAge, double pNewAge) {
+        addAge(pOldAge, -1);
+        addAge(pNewAge, 1);
+    }
+
+    /**
+     * Folds a whole subtree's figures into this one, when a collection is attached below.
+     * @param pOther the summary of the attached subtree
+     */
+    void add(EnclosureSummary pOther) {
+        merge(pOther, 1);
+    }
+
+    /**
+     * Takes a whole subtree's figures out of this one, when a collection is detached.
+     * @param pOther the summary of the detached subtree
+     */
+    void subtract(EnclosureSummary pOther) {
+        merge(pOther, -1);
+    }
+
+    private void merge(EnclosureSummary pOther, int pSign) {
+        aAnimalCount.add(pSign * pOther.getAnimalCount());
+        aEnclosureCount.add(pSign * pOther.getEnclosureCount());
+        for (int i = 0; i < aSpeciesCounts.length; i++) {
+            aSpeciesCounts[i].add(pSign * pOther.aSpeciesCounts[i].sum());
+        }
+        for (Map.Entry<Double, Long> entry : pOther.aAgeCounts.entrySet()) {
+            addAge(entry.getKey(), pSign * entry.getValue());
+        }
+    }
+
+    private void addAge(double pAge, long pDelta) {
+        if (pDelta == 0) {
+            // merge() would store the 0 for an absent age, which then shows as the youngest or oldest.
+            return;
+        }
+        aAgeSum.add(pAge * pDelta);
+        aAgeCounts.merge(pAge, pDelta, (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    @Override
+    public String toString() {
+        return getAnimalCount() + " animals in " + getEnclosureCount() + " enclosures";
+    }
+}
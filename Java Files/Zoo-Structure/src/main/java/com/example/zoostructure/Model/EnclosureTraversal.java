@@ -0,0 +1,214 @@
+package com.example.zoostructure.Model;
+
+import com.example.zoostructure.Metrics.ZooMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Queries over a whole enclosure tree, run either sequentially or in parallel on the
+ * common {@link ForkJoinPool}.
+ * <p>
+ * In parallel mode the tree is split into one task per child, but only while the
+ * subtree is big enough to be worth it: the maintained summaries give each subtree's
+ * animal count for free, and anything below {@link #SEQUENTIAL_THRESHOLD} animals is
+ * walked sequentially in a single task. A single large enclosure is split by ranges
+ * of its animal list.
+ * </p>
+ * <p>
+ * Traversals are weakly consistent: each section's children and each enclosure's
+ * animals are read from snapshots, so changes made while a query runs may or may
+ * not be seen, but the query never fails because of them. Results keep tree order.
+ * </p>
+ */
+public final class EnclosureTraversal {
+
+    /**
+     * Subtrees with fewer animals than this are walked sequentially.
+     */
+    static final long SEQUENTIAL_THRESHOLD = 4096;
+
+    private static final ZooMetrics.Timer SEQUENTIAL_TIMER = ZooMetrics.timer("model.traversal.sequential");
+    private static final ZooMetrics.Timer PARALLEL_TIMER = ZooMetrics.timer("model.traversal.parallel");
+
+    private EnclosureTraversal() {
+    }
+
+    /**
+     * Maps every enclosure in a tree to a value and combines the values in tree order.
+     *
+     * @param pRoot     the tree to walk
+     * @param pIdentity the result for an empty section; must be an identity for {@code pCombiner}
+     * @param pMapper   the value of one enclosure
+     * @param pCombiner combines two values; must be associative
+     * @param pParallel whether to split the walk into fork/join tasks
+     * @param <R>       the result type
+     * @return the combined value of all enclosures
+     */
+    public static <R> R reduce(EnclosureCollection pRoot, R pIdentity, Function<? super Enclosure, ? extends R> pMapper,
+                               BinaryOperator<R> pCombiner, boolean pParallel) {
+        Reducer<R> reducer = new Reducer<>(pIdentity, pMapper, pCombiner);
+        long start = System.nanoTime();
+        if (!pParallel) {
+            R result = pRoot.accept(reducer);
+            SEQUENTIAL_TIMER.recordSince(start);
+            return result;
+        }
+        R result = ForkJoinPool.commonPool().invoke(new SubtreeTask<>(pRoot, reducer));
+        PARALLEL_TIMER.recordSince(start);
+        return result;
+    }
+
+    /**
+     * Collects every animal in a tree that matches a condition.
+     *
+     * @param pRoot     the tree to search
+     * @param pFilter   the condition; called from several threads in parallel mode
+     * @param pParallel whether to split the search into fork/join tasks
+     * @return the matching animals, in tree order
+     */
+    public static List<Animal> collectAnimals(EnclosureCollection pRoot, Predicate<? super Animal> pFilter,
+                                              boolean pParallel) {
+        return reduce(pRoot, new ArrayList<>(), enclosure -> matching(enclosure, pFilter, pParallel),
+                EnclosureTraversal::concat, pParallel);
+    }
+
+    /**
+     * Counts the animals in a tree that match a condition.
+     *
+     * @param pRoot     the tree to search
+     * @param pFilter   the condition; called from several threads in parallel mode
+     * @param pParallel whether to split the search into fork/join tasks
+     * @return the number of matching animals
+     */
+    public static long countAnimals(EnclosureCollection pRoot, Predicate<? super Animal> pFilter, boolean pParallel) {
+        return reduce(pRoot, 0L, enclosure -> {
+            long count = 0;
+            for (Animal animal : enclosure.getAnimals()) {
+                if (pFilter.test(animal)) {
+                    count++;
+                }
+            }
+            return count;
+        }, Long::sum, pParallel);
+    }
+
+    private static List<Animal> matching(Enclosure pEnclosure, Predicate<? super Animal> pFilter, boolean pParallel) {
+        List<Animal> animals = pEnclosure.getAnimals();
+        if (pParallel && animals.size() >= 2 * SEQUENTIAL_THRESHOLD) {
+            return new RangeTask(animals, 0, animals.size(), pFilter).invoke();
+        }
+        return filter(animals, 0, animals.size(), pFilter);
+    }
+
+    private static List<Animal> filter(List<Animal> pAnimals, int pFrom, int pTo, Predicate<? super Animal> pFilter) {
+        List<Animal> matches = new ArrayList<>();
+        for (int i = pFrom; i < pTo; i++) {
+            Animal animal = pAnimals.get(i);
+            if (pFilter.test(animal)) {
+                matches.add(animal);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Appends the right list to the left one. Every non-empty list here was created by
+     * the traversal itself, and the shared empty identity is never written to.
+     */
+    private static List<Animal> concat(List<Animal> pLeft, List<Animal> pRight) {
+        if (pLeft.isEmpty()) {
+            return pRight;
+        }
+        if (!pRight.isEmpty()) {
+            pLeft.addAll(pRight);
+        }
+        return pLeft;
+    }
+
+    /**
+     * The sequential walk: maps enclosures and combines sections' children in order.
+     */
+    private record Reducer<R>(R identity, Function<? super Enclosure, ? extends R> mapper,
+                              BinaryOperator<R> combiner) implements EnclosureVisitor<R> {
+
+        @Override
+        public R visitEnclosure(Enclosure pEnclosure) {
+            return mapper.apply(pEnclosure);
+        }
+
+        @Override
+        public R visitComposite(CompositeEnclosureCollection pComposite) {
+            R result = identity;
+            for (EnclosureCollection child : pComposite.getCollections()) {
+                result = combiner.apply(result, child.accept(this));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Reduces one subtree, forking a task per child while the subtree is large.
+     */
+    private static final class SubtreeTask<R> extends RecursiveTask<R> {
+        private final EnclosureCollection aNode;
+        private final Reducer<R> aReducer;
+
+        private SubtreeTask(EnclosureCollection pNode, Reducer<R> pReducer) {
+            this.aNode = pNode;
+            this.aReducer = pReducer;
+        }
+
+        @Override
+        protected R compute() {
+            if (!(aNode instanceof CompositeEnclosureCollection composite)
+                    || aNode.getSummary().getAnimalCount() < SEQUENTIAL_THRESHOLD) {
+                return aNode.accept(aReducer);
+            }
+            List<SubtreeTask<R>> tasks = new ArrayList<>();
+            for (EnclosureCollection child : composite.getCollections()) {
+                tasks.add(new SubtreeTask<>(child, aReducer));
+            }
+            invokeAll(tasks);
+            R result = aReducer.identity();
+            for (SubtreeTask<R> task : tasks) {
+                result = aReducer.combiner().apply(result, task.join());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Filters a range of one enclosure's animals, halving the range while it is large.
+     */
+    private static final class RangeTask extends RecursiveTask<List<Animal>> {
+        private final List<Animal> aAnimals;
+        private final int aFrom;
+        private final int aTo;
+        private final Predicate<? super Animal> aFilter;
+
+        private RangeTask(List<Animal> pAnimals, int pFrom, int pTo, Predicate<? super Animal> pFilter) {
+            this.aAnimals = pAnimals;
+            this.aFrom = pFrom;
+            this.aTo = pTo;
+            this.aFilter = pFilter;
+        }
+
+        @Override
+        protected List<Animal> compute() {
+            if (aTo - aFrom < 2 * SEQUENTIAL_THRESHOLD) {
+                return filter(aAnimals, aFrom, aTo, aFilter);
+            }
+            int middle = (aFrom + aTo) >>> 1;
+            RangeTask left = new RangeTask(aAnimals, aFrom, middle, aFilter);
+            left.fork();
+            List<Animal> right = new RangeTask(aAnimals, middle, aTo, aFilter).compute();
+            return concat(left.join(), right);
+        }
+    }
+}
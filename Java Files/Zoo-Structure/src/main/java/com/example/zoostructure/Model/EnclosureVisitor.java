@@ -0,0 +1,25 @@
+package com.example.zoostructure.Model;
+
+/**
+ * An operation on the nodes of an enclosure tree, chosen by node type through
+ * {@link EnclosureCollection#accept(EnclosureVisitor)} instead of {@code instanceof} checks.
+ * A visitor decides itself whether and how to go on to a section's children.
+ *
+ * @param <R> the result of visiting a node
+ */
+public interface EnclosureVisitor<R> {
+
+    /**
+     * Visits a leaf enclosure.
+     * @param pEnclosure the enclosure
+     * @return the result for this enclosure
+     */
+    R visitEnclosure(Enclosure pEnclosure);
+
+    /**
+     * Visits a section.
+     * @param pComposite the section
+     * @return the result for this section
+     */
+    R visitComposite(CompositeEnclosureCollection pComposite);
+}
@@ -0,0 +1,104 @@
+package com.example.zoostructure.Model;
+
+import java.util.Arrays;
+
+/**
+ * A small open-addressing map from non-negative {@code int} keys to {@code int}
+ * values, with linear probing and backward-shift deletion. It avoids the boxed
+ * keys and entry objects a {@code HashMap<Integer, Integer>} would allocate.
+ * Not thread-safe.
+ */
+final class IntIntHashMap {
+
+    private static final int EMPTY = -1;
+
+    private int[] aKeys;
+    private int[] aValues;
+    private int aSize;
+
+    IntIntHashMap() {
+        aKeys = new int[16];
+        aValues = new int[16];
+        Arrays.fill(aKeys, EMPTY);
+    }
+
+    int size() {
+        return aSize;
+    }
+
+    /**
+     * Returns the value for a key.
+     * @param pKey          the key
+     * @param pDefaultValue the value to return if the key is absent
+     * @return the stored value or {@code pDefaultValue}
+     */
+    int get(int pKey, int pDefaultValue) {
+        int slot = find(pKey);
+        return aKeys[slot] == EMPTY ? pDefaultValue : aValues[slot];
+    }
+
+    boolean containsKey(int pKey) {
+        return aKeys[find(pKey)] != EMPTY;
+    }
+
+    void put(int pKey, int pValue) {
+        int slot = find(pKey);
+        if (aKeys[slot] == EMPTY) {
+            aKeys[slot] = pKey;
+            aSize++;
+        }
+        aValues[slot] = pValue;
+        if (aSize * 4 >= aKeys.length * 3) {
+            resize(aKeys.length * 2);
+        }
+    }
+
+    void remove(int pKey) {
+        int slot = find(pKey);
+        if (aKeys[slot] == EMPTY) {
+            return;
+        }
+        int mask = aKeys.length - 1;
+        // Shift later entries of the probe run back so lookups never stop early.
+        int next = (slot + 1) & mask;
+        while (aKeys[next] != EMPTY) {
+            int home = mix(aKeys[next]) & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                aKeys[slot] = aKeys[next];
+                aValues[slot] = aValues[next];
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        aKeys[slot] = EMPTY;
+        aSize--;
+    }
+
+    private int find(int pKey) {
+        int mask = aKeys.length - 1;
+        int slot = mix(pKey) & mask;
+        while (aKeys[slot] != EMPTY && aKeys[slot] != pKey) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize(int pCapacity) {
+        int[] keys = aKeys;
+        int[] values = aValues;
+        aKeys = new int[pCapacity];
+        aValues = new int[pCapacity];
+        Arrays.fill(aKeys, EMPTY);
+        aSize = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                put(keys[i], values[i]);
+            }
+        }
+    }
+
+    private static int mix(int pKey) {
+        int h = pKey * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -4,4 +4,12 @@ public class Lion extends Animal{
     public Lion(String pName, double pAge) {
             super(pName, pAge);
     }
+
+    Lion(long pId, String pName, double pAge) {
+        super(pId, pName, pAge);
+    }
+
+    Lion(ColumnarAnimalStore.RowHandle pView, Enclosure pEnclosure, long pId) {
+        super(pView, pEnclosure, pId);
+    }
 }
@@ -0,0 +1,173 @@
+package com.example.zoostructure.Model;
+
+/**
+ * An open-addressing map from positive {@code long} keys to values, with linear
+ * probing and backward-shift deletion. Keys and values sit in two flat arrays, so
+ * lookups, insertions into spare room and removals allocate nothing, where a
+ * {@code HashMap<Long, V>} would box every key and allocate an entry per mapping.
+ * The table is at most three-quarters full and doubles when it gets there.
+ * Not thread-safe.
+ *
+ * @param <V> the value type
+ */
+final class LongObjectHashMap<V> {
+
+    /**
+     * Marks an unused slot, which is why keys must be positive.
+     */
+    private static final long EMPTY = 0;
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * The most mappings the map can hold.
+     */
+    static final int MAX_SIZE = MAX_CAPACITY / 4 * 3 - 1;
+
+    private long[] aKeys;
+    private Object[] aValues;
+    private int aSize;
+
+    LongObjectHashMap() {
+        this(0);
+    }
+
+    /**
+     * @param pExpected how many mappings the map should hold before it has to grow
+     */
+    LongObjectHashMap(int pExpected) {
+        int capacity = capacityFor(pExpected);
+        aKeys = new long[capacity];
+        aValues = new Object[capacity];
+    }
+
+    int size() {
+        return aSize;
+    }
+
+    /**
+     * Returns the value for a key.
+     * @param pKey the key
+     * @return the stored value, or {@code null} if the key is absent
+     */
+    @SuppressWarnings("unchecked")
+    V get(long pKey) {
+        int slot = find(pKey);
+        return aKeys[slot] == EMPTY ? null : (V) aValues[slot];
+    }
+
+    /**
+     * Maps a key to a value.
+     * @param pKey   the key; must be positive
+     * @param pValue the value
+     * @return the value the key was mapped to before, or {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    V put(long pKey, V pValue) {
+        if (pKey <= EMPTY) {
+            throw new IllegalArgumentException("Key must be positive: " + pKey);
+        }
+        int slot = find(pKey);
+        if (aKeys[slot] != EMPTY) {
+            V previous = (V) aValues[slot];
+            aValues[slot] = pValue;
+            return previous;
+        }
+        aKeys[slot] = pKey;
+        aValues[slot] = pValue;
+        aSize++;
+        if (aSize * 4L >= aKeys.length * 3L) {
+            resize(aKeys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Removes a key.
+     * @param pKey the key
+     * @return the value the key was mapped to, or {@code null} if it was absent
+     */
+    @SuppressWarnings("unchecked")
+    V remove(long pKey) {
+        int slot = find(pKey);
+        if (aKeys[slot] == EMPTY) {
+            return null;
+        }
+        V removed = (V) aValues[slot];
+        int mask = aKeys.length - 1;
+        // Shift later entries of the probe run back so lookups never stop early.
+        int next = (slot + 1) & mask;
+        while (aKeys[next] != EMPTY) {
+            int home = mix(aKeys[next]) & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                aKeys[slot] = aKeys[next];
+                aValues[slot] = aValues[next];
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        aKeys[slot] = EMPTY;
+        aValues[slot] = null;
+        aSize--;
+        return removed;
+    }
+
+    /**
+     * Grows the table once so that it holds {@code pExpected} mappings without
+     * growing again, for callers that know how many are coming.
+     * @param pExpected the number of mappings the map will hold
+     */
+    void ensureCapacity(int pExpected) {
+        int capacity = capacityFor(pExpected);
+        if (capacity > aKeys.length) {
+            resize(capacity);
+        }
+    }
+
+    private int find(long pKey) {
+        int mask = aKeys.length - 1;
+        int slot = mix(pKey) & mask;
+        while (aKeys[slot] != EMPTY && aKeys[slot] != pKey) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize(int pCapacity) {
+        if (pCapacity > MAX_CAPACITY) {
+            throw new IllegalStateException("Map cannot hold more than " + MAX_SIZE + " keys");
+        }
+        long[] keys = aKeys;
+        Object[] values = aValues;
+        aKeys = new long[pCapacity];
+        aValues = new Object[pCapacity];
+        int mask = pCapacity - 1;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                int slot = mix(keys[i]) & mask;
+                while (aKeys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                aKeys[slot] = keys[i];
+                aValues[slot] = values[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the smallest power of two that keeps {@code pExpected} mappings under
+     * three-quarters full.
+     */
+    private static int capacityFor(int pExpected) {
+        long needed = Math.max(16, (long) pExpected * 4 / 3 + 1);
+        if (needed > MAX_CAPACITY) {
+            throw new IllegalStateException("Map cannot hold more than " + MAX_SIZE + " keys");
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    private static int mix(long pKey) {
+        long h = pKey * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.zoostructure.Model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Additions and removals for one {@link Enclosure}, collected first and then made
+ * together by {@link #apply()}.
+ * <p>
+ * Applying a batch locks the enclosure once, grows its store once for all the
+ * additions, updates the summaries of the enclosure and its ancestors once per
+ * species and age instead of once per animal, and advances the modification count
+ * once. Listeners receive a single {@link ZooChange.Type#BATCH} change listing every
+ * addition and removal in order, so indexes and views do one pass per batch.
+ * </p>
+ * <pre>{@code
+ * int changed = enclosure.batch()
+ *         .addAll(newcomers)
+ *         .removeIf(animal -> animal.getAge() > 25)
+ *         .apply();
+ * }</pre>
+ * <p>
+ * A batch is meant to be built and applied by one thread.
+ * </p>
+ */
+public final class MutationBatch {
+
+    /**
+     * One queued step of a batch.
+     */
+    sealed interface Operation permits Add, Remove, RemoveIf {
+    }
+
+    record Add(Animal animal) implements Operation {
+    }
+
+    record Remove(Animal animal) implements Operation {
+    }
+
+    record RemoveIf(Predicate<? super Animal> filter) implements Operation {
+    }
+
+    private final Enclosure aEnclosure;
+    private final List<Operation> aOperations = new ArrayList<>();
+    private int aAdditions;
+
+    MutationBatch(Enclosure pEnclosure) {
+        this.aEnclosure = pEnclosure;
+    }
+
+    /**
+     * Queues an animal to be added. An animal already in the enclosure is skipped.
+     *
+     * @param pAnimal the animal
+     * @return this batch
+     * @throws IllegalArgumentException if pAnimal is null
+     */
+    public MutationBatch add(Animal pAnimal) {
+        if (pAnimal == null) {
+            throw new IllegalArgumentException("Animal cannot be null.");
+        }
+        aOperations.add(new Add(pAnimal));
+        aAdditions++;
+        return this;
+    }
+
+    /**
+     * Queues several animals to be added, in iteration order.
+     *
+     * @param pAnimals the animals
+     * @return this batch
+     * @throws IllegalArgumentException if pAnimals is or contains null; nothing is queued then
+     */
+    public MutationBatch addAll(Collection<? extends Animal> pAnimals) {
+        if (pAnimals == null) {
+            throw new IllegalArgumentException("Animals cannot be null.");
+        }
+        List<Operation> additions = new ArrayList<>(pAnimals.size());
+        for (Animal animal : pAnimals) {
+            if (animal == null) {
+                throw new IllegalArgumentException("Animal cannot be null.");
+            }
+            additions.add(new Add(animal));
+        }
+        aOperations.addAll(additions);
+        aAdditions += additions.size();
+        return this;
+    }
+
+    /**
+     * Queues one specific animal to be removed. An animal that is not in the
+     * enclosure when the batch is applied is skipped.
+     *
+     * @param pAnimal the animal
+     * @return this batch
+     * @throws IllegalArgumentException if pAnimal is null
+     */
+    public MutationBatch remove(Animal pAnimal) {
+        if (pAnimal == null) {
+            throw new IllegalArgumentException("Animal cannot be null.");
+        }
+        aOperations.add(new Remove(pAnimal));
+        return this;
+    }
+
+    /**
+     * Queues the removal of every animal that matches a condition at this point of
+     * the batch, including animals added earlier in it.
+     *
+     * @param pFilter the condition; called with the enclosure locked, so it must not
+     *                change the zoo
+     * @return this batch
+     * @throws IllegalArgumentException if pFilter is null
+     */
+    public MutationBatch removeIf(Predicate<? super Animal> pFilter) {
+        if (pFilter == null) {
+            throw new IllegalArgumentException("Filter cannot be null.");
+        }
+        aOperations.add(new RemoveIf(pFilter));
+        return this;
+    }
+
+    /**
+     * Makes every queued change, in the order queued, and notifies listeners once.
+     * The batch is emptied and can be filled again.
+     * <p>
+     * Every animal to be added is claimed for the enclosure before anything changes,
+     * so no other thread can take it while the batch is applied. If one already
+     * belongs to another enclosure, the claims are released and nothing is applied.
+     * </p>
+     *
+     * @return the number of animals added or removed; an animal that the batch both
+     *         adds and removes again is not counted, nor reported to listeners
+     * @throws IllegalArgumentException if an animal to be added already lives in another enclosure
+     */
+    public int apply() {
+        List<Operation> operations = List.copyOf(aOperations);
+        int additions = aAdditions;
+        aOperations.clear();
+        aAdditions = 0;
+        return aEnclosure.applyBatch(operations, additions);
+    }
+}
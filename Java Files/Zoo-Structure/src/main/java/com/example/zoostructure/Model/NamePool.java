@@ -0,0 +1,102 @@
+package com.example.zoostructure.Model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Interns animal names as small integer ids, so a columnar enclosure can store a
+ * name as an {@code int} and share one {@code String} between every animal
+ * carrying it.
+ * <p>
+ * Each store has its own pool, guarded by the store's enclosure lock. Ids are
+ * reference counted: every {@link #acquire(String)} must be matched by one
+ * {@link #release(int)}, and a name is dropped and its id reused once nothing
+ * holds it any more, so renaming and removing animals does not grow the pool.
+ * </p>
+ */
+final class NamePool {
+
+    private final HashMap<String, Integer> aIds = new HashMap<>();
+
+    /**
+     * The interned names by id, {@code null} for free ids.
+     */
+    private String[] aNames = new String[16];
+
+    /**
+     * The number of holders of each id, or the next free id for free ids.
+     */
+    private int[] aCounts = new int[16];
+
+    private int aSize;
+    private int aFreeHead = -1;
+
+    /**
+     * Returns the id of a name, adding it to the pool if needed, and counts one
+     * more holder of it.
+     * @param pName the name
+     * @return its id
+     */
+    int acquire(String pName) {
+        Integer existing = aIds.get(pName);
+        if (existing != null) {
+            aCounts[existing]++;
+            return existing;
+        }
+        int id;
+        if (aFreeHead >= 0) {
+            id = aFreeHead;
+            aFreeHead = aCounts[id];
+        } else {
+            if (aSize == aNames.length) {
+                aNames = Arrays.copyOf(aNames, aSize * 2);
+                aCounts = Arrays.copyOf(aCounts, aSize * 2);
+            }
+            id = aSize++;
+        }
+        aNames[id] = pName;
+        aCounts[id] = 1;
+        aIds.put(pName, id);
+        return id;
+    }
+
+    /**
+     * Counts one holder less of an id, dropping its name once nothing holds it.
+     * @param pId an id returned by {@link #acquire(String)}
+     */
+    void release(int pId) {
+        if (--aCounts[pId] == 0) {
+            aIds.remove(aNames[pId]);
+            aNames[pId] = null;
+            aCounts[pId] = aFreeHead;
+            aFreeHead = pId;
+        }
+    }
+
+    /**
+     * Returns the id of a name without adding it.
+     * @param pName the name
+     * @return its id, or -1 if the name is not in the pool
+     */
+    int find(String pName) {
+        Integer id = aIds.get(pName);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the name with the given id.
+     * @param pId an id currently held
+     * @return the name
+     */
+    String name(int pId) {
+        return aNames[pId];
+    }
+
+    /**
+     * Returns how many distinct names the pool holds.
+     * @return the number of names
+     */
+    int size() {
+        return aIds.size();
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.zoostructure.Model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * The default {@link AnimalStore}: keeps the {@link Animal} objects themselves
+ * in insertion order, with a hash index by case-folded name.
+ */
+final class ObjectAnimalStore implements AnimalStore {
+
+    /**
+     * The animals in insertion order. A linked hash set gives O(1) removal of a
+     * specific animal while keeping the order the list view shows.
+     */
+    private Set<Animal> aAnimals = new LinkedHashSet<>();
+
+    /**
+     * Index of the animals by case-folded name. Several animals may share a name,
+     * so each key maps to every animal currently carrying it.
+     */
+    private Map<String, List<Animal>> aAnimalsByName = new HashMap<>();
+
+    @Override
+    public int size() {
+        return aAnimals.size();
+    }
+
+    @Override
+    public void add(Animal pAnimal) {
+        if (aAnimals.add(pAnimal)) {
+            index(pAnimal, pAnimal.getName());
+        }
+    }
+
+    /**
+     * Hash tables cannot be grown in place, so a large batch rebuilds them once at
+     * the final size instead of letting them double several times on the way.
+     * Small batches are left to the tables' own growth.
+     */
+    @Override
+    public void reserve(int pExtra) {
+        int size = aAnimals.size();
+        if (pExtra <= size) {
+            return;
+        }
+        Set<Animal> animals = LinkedHashSet.newLinkedHashSet(size + pExtra);
+        animals.addAll(aAnimals);
+        aAnimals = animals;
+        Map<String, List<Animal>> byName = HashMap.newHashMap(aAnimalsByName.size() + pExtra);
+        byName.putAll(aAnimalsByName);
+        aAnimalsByName = byName;
+    }
+
+    @Override
+    public boolean remove(Animal pAnimal) {
+        if (!aAnimals.remove(pAnimal)) {
+            return false;
+        }
+        unindex(pAnimal, pAnimal.getName());
+        return true;
+    }
+
+    @Override
+    public List<Animal> removeAll(String pFoldedName) {
+        List<Animal> matches = aAnimalsByName.remove(pFoldedName);
+        if (matches == null) {
+            return Collections.emptyList();
+        }
+        for (Animal animal : matches) {
+            aAnimals.remove(animal);
+        }
+        return matches;
+    }
+
+    @Override
+    public List<Animal> removeIf(Predicate<? super Animal> pFilter) {
+        List<Animal> removed = new ArrayList<>();
+        for (Animal animal : aAnimals) {
+            if (pFilter.test(animal)) {
+                removed.add(animal);
+            }
+        }
+        if (removed.size() == aAnimals.size()) {
+            aAnimals.clear();
+            aAnimalsByName.clear();
+            return removed;
+        }
+        for (Animal animal : removed) {
+            remove(animal);
+        }
+        return removed;
+    }
+
+    @Override
+    public Animal find(String pFoldedName) {
+        List<Animal> matches = aAnimalsByName.get(pFoldedName);
+        return matches == null ? null : matches.get(0);
+    }
+
+    @Override
+    public boolean contains(String pFoldedName) {
+        return aAnimalsByName.containsKey(pFoldedName);
+    }
+
+    @Override
+    public String rename(Animal pAnimal, String pNewName) {
+        String oldName = pAnimal.getName();
+        pAnimal.assignName(pNewName);
+        unindex(pAnimal, oldName);
+        index(pAnimal, pNewName);
+        return oldName;
+    }
+
+    @Override
+    public double changeAge(Animal pAnimal, double pNewAge) {
+        double oldAge = pAnimal.getAge();
+        pAnimal.assignAge(pNewAge);
+        return oldAge;
+    }
+
+    @Override
+    public List<Animal> toList() {
+        return new ArrayList<>(aAnimals);
+    }
+
+    private void index(Animal pAnimal, String pName) {
+        aAnimalsByName.computeIfAbsent(fold(pName), key -> new ArrayList<>(1)).add(pAnimal);
+    }
+
+    private void unindex(Animal pAnimal, String pName) {
+        String key = fold(pName);
+        List<Animal> matches = aAnimalsByName.get(key);
+        if (matches != null && matches.remove(pAnimal) && matches.isEmpty()) {
+            aAnimalsByName.remove(key);
+        }
+    }
+
+    /**
+     * Returns the key two names share exactly when {@link String#equalsIgnoreCase}
+     * holds between them: every code point is upper-cased and then lower-cased, one
+     * at a time, as that comparison does. Unlike {@code toLowerCase}, this never
+     * expands a character into several, and it folds dotless and dotted i together
+     * with plain i. Names that are already folded are returned as they are.
+     */
+    static String fold(String pName) {
+        for (int i = 0; i < pName.length(); i++) {
+            char c = pName.charAt(i);
+            if (c >= 0x80 || (c >= 'A' && c <= 'Z')) {
+                return fold(pName, i);
+            }
+        }
+        return pName;
+    }
+
+    private static String fold(String pName, int pFrom) {
+        StringBuilder folded = new StringBuilder(pName.length());
+        folded.append(pName, 0, pFrom);
+        int i = pFrom;
+        while (i < pName.length()) {
+            int codePoint = pName.codePointAt(i);
+            folded.appendCodePoint(Character.toLowerCase(Character.toUpperCase(codePoint)));
+            i += Character.charCount(codePoint);
+        }
+        return folded.toString();
+    }
+}
@@ -0,0 +1,382 @@
+package com.example.zoostructure.Model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable map from {@code long} keys to values, kept in key order as a B+ tree
+ * of up to {@value #WIDTH} entries per node. Every update returns a new map that
+ * shares all nodes except those on the path from the root to the changed leaf, so an
+ * update costs O(log n) time and memory and older maps stay valid and unchanged.
+ * <p>
+ * Removals do not rebalance: nodes may end up less than half full, and empty ones
+ * are dropped. Appending keys larger than every key in the map fills leaves completely.
+ * </p>
+ *
+ * @param <V> the value type
+ */
+final class PersistentLongMap<V> {
+
+    private static final int WIDTH = 32;
+
+    private static final PersistentLongMap<?> EMPTY = new PersistentLongMap<>(null);
+
+    private sealed interface Node permits Leaf, Branch {
+        int size();
+
+        long maxKey();
+    }
+
+    private record Leaf(long[] keys, Object[] values) implements Node {
+        @Override
+        public int size() {
+            return keys.length;
+        }
+
+        @Override
+        public long maxKey() {
+            return keys[keys.length - 1];
+        }
+    }
+
+    /**
+     * An inner node: the largest key and the entry count below each child.
+     */
+    private record Branch(long[] maxKeys, int[] sizes, Node[] children, int size) implements Node {
+        @Override
+        public long maxKey() {
+            return maxKeys[maxKeys.length - 1];
+        }
+    }
+
+    /**
+     * The result of an insert that overflowed a node.
+     */
+    private record Split(Node left, Node right) {
+    }
+
+    private final Node aRoot;
+
+    private PersistentLongMap(Node pRoot) {
+        this.aRoot = pRoot;
+    }
+
+    /**
+     * Returns the empty map.
+     *
+     * @param <V> the value type
+     * @return a map with no entries
+     */
+    @SuppressWarnings("unchecked")
+    static <V> PersistentLongMap<V> empty() {
+        return (PersistentLongMap<V>) EMPTY;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the map size
+     */
+    int size() {
+        return aRoot == null ? 0 : aRoot.size();
+    }
+
+    /**
+     * Returns the value stored under a key.
+     *
+     * @param pKey the key
+     * @return the value, or {@code null} if the key is absent
+     */
+    @SuppressWarnings("unchecked")
+    V get(long pKey) {
+        Node node = aRoot;
+        while (node instanceof Branch branch) {
+            int child = childFor(branch, pKey);
+            node = branch.children[child];
+        }
+        if (node instanceof Leaf leaf) {
+            int index = Arrays.binarySearch(leaf.keys, pKey);
+            return index < 0 ? null : (V) leaf.values[index];
+        }
+        return null;
+    }
+
+    /**
+     * Returns the value at a position in key order.
+     *
+     * @param pIndex the position, from 0
+     * @return the value
+     * @throws IndexOutOfBoundsException if pIndex is not below {@link #size()}
+     */
+    @SuppressWarnings("unchecked")
+    V getAt(int pIndex) {
+        if (pIndex < 0 || pIndex >= size()) {
+            throw new IndexOutOfBoundsException(pIndex);
+        }
+        Node node = aRoot;
+        int index = pIndex;
+        while (node instanceof Branch branch) {
+            int child = 0;
+            while (index >= branch.sizes[child]) {
+                index -= branch.sizes[child];
+                child++;
+            }
+            node = branch.children[child];
+        }
+        return (V) ((Leaf) node).values[index];
+    }
+
+    /**
+     * Returns a map with a key set to a value, replacing any value it had.
+     *
+     * @param pKey   the key
+     * @param pValue the value
+     * @return the updated map
+     */
+    PersistentLongMap<V> put(long pKey, V pValue) {
+        if (aRoot == null) {
+            return new PersistentLongMap<>(new Leaf(new long[]{pKey}, new Object[]{pValue}));
+        }
+        Object result = put(aRoot, pKey, pValue);
+        if (result instanceof Split split) {
+            return new PersistentLongMap<>(branch(new Node[]{split.left, split.right}));
+        }
+        return new PersistentLongMap<>((Node) result);
+    }
+
+    /**
+     * Returns a map without a key.
+     *
+     * @param pKey the key
+     * @return the updated map, or this map if the key is absent
+     */
+    PersistentLongMap<V> remove(long pKey) {
+        if (aRoot == null) {
+            return this;
+        }
+        Node root = remove(aRoot, pKey);
+        if (root == aRoot) {
+            return this;
+        }
+        while (root instanceof Branch branch && branch.children.length == 1) {
+            root = branch.children[0];
+        }
+        return root == null ? empty() : new PersistentLongMap<>(root);
+    }
+
+    /**
+     * Returns a read-only list of the values in key order. Lookups by position take O(log n).
+     *
+     * @return a view of the values
+     */
+    List<V> values() {
+        return new AbstractList<>() {
+            @Override
+            public V get(int pIndex) {
+                return getAt(pIndex);
+            }
+
+            @Override
+            public int size() {
+                return PersistentLongMap.this.size();
+            }
+
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator<>(aRoot);
+            }
+        };
+    }
+
+    private static Object put(Node pNode, long pKey, Object pValue) {
+        if (pNode instanceof Leaf leaf) {
+            int index = Arrays.binarySearch(leaf.keys, pKey);
+            if (index >= 0) {
+                Object[] values = leaf.values.clone();
+                values[index] = pValue;
+                return new Leaf(leaf.keys, values);
+            }
+            int at = -index - 1;
+            int length = leaf.keys.length;
+            long[] keys = new long[length + 1];
+            Object[] values = new Object[length + 1];
+            System.arraycopy(leaf.keys, 0, keys, 0, at);
+            System.arraycopy(leaf.values, 0, values, 0, at);
+            keys[at] = pKey;
+            values[at] = pValue;
+            System.arraycopy(leaf.keys, at, keys, at + 1, length - at);
+            System.arraycopy(leaf.values, at, values, at + 1, length - at);
+            if (keys.length <= WIDTH) {
+                return new Leaf(keys, values);
+            }
+            int half = splitPoint(at, keys.length);
+            return new Split(new Leaf(Arrays.copyOfRange(keys, 0, half), Arrays.copyOfRange(values, 0, half)),
+                    new Leaf(Arrays.copyOfRange(keys, half, keys.length),
+                            Arrays.copyOfRange(values, half, values.length)));
+        }
+
+        Branch branch = (Branch) pNode;
+        int child = childFor(branch, pKey);
+        Object result = put(branch.children[child], pKey, pValue);
+        Node[] children;
+        if (result instanceof Split split) {
+            int length = branch.children.length;
+            children = new Node[length + 1];
+            System.arraycopy(branch.children, 0, children, 0, child);
+            children[child] = split.left;
+            children[child + 1] = split.right;
+            System.arraycopy(branch.children, child + 1, children, child + 2, length - child - 1);
+            if (children.length > WIDTH) {
+                int half = splitPoint(child + 1, children.length);
+                return new Split(branch(Arrays.copyOfRange(children, 0, half)),
+                        branch(Arrays.copyOfRange(children, half, children.length)));
+            }
+        } else {
+            children = branch.children.clone();
+            children[child] = (Node) result;
+        }
+        return branch(children);
+    }
+
+    private static Node remove(Node pNode, long pKey) {
+        if (pNode instanceof Leaf leaf) {
+            int index = Arrays.binarySearch(leaf.keys, pKey);
+            if (index < 0) {
+                return pNode;
+            }
+            int length = leaf.keys.length;
+            if (length == 1) {
+                return null;
+            }
+            long[] keys = new long[length - 1];
+            Object[] values = new Object[length - 1];
+            System.arraycopy(leaf.keys, 0, keys, 0, index);
+            System.arraycopy(leaf.values, 0, values, 0, index);
+            System.arraycopy(leaf.keys, index + 1, keys, index, length - index - 1);
+            System.arraycopy(leaf.values, index + 1, values, index, length - index - 1);
+            return new Leaf(keys, values);
+        }
+
+        Branch branch = (Branch) pNode;
+        int child = childFor(branch, pKey);
+        Node before = branch.children[child];
+        Node after = remove(before, pKey);
+        if (after == before) {
+            return pNode;
+        }
+        Node[] children;
+        if (after == null) {
+            int length = branch.children.length;
+            if (length == 1) {
+                return null;
+            }
+            children = new Node[length - 1];
+            System.arraycopy(branch.children, 0, children, 0, child);
+            System.arraycopy(branch.children, child + 1, children, child, length - child - 1);
+        } else {
+            children = branch.children.clone();
+            children[child] = after;
+        }
+        return branch(children);
+    }
+
+    /**
+     * Where to split an overflowing node: appends leave a full left node behind,
+     * anything else splits it in half.
+     */
+    private static int splitPoint(int pInsertedAt, int pLength) {
+        return pInsertedAt == pLength - 1 ? pLength - 1 : pLength / 2;
+    }
+
+    private static int childFor(Branch pBranch, long pKey) {
+        int index = Arrays.binarySearch(pBranch.maxKeys, pKey);
+        if (index >= 0) {
+            return index;
+        }
+        return Math.min(-index - 1, pBranch.maxKeys.length - 1);
+    }
+
+    private static Branch branch(Node[] pChildren) {
+        long[] maxKeys = new long[pChildren.length];
+        int[] sizes = new int[pChildren.length];
+        int size = 0;
+        for (int i = 0; i < pChildren.length; i++) {
+            maxKeys[i] = pChildren[i].maxKey();
+            sizes[i] = pChildren[i].size();
+            size += sizes[i];
+        }
+        return new Branch(maxKeys, sizes, pChildren, size);
+    }
+
+    /**
+     * Walks the leaves left to right with an explicit stack of branch positions.
+     */
+    private static final class ValueIterator<V> implements Iterator<V> {
+        private final Branch[] aBranches = new Branch[16];
+        private final int[] aPositions = new int[16];
+        private int aDepth;
+        private Leaf aLeaf;
+        private int aIndex;
+
+        ValueIterator(Node pRoot) {
+            if (pRoot != null) {
+                descend(pRoot);
+            }
+        }
+
+        private void descend(Node pNode) {
+            Node node = pNode;
+            while (node instanceof Branch branch) {
+                aBranches[aDepth] = branch;
+                aPositions[aDepth] = 0;
+                aDepth++;
+                node = branch.children[0];
+            }
+            aLeaf = (Leaf) node;
+            aIndex = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return aLeaf != null && aIndex < aLeaf.keys.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            V value = (V) aLeaf.values[aIndex++];
+            if (aIndex == aLeaf.keys.length) {
+                advance();
+            }
+            return value;
+        }
+
+        private void advance() {
+            while (aDepth > 0) {
+                Branch branch = aBranches[aDepth - 1];
+                int next = aPositions[aDepth - 1] + 1;
+                if (next < branch.children.length) {
+                    aPositions[aDepth - 1] = next;
+                    Node node = branch.children[next];
+                    while (node instanceof Branch inner) {
+                        aBranches[aDepth] = inner;
+                        aPositions[aDepth] = 0;
+                        aDepth++;
+                        node = inner.children[0];
+                    }
+                    aLeaf = (Leaf) node;
+                    aIndex = 0;
+                    return;
+                }
+                aDepth--;
+            }
+            aLeaf = null;
+        }
+    }
+}
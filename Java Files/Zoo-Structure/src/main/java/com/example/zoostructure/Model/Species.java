@@ -0,0 +1,119 @@
+package com.example.zoostructure.Model;
+
+/**
+ * The kinds of animal the zoo keeps. Each value matches one {@link Animal}
+ * subclass, with {@link #OTHER} standing in for plain {@code Animal} instances.
+ */
+public enum Species {
+    LION("Lion"),
+    TIGER("Tiger"),
+    COUGAR("Cougar"),
+    OTHER("Animal");
+
+    /**
+     * The name used for this species in the UI and in import files.
+     */
+    private final String aDisplayName;
+
+    Species(String pDisplayName) {
+        this.aDisplayName = pDisplayName;
+    }
+
+    /**
+     * Returns the name used for this species in the UI and in import files.
+     *
+     * @return the display name, e.g. {@code "Tiger"}
+     */
+    public String getDisplayName() {
+        return aDisplayName;
+    }
+
+    /**
+     * Creates a new animal of this species.
+     *
+     * @param pName the name of the animal
+     * @param pAge  the age of the animal in years
+     * @return a {@link Lion}, {@link Tiger}, {@link Cougar} or plain {@link Animal}
+     * @throws IllegalArgumentException if the name or age is invalid
+     */
+    public Animal newAnimal(String pName, double pAge) {
+        return switch (this) {
+            case LION -> new Lion(pName, pAge);
+            case TIGER -> new Tiger(pName, pAge);
+            case COUGAR -> new Cougar(pName, pAge);
+            case OTHER -> new Animal(pName, pAge);
+        };
+    }
+
+    /**
+     * Recreates a saved animal of this species with the ID it was saved with, for
+     * snapshots and journals. New animals never receive that ID afterwards.
+     *
+     * @param pId   the saved ID
+     * @param pName the name of the animal
+     * @param pAge  the age of the animal in years
+     * @return a {@link Lion}, {@link Tiger}, {@link Cougar} or plain {@link Animal}
+     * @throws IllegalArgumentException if the ID is not positive, or the name or age is invalid
+     */
+    public Animal newAnimal(long pId, String pName, double pAge) {
+        return switch (this) {
+            case LION -> new Lion(pId, pName, pAge);
+            case TIGER -> new Tiger(pId, pName, pAge);
+            case COUGAR -> new Cougar(pId, pName, pAge);
+            case OTHER -> new Animal(pId, pName, pAge);
+        };
+    }
+
+    /**
+     * Creates a view of a columnar row holding an animal of this species.
+     *
+     * @param pView      the row to read from
+     * @param pEnclosure the enclosure owning the row
+     * @param pId        the ID of the animal in the row
+     * @return a view of the matching class
+     */
+    Animal newView(ColumnarAnimalStore.RowHandle pView, Enclosure pEnclosure, long pId) {
+        return switch (this) {
+            case LION -> new Lion(pView, pEnclosure, pId);
+            case TIGER -> new Tiger(pView, pEnclosure, pId);
+            case COUGAR -> new Cougar(pView, pEnclosure, pId);
+            case OTHER -> new Animal(pView, pEnclosure, pId);
+        };
+    }
+
+    /**
+     * Looks up a species by its display name or constant name, ignoring case.
+     *
+     * @param pName the name to look up, e.g. {@code "Tiger"}
+     * @return the matching species
+     * @throws IllegalArgumentException if no species has that name
+     */
+    public static Species fromName(String pName) {
+        if (pName != null) {
+            String name = pName.trim();
+            for (Species species : values()) {
+                if (species.aDisplayName.equalsIgnoreCase(name) || species.name().equalsIgnoreCase(name)) {
+                    return species;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown species: " + pName);
+    }
+
+    /**
+     * Returns the species of the given animal, based on its class.
+     *
+     * @param pAnimal the animal to classify
+     * @return the matching species, or {@link #OTHER} for a plain {@code Animal}
+     */
+    public static Species of(Animal pAnimal) {
+        if (pAnimal instanceof Lion) {
+            return LION;
+        } else if (pAnimal instanceof Tiger) {
+            return TIGER;
+        } else if (pAnimal instanceof Cougar) {
+            return COUGAR;
+        }
+        return OTHER;
+    }
+}
@@ -4,4 +4,12 @@ public class Tiger extends Animal{
     public Tiger(String pName, double pAge) {
         super(pName, pAge);
     }
+
+    Tiger(long pId, String pName, double pAge) {
+        super(pId, pName, pAge);
+    }
+
+    Tiger(ColumnarAnimalStore.RowHandle pView, Enclosure pEnclosure, long pId) {
+        super(pView, pEnclosure, pId);
+    }
 }
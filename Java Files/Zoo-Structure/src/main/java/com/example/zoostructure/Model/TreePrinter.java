@@ -0,0 +1,125 @@
+package com.example.zoostructure.Model;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes an enclosure tree as the indented text that {@link EnclosureCollection#display()}
+ * prints: one line per section, per enclosure and per animal, each level indented by
+ * two more spaces.
+ * <pre>
+ * Zoo
+ *   Big Cats
+ *     Zoo Enclosure: Lions
+ *       - Simba (5.0 years)
+ * </pre>
+ * <p>
+ * The text can go to any {@link Appendable}, which is how the helpers export the
+ * same tree to a file.
+ * </p>
+ */
+public final class TreePrinter {
+
+    /**
+     * The size of the buffer in front of standard output.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private TreePrinter() {
+    }
+
+    /**
+     * Writes a tree as indented text.
+     *
+     * @param pRoot   the collection to write
+     * @param pIndent a prefix for every line
+     * @param pOut    where to write; not flushed
+     * @return the number of animals written
+     * @throws IOException if pOut cannot be written
+     */
+    public static long print(EnclosureCollection pRoot, String pIndent, Appendable pOut) throws IOException {
+        try {
+            return pRoot.accept(new Printer(pIndent, pOut));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Prints a tree to standard output in one buffered pass, so it is locked once per
+     * buffer instead of once per line.
+     *
+     * @param pRoot   the collection to print
+     * @param pIndent a prefix for every line
+     */
+    static void print(EnclosureCollection pRoot, String pIndent) {
+        // Standard output itself stays open.
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try {
+            print(pRoot, pIndent, out);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Walks the tree depth first, keeping track of the current depth.
+     */
+    private static final class Printer implements EnclosureVisitor<Long> {
+        private final String aIndent;
+        private final Appendable aOut;
+        private int aDepth;
+
+        private Printer(String pIndent, Appendable pOut) {
+            this.aIndent = pIndent;
+            this.aOut = pOut;
+        }
+
+        @Override
+        public Long visitEnclosure(Enclosure pEnclosure) {
+            try {
+                indent();
+                aOut.append("Zoo Enclosure: ").append(pEnclosure.getName()).append('\n');
+                long rows = 0;
+                for (Animal animal : pEnclosure.getAnimals()) {
+                    indent();
+                    aOut.append("  - ").append(animal.getName()).append(" (")
+                            .append(Double.toString(animal.getAge())).append(" years)\n");
+                    rows++;
+                }
+                return rows;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Long visitComposite(CompositeEnclosureCollection pComposite) {
+            try {
+                indent();
+                aOut.append(pComposite.getName()).append('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            long rows = 0;
+            aDepth++;
+            for (EnclosureCollection child : pComposite.getCollections()) {
+                rows += child.accept(this);
+            }
+            aDepth--;
+            return rows;
+        }
+
+        private void indent() throws IOException {
+            aOut.append(aIndent);
+            for (int i = 0; i < aDepth; i++) {
+                aOut.append("  ");
+            }
+        }
+    }
+}
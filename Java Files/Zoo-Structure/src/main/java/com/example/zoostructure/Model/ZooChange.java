@@ -0,0 +1,75 @@
+package com.example.zoostructure.Model;
+
+import java.util.List;
+
+/**
+ * One change to a zoo tree, as passed to a {@link ZooChangeListener}.
+ *
+ * @param type       what kind of change this is
+ * @param source     the collection whose contents changed: the enclosure for animal
+ *                   changes, the section for collection changes
+ * @param animal     the animal added, removed or updated, or {@code null} for collection changes
+ * @param collection the collection added or removed, or {@code null} for animal changes
+ * @param oldName    the animal's name before an update, or {@code null}
+ * @param oldAge     the animal's age before an update, or {@code NaN}
+ * @param version    for animal changes, the enclosure's {@link Enclosure#getModificationCount()}
+ *                   once the change was made; {@code 0} otherwise
+ * @param members    for a {@link Type#BATCH}, the changes it is made of; {@code null} otherwise
+ */
+public record ZooChange(Type type, EnclosureCollection source, Animal animal, EnclosureCollection collection,
+                        String oldName, double oldAge, long version, List<ZooChange> members) {
+
+    /**
+     * The kinds of change.
+     */
+    public enum Type {
+        ANIMAL_ADDED,
+        ANIMAL_REMOVED,
+        /**
+         * An animal was renamed or its age changed; it stays in the same enclosure.
+         */
+        ANIMAL_UPDATED,
+        COLLECTION_ADDED,
+        COLLECTION_REMOVED,
+        /**
+         * Several animal changes to one enclosure, made together by a {@link MutationBatch}
+         * and passed to listeners as one notification; see {@link #changes()}.
+         */
+        BATCH
+    }
+
+    /**
+     * Returns the single changes this change is made of, in the order they were made:
+     * the members of a batch, or this change alone otherwise. Listeners that handle
+     * every change the same way can simply loop over it.
+     *
+     * @return the changes, never empty
+     */
+    public List<ZooChange> changes() {
+        return type == Type.BATCH ? members : List.of(this);
+    }
+
+    static ZooChange animalAdded(Enclosure pSource, Animal pAnimal, long pVersion) {
+        return new ZooChange(Type.ANIMAL_ADDED, pSource, pAnimal, null, null, Double.NaN, pVersion, null);
+    }
+
+    static ZooChange animalRemoved(Enclosure pSource, Animal pAnimal, long pVersion) {
+        return new ZooChange(Type.ANIMAL_REMOVED, pSource, pAnimal, null, null, Double.NaN, pVersion, null);
+    }
+
+    static ZooChange animalUpdated(Enclosure pSource, Animal pAnimal, String pOldName, double pOldAge, long pVersion) {
+        return new ZooChange(Type.ANIMAL_UPDATED, pSource, pAnimal, null, pOldName, pOldAge, pVersion, null);
+    }
+
+    static ZooChange collectionAdded(CompositeEnclosureCollection pSource, EnclosureCollection pCollection) {
+        return new ZooChange(Type.COLLECTION_ADDED, pSource, null, pCollection, null, Double.NaN, 0, null);
+    }
+
+    static ZooChange collectionRemoved(CompositeEnclosureCollection pSource, EnclosureCollection pCollection) {
+        return new ZooChange(Type.COLLECTION_REMOVED, pSource, null, pCollection, null, Double.NaN, 0, null);
+    }
+
+    static ZooChange batch(Enclosure pSource, List<ZooChange> pMembers, long pVersion) {
+        return new ZooChange(Type.BATCH, pSource, null, null, null, Double.NaN, pVersion, List.copyOf(pMembers));
+    }
+}
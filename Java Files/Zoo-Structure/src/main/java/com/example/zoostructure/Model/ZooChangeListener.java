@@ -0,0 +1,20 @@
+package com.example.zoostructure.Model;
+
+/**
+ * Receives the changes made to an enclosure or section, including every change
+ * made anywhere below a section.
+ * <p>
+ * Listeners are called on the thread that made the change, while the changed
+ * collection is still locked, so they see changes in the order they happened.
+ * They must return quickly and should hand any real work to another thread.
+ * </p>
+ */
+@FunctionalInterface
+public interface ZooChangeListener {
+
+    /**
+     * Called after a change has been made.
+     * @param pChange what changed
+     */
+    void changed(ZooChange pChange);
+}
@@ -0,0 +1,217 @@
+package com.example.zoostructure.Model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Secondary indexes over every animal below a section: one sorted by age, and one
+ * sorted by age per species. Species and age-range queries take O(log n) plus the
+ * number of results, instead of a scan of every enclosure.
+ * <p>
+ * An index is kept up to date through a {@link ZooChangeListener} on its section, so
+ * animals added, removed or re-aged and collections added or removed anywhere below
+ * it are reflected as soon as the change is made. Call {@link #close()} to stop
+ * maintaining it. Building an index loads any deferred enclosures in the tree.
+ * </p>
+ */
+public final class ZooIndex implements AutoCloseable {
+
+    /**
+     * One query result.
+     *
+     * @param animal    the matching animal
+     * @param enclosure the enclosure it lives in
+     * @param path      the path of that enclosure, as given by {@link EnclosureCollection#getPath()}
+     */
+    public record Hit(Animal animal, Enclosure enclosure, String path) {
+    }
+
+    /**
+     * Orders entries by age, then by when they were indexed, so equal ages can coexist.
+     */
+    private record Key(double age, long sequence) {
+        static final Comparator<Key> ORDER = Comparator.comparingDouble(Key::age).thenComparingLong(Key::sequence);
+    }
+
+    private record Entry(Animal animal, Enclosure enclosure, Species species, Key key) {
+    }
+
+    private final CompositeEnclosureCollection aRoot;
+    private final AtomicLong aSequence = new AtomicLong();
+    private final ConcurrentSkipListMap<Key, Entry> aByAge = new ConcurrentSkipListMap<>(Key.ORDER);
+    private final Map<Species, ConcurrentSkipListMap<Key, Entry>> aBySpecies = new EnumMap<>(Species.class);
+
+    /**
+     * The entry of each indexed animal, to find it again when it is removed or re-aged.
+     */
+    private final Map<Animal, Entry> aEntries = new ConcurrentHashMap<>();
+
+    private final ZooChangeListener aListener = this::changed;
+
+    private ZooIndex(CompositeEnclosureCollection pRoot) {
+        this.aRoot = pRoot;
+        for (Species species : Species.values()) {
+            aBySpecies.put(species, new ConcurrentSkipListMap<>(Key.ORDER));
+        }
+    }
+
+    /**
+     * Indexes every animal below a section and keeps the index current from then on.
+     * The tree is locked against changes while the index is built.
+     *
+     * @param pRoot the section to index
+     * @return the new index
+     * @throws IllegalArgumentException if pRoot is null
+     */
+    public static ZooIndex build(CompositeEnclosureCollection pRoot) {
+        if (pRoot == null) {
+            throw new IllegalArgumentException("Root cannot be null.");
+        }
+        ZooIndex index = new ZooIndex(pRoot);
+        Lock lock = CompositeEnclosureCollection.lockTree(pRoot);
+        try {
+            index.addSubtree(pRoot);
+            pRoot.addChangeListener(index.aListener);
+        } finally {
+            lock.unlock();
+        }
+        return index;
+    }
+
+    /**
+     * Finds the animals of one species whose age is in a range.
+     *
+     * @param pSpecies the species
+     * @param pMinAge  the lowest age, inclusive
+     * @param pMaxAge  the highest age, exclusive
+     * @return the matches, youngest first
+     */
+    public List<Hit> find(Species pSpecies, double pMinAge, double pMaxAge) {
+        return hits(aBySpecies.get(pSpecies), pMinAge, pMaxAge);
+    }
+
+    /**
+     * Finds the animals of any species whose age is in a range.
+     *
+     * @param pMinAge the lowest age, inclusive
+     * @param pMaxAge the highest age, exclusive
+     * @return the matches, youngest first
+     */
+    public List<Hit> find(double pMinAge, double pMaxAge) {
+        return hits(aByAge, pMinAge, pMaxAge);
+    }
+
+    /**
+     * Finds every animal of one species.
+     *
+     * @param pSpecies the species
+     * @return the matches, youngest first
+     */
+    public List<Hit> find(Species pSpecies) {
+        return hits(aBySpecies.get(pSpecies).values());
+    }
+
+    /**
+     * Returns the number of indexed animals.
+     * @return the index size
+     */
+    public int size() {
+        return aEntries.size();
+    }
+
+    /**
+     * Stops keeping the index current. Queries still answer from its last state.
+     */
+    @Override
+    public void close() {
+        aRoot.removeChangeListener(aListener);
+    }
+
+    private static List<Hit> hits(ConcurrentSkipListMap<Key, Entry> pMap, double pMinAge, double pMaxAge) {
+        if (!(pMinAge < pMaxAge)) {
+            return List.of();
+        }
+        NavigableMap<Key, Entry> range = pMap.subMap(new Key(pMinAge, Long.MIN_VALUE), true,
+                new Key(pMaxAge, Long.MIN_VALUE), false);
+        return hits(range.values());
+    }
+
+    private static List<Hit> hits(Collection<Entry> pEntries) {
+        List<Hit> hits = new ArrayList<>();
+        for (Entry entry : pEntries) {
+            hits.add(new Hit(entry.animal(), entry.enclosure(), entry.enclosure().getPath()));
+        }
+        return hits;
+    }
+
+    /**
+     * Applies one change from the tree. Runs with the changed collection locked, so
+     * the changes for one animal arrive in order.
+     */
+    private void changed(ZooChange pChange) {
+        switch (pChange.type()) {
+            case ANIMAL_ADDED -> add(pChange.animal(), (Enclosure) pChange.source());
+            case ANIMAL_REMOVED -> remove(pChange.animal());
+            case ANIMAL_UPDATED -> {
+                if (pChange.oldAge() != pChange.animal().getAge()) {
+                    Enclosure enclosure = (Enclosure) pChange.source();
+                    remove(pChange.animal());
+                    add(pChange.animal(), enclosure);
+                }
+            }
+            case COLLECTION_ADDED -> addSubtree(pChange.collection());
+            case COLLECTION_REMOVED -> removeSubtree(pChange.collection());
+            case BATCH -> pChange.changes().forEach(this::changed);
+        }
+    }
+
+    private void addSubtree(EnclosureCollection pCollection) {
+        EnclosureTraversal.reduce(pCollection, null, enclosure -> {
+            for (Animal animal : enclosure.getAnimals()) {
+                add(animal, enclosure);
+            }
+            return null;
+        }, (left, right) -> null, false);
+    }
+
+    private void removeSubtree(EnclosureCollection pCollection) {
+        EnclosureTraversal.reduce(pCollection, null, enclosure -> {
+            for (Animal animal : enclosure.getAnimals()) {
+                remove(animal);
+            }
+            return null;
+        }, (left, right) -> null, false);
+    }
+
+    private void add(Animal pAnimal, Enclosure pEnclosure) {
+        Species species = Species.of(pAnimal);
+        Entry entry = new Entry(pAnimal, pEnclosure, species, new Key(pAnimal.getAge(), aSequence.incrementAndGet()));
+        Entry previous = aEntries.put(pAnimal, entry);
+        if (previous != null) {
+            unlink(previous);
+        }
+        aByAge.put(entry.key(), entry);
+        aBySpecies.get(species).put(entry.key(), entry);
+    }
+
+    private void remove(Animal pAnimal) {
+        Entry entry = aEntries.remove(pAnimal);
+        if (entry != null) {
+            unlink(entry);
+        }
+    }
+
+    private void unlink(Entry pEntry) {
+        aByAge.remove(pEntry.key());
+        aBySpecies.get(pEntry.species()).remove(pEntry.key());
+    }
+}
@@ -0,0 +1,325 @@
+package com.example.zoostructure.Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A case-insensitive prefix search over the names of every animal, enclosure and
+ * section below a section, for search-as-you-type.
+ * <p>
+ * Names are kept in a trie of case-folded characters. A query walks down the prefix
+ * and then collects matches in name order until it has enough, so its cost depends on
+ * the length of the prefix and the number of results asked for, not on the size of
+ * the zoo. Every trie node has at least one name below it, so the walk never explores
+ * empty branches.
+ * </p>
+ * <p>
+ * Like {@link ZooIndex}, the search is kept current through a {@link ZooChangeListener}
+ * on its section: additions, removals and renames anywhere below it are reflected as
+ * soon as they are made. Call {@link #close()} to stop maintaining it. Building it
+ * loads any deferred enclosures in the tree.
+ * </p>
+ */
+public final class ZooNameSearch implements AutoCloseable {
+
+    /**
+     * One search result: an animal in its enclosure, or a collection.
+     *
+     * @param name       the matching name
+     * @param animal     the matching animal, or {@code null} if a collection matched
+     * @param collection the enclosure the animal lives in, or the matching collection
+     */
+    public record Match(String name, Animal animal, EnclosureCollection collection) {
+
+        /**
+         * Returns the path of the enclosure or collection, as given by
+         * {@link EnclosureCollection#getPath()}.
+         *
+         * @return the path
+         */
+        public String path() {
+            return collection.getPath();
+        }
+    }
+
+    /**
+     * A trie node. Children are kept sorted by character so matches come out in
+     * name order; names ending here are kept in the order they were added, each
+     * item with the name it was indexed under. Queries answer from those names, so
+     * they never ask an animal for its name, which for a columnar enclosure would take
+     * its store lock while holding this search's lock, the reverse of the order writers
+     * take them in.
+     */
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] aKeys = NO_KEYS;
+        private Node[] aChildren = NO_CHILDREN;
+        private Map<Object, String> aItems;
+
+        private Node child(char pKey) {
+            int index = Arrays.binarySearch(aKeys, pKey);
+            return index < 0 ? null : aChildren[index];
+        }
+
+        private Node getOrAddChild(char pKey) {
+            int index = Arrays.binarySearch(aKeys, pKey);
+            if (index >= 0) {
+                return aChildren[index];
+            }
+            int at = -index - 1;
+            char[] keys = new char[aKeys.length + 1];
+            Node[] children = new Node[aChildren.length + 1];
+            System.arraycopy(aKeys, 0, keys, 0, at);
+            System.arraycopy(aChildren, 0, children, 0, at);
+            keys[at] = pKey;
+            children[at] = new Node();
+            System.arraycopy(aKeys, at, keys, at + 1, aKeys.length - at);
+            System.arraycopy(aChildren, at, children, at + 1, aChildren.length - at);
+            aKeys = keys;
+            aChildren = children;
+            return children[at];
+        }
+
+        private void removeChild(char pKey) {
+            int index = Arrays.binarySearch(aKeys, pKey);
+            if (index < 0) {
+                return;
+            }
+            if (aKeys.length == 1) {
+                aKeys = NO_KEYS;
+                aChildren = NO_CHILDREN;
+                return;
+            }
+            char[] keys = new char[aKeys.length - 1];
+            Node[] children = new Node[aChildren.length - 1];
+            System.arraycopy(aKeys, 0, keys, 0, index);
+            System.arraycopy(aChildren, 0, children, 0, index);
+            System.arraycopy(aKeys, index + 1, keys, index, keys.length - index);
+            System.arraycopy(aChildren, index + 1, children, index, children.length - index);
+            aKeys = keys;
+            aChildren = children;
+        }
+
+        private boolean isEmpty() {
+            return aKeys.length == 0 && (aItems == null || aItems.isEmpty());
+        }
+    }
+
+    private final CompositeEnclosureCollection aRoot;
+    private final Node aTrie = new Node();
+    private final ReadWriteLock aLock = new ReentrantReadWriteLock();
+    private int aSize;
+
+    private final ZooChangeListener aListener = this::changed;
+
+    private ZooNameSearch(CompositeEnclosureCollection pRoot) {
+        this.aRoot = pRoot;
+    }
+
+    /**
+     * Indexes the names of everything below a section and keeps them current from
+     * then on. The tree is locked against changes while the names are collected.
+     *
+     * @param pRoot the section to search
+     * @return the new search
+     * @throws IllegalArgumentException if pRoot is null
+     */
+    public static ZooNameSearch build(CompositeEnclosureCollection pRoot) {
+        if (pRoot == null) {
+            throw new IllegalArgumentException("Root cannot be null.");
+        }
+        ZooNameSearch search = new ZooNameSearch(pRoot);
+        Lock lock = CompositeEnclosureCollection.lockTree(pRoot);
+        try {
+            for (EnclosureCollection child : pRoot.getCollections()) {
+                search.addSubtree(child);
+            }
+            pRoot.addChangeListener(search.aListener);
+        } finally {
+            lock.unlock();
+        }
+        return search;
+    }
+
+    /**
+     * Finds the names starting with a prefix, ignoring case.
+     *
+     * @param pPrefix the start of the name; a blank prefix matches nothing
+     * @param pLimit  the most matches to return
+     * @return up to {@code pLimit} matches in case-insensitive name order
+     */
+    public List<Match> find(String pPrefix, int pLimit) {
+        if (pPrefix == null || pPrefix.isBlank() || pLimit <= 0) {
+            return List.of();
+        }
+        String key = ObjectAnimalStore.fold(pPrefix.strip());
+        List<Match> matches = new ArrayList<>(Math.min(pLimit, 16));
+        Lock lock = aLock.readLock();
+        lock.lock();
+        try {
+            Node node = aTrie;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node != null) {
+                collect(node, matches, pLimit);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return Collections.unmodifiableList(matches);
+    }
+
+    /**
+     * Returns the number of indexed names.
+     *
+     * @return the number of animals and collections below the root
+     */
+    public int size() {
+        Lock lock = aLock.readLock();
+        lock.lock();
+        try {
+            return aSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops keeping the search current. Queries still answer from its last state.
+     */
+    @Override
+    public void close() {
+        aRoot.removeChangeListener(aListener);
+    }
+
+    private static void collect(Node pNode, List<Match> pMatches, int pLimit) {
+        if (pNode.aItems != null) {
+            for (Map.Entry<Object, String> item : pNode.aItems.entrySet()) {
+                if (pMatches.size() == pLimit) {
+                    return;
+                }
+                pMatches.add(match(item.getKey(), item.getValue()));
+            }
+        }
+        for (Node child : pNode.aChildren) {
+            if (pMatches.size() == pLimit) {
+                return;
+            }
+            collect(child, pMatches, pLimit);
+        }
+    }
+
+    private static Match match(Object pItem, String pName) {
+        if (pItem instanceof Animal animal) {
+            return new Match(pName, animal, animal.getEnclosure());
+        }
+        return new Match(pName, null, (EnclosureCollection) pItem);
+    }
+
+    /**
+     * Applies one change from the tree. Runs with the changed collection locked, so
+     * the changes for one animal arrive in order.
+     */
+    private void changed(ZooChange pChange) {
+        switch (pChange.type()) {
+            case ANIMAL_ADDED -> add(pChange.animal().getName(), pChange.animal());
+            case ANIMAL_REMOVED -> remove(pChange.animal().getName(), pChange.animal());
+            case ANIMAL_UPDATED -> {
+                String newName = pChange.animal().getName();
+                if (!pChange.oldName().equals(newName)) {
+                    remove(pChange.oldName(), pChange.animal());
+                    add(newName, pChange.animal());
+                }
+            }
+            case COLLECTION_ADDED -> addSubtree(pChange.collection());
+            case COLLECTION_REMOVED -> removeSubtree(pChange.collection());
+            case BATCH -> pChange.changes().forEach(this::changed);
+        }
+    }
+
+    private void addSubtree(EnclosureCollection pCollection) {
+        add(pCollection.getName(), pCollection);
+        if (pCollection instanceof Enclosure enclosure) {
+            for (Animal animal : enclosure.getAnimals()) {
+                add(animal.getName(), animal);
+            }
+        } else if (pCollection instanceof CompositeEnclosureCollection section) {
+            for (EnclosureCollection child : section.getCollections()) {
+                addSubtree(child);
+            }
+        }
+    }
+
+    private void removeSubtree(EnclosureCollection pCollection) {
+        remove(pCollection.getName(), pCollection);
+        if (pCollection instanceof Enclosure enclosure) {
+            for (Animal animal : enclosure.getAnimals()) {
+                remove(animal.getName(), animal);
+            }
+        } else if (pCollection instanceof CompositeEnclosureCollection section) {
+            for (EnclosureCollection child : section.getCollections()) {
+                removeSubtree(child);
+            }
+        }
+    }
+
+    private void add(String pName, Object pItem) {
+        String key = ObjectAnimalStore.fold(pName);
+        Lock lock = aLock.writeLock();
+        lock.lock();
+        try {
+            Node node = aTrie;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.getOrAddChild(key.charAt(i));
+            }
+            if (node.aItems == null) {
+                node.aItems = new LinkedHashMap<>(2);
+            }
+            if (node.aItems.putIfAbsent(pItem, pName) == null) {
+                aSize++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(String pName, Object pItem) {
+        String key = ObjectAnimalStore.fold(pName);
+        Lock lock = aLock.writeLock();
+        lock.lock();
+        try {
+            Node[] path = new Node[key.length() + 1];
+            path[0] = aTrie;
+            for (int i = 0; i < key.length(); i++) {
+                path[i + 1] = path[i].child(key.charAt(i));
+                if (path[i + 1] == null) {
+                    return;
+                }
+            }
+            Node node = path[key.length()];
+            if (node.aItems == null || node.aItems.remove(pItem) == null) {
+                return;
+            }
+            aSize--;
+            if (node.aItems.isEmpty()) {
+                node.aItems = null;
+            }
+            // Prune nodes left without names, so every node leads to a match.
+            for (int i = key.length(); i > 0 && path[i].isEmpty(); i--) {
+                path[i - 1].removeChild(key.charAt(i - 1));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,472 @@
+package com.example.zoostructure.Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Immutable versions of a zoo, for readers that must see one consistent state while
+ * the zoo keeps changing, such as long-running reports.
+ * <p>
+ * Each change to the live tree publishes a new {@link Version}. Versions share
+ * structure: a change copies only the nodes on the path from the changed enclosure
+ * to the root, each in O(log n) of its size, so the memory a version adds is
+ * proportional to what changed. Reading the current version is a single volatile
+ * read, and a version stays valid and unchanged for as long as a reader holds it.
+ * </p>
+ * <p>
+ * Versions are kept current through a {@link ZooChangeListener} on the root; call
+ * {@link #close()} to stop. Attaching loads any deferred enclosures in the tree.
+ * </p>
+ * <pre>{@code
+ * ZooVersions versions = ZooVersions.attach(zoo);
+ * ZooVersions.Version version = versions.current();
+ * long animals = version.root().animalCount();   // unaffected by concurrent edits
+ * }</pre>
+ */
+public final class ZooVersions implements AutoCloseable {
+
+    /**
+     * The state of an animal at one version.
+     *
+     * @param species the species
+     * @param name    the name
+     * @param age     the age in years
+     */
+    public record AnimalState(Species species, String name, double age) {
+    }
+
+    /**
+     * The state of an enclosure or section at one version.
+     */
+    public sealed interface NodeState permits EnclosureState, SectionState {
+        /**
+         * Returns the name of the collection.
+         *
+         * @return the name
+         */
+        String name();
+
+        /**
+         * Returns the number of animals in or below the collection. Takes O(1).
+         *
+         * @return the animal count
+         */
+        long animalCount();
+    }
+
+    /**
+     * An enclosure at one version.
+     */
+    public static final class EnclosureState implements NodeState {
+        private final String aName;
+        private final PersistentLongMap<AnimalState> aAnimals;
+
+        private EnclosureState(String pName, PersistentLongMap<AnimalState> pAnimals) {
+            this.aName = pName;
+            this.aAnimals = pAnimals;
+        }
+
+        @Override
+        public String name() {
+            return aName;
+        }
+
+        @Override
+        public long animalCount() {
+            return aAnimals.size();
+        }
+
+        /**
+         * Returns the animals in the order they were added. A columnar enclosure may
+         * list its live animals in another order, since it reuses freed rows.
+         *
+         * @return a read-only list of the animals
+         */
+        public List<AnimalState> getAnimals() {
+            return aAnimals.values();
+        }
+
+        private EnclosureState withAnimals(PersistentLongMap<AnimalState> pAnimals) {
+            return new EnclosureState(aName, pAnimals);
+        }
+    }
+
+    /**
+     * A section at one version. Children are stored by key, in the order they were
+     * added, and indexed by a hash of their name, so finding one by name takes
+     * O(log n) like finding it by key.
+     */
+    public static final class SectionState implements NodeState {
+        private static final SectionState EMPTY_CHILDREN = new SectionState(null, PersistentLongMap.empty(),
+                PersistentLongMap.empty(), 0);
+
+        private final String aName;
+        private final PersistentLongMap<NodeState> aChildren;
+
+        /**
+         * The keys of the children by {@link #nameHash(String)}; almost always one key
+         * per hash.
+         */
+        private final PersistentLongMap<long[]> aKeysByName;
+        private final long aAnimalCount;
+
+        private SectionState(String pName, PersistentLongMap<NodeState> pChildren,
+                             PersistentLongMap<long[]> pKeysByName, long pAnimalCount) {
+            this.aName = pName;
+            this.aChildren = pChildren;
+            this.aKeysByName = pKeysByName;
+            this.aAnimalCount = pAnimalCount;
+        }
+
+        @Override
+        public String name() {
+            return aName;
+        }
+
+        @Override
+        public long animalCount() {
+            return aAnimalCount;
+        }
+
+        /**
+         * Returns the direct children in the order they were added.
+         *
+         * @return a read-only list of the children
+         */
+        public List<NodeState> getChildren() {
+            return aChildren.values();
+        }
+
+        /**
+         * Returns the direct child with the given name.
+         *
+         * @param pName the exact name of the child
+         * @return the child, or {@code null} if there is none
+         */
+        public NodeState getChild(String pName) {
+            long[] keys = aKeysByName.get(nameHash(pName));
+            if (keys != null) {
+                for (long key : keys) {
+                    NodeState child = aChildren.get(key);
+                    if (child.name().equals(pName)) {
+                        return child;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private SectionState withChild(long pKey, NodeState pChild, long pCountDelta) {
+            long hash = nameHash(pChild.name());
+            long[] keys = aKeysByName.get(hash);
+            long[] added;
+            if (keys == null) {
+                added = new long[]{pKey};
+            } else {
+                added = Arrays.copyOf(keys, keys.length + 1);
+                added[keys.length] = pKey;
+            }
+            return new SectionState(aName, aChildren.put(pKey, pChild), aKeysByName.put(hash, added),
+                    aAnimalCount + pCountDelta);
+        }
+
+        private SectionState withReplacedChild(long pKey, NodeState pChild, long pCountDelta) {
+            // Names never change, so the name index stays as it is.
+            return new SectionState(aName, aChildren.put(pKey, pChild), aKeysByName, aAnimalCount + pCountDelta);
+        }
+
+        private SectionState withoutChild(long pKey, long pCountDelta) {
+            NodeState child = aChildren.get(pKey);
+            if (child == null) {
+                return this;
+            }
+            long hash = nameHash(child.name());
+            long[] keys = aKeysByName.get(hash);
+            long[] remaining = new long[keys.length - 1];
+            int i = 0;
+            for (long key : keys) {
+                if (key != pKey) {
+                    remaining[i++] = key;
+                }
+            }
+            return new SectionState(aName, aChildren.remove(pKey),
+                    remaining.length == 0 ? aKeysByName.remove(hash) : aKeysByName.put(hash, remaining),
+                    aAnimalCount + pCountDelta);
+        }
+
+        /**
+         * A 64-bit hash of a name, so distinct names in one section practically never
+         * share a bucket.
+         */
+        private static long nameHash(String pName) {
+            long hash = 1125899906842597L;
+            for (int i = 0; i < pName.length(); i++) {
+                hash = 31 * hash + pName.charAt(i);
+            }
+            return hash;
+        }
+    }
+
+    /**
+     * One published state of the whole tree.
+     *
+     * @param number counts the changes published before this version
+     * @param root   the root section
+     */
+    public record Version(long number, SectionState root) {
+
+        /**
+         * Finds a collection from its path, as returned by {@link EnclosureCollection#getPath()}
+         * with the root as the first name.
+         *
+         * @param pPath the path, such as {@code Big Cats/Tigers/Tiger Cubs}
+         * @return the collection at that path in this version, or {@code null} if there is none
+         */
+        public NodeState resolve(String pPath) {
+            String[] names = pPath.split("/", -1);
+            if (!names[0].equals(root.name())) {
+                return null;
+            }
+            NodeState node = root;
+            for (int i = 1; i < names.length && node != null; i++) {
+                node = node instanceof SectionState section ? section.getChild(names[i]) : null;
+            }
+            return node;
+        }
+    }
+
+    private final CompositeEnclosureCollection aRoot;
+
+    /**
+     * The key of every live animal and collection below the root, under which its
+     * state is stored in its parent. Keys increase, so key order is insertion order.
+     */
+    private final Map<Object, Long> aKeys = new HashMap<>();
+    private long aNextKey;
+
+    private volatile Version aCurrent;
+
+    private final ZooChangeListener aListener = this::changed;
+
+    private ZooVersions(CompositeEnclosureCollection pRoot) {
+        this.aRoot = pRoot;
+    }
+
+    /**
+     * Captures the current state of a zoo and publishes a new version on every change
+     * from then on. The tree is locked against changes while it is captured.
+     *
+     * @param pRoot the root of the zoo
+     * @return the versions of that zoo
+     * @throws IllegalArgumentException if pRoot is null
+     */
+    public static ZooVersions attach(CompositeEnclosureCollection pRoot) {
+        if (pRoot == null) {
+            throw new IllegalArgumentException("Root cannot be null.");
+        }
+        ZooVersions versions = new ZooVersions(pRoot);
+        Lock lock = CompositeEnclosureCollection.lockTree(pRoot);
+        try {
+            versions.aCurrent = new Version(0, (SectionState) versions.capture(pRoot));
+            pRoot.addChangeListener(versions.aListener);
+        } finally {
+            lock.unlock();
+        }
+        return versions;
+    }
+
+    /**
+     * Returns the latest published version. It never changes, however long it is held.
+     *
+     * @return the current version
+     */
+    public Version current() {
+        return aCurrent;
+    }
+
+    /**
+     * Stops publishing versions. {@link #current()} keeps returning the last one.
+     */
+    @Override
+    public void close() {
+        aRoot.removeChangeListener(aListener);
+    }
+
+    /**
+     * Applies one change from the tree. Changes to different enclosures can arrive
+     * from several threads at once, so publishing is serialized here.
+     */
+    private synchronized void changed(ZooChange pChange) {
+        switch (pChange.type()) {
+            case ANIMAL_ADDED -> {
+                long key = newKey(pChange.animal());
+                AnimalState state = state(pChange.animal());
+                updateEnclosure(pChange.source(), animals -> animals.put(key, state), 1);
+            }
+            case ANIMAL_REMOVED -> {
+                Long key = aKeys.remove(pChange.animal());
+                if (key != null) {
+                    updateEnclosure(pChange.source(), animals -> animals.remove(key), -1);
+                }
+            }
+            case ANIMAL_UPDATED -> {
+                Long key = aKeys.get(pChange.animal());
+                if (key != null) {
+                    AnimalState state = state(pChange.animal());
+                    updateEnclosure(pChange.source(), animals -> animals.put(key, state), 0);
+                }
+            }
+            case COLLECTION_ADDED -> {
+                NodeState child = capture(pChange.collection());
+                long key = aKeys.get(pChange.collection());
+                updateSection(pChange.source(), section -> section.withChild(key, child, child.animalCount()),
+                        child.animalCount());
+            }
+            case COLLECTION_REMOVED -> {
+                Long key = aKeys.get(pChange.collection());
+                if (key != null) {
+                    long count = forget(pChange.collection());
+                    updateSection(pChange.source(), section -> section.withoutChild(key, -count), -count);
+                }
+            }
+            case BATCH -> {
+                long delta = 0;
+                for (ZooChange member : pChange.changes()) {
+                    delta += switch (member.type()) {
+                        case ANIMAL_ADDED -> 1;
+                        case ANIMAL_REMOVED -> aKeys.containsKey(member.animal()) ? -1 : 0;
+                        default -> 0;
+                    };
+                }
+                updateEnclosure(pChange.source(), animals -> applyAll(animals, pChange.changes()), delta);
+            }
+        }
+    }
+
+    /**
+     * Applies the animal changes of a batch to one enclosure, so the whole batch
+     * publishes a single version.
+     */
+    private PersistentLongMap<AnimalState> applyAll(PersistentLongMap<AnimalState> pAnimals,
+                                                    List<ZooChange> pChanges) {
+        PersistentLongMap<AnimalState> animals = pAnimals;
+        for (ZooChange change : pChanges) {
+            switch (change.type()) {
+                case ANIMAL_ADDED -> animals = animals.put(newKey(change.animal()), state(change.animal()));
+                case ANIMAL_REMOVED -> {
+                    Long key = aKeys.remove(change.animal());
+                    if (key != null) {
+                        animals = animals.remove(key);
+                    }
+                }
+                case ANIMAL_UPDATED -> {
+                    Long key = aKeys.get(change.animal());
+                    if (key != null) {
+                        animals = animals.put(key, state(change.animal()));
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        return animals;
+    }
+
+    private void updateEnclosure(EnclosureCollection pEnclosure,
+                                 UnaryOperator<PersistentLongMap<AnimalState>> pChange, long pCountDelta) {
+        publish(pEnclosure, node -> {
+            EnclosureState enclosure = (EnclosureState) node;
+            return enclosure.withAnimals(pChange.apply(enclosure.aAnimals));
+        }, pCountDelta);
+    }
+
+    private void updateSection(EnclosureCollection pSection, UnaryOperator<SectionState> pChange, long pCountDelta) {
+        publish(pSection, node -> pChange.apply((SectionState) node), pCountDelta);
+    }
+
+    /**
+     * Publishes a version in which one collection is replaced, copying only the
+     * sections on its path to the root.
+     */
+    private void publish(EnclosureCollection pChanged, UnaryOperator<NodeState> pChange, long pCountDelta) {
+        List<Long> path = new ArrayList<>();
+        for (EnclosureCollection node = pChanged; node != aRoot; node = node.getParent()) {
+            Long key = aKeys.get(node);
+            if (key == null) {
+                return;
+            }
+            path.add(key);
+        }
+        Version current = aCurrent;
+        SectionState root = (SectionState) replace(current.root(), path, path.size() - 1, pChange, pCountDelta);
+        aCurrent = new Version(current.number() + 1, root);
+    }
+
+    private static NodeState replace(NodeState pNode, List<Long> pPath, int pLevel,
+                                     UnaryOperator<NodeState> pChange, long pCountDelta) {
+        if (pLevel < 0) {
+            return pChange.apply(pNode);
+        }
+        SectionState section = (SectionState) pNode;
+        long key = pPath.get(pLevel);
+        NodeState child = replace(section.aChildren.get(key), pPath, pLevel - 1, pChange, pCountDelta);
+        return section.withReplacedChild(key, child, pCountDelta);
+    }
+
+    /**
+     * Builds the state of a live collection, giving keys to it and everything below it.
+     */
+    private NodeState capture(EnclosureCollection pCollection) {
+        newKey(pCollection);
+        if (pCollection instanceof Enclosure enclosure) {
+            PersistentLongMap<AnimalState> animals = PersistentLongMap.empty();
+            for (Animal animal : enclosure.getAnimals()) {
+                animals = animals.put(newKey(animal), state(animal));
+            }
+            return new EnclosureState(enclosure.getName(), animals);
+        }
+        CompositeEnclosureCollection section = (CompositeEnclosureCollection) pCollection;
+        SectionState state = SectionState.EMPTY_CHILDREN;
+        for (EnclosureCollection child : section.getCollections()) {
+            NodeState childState = capture(child);
+            state = state.withChild(aKeys.get(child), childState, childState.animalCount());
+        }
+        return new SectionState(section.getName(), state.aChildren, state.aKeysByName, state.aAnimalCount);
+    }
+
+    /**
+     * Drops the keys of a removed collection and everything below it.
+     *
+     * @return the number of animals it held
+     */
+    private long forget(EnclosureCollection pCollection) {
+        aKeys.remove(pCollection);
+        long count = 0;
+        if (pCollection instanceof Enclosure enclosure) {
+            for (Animal animal : enclosure.getAnimals()) {
+                aKeys.remove(animal);
+                count++;
+            }
+        } else if (pCollection instanceof CompositeEnclosureCollection section) {
+            for (EnclosureCollection child : section.getCollections()) {
+                count += forget(child);
+            }
+        }
+        return count;
+    }
+
+    private long newKey(Object pItem) {
+        long key = aNextKey++;
+        aKeys.put(pItem, key);
+        return key;
+    }
+
+    private static AnimalState state(Animal pAnimal) {
+        return new AnimalState(Species.of(pAnimal), pAnimal.getName(), pAnimal.getAge());
+    }
+}
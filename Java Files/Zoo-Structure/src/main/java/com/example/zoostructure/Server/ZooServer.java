@@ -0,0 +1,502 @@
+package com.example.zoostructure.Server;
+
+import com.example.zoostructure.Helpers.ImportHelper;
+import com.example.zoostructure.Helpers.StartupTimer;
+import com.example.zoostructure.Helpers.ZooExporter;
+import com.example.zoostructure.Helpers.ZooExporter.ChannelWriter;
+import com.example.zoostructure.Helpers.ZooImporter;
+import com.example.zoostructure.Metrics.ZooMetrics;
+import com.example.zoostructure.Model.Animal;
+import com.example.zoostructure.Model.CompositeEnclosureCollection;
+import com.example.zoostructure.Model.Enclosure;
+import com.example.zoostructure.Model.EnclosureCollection;
+import com.example.zoostructure.Model.EnclosureSummary;
+import com.example.zoostructure.Model.Species;
+import com.example.zoostructure.Model.ZooNameSearch;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves a zoo over HTTP without the JavaFX front end, so other tools can query and
+ * change the model while it runs on a server.
+ * <p>
+ * Built on the JDK's {@link HttpServer}. Every exchange runs on its own virtual
+ * thread, so a request waiting on an enclosure lock or a slow client parks cheaply
+ * and thousands of clients can be connected at once. Connections are kept alive
+ * between requests, and responses are streamed in chunks through a small buffer
+ * instead of being built in memory first, so listing a large subtree costs the same
+ * memory as listing a small one.
+ * </p>
+ * <p>
+ * Paths are relative to the root, as in inventory files: empty for the root itself,
+ * {@code Big Cats/Lions} for an enclosure.
+ * </p>
+ * <pre>
+ * GET    /summary?path=P              the figures of a collection, as a JSON object
+ * GET    /collections?path=P          the children of a section, as a JSON array
+ * GET    /animals?path=P              every animal below a collection, as JSON Lines
+ * GET    /search?q=PREFIX&amp;limit=N     names starting with a prefix, as a JSON array
+ * POST   /animals                     adds the rows in the body, JSON Lines or
+ *                                     (with Content-Type text/csv) CSV, to their enclosures
+ * DELETE /animals?path=P&amp;name=N       removes the animals with a name from an enclosure
+ * GET    /metrics                     the {@link ZooMetrics} dump, as text
+ * </pre>
+ * <p>
+ * Rows in {@code /animals} responses have paths relative to the requested
+ * collection, as {@link ZooExporter} writes them. Additions from one request are
+ * applied as one batch per enclosure.
+ * </p>
+ */
+public final class ZooServer implements AutoCloseable {
+
+    /**
+     * The system property holding the port to serve on. Setting it starts the
+     * application headless; see {@link #isRequested()}.
+     */
+    public static final String PORT_PROPERTY = "zoo.server.port";
+
+    /**
+     * The system property holding the address to listen on. Defaults to the loopback
+     * address; {@code 0.0.0.0} serves every interface.
+     */
+    public static final String HOST_PROPERTY = "zoo.server.host";
+
+    /**
+     * The system property holding how many connections may wait to be accepted.
+     */
+    public static final String BACKLOG_PROPERTY = "zoo.server.backlog";
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_BACKLOG = 4096;
+
+    /**
+     * The JDK server closes idle keep-alive connections beyond this many. Its default
+     * of 200 would make most of a few thousand clients reconnect for every request.
+     */
+    private static final String MAX_IDLE_CONNECTIONS_PROPERTY = "sun.net.httpserver.maxIdleConnections";
+    private static final String DEFAULT_MAX_IDLE_CONNECTIONS = "20000";
+
+    private static final int RESPONSE_BUFFER_SIZE = 8 * 1024;
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final int MAX_SEARCH_LIMIT = 1000;
+
+    private static final ZooMetrics.Timer REQUEST_TIMER = ZooMetrics.timer("server.request");
+    private static final ZooMetrics.Counter CLIENT_ERRORS = ZooMetrics.counter("server.clientErrors");
+    private static final AtomicInteger ACTIVE_REQUESTS = new AtomicInteger();
+
+    static {
+        ZooMetrics.gauge("server.activeRequests", ACTIVE_REQUESTS::get);
+    }
+
+    /**
+     * Answers one request. Query parameters have been decoded; the handler sends the
+     * response headers and body, and the exchange is closed after it returns.
+     */
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange pExchange, Map<String, String> pQuery) throws IOException;
+    }
+
+    private final CompositeEnclosureCollection aRoot;
+    private final HttpServer aServer;
+    private final ExecutorService aExecutor;
+    private final ZooNameSearch aSearch;
+
+    private ZooServer(CompositeEnclosureCollection pRoot, HttpServer pServer, ExecutorService pExecutor,
+                      ZooNameSearch pSearch) {
+        this.aRoot = pRoot;
+        this.aServer = pServer;
+        this.aExecutor = pExecutor;
+        this.aSearch = pSearch;
+    }
+
+    /**
+     * Tells whether the application was asked to run headless.
+     *
+     * @return whether the {@value #PORT_PROPERTY} system property is set
+     */
+    public static boolean isRequested() {
+        return System.getProperty(PORT_PROPERTY) != null;
+    }
+
+    /**
+     * Loads the zoo as the application does, with {@link ImportHelper#loadAnimals()},
+     * and serves it on the configured port until the process is stopped. The journal,
+     * if any, is closed on the way out. The startup phases are printed once the port is
+     * bound, and with the {@value StartupTimer#EXIT_PROPERTY} system property set the
+     * server stops right there.
+     *
+     * @param args ignored
+     * @throws IOException if the zoo cannot be loaded or the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        if (System.getProperty(MAX_IDLE_CONNECTIONS_PROPERTY) == null) {
+            System.setProperty(MAX_IDLE_CONNECTIONS_PROPERTY, DEFAULT_MAX_IDLE_CONNECTIONS);
+        }
+        String host = System.getProperty(HOST_PROPERTY, "localhost");
+        int port = Integer.getInteger(PORT_PROPERTY, DEFAULT_PORT);
+        int backlog = Integer.getInteger(BACKLOG_PROPERTY, DEFAULT_BACKLOG);
+
+        CompositeEnclosureCollection root = ImportHelper.loadAnimals();
+        StartupTimer.mark("zooLoaded");
+        ZooServer server = start(root, new InetSocketAddress(host, port), backlog);
+        StartupTimer.mark("listening");
+        ZooMetrics.exposeOverJmx();
+        System.out.println("Startup: " + StartupTimer.report());
+        if (StartupTimer.exitRequested()) {
+            server.close();
+            ImportHelper.closeJournal();
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            try {
+                ImportHelper.closeJournal();
+            } catch (IOException e) {
+                ZooMetrics.recordError("server.closeJournal", e);
+            }
+        }, "zoo-server-shutdown"));
+        InetSocketAddress address = server.getAddress();
+        System.out.println("Serving " + root.getName() + " at http://" + address.getHostString() + ":"
+                + address.getPort() + "/");
+    }
+
+    /**
+     * Starts serving a zoo.
+     *
+     * @param pRoot    the zoo
+     * @param pAddress where to listen; port 0 picks a free port
+     * @param pBacklog how many connections may wait to be accepted
+     * @return the running server
+     * @throws IOException              if the address cannot be bound
+     * @throws IllegalArgumentException if pRoot is null
+     */
+    public static ZooServer start(CompositeEnclosureCollection pRoot, InetSocketAddress pAddress, int pBacklog)
+            throws IOException {
+        if (pRoot == null) {
+            throw new IllegalArgumentException("Root cannot be null.");
+        }
+        HttpServer httpServer = HttpServer.create(pAddress, pBacklog);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        httpServer.setExecutor(executor);
+        ZooServer server = new ZooServer(pRoot, httpServer, executor, ZooNameSearch.build(pRoot));
+        httpServer.createContext("/summary", server.route(Map.of("GET", server::summary)));
+        httpServer.createContext("/collections", server.route(Map.of("GET", server::collections)));
+        httpServer.createContext("/search", server.route(Map.of("GET", server::search)));
+        httpServer.createContext("/metrics", server.route(Map.of("GET", ZooServer::metrics)));
+        Map<String, Handler> animals = new LinkedHashMap<>();
+        animals.put("GET", server::listAnimals);
+        animals.put("POST", server::addAnimals);
+        animals.put("DELETE", server::removeAnimals);
+        httpServer.createContext("/animals", server.route(animals));
+        httpServer.start();
+        return server;
+    }
+
+    /**
+     * Returns the address the server listens on.
+     *
+     * @return the bound address, with the actual port
+     */
+    public InetSocketAddress getAddress() {
+        return aServer.getAddress();
+    }
+
+    /**
+     * Stops accepting requests, gives running ones a second to finish and stops
+     * keeping the name search current.
+     */
+    @Override
+    public void close() {
+        aServer.stop(1);
+        aExecutor.close();
+        aSearch.close();
+    }
+
+    /**
+     * Wraps the handlers for one context: picks the handler for the request method,
+     * turns exceptions into error responses and records the request time.
+     */
+    private HttpHandler route(Map<String, Handler> pHandlers) {
+        return exchange -> {
+            long start = System.nanoTime();
+            ACTIVE_REQUESTS.incrementAndGet();
+            try {
+                Handler handler = pHandlers.get(exchange.getRequestMethod());
+                if (handler == null) {
+                    exchange.getResponseHeaders().set("Allow", String.join(", ", pHandlers.keySet()));
+                    error(exchange, 405, "Method " + exchange.getRequestMethod() + " is not allowed here.");
+                    return;
+                }
+                handler.handle(exchange, query(exchange.getRequestURI()));
+            } catch (IllegalArgumentException e) {
+                CLIENT_ERRORS.increment();
+                error(exchange, 400, e.getMessage());
+            } catch (IOException e) {
+                // The client went away; there is nobody left to tell.
+                CLIENT_ERRORS.increment();
+            } catch (RuntimeException e) {
+                ZooMetrics.recordError("server.request", e);
+                error(exchange, 500, "Internal error.");
+            } finally {
+                exchange.close();
+                ACTIVE_REQUESTS.decrementAndGet();
+                REQUEST_TIMER.recordSince(start);
+            }
+        };
+    }
+
+    private void summary(HttpExchange pExchange, Map<String, String> pQuery) throws IOException {
+        String path = pQuery.getOrDefault("path", "");
+        EnclosureCollection collection = resolve(path);
+        if (collection == null) {
+            notFound(pExchange, path);
+            return;
+        }
+        ChannelWriter writer = respond(pExchange, 200, "application/json");
+        writeCollection(writer, collection);
+        EnclosureSummary summary = collection.getSummary();
+        writer.writeAscii(",\"averageAge\":");
+        writeAge(writer, summary.getAverageAge());
+        writer.writeAscii(",\"minAge\":");
+        writeAge(writer, summary.getMinAge());
+        writer.writeAscii(",\"maxAge\":");
+        writeAge(writer, summary.getMaxAge());
+        writer.writeAscii(",\"species\":{");
+        boolean first = true;
+        for (Map.Entry<Species, Long> entry : summary.getSpeciesCounts().entrySet()) {
+            if (!first) {
+                writer.writeAscii(',');
+            }
+            first = false;
+            writer.writeJsonString(entry.getKey().getDisplayName()).writeAscii(':').writeLong(entry.getValue());
+        }
+        writer.writeAscii("}}\n");
+        writer.flush();
+    }
+
+    private void collections(HttpExchange pExchange, Map<String, String> pQuery) throws IOException {
+        String path = pQuery.getOrDefault("path", "");
+        EnclosureCollection collection = resolve(path);
+        if (!(collection instanceof CompositeEnclosureCollection section)) {
+            if (collection == null) {
+                notFound(pExchange, path);
+            } else {
+                error(pExchange, 400, path + " is an enclosure, not a section.");
+            }
+            return;
+        }
+        ChannelWriter writer = respond(pExchange, 200, "application/json");
+        writer.writeAscii('[');
+        List<EnclosureCollection> children = section.getCollections();
+        for (int i = 0; i < children.size(); i++) {
+            if (i > 0) {
+                writer.writeAscii(",\n");
+            }
+            writeCollection(writer, children.get(i));
+            writer.writeAscii('}');
+        }
+        writer.writeAscii("]\n");
+        writer.flush();
+    }
+
+    private void listAnimals(HttpExchange pExchange, Map<String, String> pQuery) throws IOException {
+        String path = pQuery.getOrDefault("path", "");
+        EnclosureCollection collection = resolve(path);
+        if (collection == null) {
+            notFound(pExchange, path);
+            return;
+        }
+        ChannelWriter writer = respond(pExchange, 200, "application/x-ndjson");
+        ZooExporter.export(collection, writer, ZooExporter.Format.JSONL);
+        writer.flush();
+    }
+
+    private void addAnimals(HttpExchange pExchange, Map<String, String> pQuery) throws IOException {
+        String contentType = pExchange.getRequestHeaders().getFirst("Content-Type");
+        ZooImporter.Format format = contentType != null && contentType.startsWith("text/csv")
+                ? ZooImporter.Format.CSV : ZooImporter.Format.JSONL;
+        Map<String, List<Animal>> rows;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(pExchange.getRequestBody(), StandardCharsets.UTF_8))) {
+            rows = ZooImporter.parseRows(reader, format);
+        }
+        // Check every path before adding anything, so a typo does not leave half a request applied.
+        Map<Enclosure, List<Animal>> additions = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Animal>> entry : rows.entrySet()) {
+            EnclosureCollection collection = resolve(entry.getKey());
+            if (!(collection instanceof Enclosure enclosure)) {
+                if (collection == null) {
+                    notFound(pExchange, entry.getKey());
+                } else {
+                    error(pExchange, 400, entry.getKey() + " is a section, not an enclosure.");
+                }
+                return;
+            }
+            additions.put(enclosure, entry.getValue());
+        }
+        long added = 0;
+        for (Map.Entry<Enclosure, List<Animal>> entry : additions.entrySet()) {
+            added += entry.getKey().addAnimals(entry.getValue());
+        }
+        ChannelWriter writer = respond(pExchange, 200, "application/json");
+        writer.writeAscii("{\"added\":").writeLong(added).writeAscii("}\n");
+        writer.flush();
+    }
+
+    private void removeAnimals(HttpExchange pExchange, Map<String, String> pQuery) throws IOException {
+        String path = pQuery.getOrDefault("path", "");
+        String name = pQuery.get("name");
+        if (name == null) {
+            throw new IllegalArgumentException("The name parameter is required.");
+        }
+        EnclosureCollection collection = resolve(path);
+        if (!(collection instanceof Enclosure enclosure)) {
+            if (collection == null) {
+                notFound(pExchange, path);
+            } else {
+                error(pExchange, 400, path + " is a section, not an enclosure.");
+            }
+            return;
+        }
+        boolean removed = enclosure.removeAnimal(name);
+        ChannelWriter writer = respond(pExchange, 200, "application/json");
+        writer.writeAscii("{\"removed\":").writeAscii(Boolean.toString(removed)).writeAscii("}\n");
+        writer.flush();
+    }
+
+    private void search(HttpExchange pExchange, Map<String, String> pQuery) throws IOException {
+        String prefix = pQuery.getOrDefault("q", "");
+        String limitText = pQuery.get("limit");
+        int limit = limitText == null ? DEFAULT_SEARCH_LIMIT : Integer.parseInt(limitText);
+        if (limit < 0 || limit > MAX_SEARCH_LIMIT) {
+            throw new IllegalArgumentException("The limit must be between 0 and " + MAX_SEARCH_LIMIT + ".");
+        }
+        ChannelWriter writer = respond(pExchange, 200, "application/json");
+        writer.writeAscii('[');
+        List<ZooNameSearch.Match> matches = aSearch.find(prefix, limit);
+        for (int i = 0; i < matches.size(); i++) {
+            ZooNameSearch.Match match = matches.get(i);
+            if (i > 0) {
+                writer.writeAscii(",\n");
+            }
+            writer.writeAscii("{\"name\":").writeJsonString(match.name())
+                    .writeAscii(",\"path\":").writeJsonString(relativePath(match.collection()))
+                    .writeAscii(",\"animal\":").writeAscii(Boolean.toString(match.animal() != null))
+                    .writeAscii('}');
+        }
+        writer.writeAscii("]\n");
+        writer.flush();
+    }
+
+    private static void metrics(HttpExchange pExchange, Map<String, String> pQuery) throws IOException {
+        ChannelWriter writer = respond(pExchange, 200, "text/plain; charset=utf-8");
+        writer.write(ZooMetrics.dump());
+        writer.flush();
+    }
+
+    /**
+     * Finds a collection from a path relative to the root.
+     *
+     * @return the collection, or {@code null} if there is none
+     */
+    private EnclosureCollection resolve(String pPath) {
+        if (pPath.isEmpty()) {
+            return aRoot;
+        }
+        return aRoot.resolve(aRoot.getName() + "/" + pPath);
+    }
+
+    private String relativePath(EnclosureCollection pCollection) {
+        if (pCollection == aRoot) {
+            return "";
+        }
+        return pCollection.getPath().substring(aRoot.getName().length() + 1);
+    }
+
+    /**
+     * Writes the members every collection shares, leaving the object open for more.
+     */
+    private void writeCollection(ChannelWriter pWriter, EnclosureCollection pCollection) throws IOException {
+        EnclosureSummary summary = pCollection.getSummary();
+        pWriter.writeAscii("{\"name\":").writeJsonString(pCollection.getName())
+                .writeAscii(",\"path\":").writeJsonString(relativePath(pCollection))
+                .writeAscii(",\"type\":").writeAscii(pCollection instanceof Enclosure ? "\"enclosure\"" : "\"section\"")
+                .writeAscii(",\"animals\":").writeLong(summary.getAnimalCount())
+                .writeAscii(",\"enclosures\":").writeLong(summary.getEnclosureCount());
+    }
+
+    private static void writeAge(ChannelWriter pWriter, OptionalDouble pAge) throws IOException {
+        if (pAge.isPresent()) {
+            pWriter.writeAge(pAge.getAsDouble());
+        } else {
+            pWriter.writeAscii("null");
+        }
+    }
+
+    /**
+     * Sends the response headers with chunked encoding and returns a writer for the body.
+     */
+    private static ChannelWriter respond(HttpExchange pExchange, int pStatus, String pContentType)
+            throws IOException {
+        pExchange.getResponseHeaders().set("Content-Type", pContentType);
+        pExchange.sendResponseHeaders(pStatus, 0);
+        return new ChannelWriter(Channels.newChannel(pExchange.getResponseBody()),
+                ByteBuffer.allocate(RESPONSE_BUFFER_SIZE));
+    }
+
+    private static void notFound(HttpExchange pExchange, String pPath) throws IOException {
+        error(pExchange, 404, "No collection at " + pPath + ".");
+    }
+
+    /**
+     * Sends an error as a JSON object, unless a response has already been started,
+     * in which case the connection is simply closed.
+     */
+    private static void error(HttpExchange pExchange, int pStatus, String pMessage) {
+        if (pExchange.getResponseCode() != -1) {
+            return;
+        }
+        try {
+            ChannelWriter writer = respond(pExchange, pStatus, "application/json");
+            writer.writeAscii("{\"error\":").writeJsonString(pMessage == null ? "" : pMessage).writeAscii("}\n");
+            writer.flush();
+        } catch (IOException e) {
+            CLIENT_ERRORS.increment();
+        }
+    }
+
+    private static Map<String, String> query(URI pUri) {
+        String raw = pUri.getRawQuery();
+        if (raw == null || raw.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> parameters = new HashMap<>();
+        for (String pair : raw.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            parameters.putIfAbsent(key, value);
+        }
+        return parameters;
+    }
+}
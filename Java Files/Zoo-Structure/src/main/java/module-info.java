@@ -2,6 +2,8 @@ module com.example.zoostructure {
     requires javafx.controls;
     requires javafx.fxml;
     requires java.desktop;
+    requires java.management;
+    requires jdk.httpserver;
 
 
     opens com.example.zoostructure to javafx.fxml;
@@ -0,0 +1,321 @@
+package com.example.zoostructure.Helpers;
+
+import com.example.zoostructure.Model.Animal;
+import com.example.zoostructure.Model.CompositeEnclosureCollection;
+import com.example.zoostructure.Model.Enclosure;
+import com.example.zoostructure.Model.EnclosureCollection;
+import com.example.zoostructure.Model.Lion;
+import com.example.zoostructure.Model.Tiger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZooJournalTest {
+
+    /**
+     * The exit status of {@link CrashDuringCheckpoint}.
+     */
+    private static final int CRASHED = 77;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void startsAfterACrashBetweenSnapshotAndJournalTruncation() throws Exception {
+        Path snapshot = directory.resolve("zoo.snapshot");
+        Path journal = directory.resolve("zoo.journal");
+        ZooSnapshot.write(zoo(), snapshot);
+
+        Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", classPath(), CrashDuringCheckpoint.class.getName(), snapshot.toString(), journal.toString())
+                .inheritIO()
+                .start();
+        assertTrue(process.waitFor(1, TimeUnit.MINUTES), "the child process did not finish");
+        assertEquals(CRASHED, process.exitValue());
+        // The snapshot holds the changes and the journal still does too.
+        assertEquals(1, ZooSnapshot.journalGeneration(snapshot));
+        assertTrue(Files.size(journal) > 12, "the journal was emptied before the crash");
+
+        System.setProperty(ImportHelper.SNAPSHOT_FILE_PROPERTY, snapshot.toString());
+        System.setProperty(ImportHelper.JOURNAL_FILE_PROPERTY, journal.toString());
+        try {
+            CompositeEnclosureCollection zoo = ImportHelper.loadAnimals();
+            assertEquals(expectedAfterCrash(), describe(zoo));
+
+            // New changes go into the next generation and survive the next start.
+            ((Enclosure) zoo.resolve("Zoo/Aviary/Pen")).addAnimal(new Tiger("Raja", 4));
+            ImportHelper.closeJournal();
+            assertEquals(2, ZooSnapshot.journalGeneration(snapshot));
+
+            CompositeEnclosureCollection reopened = ImportHelper.loadAnimals();
+            List<String> expected = expectedAfterCrash();
+            expected.add(expected.indexOf("Kiara") + 1, "Raja");
+            assertEquals(expected, describe(reopened));
+            ImportHelper.closeJournal();
+        } finally {
+            System.clearProperty(ImportHelper.SNAPSHOT_FILE_PROPERTY);
+            System.clearProperty(ImportHelper.JOURNAL_FILE_PROPERTY);
+        }
+    }
+
+    @Test
+    void replaysOnlyWhatCameAfterTheLastCheckpoint() throws IOException {
+        Path snapshot = directory.resolve("zoo.snapshot");
+        Path journalFile = directory.resolve("zoo.journal");
+        CompositeEnclosureCollection zoo = zoo();
+        ZooSnapshot.write(zoo, snapshot);
+
+        try (ZooJournal journal = ZooJournal.start(journalFile, zoo, 0, 0, 0)) {
+            assertEquals(1, journal.getGeneration());
+            zoo.addCollection(new CompositeEnclosureCollection("Before"));
+            journal.checkpoint(snapshot);
+            assertEquals(2, journal.getGeneration());
+            zoo.addCollection(new CompositeEnclosureCollection("After"));
+        }
+
+        CompositeEnclosureCollection reopened = (CompositeEnclosureCollection) ZooSnapshot.read(snapshot);
+        assertEquals(1, ZooJournal.replay(journalFile, reopened, ZooSnapshot.journalGeneration(snapshot),
+                ZooSnapshot.journalPosition(snapshot)));
+        assertEquals(describe(zoo), describe(reopened));
+    }
+
+    @Test
+    void keepsChangesMadeWhileTheSnapshotIsWritten() throws IOException {
+        Path snapshot = directory.resolve("zoo.snapshot");
+        Path journalFile = directory.resolve("zoo.journal");
+        CompositeEnclosureCollection zoo = zoo();
+        ZooSnapshot.write(zoo, snapshot);
+
+        try (ZooJournal journal = ZooJournal.start(journalFile, zoo, 0, 0, 0)) {
+            zoo.addCollection(new CompositeEnclosureCollection("Before"));
+            journal.sync();
+            // What a checkpoint does under the lock, then a change while it writes,
+            // then a crash before the journal moves on.
+            long position = Files.size(journalFile);
+            ZooSnapshot.Image image = ZooSnapshot.capture(zoo);
+            zoo.addCollection(new CompositeEnclosureCollection("During"));
+            journal.sync();
+            ZooSnapshot.write(image, snapshot, journal.getGeneration(), position);
+        }
+
+        CompositeEnclosureCollection reopened = (CompositeEnclosureCollection) ZooSnapshot.read(snapshot);
+        int generation = ZooSnapshot.journalGeneration(snapshot);
+        long position = ZooSnapshot.journalPosition(snapshot);
+        assertEquals(1, ZooJournal.replay(journalFile, reopened, generation, position));
+        assertEquals(describe(zoo), describe(reopened));
+
+        try (ZooJournal journal = ZooJournal.start(journalFile, reopened, 0, generation, position)) {
+            // The unfolded change is still only in the journal, so it is kept.
+            assertEquals(generation, journal.getGeneration());
+            reopened.addCollection(new CompositeEnclosureCollection("After"));
+            journal.checkpoint(snapshot);
+            assertEquals(generation + 1, journal.getGeneration());
+        }
+        CompositeEnclosureCollection again = (CompositeEnclosureCollection) ZooSnapshot.read(snapshot);
+        assertEquals(0, ZooJournal.replay(journalFile, again, ZooSnapshot.journalGeneration(snapshot),
+                ZooSnapshot.journalPosition(snapshot)));
+        assertEquals(describe(reopened), describe(again));
+    }
+
+    @Test
+    void checkpointsWhileTheZooKeepsChanging() throws Exception {
+        Path snapshot = directory.resolve("zoo.snapshot");
+        Path journalFile = directory.resolve("zoo.journal");
+        CompositeEnclosureCollection zoo = zoo();
+        Enclosure herd = new Enclosure("Herd");
+        for (int i = 0; i < 200_000; i++) {
+            herd.addAnimal(new Tiger("Tiger " + i, i % 20));
+        }
+        zoo.addCollection(herd);
+        ZooSnapshot.write(zoo, snapshot);
+        Enclosure lions = (Enclosure) zoo.resolve("Zoo/Lions");
+
+        try (ZooJournal journal = ZooJournal.start(journalFile, zoo, -1, 0, 0)) {
+            AtomicBoolean checkpointing = new AtomicBoolean(true);
+            Thread writer = Thread.ofPlatform().start(() -> {
+                for (int i = 0; checkpointing.get(); i++) {
+                    lions.addAnimal(new Lion("Cub " + i, 0));
+                }
+            });
+            for (int i = 0; i < 3; i++) {
+                journal.checkpoint(snapshot);
+            }
+            checkpointing.set(false);
+            writer.join();
+        }
+
+        CompositeEnclosureCollection reopened = (CompositeEnclosureCollection) ZooSnapshot.read(snapshot);
+        ZooJournal.replay(journalFile, reopened, ZooSnapshot.journalGeneration(snapshot),
+                ZooSnapshot.journalPosition(snapshot));
+        assertEquals(describe(zoo), describe(reopened));
+    }
+
+    @Test
+    void checkpointsOnItsOwnOnceTheJournalIsLarge() throws Exception {
+        Path snapshot = directory.resolve("zoo.snapshot");
+        Path journalFile = directory.resolve("zoo.journal");
+        CompositeEnclosureCollection zoo = zoo();
+        ZooSnapshot.write(zoo, snapshot);
+        Enclosure lions = (Enclosure) zoo.resolve("Zoo/Lions");
+
+        try (ZooJournal journal = ZooJournal.start(journalFile, zoo, 0, 0, 0)) {
+            journal.checkpointWhenLarger(snapshot, 4096);
+            for (int i = 0; i < 500 && journal.getGeneration() == 1; i++) {
+                lions.addAnimal(new Lion("Cub " + i, 0));
+                journal.sync();
+                Thread.sleep(1);
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (journal.getGeneration() == 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(journal.getGeneration() > 1, "no checkpoint was made");
+            lions.addAnimal(new Lion("Last", 1));
+        }
+
+        assertTrue(Files.size(journalFile) < 4096 + 1024, "the journal kept growing");
+        CompositeEnclosureCollection reopened = (CompositeEnclosureCollection) ZooSnapshot.read(snapshot);
+        ZooJournal.replay(journalFile, reopened, ZooSnapshot.journalGeneration(snapshot),
+                ZooSnapshot.journalPosition(snapshot));
+        assertEquals(describe(zoo), describe(reopened));
+    }
+
+    @Test
+    void cancelledLoadLeavesAReadOnlyZooAndTheFilesAlone() throws Exception {
+        Path snapshot = directory.resolve("zoo.snapshot");
+        Path journalFile = directory.resolve("zoo.journal");
+        CompositeEnclosureCollection saved = zoo();
+        saved.addCollection(new Enclosure("Tigers"));
+        saved.addCollection(new Enclosure("Cougars"));
+        ZooSnapshot.write(saved, snapshot);
+        try (ZooJournal journal = ZooJournal.start(journalFile, saved, 0, 0, 0)) {
+            ((Enclosure) saved.resolve("Zoo/Tigers")).addAnimal(new Tiger("Raja", 4));
+            journal.sync();
+        }
+        byte[] snapshotBytes = Files.readAllBytes(snapshot);
+        byte[] journalBytes = Files.readAllBytes(journalFile);
+
+        System.setProperty(ImportHelper.SNAPSHOT_FILE_PROPERTY, snapshot.toString());
+        System.setProperty(ImportHelper.JOURNAL_FILE_PROPERTY, journalFile.toString());
+        List<CompositeEnclosureCollection> roots = new ArrayList<>();
+        List<Throwable> refused = new ArrayList<>();
+        try {
+            assertThrows(InterruptedIOException.class, () -> ImportHelper.loadAnimals(roots::add, progress -> {
+                // While loading, only the loading thread may change the zoo.
+                Enclosure lions = (Enclosure) roots.get(0).resolve("Zoo/Lions");
+                Thread other = Thread.ofPlatform().start(() -> {
+                    try {
+                        lions.addAnimal(new Lion("Kovu", 1));
+                    } catch (IllegalStateException e) {
+                        refused.add(e);
+                    }
+                });
+                try {
+                    other.join();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+                Thread.currentThread().interrupt();
+            }));
+        } finally {
+            Thread.interrupted();
+            System.clearProperty(ImportHelper.SNAPSHOT_FILE_PROPERTY);
+            System.clearProperty(ImportHelper.JOURNAL_FILE_PROPERTY);
+        }
+
+        assertEquals(1, refused.size(), "another thread changed the zoo while it was loading");
+        CompositeEnclosureCollection zoo = roots.get(0);
+        assertEquals(List.of("Zoo", "Lions", "Simba", "Nala"), describe(zoo));
+        assertFalse(CompositeEnclosureCollection.isWritable(zoo));
+        Enclosure lions = (Enclosure) zoo.resolve("Zoo/Lions");
+        assertThrows(IllegalStateException.class, () -> lions.addAnimal(new Lion("Kovu", 1)));
+        assertThrows(IllegalStateException.class, () -> lions.findAnimal("Simba").setAge(6));
+        assertThrows(IllegalStateException.class, () -> zoo.addCollection(new Enclosure("Aviary")));
+        assertEquals(List.of("Zoo", "Lions", "Simba", "Nala"), describe(zoo));
+        assertArrayEquals(snapshotBytes, Files.readAllBytes(snapshot));
+        assertArrayEquals(journalBytes, Files.readAllBytes(journalFile));
+    }
+
+    /**
+     * Makes changes under a journal, writes the snapshot as a checkpoint does, and
+     * stops the process before the journal is emptied.
+     */
+    static final class CrashDuringCheckpoint {
+
+        public static void main(String[] args) throws IOException {
+            Path snapshot = Path.of(args[0]);
+            Path journalFile = Path.of(args[1]);
+            CompositeEnclosureCollection zoo = (CompositeEnclosureCollection) ZooSnapshot.read(snapshot);
+            ZooJournal journal = ZooJournal.start(journalFile, zoo, 0, ZooSnapshot.journalGeneration(snapshot),
+                    ZooSnapshot.journalPosition(snapshot));
+
+            CompositeEnclosureCollection aviary = new CompositeEnclosureCollection("Aviary");
+            zoo.addCollection(aviary);
+            Enclosure pen = new Enclosure("Pen", Enclosure.Storage.COLUMNAR);
+            aviary.addCollection(pen);
+            pen.addAnimal(new Lion("Kiara", 1));
+            Enclosure lions = (Enclosure) zoo.resolve("Zoo/Lions");
+            lions.findAnimal("Simba").setName("King Simba");
+            lions.removeAnimal("Nala");
+            journal.sync();
+
+            ZooSnapshot.write(zoo, snapshot, journal.getGeneration());
+            Runtime.getRuntime().halt(CRASHED);
+        }
+    }
+
+    private static String classPath() throws Exception {
+        return Path.of(ZooJournal.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                + File.pathSeparator
+                + Path.of(ZooJournalTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+
+    private static CompositeEnclosureCollection zoo() {
+        CompositeEnclosureCollection zoo = new CompositeEnclosureCollection("Zoo");
+        Enclosure lions = new Enclosure("Lions");
+        lions.addAnimal(new Lion("Simba", 5));
+        lions.addAnimal(new Lion("Nala", 4));
+        zoo.addCollection(lions);
+        return zoo;
+    }
+
+    private static List<String> expectedAfterCrash() {
+        return new ArrayList<>(List.of("Zoo", "Lions", "King Simba", "Aviary", "Pen", "Kiara"));
+    }
+
+    private static List<String> describe(EnclosureCollection pRoot) {
+        List<String> lines = new ArrayList<>();
+        describe(pRoot, lines);
+        return lines;
+    }
+
+    private static void describe(EnclosureCollection pNode, List<String> pLines) {
+        assertNotNull(pNode);
+        pLines.add(pNode.getName());
+        if (pNode instanceof Enclosure enclosure) {
+            for (Animal animal : enclosure.getAnimals()) {
+                pLines.add(animal.getName());
+            }
+        } else {
+            for (EnclosureCollection child : ((CompositeEnclosureCollection) pNode).getCollections()) {
+                describe(child, pLines);
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.zoostructure.Helpers;
+
+import com.example.zoostructure.Model.Animal;
+import com.example.zoostructure.Model.CompositeEnclosureCollection;
+import com.example.zoostructure.Model.Cougar;
+import com.example.zoostructure.Model.Enclosure;
+import com.example.zoostructure.Model.EnclosureCollection;
+import com.example.zoostructure.Model.Lion;
+import com.example.zoostructure.Model.Species;
+import com.example.zoostructure.Model.Tiger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZooSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void keepsTheTreeAndTheAnimalIds() throws IOException {
+        CompositeEnclosureCollection zoo = zoo();
+        Path file = directory.resolve("zoo.snapshot");
+
+        ZooSnapshot.write(zoo, file);
+        EnclosureCollection read = ZooSnapshot.read(file);
+
+        assertEquals(describe(zoo), describe(read));
+    }
+
+    @Test
+    void copiesUnloadedEnclosuresWithoutLoadingThem() throws IOException {
+        Path first = directory.resolve("first.snapshot");
+        Path second = directory.resolve("second.snapshot");
+        CompositeEnclosureCollection zoo = zoo();
+        ZooSnapshot.write(zoo, first);
+        CompositeEnclosureCollection opened = (CompositeEnclosureCollection) ZooSnapshot.read(first);
+
+        // Change one enclosure, which loads it; leave the others alone.
+        Enclosure changed = (Enclosure) opened.resolve("Zoo/Big Cats/Lions");
+        changed.addAnimal(new Lion("Nala", 2));
+        Enclosure changedOriginal = (Enclosure) zoo.resolve("Zoo/Big Cats/Lions");
+        changedOriginal.addAnimal(new Lion("Nala", 2));
+
+        ZooSnapshot.write(opened, second);
+
+        List<Enclosure> untouched = new ArrayList<>();
+        collectEnclosures(opened, untouched);
+        untouched.remove(changed);
+        for (Enclosure enclosure : untouched) {
+            assertFalse(enclosure.isLoaded(), enclosure.getName() + " was loaded to be written");
+        }
+        List<String> expected = describe(zoo);
+        // The new lion got an ID of its own in each tree.
+        expected.replaceAll(line -> line.startsWith("Nala") ? "Nala" : line);
+        List<String> actual = describe(ZooSnapshot.read(second));
+        actual.replaceAll(line -> line.startsWith("Nala") ? "Nala" : line);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void keepsEachEnclosuresStorage() throws IOException {
+        Path file = directory.resolve("zoo.snapshot");
+        ZooSnapshot.write(zoo(), file);
+        CompositeEnclosureCollection read = (CompositeEnclosureCollection) ZooSnapshot.read(file);
+
+        assertEquals(Enclosure.Storage.OBJECTS, ((Enclosure) read.resolve("Zoo/Big Cats/Lions")).getStorage());
+        assertEquals(Enclosure.Storage.COLUMNAR, ((Enclosure) read.resolve("Zoo/Big Cats/Tigers")).getStorage());
+
+        // Copied without loading, the storage is still kept.
+        Path copy = directory.resolve("copy.snapshot");
+        ZooSnapshot.write(read, copy);
+        CompositeEnclosureCollection copied = (CompositeEnclosureCollection) ZooSnapshot.read(copy);
+        assertEquals(Enclosure.Storage.COLUMNAR, ((Enclosure) copied.resolve("Zoo/Big Cats/Tigers")).getStorage());
+    }
+
+    @Test
+    void reservesTheSavedIds() throws IOException {
+        CompositeEnclosureCollection zoo = zoo();
+        long highest = 0;
+        List<Enclosure> enclosures = new ArrayList<>();
+        collectEnclosures(zoo, enclosures);
+        for (Enclosure enclosure : enclosures) {
+            for (Animal animal : enclosure.getAnimals()) {
+                highest = Math.max(highest, animal.getId());
+            }
+        }
+        Path file = directory.resolve("zoo.snapshot");
+        ZooSnapshot.write(zoo, file);
+
+        ZooSnapshot.read(file);
+
+        assertTrue(new Lion("Newcomer", 1).getId() > highest);
+    }
+
+    @Test
+    void writesOverASnapshotThatIsStillMapped() throws IOException {
+        Path file = directory.resolve("zoo.snapshot");
+        CompositeEnclosureCollection zoo = zoo();
+        List<String> expected = describe(zoo);
+        ZooSnapshot.write(zoo, file);
+        // Nothing of this tree is loaded yet, so all of it still reads the mapped file.
+        EnclosureCollection opened = ZooSnapshot.read(file);
+        Map<Path, Object> mapped = fileKeys();
+        mapped.keySet().removeIf(path -> !isSnapshotData(path));
+        assertFalse(mapped.isEmpty());
+
+        ((Enclosure) zoo.resolve("Zoo/Cougars")).addAnimal(new Cougar("Ember", 3));
+        ZooSnapshot.write(zoo, file);
+        ZooSnapshot.write(zoo, file);
+
+        // A mapped file may be deleted where the platform allows it, but never replaced.
+        Map<Path, Object> after = fileKeys();
+        for (Map.Entry<Path, Object> entry : mapped.entrySet()) {
+            if (after.containsKey(entry.getKey())) {
+                assertEquals(entry.getValue(), after.get(entry.getKey()), entry.getKey() + " was replaced");
+            }
+        }
+        assertEquals(expected, describe(opened));
+        assertEquals(describe(zoo), describe(ZooSnapshot.read(file)));
+    }
+
+    @Test
+    void opensSnapshotsWrittenStraightToTheirPath() throws IOException {
+        Path file = directory.resolve("zoo.snapshot");
+        CompositeEnclosureCollection zoo = zoo();
+        ZooSnapshot.write(zoo, file);
+        // Older versions wrote the data itself where the pointer now is.
+        Path legacy = directory.resolve("legacy.snapshot");
+        Files.copy(directory.resolve("zoo.snapshot.1"), legacy);
+
+        EnclosureCollection opened = ZooSnapshot.read(legacy);
+        ZooSnapshot.write(zoo, legacy);
+
+        assertEquals(describe(zoo), describe(opened));
+        assertEquals(describe(zoo), describe(ZooSnapshot.read(legacy)));
+    }
+
+    private Map<Path, Object> fileKeys() throws IOException {
+        Map<Path, Object> keys = new HashMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                keys.put(file, Files.readAttributes(file, BasicFileAttributes.class).fileKey());
+            }
+        }
+        return keys;
+    }
+
+    private static boolean isSnapshotData(Path pFile) {
+        try {
+            byte[] bytes = Files.readAllBytes(pFile);
+            return bytes.length >= 4 && new String(bytes, 0, 4, StandardCharsets.US_ASCII).equals("ZOOS");
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static CompositeEnclosureCollection zoo() {
+        CompositeEnclosureCollection zoo = new CompositeEnclosureCollection("Zoo");
+        CompositeEnclosureCollection bigCats = new CompositeEnclosureCollection("Big Cats");
+        Enclosure lions = new Enclosure("Lions");
+        lions.addAnimal(new Lion("Simba", 5));
+        lions.addAnimal(new Lion("Simba", 5.5));
+        Enclosure tigers = new Enclosure("Tigers", Enclosure.Storage.COLUMNAR);
+        for (int i = 0; i < 100; i++) {
+            tigers.addAnimal(new Tiger("Tiger " + i % 10, i % 17));
+        }
+        bigCats.addCollection(lions);
+        bigCats.addCollection(tigers);
+        Enclosure cougars = new Enclosure("Cougars");
+        cougars.addAnimal(new Cougar("Shadow", 7));
+        zoo.addCollection(bigCats);
+        zoo.addCollection(cougars);
+        zoo.addCollection(new CompositeEnclosureCollection("Empty Section"));
+        return zoo;
+    }
+
+    private static void collectEnclosures(EnclosureCollection pNode, List<Enclosure> pEnclosures) {
+        if (pNode instanceof Enclosure enclosure) {
+            pEnclosures.add(enclosure);
+        } else {
+            for (EnclosureCollection child : ((CompositeEnclosureCollection) pNode).getCollections()) {
+                collectEnclosures(child, pEnclosures);
+            }
+        }
+    }
+
+    /**
+     * One line per collection and animal, in tree order.
+     */
+    private static List<String> describe(EnclosureCollection pRoot) {
+        List<String> lines = new ArrayList<>();
+        describe(pRoot, "", lines);
+        return lines;
+    }
+
+    private static void describe(EnclosureCollection pNode, String pIndent, List<String> pLines) {
+        pLines.add(pIndent + pNode.getName());
+        if (pNode instanceof Enclosure enclosure) {
+            for (Animal animal : enclosure.getAnimals()) {
+                pLines.add(animal.getName() + " " + Species.of(animal) + " " + animal.getAge() + " #" + animal.getId());
+            }
+        } else {
+            for (EnclosureCollection child : ((CompositeEnclosureCollection) pNode).getCollections()) {
+                describe(child, pIndent + "  ", pLines);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.zoostructure.Model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnimalRegistryTest {
+
+    private static final int MOVES = 2_000;
+
+    @Test
+    void movedAnimalsNeverDisappearFromLookups() throws Exception {
+        CompositeEnclosureCollection zoo = new CompositeEnclosureCollection("Zoo");
+        Enclosure lions = new Enclosure("Lions");
+        Enclosure tigers = new Enclosure("Tigers", Enclosure.Storage.COLUMNAR);
+        zoo.addCollection(lions);
+        zoo.addCollection(tigers);
+        Lion simba = new Lion("Simba", 5);
+        lions.addAnimal(simba);
+        long id = simba.getId();
+
+        try (AnimalRegistry registry = AnimalRegistry.build(zoo);
+             ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            AtomicBoolean moving = new AtomicBoolean(true);
+            Future<Integer> lookups = executor.submit(() -> {
+                int count = 0;
+                while (moving.get()) {
+                    Enclosure enclosure = registry.enclosureOf(id);
+                    assertNotNull(enclosure, "the animal was missing during a move");
+                    count++;
+                }
+                return count;
+            });
+            Future<?> mover = executor.submit(() -> {
+                try {
+                    for (int i = 0; i < MOVES; i++) {
+                        assertTrue(registry.move(id, i % 2 == 0 ? tigers : lions));
+                    }
+                } finally {
+                    moving.set(false);
+                }
+                return null;
+            });
+            mover.get(1, TimeUnit.MINUTES);
+            assertTrue(lookups.get(1, TimeUnit.MINUTES) > 0, "no lookups ran");
+            assertSame(lions, registry.enclosureOf(id));
+        }
+        assertEquals(1, zoo.getSummary().getAnimalCount());
+    }
+
+    @Test
+    void refusedMovesLeaveTheAnimalWhereItWas() {
+        CompositeEnclosureCollection zoo = new CompositeEnclosureCollection("Zoo");
+        Enclosure lions = new Enclosure("Lions");
+        zoo.addCollection(lions);
+        Lion simba = new Lion("Simba", 5);
+        lions.addAnimal(simba);
+
+        try (AnimalRegistry registry = AnimalRegistry.build(zoo)) {
+            assertThrows(IllegalArgumentException.class, () -> registry.move(simba.getId(), new Enclosure("Elsewhere")));
+            assertSame(lions, registry.enclosureOf(simba.getId()));
+            assertEquals(1, lions.getAnimals().size());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.zoostructure.Model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarAnimalStoreTest {
+
+    @Test
+    void dropsNamesNoAnimalCarriesAnyMore() {
+        ColumnarAnimalStore store = new ColumnarAnimalStore(new Enclosure("Test"),
+                new ReentrantReadWriteLock().readLock());
+        store.add(new Lion("Simba", 3));
+        // "Simba" and its folded form "simba".
+        assertEquals(2, store.pooledNames());
+
+        for (int i = 0; i < 1_000; i++) {
+            Animal animal = new Tiger("Tiger " + i, 2);
+            store.add(animal);
+            store.rename(animal, "Renamed " + i);
+            assertTrue(store.remove(animal));
+        }
+
+        assertEquals(2, store.pooledNames());
+        assertEquals("Simba", store.find("simba").getName());
+    }
+
+    @Test
+    void keepsItsHashCodeWhenItBecomesAView() {
+        Enclosure enclosure = new Enclosure("Test", Enclosure.Storage.COLUMNAR);
+        Animal animal = new Lion("Simba", 3);
+        Set<Animal> animals = new HashSet<>();
+        animals.add(animal);
+
+        enclosure.addAnimal(animal);
+
+        assertTrue(animals.contains(animal));
+        // Another view of the same row is the same animal.
+        assertTrue(animals.contains(enclosure.findAnimal("Simba")));
+    }
+
+    @Test
+    void rejectsAgesThatAreNotFiniteNumbers() {
+        Enclosure enclosure = new Enclosure("Test", Enclosure.Storage.COLUMNAR);
+        enclosure.addAnimal(new Lion("Simba", 3));
+        for (double age : new double[]{Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, -1}) {
+            assertThrows(IllegalArgumentException.class, () -> new Lion("Leo", age), String.valueOf(age));
+            Animal simba = enclosure.findAnimal("Simba");
+            assertThrows(IllegalArgumentException.class, () -> simba.setAge(age), String.valueOf(age));
+        }
+
+        assertEquals(1, enclosure.getAnimals().size());
+        assertEquals(3, enclosure.findAnimal("Simba").getAge());
+        assertEquals(3, enclosure.getSummary().getMaxAge().orElseThrow());
+    }
+
+    @Test
+    void viewsOfRemovedRowsStopAnswering() {
+        Enclosure enclosure = new Enclosure("Test", Enclosure.Storage.COLUMNAR);
+        enclosure.addAnimal(new Lion("Nala", 0));
+        Animal stale = enclosure.findAnimal("Nala");
+        Animal other = enclosure.findAnimal("Nala");
+
+        assertTrue(enclosure.removeAnimal(other));
+        // The freed row's generation, not its age, tells the stale view it is gone.
+        assertThrows(IllegalStateException.class, stale::getAge);
+        enclosure.addAnimal(new Tiger("Raja", 0));
+        assertThrows(IllegalStateException.class, stale::getAge);
+        assertEquals(0, enclosure.findAnimal("Raja").getAge());
+    }
+}
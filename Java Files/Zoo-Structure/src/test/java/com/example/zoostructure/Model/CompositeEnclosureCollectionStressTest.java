@@ -0,0 +1,307 @@
+package com.example.zoostructure.Model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many threads adding, removing, renaming, re-aging and moving animals, and moving
+ * whole enclosures between sections, while readers lock the tree and check that every
+ * summary agrees with the animals actually below it.
+ * <p>
+ * This test checks correctness only. How write throughput scales with the number of
+ * threads is measured by {@code ConcurrentWriteBenchmark} in the Zoo-Benchmarks
+ * project: run it with {@code -t 1}, {@code -t 2}, {@code -t 4} and so on and compare
+ * the scores.
+ * </p>
+ */
+class CompositeEnclosureCollectionStressTest {
+
+    private static final int SECTIONS = 4;
+    private static final int ENCLOSURES_PER_SECTION = 4;
+    private static final int WRITERS = 8;
+    private static final int READERS = 2;
+    private static final int OPERATIONS_PER_WRITER = 5_000;
+
+    @Test
+    void summariesStayConsistentUnderConcurrentChanges() throws Exception {
+        CompositeEnclosureCollection root = new CompositeEnclosureCollection("Zoo");
+        List<CompositeEnclosureCollection> sections = new ArrayList<>();
+        List<Enclosure> enclosures = new ArrayList<>();
+        AtomicLong expectedAnimals = new AtomicLong();
+        for (int s = 0; s < SECTIONS; s++) {
+            CompositeEnclosureCollection section = new CompositeEnclosureCollection("S" + s);
+            root.addCollection(section);
+            sections.add(section);
+            for (int e = 0; e < ENCLOSURES_PER_SECTION; e++) {
+                Enclosure enclosure = new Enclosure("S" + s + "E" + e,
+                        e % 2 == 0 ? Enclosure.Storage.OBJECTS : Enclosure.Storage.COLUMNAR);
+                for (int a = 0; a < 50; a++) {
+                    enclosure.addAnimal(animal(a, a % 20));
+                }
+                expectedAnimals.addAndGet(50);
+                section.addCollection(enclosure);
+                enclosures.add(enclosure);
+            }
+        }
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicLong checks = new AtomicLong();
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS)) {
+            for (int r = 0; r < READERS; r++) {
+                readers.add(executor.submit(() -> {
+                    while (writing.get()) {
+                        Lock lock = CompositeEnclosureCollection.lockTree(root);
+                        try {
+                            checkSubtree(root);
+                        } finally {
+                            lock.unlock();
+                        }
+                        checks.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (int w = 0; w < WRITERS; w++) {
+                long seed = w;
+                writers.add(executor.submit(() -> {
+                    write(new SplittableRandom(seed), sections, enclosures, expectedAnimals);
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(2, TimeUnit.MINUTES);
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(1, TimeUnit.MINUTES);
+            }
+        }
+
+        checkSubtree(root);
+        assertEquals(expectedAnimals.get(), root.getSummary().getAnimalCount());
+        assertEquals(SECTIONS * ENCLOSURES_PER_SECTION, root.getSummary().getEnclosureCount());
+        assertTrue(checks.get() > 0, "readers never ran");
+    }
+
+    @Test
+    void separateTreesDoNotBlockEachOther() throws Exception {
+        CompositeEnclosureCollection first = new CompositeEnclosureCollection("First");
+        CompositeEnclosureCollection second = new CompositeEnclosureCollection("Second");
+        Enclosure enclosure = new Enclosure("Pen");
+        second.addCollection(enclosure);
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Lock lock = CompositeEnclosureCollection.lockTree(first);
+            try {
+                executor.submit(() -> enclosure.addAnimal(new Lion("Simba", 3))).get(10, TimeUnit.SECONDS);
+            } finally {
+                lock.unlock();
+            }
+        }
+        assertEquals(1, second.getSummary().getAnimalCount());
+    }
+
+    @Test
+    void attachedSubtreesShareTheirNewTreesLock() throws Exception {
+        CompositeEnclosureCollection first = new CompositeEnclosureCollection("First");
+        CompositeEnclosureCollection second = new CompositeEnclosureCollection("Second");
+        Enclosure enclosure = new Enclosure("Pen");
+        second.addCollection(enclosure);
+        first.addCollection(second);
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            CountDownLatch started = new CountDownLatch(1);
+            Future<?> write;
+            Lock lock = CompositeEnclosureCollection.lockTree(first);
+            try {
+                write = executor.submit(() -> {
+                    started.countDown();
+                    enclosure.addAnimal(new Lion("Simba", 3));
+                });
+                started.await();
+                Future<?> blocked = write;
+                assertThrows(TimeoutException.class, () -> blocked.get(200, TimeUnit.MILLISECONDS));
+            } finally {
+                lock.unlock();
+            }
+            write.get(10, TimeUnit.SECONDS);
+
+            // Once removed again, the subtree is a tree of its own.
+            first.removeCollection(second);
+            lock = CompositeEnclosureCollection.lockTree(first);
+            try {
+                executor.submit(() -> enclosure.addAnimal(new Tiger("Raja", 5))).get(10, TimeUnit.SECONDS);
+            } finally {
+                lock.unlock();
+            }
+        }
+        assertEquals(0, first.getSummary().getAnimalCount());
+        assertEquals(2, second.getSummary().getAnimalCount());
+    }
+
+    /**
+     * One writer's share of random changes. Adds and removals are counted so the final
+     * total can be checked.
+     */
+    private static void write(SplittableRandom pRandom, List<CompositeEnclosureCollection> pSections,
+                              List<Enclosure> pEnclosures, AtomicLong pExpected) {
+        for (int i = 0; i < OPERATIONS_PER_WRITER; i++) {
+            try {
+                writeOne(i, pRandom, pSections, pEnclosures, pExpected);
+            } catch (IllegalStateException e) {
+                // A columnar view picked from an earlier list whose row another writer
+                // has removed since; such views are stale by design.
+            }
+        }
+    }
+
+    private static void writeOne(int pNumber, SplittableRandom pRandom, List<CompositeEnclosureCollection> pSections,
+                                 List<Enclosure> pEnclosures, AtomicLong pExpected) {
+        Enclosure enclosure = pEnclosures.get(pRandom.nextInt(pEnclosures.size()));
+        Animal some = any(enclosure, pRandom);
+        switch (pRandom.nextInt(8)) {
+            case 0, 1 -> {
+                enclosure.addAnimal(animal(pNumber, pRandom.nextInt(20)));
+                pExpected.incrementAndGet();
+            }
+            case 2 -> {
+                if (some != null && enclosure.removeAnimal(some)) {
+                    pExpected.decrementAndGet();
+                }
+            }
+            case 3 -> {
+                if (some != null) {
+                    some.setName("Renamed " + pNumber);
+                }
+            }
+            case 4 -> {
+                if (some != null) {
+                    some.setAge(pRandom.nextInt(20));
+                }
+            }
+            case 5 -> {
+                // Move an animal to another enclosure.
+                Enclosure target = pEnclosures.get(pRandom.nextInt(pEnclosures.size()));
+                if (some != null && target != enclosure && enclosure.removeAnimal(some)) {
+                    target.addAnimal(Species.of(some).newAnimal(some.getName(), some.getAge()));
+                }
+            }
+            case 6 -> {
+                // Move the whole enclosure to another section.
+                CompositeEnclosureCollection from = enclosure.getParent();
+                CompositeEnclosureCollection to = pSections.get(pRandom.nextInt(pSections.size()));
+                if (from != null && from != to) {
+                    synchronized (enclosure) {
+                        if (enclosure.getParent() == from) {
+                            from.removeCollection(enclosure);
+                            to.addCollection(enclosure);
+                        }
+                    }
+                }
+            }
+            default -> {
+                List<Animal> batch = List.of(animal(pNumber, 1), animal(pNumber, 2), animal(pNumber, 3));
+                pExpected.addAndGet(enclosure.addAnimals(batch));
+                pExpected.addAndGet(-enclosure.removeAnimalsIf(animal -> animal.getAge() >= 19));
+            }
+        }
+    }
+
+    private static Animal any(Enclosure pEnclosure, SplittableRandom pRandom) {
+        List<Animal> animals = pEnclosure.getAnimals();
+        return animals.isEmpty() ? null : animals.get(pRandom.nextInt(animals.size()));
+    }
+
+    private static Animal animal(int pNumber, double pAge) {
+        return switch (pNumber % 3) {
+            case 0 -> new Lion("Lion " + pNumber, pAge);
+            case 1 -> new Tiger("Tiger " + pNumber, pAge);
+            default -> new Cougar("Cougar " + pNumber, pAge);
+        };
+    }
+
+    /**
+     * Checks a subtree's summaries against its animals and returns the expected figures.
+     * Ages are whole numbers, so sums compare exactly.
+     */
+    private static Figures checkSubtree(EnclosureCollection pNode) {
+        Figures figures = new Figures();
+        if (pNode instanceof Enclosure enclosure) {
+            figures.enclosures = 1;
+            for (Animal animal : enclosure.getAnimals()) {
+                figures.add(animal);
+            }
+        } else {
+            for (EnclosureCollection child : ((CompositeEnclosureCollection) pNode).getCollections()) {
+                assertTrue(child.getParent() == pNode, child.getName() + " has the wrong parent");
+                figures.add(checkSubtree(child));
+            }
+        }
+        EnclosureSummary summary = pNode.getSummary();
+        String name = pNode.getName();
+        assertEquals(figures.animals, summary.getAnimalCount(), name + " animals");
+        assertEquals(figures.enclosures, summary.getEnclosureCount(), name + " enclosures");
+        assertEquals(figures.ageSum, summary.getAgeSum(), 1e-6, name + " age sum");
+        for (Species species : Species.values()) {
+            assertEquals(figures.species[species.ordinal()], summary.getSpeciesCount(species), name + " " + species);
+        }
+        assertEquals(figures.minAge(), summary.getMinAge(), name + " youngest");
+        assertEquals(figures.maxAge(), summary.getMaxAge(), name + " oldest");
+        return figures;
+    }
+
+    private static final class Figures {
+        private long animals;
+        private long enclosures;
+        private double ageSum;
+        private double minAge = Double.POSITIVE_INFINITY;
+        private double maxAge = Double.NEGATIVE_INFINITY;
+        private final long[] species = new long[Species.values().length];
+
+        private void add(Animal pAnimal) {
+            animals++;
+            ageSum += pAnimal.getAge();
+            minAge = Math.min(minAge, pAnimal.getAge());
+            maxAge = Math.max(maxAge, pAnimal.getAge());
+            species[Species.of(pAnimal).ordinal()]++;
+        }
+
+        private void add(Figures pOther) {
+            animals += pOther.animals;
+            enclosures += pOther.enclosures;
+            ageSum += pOther.ageSum;
+            minAge = Math.min(minAge, pOther.minAge);
+            maxAge = Math.max(maxAge, pOther.maxAge);
+            for (int i = 0; i < species.length; i++) {
+                species[i] += pOther.species[i];
+            }
+        }
+
+        private OptionalDouble minAge() {
+            return animals == 0 ? OptionalDouble.empty() : OptionalDouble.of(minAge);
+        }
+
+        private OptionalDouble maxAge() {
+            return animals == 0 ? OptionalDouble.empty() : OptionalDouble.of(maxAge);
+        }
+    }
+}
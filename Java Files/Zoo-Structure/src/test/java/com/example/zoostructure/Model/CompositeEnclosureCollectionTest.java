@@ -0,0 +1,84 @@
+package com.example.zoostructure.Model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompositeEnclosureCollectionTest {
+
+    @Test
+    void resolvesPathsOneLevelAtATime() {
+        CompositeEnclosureCollection zoo = new CompositeEnclosureCollection("Zoo");
+        CompositeEnclosureCollection bigCats = new CompositeEnclosureCollection("Big Cats");
+        Enclosure lions = new Enclosure("Lions");
+        lions.addAnimal(new Lion("Simba", 5));
+        bigCats.addCollection(lions);
+        zoo.addCollection(bigCats);
+
+        assertSame(zoo, zoo.resolve("Zoo"));
+        assertSame(bigCats, zoo.resolve("Zoo/Big Cats"));
+        assertSame(lions, zoo.resolve("Zoo/Big Cats/Lions"));
+        assertSame(lions, zoo.resolve(lions.getPath()));
+        assertSame(lions, bigCats.resolve("Big Cats/Lions"));
+
+        assertNull(zoo.resolve(null));
+        assertNull(zoo.resolve(""));
+        assertNull(zoo.resolve("zoo/Big Cats"));
+        assertNull(zoo.resolve("Big Cats/Lions"));
+        assertNull(zoo.resolve("Zoo/Big Cats/Tigers"));
+        assertNull(zoo.resolve("Zoo//Lions"));
+        assertNull(zoo.resolve("Zoo/Big Cats/"));
+        // Animals are not part of the path.
+        assertNull(zoo.resolve("Zoo/Big Cats/Lions/Simba"));
+    }
+
+    @Test
+    void removedChildrenLeaveTheNameIndex() {
+        CompositeEnclosureCollection section = new CompositeEnclosureCollection("Big Cats");
+        Enclosure lions = new Enclosure("Lions");
+        Enclosure tigers = new Enclosure("Tigers");
+        Enclosure cougars = new Enclosure("Cougars");
+        section.addCollection(lions);
+        section.addCollection(tigers);
+        section.addCollection(cougars);
+
+        section.removeCollection(tigers);
+
+        assertNull(section.getCollection("Tigers"));
+        assertNull(section.resolve("Big Cats/Tigers"));
+        assertNull(tigers.getParent());
+        assertEquals(List.of(lions, cougars), section.getCollections());
+
+        // The name is free again, and the newcomer goes last.
+        Enclosure newTigers = new Enclosure("Tigers");
+        section.addCollection(newTigers);
+        assertSame(newTigers, section.getCollection("Tigers"));
+        assertEquals(List.of(lions, cougars, newTigers), section.getCollections());
+
+        // A collection that only shares a child's name removes nothing.
+        section.removeCollection(tigers);
+        section.removeCollection(new Enclosure("Lions"));
+        assertSame(lions, section.getCollection("Lions"));
+        assertSame(newTigers, section.resolve("Big Cats/Tigers"));
+        assertEquals(3, section.getCollections().size());
+    }
+
+    @Test
+    void rejectsASecondChildWithTheSameName() {
+        CompositeEnclosureCollection section = new CompositeEnclosureCollection("Big Cats");
+        Enclosure lions = new Enclosure("Lions");
+        section.addCollection(lions);
+        Enclosure otherLions = new Enclosure("Lions");
+
+        assertThrows(IllegalArgumentException.class, () -> section.addCollection(otherLions));
+
+        assertSame(lions, section.getCollection("Lions"));
+        assertNull(otherLions.getParent());
+        assertEquals(List.of(lions), section.getCollections());
+    }
+}
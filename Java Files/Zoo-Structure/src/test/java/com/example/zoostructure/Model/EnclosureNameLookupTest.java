@@ -0,0 +1,87 @@
+package com.example.zoostructure.Model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Name lookups match names exactly as {@link String#equalsIgnoreCase} does, which is
+ * how enclosures compared names before they were indexed.
+ */
+class EnclosureNameLookupTest {
+
+    /**
+     * Names whose case mappings differ between {@code equalsIgnoreCase} and
+     * {@code toLowerCase}: sharp s, dotless and dotted i, final sigma, and a
+     * character outside the Basic Multilingual Plane.
+     */
+    private static final List<String> NAMES = List.of(
+            "Simba", "SIMBA", "simba",
+            "ß", "SS", "ss", "ẞ",
+            "i", "I", "ı", "İ",
+            "σ", "ς", "Σ",
+            "𐐀", "𐐨");
+
+    @Test
+    void findsAnimalsExactlyWhenEqualsIgnoreCaseWould() {
+        for (Enclosure.Storage storage : Enclosure.Storage.values()) {
+            for (String stored : NAMES) {
+                Enclosure enclosure = new Enclosure("Test", storage);
+                enclosure.addAnimal(new Lion(stored, 3));
+                for (String query : NAMES) {
+                    String pair = storage + ": " + stored + " / " + query;
+                    boolean expected = stored.equalsIgnoreCase(query);
+                    assertEquals(expected, enclosure.containsAnimal(query), pair);
+                    if (expected) {
+                        assertEquals(stored, enclosure.findAnimal(query).getName(), pair);
+                    } else {
+                        assertNull(enclosure.findAnimal(query), pair);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void removesEveryAnimalEqualIgnoringCase() {
+        for (Enclosure.Storage storage : Enclosure.Storage.values()) {
+            removesEveryAnimalEqualIgnoringCase(storage);
+        }
+    }
+
+    @Test
+    void findsRenamedAnimalsUnderTheirNewName() {
+        for (Enclosure.Storage storage : Enclosure.Storage.values()) {
+            findsRenamedAnimalsUnderTheirNewName(storage);
+        }
+    }
+
+    private static void removesEveryAnimalEqualIgnoringCase(Enclosure.Storage storage) {
+        Enclosure enclosure = new Enclosure("Test", storage);
+        enclosure.addAnimal(new Lion("i", 1));
+        enclosure.addAnimal(new Tiger("ı", 2));
+        enclosure.addAnimal(new Cougar("İ", 3));
+        enclosure.addAnimal(new Lion("ß", 4));
+
+        assertTrue(enclosure.removeAnimal("I"));
+        assertEquals(1, enclosure.getAnimals().size());
+        assertFalse(enclosure.removeAnimal("SS"));
+        assertTrue(enclosure.removeAnimal("ẞ"));
+        assertTrue(enclosure.getAnimals().isEmpty());
+    }
+
+    private static void findsRenamedAnimalsUnderTheirNewName(Enclosure.Storage storage) {
+        Enclosure enclosure = new Enclosure("Test", storage);
+        enclosure.addAnimal(new Lion("Ilse", 1));
+        enclosure.findAnimal("ILSE").setName("İlse");
+
+        assertTrue(enclosure.containsAnimal("ilse"));
+        assertTrue(enclosure.containsAnimal("ıLSE"));
+        assertEquals("İlse", enclosure.findAnimal("ILSE").getName());
+    }
+}
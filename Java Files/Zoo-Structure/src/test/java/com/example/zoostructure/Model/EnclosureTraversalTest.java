@@ -0,0 +1,106 @@
+package com.example.zoostructure.Model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class EnclosureTraversalTest {
+
+    private static final int THRESHOLD = (int) EnclosureTraversal.SEQUENTIAL_THRESHOLD;
+
+    @Test
+    void parallelQueriesKeepTreeOrder() {
+        CompositeEnclosureCollection zoo = new CompositeEnclosureCollection("Zoo");
+        for (int section = 0; section < 4; section++) {
+            CompositeEnclosureCollection parent = new CompositeEnclosureCollection("Section " + section);
+            for (int pen = 0; pen < 8; pen++) {
+                parent.addCollection(enclosure("Pen " + section + "." + pen, THRESHOLD / 4));
+            }
+            zoo.addCollection(parent);
+        }
+        // Large enough to be split into ranges of its own.
+        zoo.addCollection(enclosure("Savanna", 5 * THRESHOLD));
+
+        List<Animal> sequential = EnclosureTraversal.collectAnimals(zoo, animal -> animal.getAge() < 7, false);
+        List<Animal> parallel = EnclosureTraversal.collectAnimals(zoo, animal -> animal.getAge() < 7, true);
+
+        assertEquals(sequential, parallel);
+        assertEquals(sequential.size(), EnclosureTraversal.countAnimals(zoo, animal -> animal.getAge() < 7, true));
+        assertEquals(zoo.getSummary().getAnimalCount(), EnclosureTraversal.countAnimals(zoo, animal -> true, true));
+        assertEquals(names(zoo),
+                EnclosureTraversal.reduce(zoo, List.of(), enclosure -> List.of(enclosure.getName()),
+                        EnclosureTraversalTest::concat, true));
+    }
+
+    @Test
+    void largeSubtreesAreWalkedAtTheSameTime() {
+        assumeTrue(ForkJoinPool.getCommonPoolParallelism() > 1, "needs more than one worker");
+        CompositeEnclosureCollection zoo = new CompositeEnclosureCollection("Zoo");
+        zoo.addCollection(enclosure("Lions", THRESHOLD));
+        zoo.addCollection(enclosure("Tigers", THRESHOLD));
+
+        // Each enclosure waits for the other, which only returns if they run in parallel.
+        CountDownLatch both = new CountDownLatch(2);
+        long met = EnclosureTraversal.reduce(zoo, 0L, enclosure -> {
+            both.countDown();
+            try {
+                return both.await(10, TimeUnit.SECONDS) ? 1L : 0L;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return 0L;
+            }
+        }, Long::sum, true);
+
+        assertEquals(2, met);
+    }
+
+    @Test
+    void smallTreesAreWalkedInOneTask() {
+        CompositeEnclosureCollection zoo = new CompositeEnclosureCollection("Zoo");
+        for (int pen = 0; pen < 16; pen++) {
+            zoo.addCollection(enclosure("Pen " + pen, THRESHOLD / 32));
+        }
+        assertTrue(zoo.getSummary().getAnimalCount() < THRESHOLD);
+
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        EnclosureTraversal.countAnimals(zoo, animal -> threads.add(Thread.currentThread()), true);
+
+        assertEquals(1, threads.size());
+    }
+
+    private static Enclosure enclosure(String pName, int pAnimals) {
+        Enclosure enclosure = new Enclosure(pName);
+        for (int i = 0; i < pAnimals; i++) {
+            enclosure.addAnimal(new Lion(pName + " " + i, i % 15));
+        }
+        return enclosure;
+    }
+
+    private static List<String> names(EnclosureCollection pNode) {
+        List<String> names = new ArrayList<>();
+        if (pNode instanceof CompositeEnclosureCollection section) {
+            for (EnclosureCollection child : section.getCollections()) {
+                names.addAll(names(child));
+            }
+        } else {
+            names.add(pNode.getName());
+        }
+        return names;
+    }
+
+    private static List<String> concat(List<String> pLeft, List<String> pRight) {
+        List<String> both = new ArrayList<>(pLeft);
+        both.addAll(pRight);
+        return both;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.zoostructure.Model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MutationBatchTest {
+
+    private static final int ROUNDS = 500;
+
+    @Test
+    void animalAddedAndRemovedInOneBatchLeavesNoAgeBehind() {
+        for (Enclosure.Storage storage : Enclosure.Storage.values()) {
+            CompositeEnclosureCollection section = new CompositeEnclosureCollection("Big Cats");
+            Enclosure enclosure = new Enclosure("Lions", storage);
+            enclosure.addAnimal(new Lion("Simba", 5));
+            section.addCollection(enclosure);
+
+            // The visitors cancel out; Nala keeps the batch from being empty.
+            Lion cub = new Lion("Kovu", 1);
+            Lion elder = new Lion("Rafiki", 30);
+            MutationBatch batch = enclosure.batch().add(cub).add(new Lion("Nala", 4)).add(elder).remove(cub).remove(elder);
+            assertEquals(1, batch.apply(), storage.toString());
+
+            for (EnclosureCollection node : new EnclosureCollection[]{enclosure, section}) {
+                String name = storage + ": " + node.getName();
+                EnclosureSummary summary = node.getSummary();
+                assertEquals(2, summary.getAnimalCount(), name);
+                assertEquals(OptionalDouble.of(4), summary.getMinAge(), name);
+                assertEquals(OptionalDouble.of(5), summary.getMaxAge(), name);
+                assertEquals(9, summary.getAgeSum(), 1e-9, name);
+            }
+        }
+    }
+
+    @Test
+    void batchThatLosesAnAnimalToAnotherThreadAddsNothing() throws Exception {
+        Enclosure lions = new Enclosure("Lions");
+        Enclosure tigers = new Enclosure("Tigers", Enclosure.Storage.COLUMNAR);
+        CyclicBarrier start = new CyclicBarrier(2);
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            for (int round = 0; round < ROUNDS; round++) {
+                Lion contested = new Lion("Contested", 3);
+                List<Animal> forLions = animals("Lion", contested);
+                List<Animal> forTigers = animals("Tiger", contested);
+                Future<Integer> lionBatch = executor.submit(() -> addTogether(start, lions, forLions));
+                Future<Integer> tigerBatch = executor.submit(() -> addTogether(start, tigers, forTigers));
+                int added = lionBatch.get(1, TimeUnit.MINUTES) + tigerBatch.get(1, TimeUnit.MINUTES);
+
+                assertEquals(forLions.size(), added, "round " + round);
+                Enclosure winner = contested.getEnclosure();
+                assertEquals(winner == lions ? forLions.size() : 0, countIn(lions, forLions), "round " + round);
+                assertEquals(winner == tigers ? forTigers.size() : 0, countIn(tigers, forTigers), "round " + round);
+                for (Enclosure enclosure : new Enclosure[]{lions, tigers}) {
+                    assertEquals(enclosure.getAnimals().size(), enclosure.getSummary().getAnimalCount(),
+                            "round " + round + ": " + enclosure.getName());
+                }
+                lions.removeAnimalsIf(animal -> true);
+                tigers.removeAnimalsIf(animal -> true);
+            }
+        }
+    }
+
+    @Test
+    void batchWithAnAnimalOfAnotherEnclosureAddsNothing() {
+        Enclosure lions = new Enclosure("Lions");
+        Enclosure cubs = new Enclosure("Cubs");
+        Lion kovu = new Lion("Kovu", 1);
+        cubs.addAnimal(kovu);
+        Lion nala = new Lion("Nala", 4);
+
+        assertThrows(IllegalArgumentException.class, () -> lions.addAnimals(List.of(nala, kovu)));
+
+        assertEquals(0, lions.getAnimals().size());
+        assertEquals(0, lions.getSummary().getAnimalCount());
+        assertNull(nala.getEnclosure());
+        // Nala was released, so she can still move in anywhere.
+        cubs.addAnimal(nala);
+        assertSame(cubs, nala.getEnclosure());
+    }
+
+    private static List<Animal> animals(String pPrefix, Animal pContested) {
+        List<Animal> animals = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            animals.add(new Lion(pPrefix + " " + i, i % 20));
+        }
+        animals.add(pContested);
+        for (int i = 50; i < 100; i++) {
+            animals.add(new Lion(pPrefix + " " + i, i % 20));
+        }
+        return animals;
+    }
+
+    private static int addTogether(CyclicBarrier pStart, Enclosure pEnclosure, List<Animal> pAnimals) throws Exception {
+        pStart.await(1, TimeUnit.MINUTES);
+        try {
+            return pEnclosure.addAnimals(pAnimals);
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    private static int countIn(Enclosure pEnclosure, List<Animal> pAnimals) {
+        int count = 0;
+        for (Animal animal : pAnimals) {
+            if (animal.getEnclosure() == pEnclosure) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
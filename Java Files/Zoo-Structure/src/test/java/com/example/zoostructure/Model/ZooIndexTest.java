@@ -0,0 +1,110 @@
+package com.example.zoostructure.Model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ZooIndexTest {
+
+    @Test
+    void ageRangesIncludeTheLowestAndExcludeTheHighestAge() {
+        for (Enclosure.Storage storage : Enclosure.Storage.values()) {
+            CompositeEnclosureCollection zoo = zoo(storage);
+            try (ZooIndex index = ZooIndex.build(zoo)) {
+                String name = storage.toString();
+                assertEquals(List.of("Kiara", "Kovu", "Nala"), names(index.find(1, 2.5)), name);
+                assertEquals(List.of("Kiara", "Kovu", "Nala"), names(index.find(1, 3)), name);
+                assertEquals(List.of("Kiara", "Kovu", "Nala", "Simba"), names(index.find(1, Math.nextUp(3.0))), name);
+                assertEquals(List.of("Kiara", "Kovu"), names(index.find(Math.nextDown(1.0), Math.nextUp(1.0))), name);
+                assertEquals(List.of(), names(index.find(2.5, 2.5)), name);
+                assertEquals(List.of(), names(index.find(3, 1)), name);
+                assertEquals(List.of(), names(index.find(Double.NaN, 10)), name);
+                assertEquals(6, index.find(0, Double.POSITIVE_INFINITY).size(), name);
+
+                assertEquals(List.of("Kovu", "Nala"), names(index.find(Species.LION, 1, 2.5)), name);
+                assertEquals(List.of("Kiara"), names(index.find(Species.TIGER, 1, 2.5)), name);
+                assertEquals(List.of("Kovu", "Nala", "Simba", "Mufasa"), names(index.find(Species.LION)), name);
+            }
+        }
+    }
+
+    @Test
+    void followsChangesBelowItsRoot() {
+        for (Enclosure.Storage storage : Enclosure.Storage.values()) {
+            CompositeEnclosureCollection zoo = zoo(storage);
+            CompositeEnclosureCollection bigCats = (CompositeEnclosureCollection) zoo.resolve("Zoo/Big Cats");
+            Enclosure lions = (Enclosure) zoo.resolve("Zoo/Big Cats/Lions");
+            String name = storage.toString();
+            try (ZooIndex index = ZooIndex.build(zoo)) {
+                // Re-aged across the upper bound, and out of the range.
+                lions.findAnimal("Simba").setAge(1.5);
+                lions.findAnimal("Kovu").setAge(2.5);
+                assertEquals(List.of("Kiara", "Simba", "Nala"), names(index.find(1, 2.5)), name);
+
+                lions.removeAnimal("Nala");
+                Enclosure cubs = new Enclosure("Cubs", storage);
+                cubs.addAnimal(new Lion("Vitani", 2));
+                bigCats.addCollection(cubs);
+                assertEquals(List.of("Kiara", "Simba", "Vitani"), names(index.find(1, 2.5)), name);
+                assertEquals(List.of("Simba", "Vitani", "Kovu", "Mufasa"), names(index.find(Species.LION)), name);
+
+                zoo.removeCollection(bigCats);
+                assertEquals(List.of(), names(index.find(0, Double.POSITIVE_INFINITY)), name);
+                assertEquals(0, index.size(), name);
+            }
+        }
+    }
+
+    @Test
+    void stopsFollowingChangesOnceClosed() {
+        CompositeEnclosureCollection zoo = zoo(Enclosure.Storage.OBJECTS);
+        Enclosure lions = (Enclosure) zoo.resolve("Zoo/Big Cats/Lions");
+        ZooIndex index = ZooIndex.build(zoo);
+        index.close();
+
+        lions.addAnimal(new Lion("Vitani", 2));
+
+        assertEquals(List.of("Kiara", "Kovu", "Nala"), names(index.find(1, 2.5)));
+    }
+
+    /**
+     * Ages 0, 1, 1, 2, 3 and 12, spread over two enclosures and two species.
+     */
+    private static CompositeEnclosureCollection zoo(Enclosure.Storage pStorage) {
+        CompositeEnclosureCollection zoo = new CompositeEnclosureCollection("Zoo");
+        CompositeEnclosureCollection bigCats = new CompositeEnclosureCollection("Big Cats");
+        Enclosure lions = new Enclosure("Lions", pStorage);
+        lions.addAnimal(new Lion("Kovu", 1));
+        lions.addAnimal(new Lion("Nala", 2));
+        lions.addAnimal(new Lion("Simba", 3));
+        lions.addAnimal(new Lion("Mufasa", 12));
+        Enclosure tigers = new Enclosure("Tigers", pStorage);
+        tigers.addAnimal(new Tiger("Ravi", 0));
+        tigers.addAnimal(new Tiger("Kiara", 1));
+        bigCats.addCollection(lions);
+        bigCats.addCollection(tigers);
+        zoo.addCollection(bigCats);
+        return zoo;
+    }
+
+    /**
+     * Returns the names of the hits, in order. Animals of the same age are sorted by
+     * name, since their order among each other depends on when they were indexed.
+     */
+    private static List<String> names(List<ZooIndex.Hit> pHits) {
+        List<String> names = new ArrayList<>();
+        int sameAgeFrom = 0;
+        for (int i = 0; i < pHits.size(); i++) {
+            if (i > 0 && pHits.get(i).animal().getAge() != pHits.get(i - 1).animal().getAge()) {
+                names.subList(sameAgeFrom, i).sort(null);
+                sameAgeFrom = i;
+            }
+            names.add(pHits.get(i).animal().getName());
+        }
+        names.subList(sameAgeFrom, names.size()).sort(null);
+        return names;
+    }
+}
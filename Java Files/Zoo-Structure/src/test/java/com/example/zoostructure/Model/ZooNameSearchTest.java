@@ -0,0 +1,110 @@
+package com.example.zoostructure.Model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ZooNameSearchTest {
+
+    @Test
+    void findsAnimalsAndCollectionsByPrefixIgnoringCase() {
+        CompositeEnclosureCollection zoo = zoo(Enclosure.Storage.OBJECTS);
+        try (ZooNameSearch search = ZooNameSearch.build(zoo)) {
+            assertEquals(List.of("Sarabi", "Scar", "Simba"), names(search.find("s", 10)));
+            assertEquals(List.of("Sarabi", "Scar"), names(search.find("S", 2)));
+            assertEquals(List.of("Simba"), names(search.find("  SIM ", 10)));
+            assertEquals(List.of(), names(search.find("Simbas", 10)));
+            assertEquals(List.of(), names(search.find(" ", 10)));
+            assertEquals(List.of(), names(search.find("s", 0)));
+
+            ZooNameSearch.Match section = search.find("big", 10).get(0);
+            assertNull(section.animal());
+            assertSame(zoo.resolve("Zoo/Big Cats"), section.collection());
+            ZooNameSearch.Match simba = search.find("simba", 10).get(0);
+            assertSame(zoo.resolve("Zoo/Big Cats/Lions"), simba.collection());
+            assertEquals("Zoo/Big Cats/Lions", simba.path());
+            // One section, two enclosures and five animals; the root itself is not searched.
+            assertEquals(8, search.size());
+        }
+    }
+
+    @Test
+    void followsRenamesAndRemovals() {
+        for (Enclosure.Storage storage : Enclosure.Storage.values()) {
+            CompositeEnclosureCollection zoo = zoo(storage);
+            CompositeEnclosureCollection bigCats = (CompositeEnclosureCollection) zoo.resolve("Zoo/Big Cats");
+            Enclosure lions = (Enclosure) zoo.resolve("Zoo/Big Cats/Lions");
+            String name = storage.toString();
+            try (ZooNameSearch search = ZooNameSearch.build(zoo)) {
+                lions.findAnimal("Simba").setName("Kion");
+                assertEquals(List.of(), names(search.find("sim", 10)), name);
+                assertEquals(List.of("Kion"), names(search.find("ki", 10)), name);
+                assertSame(lions, search.find("kion", 10).get(0).collection(), name);
+
+                // Only the case changes: the match reports the new spelling.
+                lions.findAnimal("Scar").setName("SCAR");
+                assertEquals(List.of("Sarabi", "SCAR"), names(search.find("s", 10)), name);
+                assertEquals(8, search.size(), name);
+
+                lions.removeAnimal("Kion");
+                assertEquals(List.of(), names(search.find("k", 10)), name);
+                assertEquals(7, search.size(), name);
+
+                Enclosure tigers = (Enclosure) zoo.resolve("Zoo/Big Cats/Tigers");
+                bigCats.removeCollection(tigers);
+                assertEquals(List.of(), names(search.find("ti", 10)), name);
+                assertEquals(List.of(), names(search.find("ravi", 10)), name);
+                assertEquals(4, search.size(), name);
+
+                Enclosure cubs = new Enclosure("Cubs", storage);
+                cubs.addAnimal(new Lion("Kiara", 1));
+                bigCats.addCollection(cubs);
+                assertEquals(List.of("Cubs"), names(search.find("cu", 10)), name);
+                assertEquals(List.of("Kiara"), names(search.find("k", 10)), name);
+                assertEquals(6, search.size(), name);
+            }
+        }
+    }
+
+    @Test
+    void stopsFollowingChangesOnceClosed() {
+        CompositeEnclosureCollection zoo = zoo(Enclosure.Storage.OBJECTS);
+        Enclosure lions = (Enclosure) zoo.resolve("Zoo/Big Cats/Lions");
+        ZooNameSearch search = ZooNameSearch.build(zoo);
+        search.close();
+
+        lions.findAnimal("Simba").setName("Kion");
+
+        assertEquals(List.of("Simba"), names(search.find("sim", 10)));
+        assertEquals(List.of(), names(search.find("kion", 10)));
+    }
+
+    private static CompositeEnclosureCollection zoo(Enclosure.Storage pStorage) {
+        CompositeEnclosureCollection zoo = new CompositeEnclosureCollection("Zoo");
+        CompositeEnclosureCollection bigCats = new CompositeEnclosureCollection("Big Cats");
+        Enclosure lions = new Enclosure("Lions", pStorage);
+        lions.addAnimal(new Lion("Simba", 5));
+        lions.addAnimal(new Lion("Sarabi", 9));
+        lions.addAnimal(new Lion("Scar", 11));
+        Enclosure tigers = new Enclosure("Tigers", pStorage);
+        tigers.addAnimal(new Tiger("Ravi", 2));
+        tigers.addAnimal(new Tiger("Tara", 4));
+        bigCats.addCollection(lions);
+        bigCats.addCollection(tigers);
+        zoo.addCollection(bigCats);
+        return zoo;
+    }
+
+    private static List<String> names(List<ZooNameSearch.Match> pMatches) {
+        List<String> names = new ArrayList<>();
+        for (ZooNameSearch.Match match : pMatches) {
+            names.add(match.name());
+        }
+        return names;
+    }
+}
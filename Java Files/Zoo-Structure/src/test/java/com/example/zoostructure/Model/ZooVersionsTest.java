@@ -0,0 +1,53 @@
+package com.example.zoostructure.Model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ZooVersionsTest {
+
+    @Test
+    void resolvesChildrenByNameAcrossChanges() {
+        CompositeEnclosureCollection zoo = new CompositeEnclosureCollection("Zoo");
+        CompositeEnclosureCollection section = new CompositeEnclosureCollection("Section");
+        zoo.addCollection(section);
+        List<Enclosure> enclosures = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Enclosure enclosure = new Enclosure("Pen " + i);
+            enclosure.addAnimal(new Lion("Lion " + i, i % 20));
+            section.addCollection(enclosure);
+            enclosures.add(enclosure);
+        }
+
+        try (ZooVersions versions = ZooVersions.attach(zoo)) {
+            ZooVersions.Version before = versions.current();
+            for (int i = 0; i < enclosures.size(); i += 2) {
+                section.removeCollection(enclosures.get(i));
+            }
+            section.addCollection(new Enclosure("Pen 0"));
+            ((Enclosure) section.getCollection("Pen 1")).addAnimal(new Tiger("Raja", 3));
+            ZooVersions.Version after = versions.current();
+
+            for (int i = 0; i < enclosures.size(); i++) {
+                String path = "Zoo/Section/Pen " + i;
+                assertEquals(1, before.resolve(path).animalCount(), path);
+                if (i == 0) {
+                    assertEquals(0, after.resolve(path).animalCount());
+                } else if (i % 2 == 0) {
+                    assertNull(after.resolve(path), path);
+                } else {
+                    assertEquals(i == 1 ? 2 : 1, after.resolve(path).animalCount(), path);
+                }
+            }
+            assertSame(after.root().getChild("Section"), after.resolve("Zoo/Section"));
+            assertEquals(251, ((ZooVersions.SectionState) after.resolve("Zoo/Section")).getChildren().size());
+            assertNull(after.resolve("Zoo/Section/Pen 1/Lion 1"));
+            assertNull(after.resolve("Elsewhere/Section"));
+        }
+    }
+}
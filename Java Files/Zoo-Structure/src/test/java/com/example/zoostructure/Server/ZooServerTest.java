@@ -0,0 +1,158 @@
+package com.example.zoostructure.Server;
+
+import com.example.zoostructure.Model.CompositeEnclosureCollection;
+import com.example.zoostructure.Model.Enclosure;
+import com.example.zoostructure.Model.Lion;
+import com.example.zoostructure.Model.Tiger;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZooServerTest {
+
+    private static final int BACKLOG = 16;
+
+    @Test
+    void answersQueriesRelativeToTheRoot() throws IOException {
+        try (ZooServer server = start(zoo())) {
+            Response summary = send(server, "GET", "/summary", null, null);
+            assertEquals(200, summary.status());
+            assertTrue(summary.body().startsWith(
+                    "{\"name\":\"Zoo\",\"path\":\"\",\"type\":\"section\",\"animals\":3,\"enclosures\":2,"),
+                    summary.body());
+            assertTrue(summary.body().contains("\"species\":{\"Lion\":2,\"Tiger\":1}"), summary.body());
+
+            Response lions = send(server, "GET", "/summary?path=" + encode("Big Cats/Lions"), null, null);
+            assertTrue(lions.body().startsWith("{\"name\":\"Lions\",\"path\":\"Big Cats/Lions\",\"type\":\"enclosure\","
+                    + "\"animals\":2,\"enclosures\":1,"), lions.body());
+
+            Response collections = send(server, "GET", "/collections?path=" + encode("Big Cats"), null, null);
+            assertEquals(200, collections.status());
+            String[] children = collections.body().split("\n");
+            assertEquals(2, children.length, collections.body());
+            assertTrue(children[0].startsWith("[{\"name\":\"Lions\",\"path\":\"Big Cats/Lions\""), children[0]);
+            assertTrue(children[1].startsWith("{\"name\":\"Tigers\",\"path\":\"Big Cats/Tigers\""), children[1]);
+
+            Response animals = send(server, "GET", "/animals?path=" + encode("Big Cats/Lions"), null, null);
+            assertEquals(200, animals.status());
+            String[] rows = animals.body().split("\n");
+            assertEquals(2, rows.length, animals.body());
+            assertTrue(rows[0].contains("\"name\":\"Simba\""), rows[0]);
+            assertTrue(rows[1].contains("\"name\":\"Nala\""), rows[1]);
+
+            Response search = send(server, "GET", "/search?q=ti", null, null);
+            assertEquals("[{\"name\":\"Tigers\",\"path\":\"Big Cats/Tigers\",\"animal\":false}]\n", search.body());
+            assertEquals("[]\n", send(server, "GET", "/search?q=s&limit=0", null, null).body());
+
+            Response metrics = send(server, "GET", "/metrics", null, null);
+            assertEquals(200, metrics.status());
+            assertTrue(metrics.body().contains("server.request"), metrics.body());
+        }
+    }
+
+    @Test
+    void searchFollowsAddedAndRemovedAnimals() throws IOException {
+        try (ZooServer server = start(zoo())) {
+            String row = "{\"path\":\"Big Cats/Tigers\",\"species\":\"Tiger\",\"name\":\"Kiara\",\"age\":1}\n";
+            Response added = send(server, "POST", "/animals", row, "application/x-ndjson");
+            assertEquals(200, added.status(), added.body());
+            assertEquals("{\"added\":1}\n", added.body());
+            assertEquals("[{\"name\":\"Kiara\",\"path\":\"Big Cats/Tigers\",\"animal\":true}]\n",
+                    send(server, "GET", "/search?q=ki", null, null).body());
+            assertTrue(send(server, "GET", "/summary", null, null).body().contains("\"animals\":4,"));
+
+            Response removed = send(server, "DELETE",
+                    "/animals?path=" + encode("Big Cats/Lions") + "&name=Simba", null, null);
+            assertEquals("{\"removed\":true}\n", removed.body());
+            assertEquals("[]\n", send(server, "GET", "/search?q=sim", null, null).body());
+            assertEquals("{\"removed\":false}\n", send(server, "DELETE",
+                    "/animals?path=" + encode("Big Cats/Lions") + "&name=Simba", null, null).body());
+        }
+    }
+
+    @Test
+    void rejectsBadRequestsWithoutChangingTheZoo() throws IOException {
+        CompositeEnclosureCollection zoo = zoo();
+        try (ZooServer server = start(zoo)) {
+            assertEquals(404, send(server, "GET", "/summary?path=Reptiles", null, null).status());
+            assertEquals(400, send(server, "GET", "/collections?path=" + encode("Big Cats/Lions"), null, null).status());
+            assertEquals(400, send(server, "GET", "/search?q=s&limit=5000", null, null).status());
+            assertEquals(400, send(server, "DELETE", "/animals?path=" + encode("Big Cats/Lions"), null, null).status());
+
+            // The good row comes first, and is still not added.
+            String rows = "Big Cats/Tigers,Tiger,Kiara,1\nReptiles,Tiger,Kovu,2\n";
+            Response missing = send(server, "POST", "/animals", rows, "text/csv");
+            assertEquals(404, missing.status());
+            assertTrue(missing.body().startsWith("{\"error\":"), missing.body());
+            Response section = send(server, "POST", "/animals", "Big Cats,Lion,Kovu,2\n", "text/csv");
+            assertEquals(400, section.status());
+            assertEquals(3, zoo.getSummary().getAnimalCount());
+
+            Response put = send(server, "PUT", "/animals", "", null);
+            assertEquals(405, put.status());
+            assertEquals("GET, POST, DELETE", put.allow());
+        }
+    }
+
+    private static ZooServer start(CompositeEnclosureCollection pRoot) throws IOException {
+        return ZooServer.start(pRoot, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), BACKLOG);
+    }
+
+    private static CompositeEnclosureCollection zoo() {
+        CompositeEnclosureCollection zoo = new CompositeEnclosureCollection("Zoo");
+        CompositeEnclosureCollection bigCats = new CompositeEnclosureCollection("Big Cats");
+        Enclosure lions = new Enclosure("Lions");
+        lions.addAnimal(new Lion("Simba", 5));
+        lions.addAnimal(new Lion("Nala", 4));
+        Enclosure tigers = new Enclosure("Tigers");
+        tigers.addAnimal(new Tiger("Ravi", 2));
+        bigCats.addCollection(lions);
+        bigCats.addCollection(tigers);
+        zoo.addCollection(bigCats);
+        return zoo;
+    }
+
+    private static String encode(String pValue) {
+        return URLEncoder.encode(pValue, StandardCharsets.UTF_8);
+    }
+
+    private static Response send(ZooServer pServer, String pMethod, String pTarget, String pBody,
+                                 String pContentType) throws IOException {
+        InetSocketAddress address = pServer.getAddress();
+        URI uri = URI.create("http://" + address.getHostString() + ":" + address.getPort() + pTarget);
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        try {
+            connection.setRequestMethod(pMethod);
+            if (pContentType != null) {
+                connection.setRequestProperty("Content-Type", pContentType);
+            }
+            if (pBody != null) {
+                connection.setDoOutput(true);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(pBody.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            int status = connection.getResponseCode();
+            try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                String body = in == null ? "" : new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                return new Response(status, body, connection.getHeaderField("Allow"));
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private record Response(int status, String body, String allow) {
+    }
+}